@@ -82,6 +82,7 @@ import org.apache.geode.cache.query.Query;
 import org.apache.geode.cache.query.QueryException;
 import org.apache.geode.cache.query.QueryService;
 import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.internal.index.AsyncIndexUpdater;
 import org.apache.geode.cache.query.internal.index.IndexManager;
 import org.apache.geode.cache.util.CacheListenerAdapter;
 import org.apache.geode.cache.util.TransactionListenerAdapter;
@@ -6638,8 +6639,8 @@ public class TXJUnitTest {
       assertEquals(3, index0.getStatistics().getNumberOfKeys());
       assertEquals(3, index0.getStatistics().getNumberOfValues());
       aIregion.put("qkey2", val2);
-      final IndexManager.IndexUpdaterThread upThread =
-          ((AbstractRegion) aIregion).getIndexManager().getUpdaterThread();
+      final AsyncIndexUpdater upThread =
+          ((AbstractRegion) aIregion).getIndexManager().getAsyncIndexUpdater();
       while (!upThread.isDone()) {
         pause(20);
       }
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import static org.apache.geode.distributed.ConfigurationProperties.LOCATORS;
+import static org.apache.geode.distributed.ConfigurationProperties.MCAST_PORT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.query.Query;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.data.Portfolio;
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.internal.cache.CachePerfStats;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.test.junit.categories.OQLQueryTest;
+
+@Category({OQLQueryTest.class})
+public class QueryResultCacheIntegrationTest {
+
+  private static final String MAX_MEGABYTES_PROPERTY =
+      DistributionConfig.GEMFIRE_PREFIX + "Query.RESULT_CACHE_MAX_MEGABYTES";
+
+  private InternalCache cache;
+  private Region<Integer, Portfolio> region;
+  private CachePerfStats stats;
+  private Query query;
+
+  @BeforeClass
+  public static void enableResultCache() {
+    // read once, when QueryResultCache is loaded
+    System.setProperty(MAX_MEGABYTES_PROPERTY, "1");
+  }
+
+  @AfterClass
+  public static void disableResultCache() {
+    System.clearProperty(MAX_MEGABYTES_PROPERTY);
+  }
+
+  @Before
+  public void setUp() {
+    cache = (InternalCache) new CacheFactory().set(MCAST_PORT, "0").set(LOCATORS, "").create();
+    region = cache.<Integer, Portfolio>createRegionFactory(RegionShortcut.REPLICATE)
+        .create("portfolios");
+    for (int i = 0; i < 10; i++) {
+      region.put(i, new Portfolio(i));
+    }
+    stats = cache.getCachePerfStats();
+    query = cache.getQueryService().newQuery("select * from /portfolios p where p.ID >= $1");
+  }
+
+  @After
+  public void tearDown() {
+    if (cache != null) {
+      cache.close();
+    }
+  }
+
+  @Test
+  public void resultsAreReusedWhileRegionIsUnchanged() throws Exception {
+    assertThat(QueryResultCache.ENABLED).isTrue();
+
+    assertThat(execute(5)).hasSize(5);
+    assertThat(execute(5)).hasSize(5);
+    assertThat(execute(8)).hasSize(2);
+
+    assertThat(stats.getQueryResultCacheHits()).isEqualTo(1);
+    assertThat(stats.getQueryResultCacheMisses()).isEqualTo(2);
+    assertThat(stats.getQueryResultCacheBytes()).isPositive();
+  }
+
+  @Test
+  public void resultsAreEvaluatedAgainOnceEntryIsCreated() throws Exception {
+    execute(5);
+
+    region.put(10, new Portfolio(10));
+
+    assertThat(execute(5)).hasSize(6);
+    assertThat(stats.getQueryResultCacheStaleResults()).isEqualTo(1);
+  }
+
+  @Test
+  public void resultsAreEvaluatedAgainOnceEntryIsUpdated() throws Exception {
+    execute(5);
+
+    region.put(2, new Portfolio(7));
+
+    assertThat(execute(5)).hasSize(6);
+    assertThat(stats.getQueryResultCacheStaleResults()).isEqualTo(1);
+  }
+
+  @Test
+  public void resultsAreEvaluatedAgainOnceEntryIsDestroyed() throws Exception {
+    execute(5);
+
+    region.destroy(5);
+
+    assertThat(execute(5)).hasSize(4);
+    assertThat(stats.getQueryResultCacheStaleResults()).isEqualTo(1);
+  }
+
+  @Test
+  public void resultsAreEvaluatedAgainOnceEntryIsInvalidated() throws Exception {
+    execute(5);
+
+    region.invalidate(5);
+
+    assertThat(execute(5)).hasSize(4);
+    assertThat(stats.getQueryResultCacheStaleResults()).isEqualTo(1);
+  }
+
+  @Test
+  public void resultsAreEvaluatedAgainOnceRegionIsCleared() throws Exception {
+    execute(5);
+
+    region.clear();
+
+    assertThat(execute(5)).isEmpty();
+    assertThat(stats.getQueryResultCacheStaleResults()).isEqualTo(1);
+  }
+
+  @Test
+  public void resultsOfEachExecutionCannotBeModified() throws Exception {
+    SelectResults evaluated = execute(5);
+    SelectResults cached = execute(5);
+
+    assertThat(cached).isNotSameAs(evaluated);
+    assertThatThrownBy(() -> evaluated.add(new Portfolio(11)))
+        .isInstanceOf(UnsupportedOperationException.class);
+    assertThatThrownBy(() -> cached.clear()).isInstanceOf(UnsupportedOperationException.class);
+    assertThat(execute(5)).hasSize(5);
+  }
+
+  private SelectResults execute(int minId) throws Exception {
+    return (SelectResults) query.execute(minId);
+  }
+}
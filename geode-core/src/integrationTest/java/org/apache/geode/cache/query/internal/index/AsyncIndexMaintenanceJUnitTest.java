@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import static org.apache.geode.distributed.ConfigurationProperties.MCAST_PORT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.query.Index;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.data.Portfolio;
+import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.test.junit.categories.OQLIndexTest;
+
+/**
+ * Verifies that the updates of an entry queued for an asynchronously maintained index are
+ * coalesced, and that a query waits for the update lag watermark of the indexes it uses.
+ */
+@Category({OQLIndexTest.class})
+public class AsyncIndexMaintenanceJUnitTest {
+  private static final String REGION_NAME = "portfolios";
+
+  private final CountDownLatch applying = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  private Cache cache;
+  private Region<Integer, Portfolio> region;
+  private Index index;
+
+  @Before
+  public void setUp() throws Exception {
+    cache = new CacheFactory().set(MCAST_PORT, "0").create();
+    region = cache.<Integer, Portfolio>createRegionFactory(RegionShortcut.REPLICATE)
+        .setIndexMaintenanceSynchronous(false).create(REGION_NAME);
+    index = cache.getQueryService().createIndex("idIndex", "ID", "/" + REGION_NAME);
+    // blocks the index updater while it applies its first batch
+    IndexManager.testHook = spot -> {
+      if (spot == 6 && Thread.currentThread().getName().startsWith("OqlIndexUpdater")) {
+        applying.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+  }
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    IndexManager.testHook = null;
+    AsyncIndexUpdater.MAX_QUERY_LAG = -1;
+    cache.close();
+  }
+
+  @Test
+  public void queuedUpdatesOfAnEntryAreCoalesced() throws Exception {
+    region.put(0, new Portfolio(0));
+    assertThat(applying.await(30, TimeUnit.SECONDS)).isTrue();
+
+    for (int i = 1; i <= 10; i++) {
+      region.put(0, new Portfolio(i));
+    }
+
+    AsyncIndexUpdater updater = getAsyncIndexUpdater();
+    AbstractIndex.InternalIndexStatistics stats =
+        (AbstractIndex.InternalIndexStatistics) index.getStatistics();
+    assertThat(updater.getUpdateLag("idIndex")).isEqualTo(2);
+    assertThat(stats.getUpdateLag()).isEqualTo(2);
+    assertThat(stats.getUpdatesCoalesced()).isGreaterThanOrEqualTo(9);
+
+    release.countDown();
+    await().atMost(30, TimeUnit.SECONDS).until(updater::isDone);
+
+    assertThat(stats.getUpdateLag()).isZero();
+    assertThat(execute("select * from /" + REGION_NAME + " p where p.ID = 10")).hasSize(1);
+    assertThat(execute("select * from /" + REGION_NAME + " p where p.ID = 0")).isEmpty();
+  }
+
+  @Test
+  public void queryWaitsForUpdateLagWatermark() throws Exception {
+    AsyncIndexUpdater.MAX_QUERY_LAG = 0;
+    region.put(0, new Portfolio(0));
+    assertThat(applying.await(30, TimeUnit.SECONDS)).isTrue();
+    region.put(1, new Portfolio(1));
+
+    CompletableFuture<SelectResults> results = CompletableFuture
+        .supplyAsync(() -> execute("select * from /" + REGION_NAME + " p where p.ID = 1"));
+    Thread.sleep(500);
+    assertThat(results).isNotDone();
+
+    release.countDown();
+
+    assertThat(results.get(30, TimeUnit.SECONDS)).hasSize(1);
+  }
+
+  private AsyncIndexUpdater getAsyncIndexUpdater() {
+    return ((LocalRegion) region).getIndexManager().getAsyncIndexUpdater();
+  }
+
+  private SelectResults execute(String queryString) {
+    try {
+      return (SelectResults) cache.getQueryService().newQuery(queryString).execute();
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
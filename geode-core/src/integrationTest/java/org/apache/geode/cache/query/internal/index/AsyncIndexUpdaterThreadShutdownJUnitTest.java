@@ -28,16 +28,15 @@ import org.apache.geode.cache.Region;
 import org.apache.geode.cache.RegionFactory;
 import org.apache.geode.cache.RegionShortcut;
 import org.apache.geode.cache.query.data.Portfolio;
-import org.apache.geode.cache.query.internal.index.IndexManager.IndexUpdaterThread;
 import org.apache.geode.internal.cache.GemFireCacheImpl;
 import org.apache.geode.internal.logging.LoggingThreadGroup;
 import org.apache.geode.test.junit.categories.OQLIndexTest;
 
 /**
  * Test create a region (Replicated OR Partitioned) and sets index maintenance Asynchronous so that
- * {@link IndexManager} starts a new thread for index maintenance when region is populated. This
- * test verifies that after cache close {@link IndexUpdaterThread} is shutdown for each region
- * (Replicated/Bucket).
+ * {@link IndexManager} starts threads for index maintenance when region is populated. This test
+ * verifies that after cache close the threads of the {@link AsyncIndexUpdater} are shutdown for
+ * each region (Replicated/Bucket).
  *
  *
  */
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import static org.apache.geode.distributed.ConfigurationProperties.LOCATORS;
+import static org.apache.geode.distributed.ConfigurationProperties.MCAST_PORT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.query.Index;
+import org.apache.geode.cache.query.IndexInvalidException;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.internal.QueryObserverAdapter;
+import org.apache.geode.cache.query.internal.QueryObserverHolder;
+import org.apache.geode.test.junit.categories.OQLIndexTest;
+
+@Category({OQLIndexTest.class})
+public class CompositeRangeIndexJUnitTest {
+  private static final String[] STATUSES = {"a", "b", "c"};
+
+  private Cache cache;
+  private Region<Integer, Value> region;
+  private QueryService queryService;
+  private final List<Index> lookedUpIndexes = new ArrayList<>();
+
+  @Before
+  public void setUp() throws Exception {
+    cache = new CacheFactory().set(MCAST_PORT, "0").set(LOCATORS, "").create();
+    region = cache.<Integer, Value>createRegionFactory(RegionShortcut.REPLICATE).create("region");
+    for (int i = 0; i < 300; i++) {
+      region.put(i, new Value(i, STATUSES[i % 3], i % 10 == 0 ? null : i));
+    }
+    queryService = cache.getQueryService();
+    queryService.createIndex("compositeIndex", "p.status, p.ts", "/region p");
+    QueryObserverHolder.setInstance(new QueryObserverAdapter() {
+      @Override
+      public void beforeIndexLookup(Index index, int oper, Object key) {
+        lookedUpIndexes.add(index);
+      }
+    });
+  }
+
+  @After
+  public void tearDown() {
+    QueryObserverHolder.reset();
+    cache.close();
+  }
+
+  @Test
+  public void createsCompositeIndexFromCommaSeparatedExpression() {
+    Index index = queryService.getIndex(region, "compositeIndex");
+
+    assertThat(index).isInstanceOf(CompositeRangeIndex.class);
+    assertThat(((CompositeRangeIndex) index).getComponentExpressions()).hasSize(2);
+  }
+
+  @Test
+  public void equalityAndRangeConditionsUseCompositeIndex() throws Exception {
+    SelectResults results =
+        execute("select * from /region p where p.status = 'a' and p.ts > 100 and p.ts <= 200");
+
+    assertThat(ids(results)).containsExactlyInAnyOrderElementsOf(
+        expected(v -> "a".equals(v.status) && v.ts != null && v.ts > 100 && v.ts <= 200));
+    assertCompositeIndexUsed();
+  }
+
+  @Test
+  public void equalityConditionsOnAllComponentsUseCompositeIndex() throws Exception {
+    SelectResults results = execute("select * from /region p where 'b' = p.status and p.ts = 7");
+
+    assertThat(ids(results)).containsExactly(7);
+    assertCompositeIndexUsed();
+  }
+
+  @Test
+  public void rangeConditionWithKeyOnTheLeftIsReflected() throws Exception {
+    SelectResults results = execute("select * from /region p where p.status = 'c' and 50 > p.ts");
+
+    assertThat(ids(results)).containsExactlyInAnyOrderElementsOf(
+        expected(v -> "c".equals(v.status) && v.ts != null && v.ts < 50));
+    assertCompositeIndexUsed();
+  }
+
+  @Test
+  public void rangeConditionDoesNotSelectNullValues() throws Exception {
+    SelectResults results = execute("select * from /region p where p.status = 'a' and p.ts < 40");
+
+    assertThat(ids(results)).containsExactlyInAnyOrder(3, 6, 9, 12, 15, 18, 21, 24, 27, 33, 36,
+        39);
+  }
+
+  @Test
+  public void otherConditionsAreAppliedToIndexResults() throws Exception {
+    SelectResults results = execute(
+        "select * from /region p where p.status = 'b' and p.ts >= 100 and p.id % 2 = 0");
+
+    assertThat(ids(results)).containsExactlyInAnyOrderElementsOf(
+        expected(v -> "b".equals(v.status) && v.ts != null && v.ts >= 100 && v.id % 2 == 0));
+    assertCompositeIndexUsed();
+  }
+
+  @Test
+  public void bindParametersAreUsedAsKeys() throws Exception {
+    SelectResults results = (SelectResults) queryService
+        .newQuery("select * from /region p where p.status = $1 and p.ts >= $2")
+        .execute(new Object[] {"c", 290});
+
+    assertThat(ids(results)).containsExactlyInAnyOrder(293, 296, 299);
+    assertCompositeIndexUsed();
+  }
+
+  @Test
+  public void singleConditionDoesNotUseCompositeIndex() throws Exception {
+    execute("select * from /region p where p.status = 'a'");
+
+    assertThat(lookedUpIndexes).isEmpty();
+  }
+
+  @Test
+  public void updatesAreReflectedInIndex() throws Exception {
+    region.put(7, new Value(7, "a", 7));
+    region.destroy(4);
+
+    assertThat(ids(execute("select * from /region p where p.status = 'a' and p.ts < 10")))
+        .containsExactlyInAnyOrder(3, 6, 7, 9);
+    assertThat(ids(execute("select * from /region p where p.status = 'b' and p.ts < 10")))
+        .containsExactly(1);
+  }
+
+  @Test
+  public void hashCompositeIndexIsRejected() {
+    assertThatThrownBy(() -> queryService.createHashIndex("hashIndex", "p.status, p.id",
+        "/region p")).isInstanceOf(IndexInvalidException.class);
+  }
+
+  private SelectResults execute(String queryString) throws Exception {
+    lookedUpIndexes.clear();
+    return (SelectResults) queryService.newQuery(queryString).execute();
+  }
+
+  private void assertCompositeIndexUsed() {
+    assertThat(lookedUpIndexes).hasSize(1);
+    assertThat(lookedUpIndexes.get(0)).isInstanceOf(CompositeRangeIndex.class);
+  }
+
+  private static List<Integer> ids(SelectResults results) {
+    List<Integer> ids = new ArrayList<>();
+    for (Object value : results) {
+      ids.add(((Value) value).id);
+    }
+    return ids;
+  }
+
+  private List<Integer> expected(Predicate<Value> condition) {
+    return IntStream.range(0, 300).mapToObj(region::get).filter(condition).map(v -> v.id)
+        .collect(Collectors.toList());
+  }
+
+  public static class Value {
+    public final int id;
+    public final String status;
+    public final Integer ts;
+
+    Value(int id, String status, Integer ts) {
+      this.id = id;
+      this.status = status;
+      this.ts = ts;
+    }
+
+    public int getId() {
+      return id;
+    }
+
+    public String getStatus() {
+      return status;
+    }
+
+    public Integer getTs() {
+      return ts;
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.partitioned;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.query.Query;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.data.PortfolioData;
+import org.apache.geode.internal.cache.PRQueryProcessor;
+import org.apache.geode.internal.cache.PartitionedRegionTestHelper;
+import org.apache.geode.test.junit.categories.OQLQueryTest;
+
+/**
+ * Verifies queries on a PartitionedRegion hosted by a single VM when the buckets are queried by the
+ * fork-join pool.
+ */
+@Category({OQLQueryTest.class})
+public class PRQueryForkJoinJUnitTest {
+  private static final String REGION_NAME = "portfolios";
+
+  private Region region;
+
+  @Before
+  public void setUp() {
+    region = PartitionedRegionTestHelper.createPartitionedRegion(REGION_NAME, "100", 0);
+    for (int j = 0; j < 1000; j++) {
+      region.put(j, new PortfolioData(j));
+    }
+    PRQueryProcessor.TEST_FORK_JOIN = true;
+    PRQueryProcessor.TEST_NUM_THREADS = 4;
+  }
+
+  @After
+  public void tearDown() {
+    PRQueryProcessor.TEST_FORK_JOIN = false;
+    PRQueryProcessor.TEST_NUM_THREADS = 0;
+    region.close();
+  }
+
+  @Test
+  public void queryFindsResultsOfAllBuckets() throws Exception {
+    SelectResults results = execute("select * from /" + REGION_NAME + " p where p.ID >= 100");
+
+    assertThat(results).hasSize(900);
+  }
+
+  @Test
+  public void orderByQueryMergesSortedBucketResults() throws Exception {
+    SelectResults results =
+        execute("select distinct p.ID from /" + REGION_NAME + " p order by p.ID desc limit 10");
+
+    assertThat((List<Object>) results.asList()).containsExactly(999, 998, 997, 996, 995, 994, 993,
+        992, 991, 990);
+  }
+
+  @Test
+  public void limitQueryReturnsLimitedResults() throws Exception {
+    SelectResults results = execute("select * from /" + REGION_NAME + " p limit 5");
+
+    assertThat(results).hasSize(5);
+  }
+
+  @Test
+  public void countQueryCountsAllBuckets() throws Exception {
+    SelectResults results = execute("select count(*) from /" + REGION_NAME + " p");
+
+    assertThat(results.asList()).containsExactly(1000);
+  }
+
+  private SelectResults execute(String queryString) throws Exception {
+    Query query = region.getCache().getQueryService().newQuery(queryString);
+    return (SelectResults) query.execute();
+  }
+}
@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import org.apache.geode.cache.DiskAccessException;
+import org.apache.geode.cache.Scope;
+import org.apache.geode.internal.cache.entries.DiskEntry;
+
+/**
+ * Tests sync writes with {@link Oplog#GROUP_COMMIT} turned on.
+ */
+public class OplogGroupCommitIntegrationTest extends DiskRegionTestingBase {
+
+  private static final int WRITERS = 8;
+
+  private static final int PUTS_PER_WRITER = 250;
+
+  private final DiskRegionProperties diskProps = new DiskRegionProperties();
+
+  private CacheObserver oldObserver;
+
+  @Override
+  protected void preSetUp() throws Exception {
+    Oplog.GROUP_COMMIT = true;
+  }
+
+  @Override
+  protected void postSetUp() throws Exception {
+    diskProps.setDiskDirs(dirs);
+    diskProps.setRegionName("groupCommitRegion");
+    diskProps.setRolling(false);
+    diskProps.setMaxOplogSize(100 * 1024 * 1024);
+    oldObserver = CacheObserverHolder.getInstance();
+  }
+
+  @Override
+  protected void postTearDown() throws Exception {
+    unSetCacheObserverCallBack();
+    CacheObserverHolder.setInstance(oldObserver);
+    Oplog.GROUP_COMMIT = false;
+  }
+
+  @Test
+  public void concurrentWritersReturnOnlyAfterTheirOwnRecordIsCommitted() throws Exception {
+    region = DiskRegionHelperFactory.getSyncPersistOnlyRegion(cache, diskProps, Scope.LOCAL);
+    ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<?>> writers = new ArrayList<>();
+      for (int w = 0; w < WRITERS; w++) {
+        final int writer = w;
+        writers.add(executor.submit(() -> {
+          start.await();
+          for (int i = 0; i < PUTS_PER_WRITER; i++) {
+            String key = writer + "-" + i;
+            region.put(key, new byte[100 + i]);
+            assertCommitted(key);
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> writer : writers) {
+        writer.get(2, TimeUnit.MINUTES);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(region.size()).isEqualTo(WRITERS * PUTS_PER_WRITER);
+  }
+
+  @Test
+  public void oplogSwitchWhileAGroupCommitIsPendingCommitsTheRecordInTheOldOplog()
+      throws Exception {
+    region = DiskRegionHelperFactory.getSyncPersistOnlyRegion(cache, diskProps, Scope.LOCAL);
+    DiskStoreImpl diskStore = ((LocalRegion) region).getDiskStore();
+    region.put("before", "value");
+    AtomicLong pendingOplogId = new AtomicLong(-1);
+    AtomicBoolean switched = new AtomicBoolean();
+    setCacheObserverCallBack();
+    CacheObserverHolder.setInstance(new CacheObserverAdapter() {
+      @Override
+      public void beforeGroupCommit(Oplog oplog) {
+        if (switched.compareAndSet(false, true)) {
+          pendingOplogId.set(oplog.getOplogId());
+          diskStore.forceRoll();
+        }
+      }
+    });
+
+    region.put("pending", "value");
+    unSetCacheObserverCallBack();
+
+    assertThat(switched.get()).isTrue();
+    assertThat(diskStore.getPersistentOplogs().getChild().getOplogId())
+        .isNotEqualTo(pendingOplogId.get());
+    DiskId id = ((DiskEntry) ((LocalRegion) region).getRegionEntry("pending")).getDiskId();
+    assertThat(id.getOplogId()).isEqualTo(pendingOplogId.get());
+    assertCommitted("pending");
+
+    region.put("after", "value");
+    assertCommitted("after");
+
+    cache.close();
+    cache = createCache();
+    region = DiskRegionHelperFactory.getSyncPersistOnlyRegion(cache, diskProps, Scope.LOCAL);
+
+    assertThat(region.get("before")).isEqualTo("value");
+    assertThat(region.get("pending")).isEqualTo("value");
+    assertThat(region.get("after")).isEqualTo("value");
+  }
+
+  @Test
+  public void recoveryAfterCrashWithAGroupCommitPendingKeepsEveryCommittedRecord()
+      throws Exception {
+    region = DiskRegionHelperFactory.getSyncPersistOnlyRegion(cache, diskProps, Scope.LOCAL);
+    for (int i = 0; i < 100; i++) {
+      region.put(i, "value-" + i);
+    }
+    region.destroy(7);
+    File snapshot = tempDir.newFolder("crash");
+    AtomicBoolean crashed = new AtomicBoolean();
+    setCacheObserverCallBack();
+    CacheObserverHolder.setInstance(new CacheObserverAdapter() {
+      @Override
+      public void beforeGroupCommit(Oplog oplog) {
+        if (crashed.compareAndSet(false, true)) {
+          // what is on disk now is what a crash before the group commit would leave behind
+          copyDiskDirs(dirs, snapshot);
+        }
+      }
+    });
+
+    region.put("pending", "value");
+    unSetCacheObserverCallBack();
+    assertThat(crashed.get()).isTrue();
+
+    cache.close();
+    restoreDiskDirs(snapshot, dirs);
+    cache = createCache();
+    region = DiskRegionHelperFactory.getSyncPersistOnlyRegion(cache, diskProps, Scope.LOCAL);
+
+    assertThat(region.containsKey("pending")).isFalse();
+    assertThat(region.containsKey(7)).isFalse();
+    assertThat(region.size()).isEqualTo(99);
+    for (int i = 0; i < 100; i++) {
+      if (i != 7) {
+        assertThat(region.get(i)).isEqualTo("value-" + i);
+      }
+    }
+
+    // the recovered oplogs can be appended to and recovered again
+    region.put("pending", "value");
+    cache.close();
+    cache = createCache();
+    region = DiskRegionHelperFactory.getSyncPersistOnlyRegion(cache, diskProps, Scope.LOCAL);
+
+    assertThat(region.get("pending")).isEqualTo("value");
+    assertThat(region.size()).isEqualTo(100);
+  }
+
+  @Test
+  public void writeFailsIfTheOplogIsClosedBeforeItsRecordIsCommitted() throws Exception {
+    diskProps.setRegionName("IGNORE_EXCEPTION_writeFailsIfTheOplogIsClosed");
+    region = DiskRegionHelperFactory.getSyncPersistOnlyRegion(cache, diskProps, Scope.LOCAL);
+    region.put("before", "value");
+    setCacheObserverCallBack();
+    CacheObserverHolder.setInstance(new CacheObserverAdapter() {
+      @Override
+      public void beforeGroupCommit(Oplog oplog) {
+        oplog.testClose();
+      }
+    });
+
+    Throwable thrown = null;
+    try {
+      region.put("pending", "value");
+    } catch (Throwable t) {
+      thrown = t;
+    }
+    unSetCacheObserverCallBack();
+
+    assertThat(thrown).isInstanceOf(DiskAccessException.class);
+    ((LocalRegion) region).getDiskStore().waitForClose();
+    assertThat(cache.isClosed()).isTrue();
+    region = null;
+  }
+
+  private void assertCommitted(Object key) {
+    DiskId id = ((DiskEntry) ((LocalRegion) region).getRegionEntry(key)).getDiskId();
+    Oplog oplog = ((LocalRegion) region).getDiskStore().getPersistentOplogs()
+        .getChild(id.getOplogId());
+    assertThat(oplog.getCrfBytesCommitted())
+        .isGreaterThanOrEqualTo(id.getOffsetInOplog() + id.getValueLength());
+  }
+
+  private static void copyDiskDirs(File[] diskDirs, File snapshot) {
+    try {
+      for (int i = 0; i < diskDirs.length; i++) {
+        FileUtils.copyDirectory(diskDirs[i], new File(snapshot, String.valueOf(i)));
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static void restoreDiskDirs(File snapshot, File[] diskDirs) throws IOException {
+    for (int i = 0; i < diskDirs.length; i++) {
+      FileUtils.cleanDirectory(diskDirs[i]);
+      FileUtils.copyDirectory(new File(snapshot, String.valueOf(i)), diskDirs[i]);
+    }
+  }
+}
@@ -21,9 +21,12 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Properties;
@@ -35,8 +38,12 @@ import org.junit.contrib.java.lang.system.RestoreSystemProperties;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
 import org.apache.geode.cache.client.ClientCache;
 import org.apache.geode.cache.client.ClientCacheFactory;
+import org.apache.geode.compression.DeflateCompressor;
 import org.apache.geode.distributed.internal.InternalDistributedSystem;
 
 /**
@@ -127,6 +134,32 @@ public class CacheXmlParserJUnitTest {
     testCacheXmlParserWithSimplePool();
   }
 
+  /**
+   * Test that a {@link DeflateCompressor} is configured from the parameters of a
+   * <code>compressor</code> element and that they are generated back.
+   *
+   * @since Geode 1.8.0
+   */
+  @Test
+  public void testDeflateCompressorParameters() {
+    Properties nonDefault = new Properties();
+    nonDefault.setProperty(MCAST_PORT, "0"); // loner
+
+    Cache cache = new CacheFactory(nonDefault).set("cache-xml-file",
+        "xmlcache/CacheXmlParserJUnitTest.testDeflateCompressorParameters.cache.xml").create();
+    try {
+      Region<?, ?> region = cache.getRegion("compressed");
+      byte[] dictionary = "geode dictionary".getBytes(StandardCharsets.US_ASCII);
+      assertEquals(new DeflateCompressor(9, dictionary), region.getAttributes().getCompressor());
+
+      StringWriter xml = new StringWriter();
+      CacheXmlGenerator.generate(cache, new PrintWriter(xml));
+      assertTrue(xml.toString().contains("Z2VvZGUgZGljdGlvbmFyeQ=="));
+    } finally {
+      cache.close();
+    }
+  }
+
   /**
    * Test that {@link CacheXmlParser} falls back to DTD parsing when locale language is not English.
    *
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.pdx.internal;
+
+import static org.apache.geode.distributed.ConfigurationProperties.LOCATORS;
+import static org.apache.geode.distributed.ConfigurationProperties.MCAST_PORT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.util.BlobHelper;
+import org.apache.geode.pdx.PdxInstance;
+import org.apache.geode.test.junit.categories.SerializationTest;
+
+@Category({SerializationTest.class})
+public class PdxFieldAccessorJUnitTest {
+
+  private InternalCache cache;
+
+  @Before
+  public void setUp() {
+    cache = (InternalCache) new CacheFactory().set(MCAST_PORT, "0").set(LOCATORS, "")
+        .setPdxReadSerialized(true).create();
+  }
+
+  @After
+  public void tearDown() {
+    cache.close();
+  }
+
+  @Test
+  public void readsFieldsLikeRawFieldsOfPdxInstance() throws Exception {
+    PdxInstance instance = createPortfolio(7, "seven");
+    byte[] bytes = BlobHelper.serializeToBlob(instance);
+
+    for (String field : new String[] {"id", "balance", "rate", "active", "grade", "name",
+        "comment"}) {
+      assertThat(new PdxFieldAccessor(field).read(bytes, cache))
+          .isEqualTo(((PdxInstanceImpl) instance).getRawField(field));
+    }
+  }
+
+  @Test
+  public void doesNotReadUnsupportedOrMissingFields() throws Exception {
+    byte[] bytes = BlobHelper.serializeToBlob(createPortfolio(7, "seven"));
+
+    assertThat(new PdxFieldAccessor("positions").read(bytes, cache))
+        .isSameAs(PdxFieldAccessor.NOT_READ);
+    assertThat(new PdxFieldAccessor("missing").read(bytes, cache))
+        .isSameAs(PdxFieldAccessor.NOT_READ);
+    assertThat(new PdxFieldAccessor("id").read(BlobHelper.serializeToBlob("text"), cache))
+        .isSameAs(PdxFieldAccessor.NOT_READ);
+  }
+
+  @Test
+  public void indexesAreMaintainedFromSerializedValues() throws Exception {
+    Region<Integer, PdxInstance> region =
+        cache.<Integer, PdxInstance>createRegionFactory(RegionShortcut.REPLICATE).create("region");
+    QueryService queryService = cache.getQueryService();
+    queryService.createIndex("idIndex", "p.id", "/region p");
+    queryService.createHashIndex("nameIndex", "p.name", "/region p");
+    for (int i = 0; i < 10; i++) {
+      region.put(i, createPortfolio(i, "name" + i));
+    }
+
+    region.put(5, createPortfolio(50, "name50"));
+
+    assertThat(execute("select * from /region p where p.id = 5")).isEmpty();
+    assertThat(execute("select * from /region p where p.id = 50")).hasSize(1);
+    assertThat(execute("select * from /region p where p.name = 'name5'")).isEmpty();
+    assertThat(execute("select * from /region p where p.name = 'name50'")).hasSize(1);
+    assertThat(execute("select * from /region p where p.id < 5")).hasSize(5);
+  }
+
+  private SelectResults execute(String queryString) throws Exception {
+    return (SelectResults) cache.getQueryService().newQuery(queryString).execute();
+  }
+
+  private PdxInstance createPortfolio(int id, String name) {
+    return PdxInstanceFactoryImpl.newCreator("Portfolio", false, cache).writeInt("id", id)
+        .writeLong("balance", id * 1000L).writeDouble("rate", id / 2.0)
+        .writeBoolean("active", id % 2 == 0).writeChar("grade", 'A').writeString("name", name)
+        .writeString("comment", null).writeIntArray("positions", new int[] {id}).create();
+  }
+}
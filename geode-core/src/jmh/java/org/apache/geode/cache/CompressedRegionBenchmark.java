@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache;
+
+import static org.apache.geode.distributed.ConfigurationProperties.LOG_LEVEL;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.geode.compression.Compressor;
+import org.apache.geode.compression.DeflateCompressor;
+import org.apache.geode.compression.SnappyCompressor;
+import org.apache.geode.internal.util.BlobHelper;
+import org.apache.geode.pdx.PdxInstance;
+
+/**
+ * This benchmark measures the latency of get and put actions on a region of small PDX values for
+ * each compression codec, and prints the compression ratio each codec achieves on those values.
+ */
+@State(Scope.Thread)
+@Fork(1)
+public class CompressedRegionBenchmark {
+  private static final int ENTRIES = 100_000;
+
+  @Param({"none", "snappy", "deflate", "deflate-dictionary"})
+  public String codec;
+
+  Cache cache;
+  Region<Integer, PdxInstance> region;
+  PdxInstance[] values;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    cache = new CacheFactory().set(LOG_LEVEL, "warn").create();
+    values = createValues(cache);
+    Compressor compressor = createCompressor();
+    if (compressor != null) {
+      printCompressionRatio(compressor);
+    }
+    region = cache.<Integer, PdxInstance>createRegionFactory(RegionShortcut.LOCAL)
+        .setCompressor(compressor).create("testRegion");
+    for (int i = 0; i < ENTRIES; i++) {
+      region.put(i, values[i]);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    cache.close();
+  }
+
+  @State(Scope.Thread)
+  public static class MyState {
+    Random random = new Random();
+  }
+
+  @Benchmark
+  @Measurement(iterations = 50)
+  @Warmup(iterations = 5)
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public PdxInstance getEntry(MyState state) {
+    return region.get(state.random.nextInt(ENTRIES));
+  }
+
+  @Benchmark
+  @Measurement(iterations = 50)
+  @Warmup(iterations = 5)
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public PdxInstance putEntry(MyState state) {
+    int key = state.random.nextInt(ENTRIES);
+    return region.put(key, values[key]);
+  }
+
+  private Compressor createCompressor() throws IOException {
+    switch (codec) {
+      case "snappy":
+        return new SnappyCompressor();
+      case "deflate":
+        return new DeflateCompressor();
+      case "deflate-dictionary":
+        List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+          samples.add(BlobHelper.serializeToBlob(values[i]));
+        }
+        return new DeflateCompressor(-1, DeflateCompressor.trainDictionary(samples, 8192));
+      default:
+        return null;
+    }
+  }
+
+  private void printCompressionRatio(Compressor compressor) throws IOException {
+    long uncompressed = 0;
+    long compressed = 0;
+    for (PdxInstance value : values) {
+      byte[] bytes = BlobHelper.serializeToBlob(value);
+      uncompressed += bytes.length;
+      compressed += compressor.compress(bytes).length;
+    }
+    System.out.println(codec + " compression ratio: " + (double) uncompressed / compressed);
+  }
+
+  private static PdxInstance[] createValues(Cache cache) {
+    Random random = new Random(0);
+    PdxInstance[] values = new PdxInstance[ENTRIES];
+    for (int i = 0; i < ENTRIES; i++) {
+      values[i] = cache.createPdxInstanceFactory("com.example.Trade")
+          .writeString("symbol", "SYM" + random.nextInt(500))
+          .writeInt("quantity", random.nextInt(10_000)).writeDouble("price", random.nextDouble())
+          .writeString("trader", "trader" + random.nextInt(50))
+          .writeLong("timestamp", System.currentTimeMillis()).create();
+    }
+    return values;
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache;
+
+import static org.apache.geode.distributed.ConfigurationProperties.LOG_LEVEL;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.geode.distributed.internal.DistributionConfig;
+
+/**
+ * This benchmark measures how long it takes to recover a persistent region whose data is spread
+ * over many oplogs, with and without oplog prefetching. Each trial runs in its own fork so the
+ * prefetch property is read fresh. Drop the OS page cache between iterations to measure cold
+ * recovery; otherwise the oplogs are read from memory after the first iteration.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class DiskStoreRecoveryBenchmark {
+  private static final int ENTRIES = 500_000;
+  private static final int VALUE_SIZE = 1024;
+
+  @Param({"0", "4"})
+  public String recoveryPrefetchThreads;
+
+  File diskDir;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    System.setProperty(DistributionConfig.GEMFIRE_PREFIX + "disk.recoveryPrefetchThreads",
+        recoveryPrefetchThreads);
+    diskDir = Files.createTempDirectory("DiskStoreRecoveryBenchmark").toFile();
+    Cache cache = createCache();
+    try {
+      Region<Integer, byte[]> region = createRegion(cache);
+      byte[] value = new byte[VALUE_SIZE];
+      for (int i = 0; i < ENTRIES; i++) {
+        region.put(i, value);
+      }
+    } finally {
+      cache.close();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(diskDir);
+  }
+
+  @Benchmark
+  @Measurement(iterations = 10)
+  @Warmup(iterations = 2)
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int recoverRegion() {
+    Cache cache = createCache();
+    try {
+      return createRegion(cache).size();
+    } finally {
+      cache.close();
+    }
+  }
+
+  private Cache createCache() {
+    Cache cache = new CacheFactory().set(LOG_LEVEL, "warn").create();
+    cache.createDiskStoreFactory().setDiskDirs(new File[] {diskDir}).setMaxOplogSize(16)
+        .create("store");
+    return cache;
+  }
+
+  private Region<Integer, byte[]> createRegion(Cache cache) {
+    return cache.<Integer, byte[]>createRegionFactory(RegionShortcut.REPLICATE_PERSISTENT)
+        .setDiskStoreName("store").create("testRegion");
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.geode.cache.query.FunctionDomainException;
+import org.apache.geode.cache.query.NameResolutionException;
+import org.apache.geode.cache.query.Query;
+import org.apache.geode.cache.query.QueryInvocationTargetException;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.TypeMismatchException;
+
+/**
+ * This benchmark measures equality lookups on a hash index, and the index updates done by puts
+ * that change the indexed field, on a replicated region with a large number of entries.
+ */
+@Fork(1)
+public class HashIndexBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class CacheState {
+    @Param({"10000000"})
+    public int entries;
+
+    private Cache cache;
+    private Region<Integer, Value> region;
+    private Query lookupQuery;
+
+    public CacheState() {}
+
+    @Setup
+    public void setup() throws Exception {
+      cache = new CacheFactory().set("mcast-port", "0").set("locators", "").create();
+      region = cache.<Integer, Value>createRegionFactory(RegionShortcut.REPLICATE).create("region");
+      cache.getQueryService().createHashIndex("idIndex", "id", "/region");
+      IntStream.range(0, entries).forEach(i -> region.put(i, new Value(i)));
+      lookupQuery = cache.getQueryService().newQuery("select * from /region where id = $1");
+
+      // Do the query once to make sure it is actually returning results
+      assertEquals(1, ((SelectResults) lookupQuery.execute(entries / 2)).size());
+    }
+
+    @TearDown
+    public void tearDown() {
+      cache.close();
+    }
+  }
+
+  @Benchmark
+  @Warmup(iterations = 10)
+  @Measurement(iterations = 10)
+  public Object lookup(CacheState state) throws NameResolutionException, TypeMismatchException,
+      QueryInvocationTargetException, FunctionDomainException {
+    int id = ThreadLocalRandom.current().nextInt(state.entries);
+    return state.lookupQuery.execute(id);
+  }
+
+  @Benchmark
+  @Warmup(iterations = 10)
+  @Measurement(iterations = 10)
+  public Object update(CacheState state) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    // Moves the entry to another key of the index
+    return state.region.put(random.nextInt(state.entries),
+        new Value(random.nextInt(state.entries)));
+  }
+
+  public static class Value {
+    protected final int id;
+
+    public Value(int id) {
+      this.id = id;
+    }
+
+    public int getId() {
+      return id;
+    }
+  }
+}
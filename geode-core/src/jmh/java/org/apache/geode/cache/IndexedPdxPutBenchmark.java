@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.internal.index.IndexManager;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.pdx.PdxInstance;
+import org.apache.geode.pdx.internal.PdxInstanceFactoryImpl;
+
+/**
+ * This benchmark measures updates of pdx values in a region with a range index and a hash index on
+ * fields of the values, with the index keys read from the serialized values or from PdxInstances.
+ * Run it with "-prof gc" to compare the allocation per put.
+ */
+@Fork(3)
+public class IndexedPdxPutBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class CacheState {
+    private static final int ENTRIES = 10_000;
+
+    @Param({"true", "false"})
+    public boolean readPdxFields;
+
+    private Cache cache;
+    private Region<Integer, Object> region;
+    private PdxInstance[] values;
+
+    public CacheState() {}
+
+    @Setup
+    public void setup() throws Exception {
+      IndexManager.READ_PDX_FIELDS = readPdxFields;
+      cache = new CacheFactory().set("mcast-port", "0").set("locators", "")
+          .setPdxReadSerialized(true).create();
+      region = cache.<Integer, Object>createRegionFactory(RegionShortcut.REPLICATE).create("region");
+      QueryService queryService = cache.getQueryService();
+      queryService.createIndex("idIndex", "p.id", "/region p");
+      queryService.createHashIndex("nameIndex", "p.name", "/region p");
+
+      values = new PdxInstance[ENTRIES];
+      for (int i = 0; i < ENTRIES; i++) {
+        PdxInstance value = PdxInstanceFactoryImpl
+            .newCreator("Portfolio", false, (InternalCache) cache).writeInt("id", i)
+            .writeString("name", "name" + i).writeDouble("balance", i).create();
+        values[i] = value;
+        region.put(i, value);
+      }
+    }
+
+    @TearDown
+    public void tearDown() {
+      cache.close();
+      IndexManager.READ_PDX_FIELDS = true;
+    }
+  }
+
+  @Benchmark
+  @Warmup(iterations = 10)
+  @Measurement(iterations = 10)
+  public Object put(CacheState state) {
+    int key = ThreadLocalRandom.current().nextInt(CacheState.ENTRIES);
+    int value = ThreadLocalRandom.current().nextInt(CacheState.ENTRIES);
+    return state.region.put(key, state.values[value]);
+  }
+}
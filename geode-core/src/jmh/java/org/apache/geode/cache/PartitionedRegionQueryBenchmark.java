@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.geode.cache.query.FunctionDomainException;
+import org.apache.geode.cache.query.NameResolutionException;
+import org.apache.geode.cache.query.Query;
+import org.apache.geode.cache.query.QueryInvocationTargetException;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.internal.cache.PRQueryProcessor;
+
+/**
+ * This benchmark measures full-scan queries on a partitioned region hosted by a single member,
+ * with the buckets queried one after the other, by the fixed thread pool or by the fork-join pool.
+ */
+@Fork(3)
+public class PartitionedRegionQueryBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class CacheState {
+    private static final int ENTRIES = 100_000;
+
+    @Param({"sequential", "threadPool", "forkJoin"})
+    public String mode;
+
+    private Cache cache;
+    private Query scanQuery;
+    private Query orderByQuery;
+
+    public CacheState() {}
+
+    @Setup
+    public void setup() {
+      PRQueryProcessor.TEST_FORK_JOIN = mode.equals("forkJoin");
+      PRQueryProcessor.TEST_NUM_THREADS =
+          mode.equals("sequential") ? 0 : Runtime.getRuntime().availableProcessors();
+
+      cache = new CacheFactory().set("mcast-port", "0").set("locators", "").create();
+      Region<Integer, Value> region =
+          cache.<Integer, Value>createRegionFactory(RegionShortcut.PARTITION).create("region");
+      IntStream.range(0, ENTRIES).forEach(i -> region.put(i, new Value(i)));
+      scanQuery = cache.getQueryService().newQuery("select * from /region where id % 10 = 0");
+      orderByQuery = cache.getQueryService()
+          .newQuery("select distinct id from /region where id % 10 = 0 order by id limit 100");
+
+      try {
+        // Do the queries once to make sure they are actually returning results
+        assertEquals(ENTRIES / 10, ((SelectResults) scanQuery.execute()).size());
+        assertEquals(100, ((SelectResults) orderByQuery.execute()).size());
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @TearDown
+    public void tearDown() {
+      cache.close();
+      PRQueryProcessor.TEST_FORK_JOIN = false;
+      PRQueryProcessor.TEST_NUM_THREADS = 0;
+    }
+  }
+
+  @Benchmark
+  @Warmup(iterations = 10)
+  @Measurement(iterations = 10)
+  public Object scan(CacheState state) throws NameResolutionException, TypeMismatchException,
+      QueryInvocationTargetException, FunctionDomainException {
+    return state.scanQuery.execute();
+  }
+
+  @Benchmark
+  @Warmup(iterations = 10)
+  @Measurement(iterations = 10)
+  public Object orderBy(CacheState state) throws NameResolutionException, TypeMismatchException,
+      QueryInvocationTargetException, FunctionDomainException {
+    return state.orderByQuery.execute();
+  }
+
+  public static class Value {
+    protected final int id;
+
+    public Value(int id) {
+      this.id = id;
+    }
+
+    public int getId() {
+      return id;
+    }
+  }
+}
@@ -106,7 +106,20 @@ public class AsyncEventQueueStats extends GatewaySenderStats {
             f.createIntCounter(SYNCHRONIZATION_EVENTS_ENQUEUED,
                 "Number of synchronization events added to the event queue.", "operations"),
             f.createIntCounter(SYNCHRONIZATION_EVENTS_PROVIDED,
-                "Number of synchronization events provided to other members.", "operations"),});
+                "Number of synchronization events provided to other members.", "operations"),
+            f.createIntGauge(BATCHES_IN_FLIGHT,
+                "Number of batches dispatched and not yet acknowledged.", "operations"),
+            f.createIntCounter(BATCHES_ACKNOWLEDGED, "Number of batches acknowledged.",
+                "operations"),
+            f.createLongCounter(BATCH_ACKNOWLEDGEMENT_TIME,
+                "Total time between dispatching batches and receiving their acknowledgements.",
+                "nanoseconds"),
+            f.createIntGauge(CURRENT_BATCH_SIZE,
+                "Number of events peeked into the last batch when the batch size is adaptive.",
+                "operations"),
+            f.createLongGauge(REPLICATION_LAG,
+                "Time between the creation of the oldest event of the last acknowledged batch and its acknowledgement.",
+                "milliseconds"),});
 
     // Initialize id fields
     eventsReceivedId = type.nameToId(EVENTS_RECEIVED);
@@ -141,6 +154,11 @@ public class AsyncEventQueueStats extends GatewaySenderStats {
     loadBalanceTimeId = type.nameToId(LOAD_BALANCE_TIME);
     synchronizationEventsEnqueuedId = type.nameToId(SYNCHRONIZATION_EVENTS_ENQUEUED);
     synchronizationEventsProvidedId = type.nameToId(SYNCHRONIZATION_EVENTS_PROVIDED);
+    batchesInFlightId = type.nameToId(BATCHES_IN_FLIGHT);
+    batchesAcknowledgedId = type.nameToId(BATCHES_ACKNOWLEDGED);
+    batchAcknowledgementTimeId = type.nameToId(BATCH_ACKNOWLEDGEMENT_TIME);
+    currentBatchSizeId = type.nameToId(CURRENT_BATCH_SIZE);
+    replicationLagId = type.nameToId(REPLICATION_LAG);
   }
 
   /**
@@ -0,0 +1,405 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.client.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.apache.geode.SystemFailure;
+import org.apache.geode.cache.client.ServerOperationException;
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.internal.cache.EventID;
+import org.apache.geode.internal.cache.PutAllPartialResultException;
+import org.apache.geode.internal.cache.tier.sockets.VersionedObjectList;
+
+/**
+ * Coalesces the single-key gets and puts that threads start asynchronously on a region into getAll
+ * and putAll operations, so that many concurrent operations cost a few round trips instead of one
+ * each. An operation waits at most {@link #WINDOW_MICROS} for others to join its batch, and a batch
+ * is sent as soon as it holds {@link #MAX_BATCH_SIZE} keys. The getAll and putAll operations split
+ * each batch by the server that hosts each key when single-hop metadata is available.
+ * <p>
+ * Operations are only batched with others started by the same user. The put batches of a user are
+ * sent one after the other, each once the previous one has completed, so that the puts of a key are
+ * applied in order. A put of a key that is already in the open batch closes that batch and starts a
+ * new one. There is no ordering between gets and puts.
+ *
+ * @since Geode 1.8.0
+ */
+class AsyncOpBatcher {
+
+  static final long WINDOW_MICROS =
+      Long.getLong(DistributionConfig.GEMFIRE_PREFIX + "AsyncOpBatcher.WINDOW_MICROS", 250);
+
+  static final int MAX_BATCH_SIZE =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "AsyncOpBatcher.MAX_BATCH_SIZE", 100);
+
+  private final ServerRegionDataAccess dataAccess;
+
+  private final Supplier<EventID> eventIdFactory;
+
+  private final ScheduledExecutorService executor;
+
+  private final long windowMicros;
+
+  private final int maxBatchSize;
+
+  /**
+   * The get batches that are still accepting operations, by the user they execute for.
+   *
+   * guarded.By this
+   */
+  private final Map<UserAttributes, GetBatch> getBatches = new HashMap<>();
+
+  /**
+   * The put batches that are still accepting operations, by the user they execute for.
+   *
+   * guarded.By this
+   */
+  private final Map<UserAttributes, PutBatch> putBatches = new HashMap<>();
+
+  /**
+   * The last put batch of each user that has not completed yet, whether or not it still accepts
+   * operations. The next put batch of the user is sent once this one has completed.
+   *
+   * guarded.By this
+   */
+  private final Map<UserAttributes, PutBatch> lastPutBatches = new HashMap<>();
+
+  AsyncOpBatcher(ServerRegionDataAccess dataAccess, Supplier<EventID> eventIdFactory,
+      ScheduledExecutorService executor) {
+    this(dataAccess, eventIdFactory, executor, WINDOW_MICROS, MAX_BATCH_SIZE);
+  }
+
+  AsyncOpBatcher(ServerRegionDataAccess dataAccess, Supplier<EventID> eventIdFactory,
+      ScheduledExecutorService executor, long windowMicros, int maxBatchSize) {
+    this.dataAccess = dataAccess;
+    this.eventIdFactory = eventIdFactory;
+    this.executor = executor;
+    this.windowMicros = windowMicros;
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  /**
+   * Gets the value of the given key from the server as part of the next getAll.
+   *
+   * @return a future that completes with the value, or null if the key is not on the server
+   */
+  CompletableFuture<Object> get(Object key) {
+    CompletableFuture<Object> future = new CompletableFuture<>();
+    UserAttributes user = UserAttributes.userAttributes.get();
+    Batch full = null;
+    synchronized (this) {
+      GetBatch batch = this.getBatches.get(user);
+      boolean scheduled = true;
+      if (batch == null) {
+        batch = new GetBatch(user);
+        this.getBatches.put(user, batch);
+        scheduled = schedule(batch);
+      }
+      batch.add(key, future);
+      if (!scheduled || batch.size() >= this.maxBatchSize) {
+        full = close(batch);
+      }
+    }
+    if (full != null) {
+      send(full, false);
+    }
+    return future;
+  }
+
+  /**
+   * Puts the given value on the server as part of the next putAll.
+   *
+   * @return a future that completes once the value has been put
+   */
+  CompletableFuture<Void> put(Object key, Object value) {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    UserAttributes user = UserAttributes.userAttributes.get();
+    Batch previous = null;
+    Batch full = null;
+    synchronized (this) {
+      PutBatch batch = this.putBatches.get(user);
+      if (batch != null && batch.contains(key)) {
+        previous = close(batch);
+      }
+      boolean scheduled = true;
+      if (batch == null || previous != null) {
+        batch = new PutBatch(user, this.lastPutBatches.get(user));
+        this.putBatches.put(user, batch);
+        this.lastPutBatches.put(user, batch);
+        PutBatch last = batch;
+        batch.done.whenComplete((result, cause) -> {
+          synchronized (this) {
+            this.lastPutBatches.remove(user, last);
+          }
+        });
+        scheduled = schedule(batch);
+      }
+      batch.add(key, value, future);
+      if (!scheduled || batch.size() >= this.maxBatchSize) {
+        full = close(batch);
+      }
+    }
+    if (previous != null) {
+      send(previous, false);
+    }
+    if (full != null) {
+      send(full, false);
+    }
+    return future;
+  }
+
+  /**
+   * Schedules the given batch to be sent once the window has passed.
+   *
+   * @return false if the executor is shutting down
+   */
+  private boolean schedule(Batch batch) {
+    try {
+      this.executor.schedule(() -> {
+        boolean send;
+        synchronized (this) {
+          send = close(batch) != null;
+        }
+        if (send) {
+          send(batch, true);
+        }
+      }, this.windowMicros, TimeUnit.MICROSECONDS);
+      return true;
+    } catch (RejectedExecutionException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Stops the given batch from accepting more operations.
+   *
+   * @return the batch, or null if it was already closed
+   */
+  private Batch close(Batch batch) {
+    if (batch.closed) {
+      return null;
+    }
+    batch.closed = true;
+    if (batch instanceof GetBatch) {
+      this.getBatches.remove(batch.user, batch);
+    } else {
+      this.putBatches.remove(batch.user, batch);
+    }
+    return batch;
+  }
+
+  /**
+   * Sends the given closed batch once the batch it must follow has completed.
+   *
+   * @param inline true to send the batch in the calling thread if it can be sent now
+   */
+  private void send(Batch batch, boolean inline) {
+    Batch predecessor = batch.predecessor;
+    if (predecessor != null && !predecessor.done.isDone()) {
+      predecessor.done.whenComplete((result, cause) -> submit(batch));
+    } else if (inline) {
+      batch.run();
+    } else {
+      submit(batch);
+    }
+  }
+
+  private void submit(Batch batch) {
+    try {
+      this.executor.execute(batch);
+    } catch (RejectedExecutionException e) {
+      batch.fail(e);
+      batch.done.complete(null);
+    }
+  }
+
+  private abstract class Batch implements Runnable {
+    final UserAttributes user;
+
+    /**
+     * The batch that must complete before this one is sent, or null. Cleared once this batch
+     * runs so that a chain of completed batches is not kept reachable.
+     */
+    volatile Batch predecessor;
+
+    /**
+     * Completes once this batch has been executed.
+     */
+    final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    /**
+     * True once this batch accepts no more operations.
+     *
+     * guarded.By AsyncOpBatcher.this
+     */
+    boolean closed;
+
+    Batch(UserAttributes user, Batch predecessor) {
+      this.user = user;
+      this.predecessor = predecessor;
+    }
+
+    abstract int size();
+
+    abstract void execute();
+
+    abstract void fail(Throwable cause);
+
+    @Override
+    public void run() {
+      this.predecessor = null;
+      UserAttributes previous = UserAttributes.userAttributes.get();
+      UserAttributes.userAttributes.set(this.user);
+      try {
+        execute();
+      } catch (VirtualMachineError err) {
+        SystemFailure.initiateFailure(err);
+        // If this ever returns, rethrow the error. We're poisoned
+        // now, so don't let this thread continue.
+        throw err;
+      } catch (Throwable t) {
+        // Whenever you catch Error or Throwable, you must also
+        // catch VirtualMachineError (see above). However, there is
+        // _still_ a possibility that you are dealing with a cascading
+        // error condition, so you also need to check to see if the JVM
+        // is still usable:
+        SystemFailure.checkFailure();
+        fail(t);
+      } finally {
+        UserAttributes.userAttributes.set(previous);
+        this.done.complete(null);
+      }
+    }
+  }
+
+  private class GetBatch extends Batch {
+    private final Map<Object, List<CompletableFuture<Object>>> futures = new LinkedHashMap<>();
+    private int size;
+
+    GetBatch(UserAttributes user) {
+      super(user, null);
+    }
+
+    void add(Object key, CompletableFuture<Object> future) {
+      this.futures.computeIfAbsent(key, k -> new ArrayList<>(1)).add(future);
+      this.size++;
+    }
+
+    @Override
+    int size() {
+      return this.size;
+    }
+
+    @Override
+    void execute() {
+      VersionedObjectList result =
+          dataAccess.getAll(new ArrayList<>(this.futures.keySet()), null);
+      if (result != null) {
+        for (VersionedObjectList.Iterator it = result.iterator(); it.hasNext();) {
+          VersionedObjectList.Entry entry = it.next();
+          List<CompletableFuture<Object>> keyFutures = this.futures.remove(entry.getKey());
+          if (keyFutures == null) {
+            continue;
+          }
+          Object value = entry.isKeyNotOnServer() ? null : entry.getObject();
+          for (CompletableFuture<Object> future : keyFutures) {
+            if (value instanceof Throwable) {
+              future.completeExceptionally(new ServerOperationException(
+                  "While performing a remote get", (Throwable) value));
+            } else {
+              future.complete(value);
+            }
+          }
+        }
+      }
+      // keys the server did not return anything for
+      for (List<CompletableFuture<Object>> keyFutures : this.futures.values()) {
+        for (CompletableFuture<Object> future : keyFutures) {
+          future.complete(null);
+        }
+      }
+    }
+
+    @Override
+    void fail(Throwable cause) {
+      for (List<CompletableFuture<Object>> keyFutures : this.futures.values()) {
+        for (CompletableFuture<Object> future : keyFutures) {
+          future.completeExceptionally(cause);
+        }
+      }
+    }
+  }
+
+  private class PutBatch extends Batch {
+    private final Map<Object, Object> values = new LinkedHashMap<>();
+    private final Map<Object, CompletableFuture<Void>> futures = new HashMap<>();
+
+    PutBatch(UserAttributes user, Batch predecessor) {
+      super(user, predecessor);
+    }
+
+    boolean contains(Object key) {
+      return this.values.containsKey(key);
+    }
+
+    void add(Object key, Object value, CompletableFuture<Void> future) {
+      this.values.put(key, value);
+      this.futures.put(key, future);
+    }
+
+    @Override
+    int size() {
+      return this.values.size();
+    }
+
+    @Override
+    void execute() {
+      try {
+        dataAccess.putAll(this.values, eventIdFactory.get(), false, null);
+      } catch (PutAllPartialResultException e) {
+        Set succeeded = e.getSucceededKeysAndVersions().keySet();
+        for (Map.Entry<Object, CompletableFuture<Void>> entry : this.futures.entrySet()) {
+          if (succeeded.contains(entry.getKey())) {
+            entry.getValue().complete(null);
+          } else {
+            entry.getValue().completeExceptionally(e);
+          }
+        }
+        return;
+      }
+      for (CompletableFuture<Void> future : this.futures.values()) {
+        future.complete(null);
+      }
+    }
+
+    @Override
+    void fail(Throwable cause) {
+      for (CompletableFuture<Void> future : this.futures.values()) {
+        future.completeExceptionally(cause);
+      }
+    }
+  }
+}
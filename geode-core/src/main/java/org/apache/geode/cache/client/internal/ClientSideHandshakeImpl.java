@@ -253,6 +253,11 @@ public class ClientSideHandshakeImpl extends Handshake implements ClientSideHand
         int remotePdxSize = dis.readInt();
         serverQStatus.setPdxSize(remotePdxSize);
       }
+      // Read whether the remote site accepts compressed batches
+      if (communicationMode.isWAN() && Version.GEODE_180.compareTo(conn.getWanSiteVersion()) <= 0
+          && currentClientVersion.compareTo(Version.GEODE_180) >= 0) {
+        serverQStatus.setCompressedBatchesAccepted(dis.readBoolean());
+      }
 
       return serverQStatus;
     } catch (IOException ex) {
@@ -717,6 +717,12 @@ public class OpExecutorImpl implements ExecutablePool {
       invalidateServer = false;
       title = "connection was asynchronously destroyed";
       cause = null;
+    } else if (e instanceof QueryCursorClosedException) {
+      // the rest of the response is abandoned, so the connection can not be reused
+      invalidateServer = false;
+      title = "query cursor was closed";
+      warn = false;
+      exToThrow = (QueryCursorClosedException) e;
     } else if (e instanceof java.io.EOFException) {
       title = "closed socket on server";
     } else if (e instanceof IOException) {
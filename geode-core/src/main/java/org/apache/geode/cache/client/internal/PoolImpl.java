@@ -26,8 +26,11 @@ import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -90,6 +93,9 @@ public class PoolImpl implements InternalPool {
   private static final int BACKGROUND_TASK_POOL_KEEP_ALIVE = Integer.getInteger(
       DistributionConfig.GEMFIRE_PREFIX + "PoolImpl.BACKGROUND_TASK_POOL_KEEP_ALIVE", 1000);
 
+  private static final int ASYNC_OP_POOL_SIZE = Integer
+      .getInteger(DistributionConfig.GEMFIRE_PREFIX + "PoolImpl.ASYNC_OP_POOL_SIZE", 16);
+
   /**
    * For durable client tests only. Connection Sources read this flag and return an empty list of
    * servers.
@@ -132,6 +138,15 @@ public class PoolImpl implements InternalPool {
   protected volatile boolean destroyed;
   private final PoolStats stats;
   private ScheduledExecutorService backgroundProcessor;
+  /**
+   * Sends the batches of asynchronous region operations; see {@link AsyncOpBatcher}
+   */
+  private ScheduledExecutorService asyncOpProcessor;
+  /**
+   * Runs the threads that read the results of queries executed with a cursor; see
+   * {@link QueryCursor}. A thread is held while its cursor is open, so the pool is not bounded.
+   */
+  private ExecutorService queryCursorProcessor;
   private final OpExecutorImpl executor;
   private final RegisterInterestTracker riTracker = new RegisterInterestTracker();
   private final InternalDistributedSystem dsys;
@@ -335,6 +350,31 @@ public class PoolImpl implements InternalPool {
     ((ScheduledThreadPoolExecutorWithKeepAlive) backgroundProcessor)
         .setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
 
+    final String asyncOpName = "poolAsyncOps-" + getName() + "-";
+    asyncOpProcessor = new ScheduledThreadPoolExecutorWithKeepAlive(ASYNC_OP_POOL_SIZE,
+        BACKGROUND_TASK_POOL_KEEP_ALIVE, TimeUnit.MILLISECONDS, new ThreadFactory() {
+          AtomicInteger threadNum = new AtomicInteger();
+
+          public Thread newThread(final Runnable r) {
+            Thread result = new Thread(r, asyncOpName + threadNum.incrementAndGet());
+            result.setDaemon(true);
+            return result;
+          }
+        }, this.threadMonitoring);
+
+    final String queryCursorName = "poolQueryCursor-" + getName() + "-";
+    queryCursorProcessor = new ThreadPoolExecutor(0, Integer.MAX_VALUE,
+        BACKGROUND_TASK_POOL_KEEP_ALIVE, TimeUnit.MILLISECONDS, new SynchronousQueue<>(),
+        new ThreadFactory() {
+          AtomicInteger threadNum = new AtomicInteger();
+
+          public Thread newThread(final Runnable r) {
+            Thread result = new Thread(r, queryCursorName + threadNum.incrementAndGet());
+            result.setDaemon(true);
+            return result;
+          }
+        });
+
     source.start(this);
     connectionFactory.start(backgroundProcessor);
     endpointManager.addListener(new InstantiatorRecoveryListener(backgroundProcessor, this));
@@ -587,6 +627,25 @@ public class PoolImpl implements InternalPool {
       logger.info(
           LocalizedMessage.create(LocalizedStrings.PoolImpl_DESTROYING_CONNECTION_POOL_0, name));
 
+      try {
+        // batches that are still waiting are sent before the connections are closed
+        if (asyncOpProcessor != null) {
+          asyncOpProcessor.shutdown();
+          if (!asyncOpProcessor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            logger.warn(LocalizedMessage.create(
+                LocalizedStrings.PoolImpl_TIMEOUT_WAITING_FOR_BACKGROUND_TASKS_TO_COMPLETE));
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+
+      if (queryCursorProcessor != null) {
+        // the readers still running fail once the connections are closed, and hand the failure to
+        // their cursors
+        queryCursorProcessor.shutdown();
+      }
+
       try {
         if (backgroundProcessor != null) {
           backgroundProcessor.shutdown();
@@ -879,6 +938,14 @@ public class PoolImpl implements InternalPool {
     return backgroundProcessor;
   }
 
+  ScheduledExecutorService getAsyncOpProcessor() {
+    return asyncOpProcessor;
+  }
+
+  ExecutorService getQueryCursorProcessor() {
+    return queryCursorProcessor;
+  }
+
   public RegisterInterestTracker getRITracker() {
     return this.riTracker;
   }
@@ -21,6 +21,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.locks.Lock;
 
 import org.apache.geode.cache.AttributesMutator;
@@ -43,6 +44,7 @@ import org.apache.geode.cache.query.QueryInvocationTargetException;
 import org.apache.geode.cache.query.SelectResults;
 import org.apache.geode.cache.query.TypeMismatchException;
 import org.apache.geode.cache.snapshot.RegionSnapshotService;
+import org.apache.geode.internal.cache.LocalRegion;
 import org.apache.geode.internal.cache.snapshot.RegionSnapshotServiceImpl;
 
 /**
@@ -254,6 +256,19 @@ public class ProxyRegion implements Region {
     }
   }
 
+  /**
+   * @see ServerRegionProxy#getAsync(Object)
+   * @since Geode 1.8.0
+   */
+  public CompletableFuture<Object> getAsync(Object key) {
+    try {
+      preOp();
+      return ((LocalRegion) this.realRegion).getServerProxy().getAsync(key);
+    } finally {
+      postOp();
+    }
+  }
+
   public Map getAll(Collection keys) {
     return getAll(keys, null);
   }
@@ -469,6 +484,19 @@ public class ProxyRegion implements Region {
     }
   }
 
+  /**
+   * @see ServerRegionProxy#putAsync(Object, Object)
+   * @since Geode 1.8.0
+   */
+  public CompletableFuture<Void> putAsync(Object key, Object value) {
+    try {
+      preOp();
+      return ((LocalRegion) this.realRegion).getServerProxy().putAsync(key, value);
+    } finally {
+      postOp();
+    }
+  }
+
   public void putAll(Map map) {
     putAll(map, null);
   }
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.client.internal;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.geode.cache.query.internal.QueryExecutionCanceledException;
+import org.apache.geode.distributed.internal.DistributionConfig;
+
+/**
+ * Iterates over the results of a query executed on a server, reading them as they are sent. The
+ * server sends the results of each bucket member as soon as it has them instead of collecting all
+ * of them first, and the results are read on a thread of the pool a page (a chunk of the
+ * response) at a time. At most {@link #MAX_BUFFERED_PAGES} pages are held by the cursor; once they
+ * are all held the reader stops reading the connection until the caller iterates, which in turn
+ * blocks the server writing the results. Neither side holds all the results.
+ * <p>
+ * A cursor that is not iterated to the end must be closed, so that the reading thread ends. It
+ * abandons the rest of the response and destroys its connection.
+ *
+ * @since Geode 1.8.0
+ */
+public class QueryCursor implements Iterator<Object>, AutoCloseable {
+
+  /**
+   * System property to set the number of pages of results read ahead of the caller.
+   */
+  public static final int MAX_BUFFERED_PAGES = Math.max(1,
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "QueryCursor.MAX_BUFFERED_PAGES", 2));
+
+  /**
+   * Marks the end of the results.
+   */
+  private static final List<Object> END = Collections.emptyList();
+
+  private final BlockingQueue<List<Object>> pages;
+
+  private volatile boolean closed;
+
+  private volatile RuntimeException failure;
+
+  private volatile boolean receivedResults;
+
+  /** Only accessed by the thread iterating the cursor */
+  private Iterator<Object> page = Collections.emptyIterator();
+
+  /** Only accessed by the thread iterating the cursor */
+  private boolean done;
+
+  QueryCursor() {
+    this(MAX_BUFFERED_PAGES);
+  }
+
+  QueryCursor(int maxBufferedPages) {
+    this.pages = new ArrayBlockingQueue<>(maxBufferedPages);
+  }
+
+  /**
+   * Adds a page of results, waiting while the maximum number of pages is held.
+   *
+   * @return false if the cursor has been closed and the page dropped
+   */
+  boolean addPage(List<Object> results) {
+    this.receivedResults = true;
+    return offer(results);
+  }
+
+  /**
+   * Ends the results, with the given failure if the query failed.
+   */
+  void finish(RuntimeException failure) {
+    this.failure = failure;
+    offer(END);
+  }
+
+  private boolean offer(List<Object> page) {
+    try {
+      while (!this.closed) {
+        if (this.pages.offer(page, 100, TimeUnit.MILLISECONDS)) {
+          return true;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return false;
+  }
+
+  /**
+   * Returns whether any results have been read, after which the query may not be retried.
+   */
+  boolean hasReceivedResults() {
+    return this.receivedResults;
+  }
+
+  boolean isClosed() {
+    return this.closed;
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!this.page.hasNext()) {
+      if (this.done) {
+        return false;
+      }
+      List<Object> next;
+      try {
+        next = this.pages.take();
+      } catch (InterruptedException e) {
+        close();
+        Thread.currentThread().interrupt();
+        throw new QueryExecutionCanceledException(
+            "Interrupted while waiting for the results of the query", e);
+      }
+      if (next == END) {
+        this.done = true;
+        if (this.failure != null) {
+          throw this.failure;
+        }
+        return false;
+      }
+      this.page = next.iterator();
+    }
+    return true;
+  }
+
+  @Override
+  public Object next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return this.page.next();
+  }
+
+  /**
+   * Drops the results that have not been iterated. The thread reading the response stops at the
+   * next page it reads.
+   */
+  @Override
+  public void close() {
+    this.closed = true;
+    this.done = true;
+    this.page = Collections.emptyIterator();
+    this.pages.clear();
+  }
+}
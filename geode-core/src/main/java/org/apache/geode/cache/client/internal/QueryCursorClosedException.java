@@ -0,0 +1,32 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.client.internal;
+
+import org.apache.geode.cache.CacheRuntimeException;
+
+/**
+ * Thrown while reading the results of a query for a {@link QueryCursor} that has been closed, to
+ * abandon the rest of the response. The connection is destroyed, since the response is only
+ * partly read, but the server is not considered failed and the query is not retried.
+ *
+ * @since Geode 1.8.0
+ */
+class QueryCursorClosedException extends CacheRuntimeException {
+  private static final long serialVersionUID = -3826434196716402153L;
+
+  QueryCursorClosedException() {
+    super("The query cursor was closed");
+  }
+}
@@ -14,7 +14,12 @@
  */
 package org.apache.geode.cache.client.internal;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.apache.geode.SerializationException;
 import org.apache.geode.cache.client.ServerOperationException;
@@ -25,6 +30,8 @@ import org.apache.geode.cache.query.internal.types.StructTypeImpl;
 import org.apache.geode.cache.query.internal.types.TypeUtils;
 import org.apache.geode.cache.query.types.CollectionType;
 import org.apache.geode.cache.query.types.ObjectType;
+import org.apache.geode.distributed.DistributedMember;
+import org.apache.geode.distributed.internal.membership.InternalDistributedMember;
 import org.apache.geode.internal.Version;
 import org.apache.geode.internal.cache.tier.MessageType;
 import org.apache.geode.internal.cache.tier.sockets.ChunkedMessage;
@@ -59,6 +66,49 @@ public class QueryOp {
     return (SelectResults) pool.execute(op);
   }
 
+  /**
+   * Does a region query on a server with a cursor. The results are read from the server by a
+   * thread of the given executor as the caller iterates over them; see {@link QueryCursor}. A
+   * server older than {@link Version#GEODE_180} executes the query as a regular query, and the
+   * cursor iterates over the results once they have all been read.
+   *
+   * @param pool the pool to use to communicate with the server.
+   * @param executor runs the thread that reads the results
+   * @param queryString the query to execute
+   * @param queryParams the parameters of the query, may be null
+   * @return a cursor over the results of the query, which must be closed if it is not iterated to
+   *         the end
+   * @since Geode 1.8.0
+   */
+  public static QueryCursor executeWithCursor(ExecutablePool pool, Executor executor,
+      String queryString, Object[] queryParams) {
+    QueryCursor cursor = new QueryCursor();
+    QueryCursorOpImpl op = new QueryCursorOpImpl(queryString,
+        queryParams != null ? queryParams : new Object[0], cursor);
+    // the user of a multiuser pool is needed to execute the op on the reader thread
+    UserAttributes userAttributes = UserAttributes.userAttributes.get();
+    try {
+      executor.execute(() -> {
+        UserAttributes.userAttributes.set(userAttributes);
+        try {
+          pool.execute(op);
+          cursor.finish(null);
+        } catch (RuntimeException e) {
+          cursor.finish(cursor.isClosed() ? null : e);
+        } catch (Error e) {
+          cursor.finish(new ServerOperationException(e));
+          throw e;
+        } finally {
+          UserAttributes.userAttributes.set(null);
+          pool.releaseThreadLocalConnection();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      cursor.finish(e);
+    }
+    return cursor;
+  }
+
   private QueryOp() {
     // no instances allowed
   }
@@ -139,32 +189,7 @@ public class QueryOp {
             if (resultRef[0] == null) {
               resultRef[0] = QueryUtils.getEmptySelectResults(collectionType, null);
             }
-            SelectResults selectResults = resultRef[0];
-            ObjectType objectType = collectionType.getElementType();
-            Object[] resultArray;
-            // for select * queries, the serialized object byte arrays are
-            // returned as part of ObjectPartList
-            boolean isObjectPartList = false;
-            if (queryResult instanceof ObjectPartList) {
-              isObjectPartList = true;
-              resultArray = ((ObjectPartList) queryResult).getObjects().toArray();
-            } else {
-              // Add the results to the SelectResults
-              resultArray = (Object[]) queryResult;
-            }
-            if (objectType.isStructType()) {
-              for (int i = 0; i < resultArray.length; i++) {
-                if (isObjectPartList) {
-                  selectResults.add(new StructImpl((StructTypeImpl) objectType,
-                      ((ObjectPartList) resultArray[i]).getObjects().toArray()));
-                } else {
-                  selectResults
-                      .add(new StructImpl((StructTypeImpl) objectType, (Object[]) resultArray[i]));
-                }
-              }
-            } else {
-              selectResults.addAll(Arrays.asList(resultArray));
-            }
+            addChunkResults(resultRef[0], collectionType.getElementType(), queryResult);
           }
         }
       };
@@ -176,6 +201,36 @@ public class QueryOp {
       }
     }
 
+    /**
+     * Adds the results of a chunk of the response to the given collection.
+     */
+    static void addChunkResults(Collection<Object> results, ObjectType objectType,
+        Object queryResult) {
+      Object[] resultArray;
+      // for select * queries, the serialized object byte arrays are
+      // returned as part of ObjectPartList
+      boolean isObjectPartList = false;
+      if (queryResult instanceof ObjectPartList) {
+        isObjectPartList = true;
+        resultArray = ((ObjectPartList) queryResult).getObjects().toArray();
+      } else {
+        // Add the results to the SelectResults
+        resultArray = (Object[]) queryResult;
+      }
+      if (objectType.isStructType()) {
+        for (int i = 0; i < resultArray.length; i++) {
+          if (isObjectPartList) {
+            results.add(new StructImpl((StructTypeImpl) objectType,
+                ((ObjectPartList) resultArray[i]).getObjects().toArray()));
+          } else {
+            results.add(new StructImpl((StructTypeImpl) objectType, (Object[]) resultArray[i]));
+          }
+        }
+      } else {
+        results.addAll(Arrays.asList(resultArray));
+      }
+    }
+
     protected String getOpName() {
       return "query";
     }
@@ -201,4 +256,108 @@ public class QueryOp {
       stats.endQuery(start, hasTimedOut(), hasFailed());
     }
   }
+
+  /**
+   * Hands each chunk of the response to a {@link QueryCursor} as it is read. Once the cursor is
+   * closed the connection is destroyed at the next chunk, rather than reading the rest of the
+   * response, and the op ends.
+   *
+   * @since Geode 1.8.0
+   */
+  static class QueryCursorOpImpl extends QueryOpImpl {
+    private final QueryCursor cursor;
+
+    /**
+     * Executes the query on servers that do not support {@link MessageType#QUERY_WITH_CURSOR}
+     */
+    private final QueryOpImpl fallback;
+
+    QueryCursorOpImpl(String queryString, Object[] queryParams, QueryCursor cursor) {
+      super(MessageType.QUERY_WITH_CURSOR, 2 + queryParams.length);
+      getMessage().addStringPart(queryString);
+      getMessage().addIntPart(queryParams.length);
+      for (Object param : queryParams) {
+        getMessage().addObjPart(param);
+      }
+      this.cursor = cursor;
+      this.fallback = queryParams.length > 0 ? new QueryOpImpl(queryString, queryParams)
+          : new QueryOpImpl(queryString);
+    }
+
+    @Override
+    public Object attempt(Connection cnx) throws Exception {
+      if (this.cursor.isClosed()) {
+        throw new QueryCursorClosedException();
+      }
+      if (this.cursor.hasReceivedResults()) {
+        // retrying on another server would return the received results again
+        throw new ServerOperationException(
+            "The connection to the server was lost after query results were received");
+      }
+      if (!supportsCursor(cnx)) {
+        SelectResults results = (SelectResults) this.fallback.attempt(cnx);
+        if (results != null) {
+          this.cursor.addPage(new ArrayList<Object>(results));
+        }
+        return null;
+      }
+      return super.attempt(cnx);
+    }
+
+    /**
+     * Returns whether the server of the given connection can stream query results.
+     */
+    static boolean supportsCursor(Connection cnx) {
+      DistributedMember server = cnx.getEndpoint().getMemberId();
+      return server instanceof InternalDistributedMember && Version.GEODE_180
+          .compareTo(((InternalDistributedMember) server).getVersionObject()) <= 0;
+    }
+
+    @Override
+    protected Object processResponse(Message msg) throws Exception {
+      final Exception[] exceptionRef = new Exception[1];
+      ChunkHandler ch = cm -> {
+        if (this.cursor.isClosed()) {
+          throw new QueryCursorClosedException();
+        }
+        if (exceptionRef[0] != null) {
+          // the rest of the response is read and discarded
+          return;
+        }
+        Object o = cm.getPart(0).getObject();
+        if (o instanceof Throwable) {
+          String s = "While performing a remote " + getOpName();
+          exceptionRef[0] = new ServerOperationException(s, (Throwable) o);
+          return;
+        }
+        CollectionType collectionType = (CollectionType) o;
+        Object queryResult;
+        try {
+          queryResult = cm.getPart(1).getObject();
+        } catch (Exception e) {
+          String s = "While deserializing " + getOpName() + " result";
+          exceptionRef[0] = new SerializationException(s, e);
+          return;
+        }
+        if (queryResult instanceof Throwable) {
+          String s = "While performing a remote " + getOpName();
+          exceptionRef[0] = new ServerOperationException(s, (Throwable) queryResult);
+          return;
+        }
+        List<Object> page = new ArrayList<>();
+        if (queryResult instanceof Integer) {
+          page.add(queryResult);
+        } else {
+          addChunkResults(page, collectionType.getElementType(), queryResult);
+        }
+        this.cursor.addPage(page);
+      };
+      processChunkedResponse((ChunkedMessage) msg, getOpName(), ch);
+      if (exceptionRef[0] != null) {
+        throw exceptionRef[0];
+      }
+      return null;
+    }
+
+  }
 }
@@ -69,4 +69,17 @@ public class ServerProxy {
     return QueryOp.execute(this.pool, queryPredicate, queryParams);
   }
 
+  /**
+   * Does a query on a server, reading its results as they are iterated
+   *
+   * @param queryString the query to execute
+   * @param queryParams the parameters of the query, may be null
+   * @return a cursor over the results of the query
+   * @since Geode 1.8.0
+   */
+  public QueryCursor queryWithCursor(String queryString, Object[] queryParams) {
+    return QueryOp.executeWithCursor(this.pool, ((PoolImpl) this.pool).getQueryCursorProcessor(),
+        queryString, queryParams);
+  }
+
 }
@@ -20,6 +20,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.logging.log4j.Logger;
 
@@ -28,6 +29,7 @@ import org.apache.geode.cache.InterestResultPolicy;
 import org.apache.geode.cache.Operation;
 import org.apache.geode.cache.Region;
 import org.apache.geode.cache.Region.Entry;
+import org.apache.geode.cache.UnsupportedOperationInTransactionException;
 import org.apache.geode.cache.client.PoolManager;
 import org.apache.geode.cache.client.internal.ContainsKeyOp.MODE;
 import org.apache.geode.cache.execute.Function;
@@ -64,6 +66,11 @@ public class ServerRegionProxy extends ServerProxy implements ServerRegionDataAc
   private final LocalRegion region;
   private final String regionName;
 
+  /**
+   * Batches the asynchronous operations on this region; created on first use
+   */
+  private volatile AsyncOpBatcher asyncOpBatcher;
+
 
   /**
    * Creates a server region proxy for the given region.
@@ -116,6 +123,68 @@ public class ServerRegionProxy extends ServerProxy implements ServerRegionDataAc
 
 
 
+  /**
+   * Gets the value of the given key from the server without waiting for it. Gets that threads
+   * start concurrently on this region are sent to the servers together as getAll operations. The
+   * region must not store data locally, since the value bypasses the client's local cache.
+   *
+   * @return a future that completes with the value, or null if the key is not on the server
+   * @throws UnsupportedOperationException if the region stores data locally
+   * @throws UnsupportedOperationInTransactionException if called in a transaction
+   * @since Geode 1.8.0
+   */
+  public CompletableFuture<Object> getAsync(Object key) {
+    checkAsyncOpAllowed("getAsync");
+    return getAsyncOpBatcher().get(key);
+  }
+
+  /**
+   * Puts the given value on the server without waiting for it. Puts that threads start
+   * concurrently on this region are sent to the servers together as putAll operations, so server
+   * side callbacks see putAll events. The region must not store data locally, since the value
+   * bypasses the client's local cache.
+   *
+   * @return a future that completes once the value has been put
+   * @throws UnsupportedOperationException if the region stores data locally
+   * @throws UnsupportedOperationInTransactionException if called in a transaction
+   * @since Geode 1.8.0
+   */
+  public CompletableFuture<Void> putAsync(Object key, Object value) {
+    checkAsyncOpAllowed("putAsync");
+    return getAsyncOpBatcher().put(key, value);
+  }
+
+  /**
+   * Asynchronous operations run outside the calling thread, so they can be part of neither the
+   * caller's transaction nor its local cache.
+   */
+  private void checkAsyncOpAllowed(String operation) {
+    if (this.region != null && this.region.getDataPolicy().withStorage()) {
+      throw new UnsupportedOperationException(
+          operation + " is only supported on regions that do not store data locally, but region "
+              + this.regionName + " has data policy " + this.region.getDataPolicy());
+    }
+    if (TXManagerImpl.getCurrentTXUniqueId() != TXManagerImpl.NOTX) {
+      throw new UnsupportedOperationInTransactionException(
+          operation + " is not supported in a transaction");
+    }
+  }
+
+  private AsyncOpBatcher getAsyncOpBatcher() {
+    AsyncOpBatcher result = this.asyncOpBatcher;
+    if (result == null) {
+      synchronized (this) {
+        result = this.asyncOpBatcher;
+        if (result == null) {
+          result = new AsyncOpBatcher(this, () -> new EventID(this.region.getSystem()),
+              ((PoolImpl) this.pool).getAsyncOpProcessor());
+          this.asyncOpBatcher = result;
+        }
+      }
+    }
+    return result;
+  }
+
   public int size() {
     return SizeOp.execute(this.pool, this.regionName);
   }
@@ -238,6 +238,7 @@ import org.apache.geode.annotations.Experimental;
  *               &lt;restriction base="{http://www.w3.org/2001/XMLSchema}anyType">
  *                 &lt;sequence>
  *                   &lt;element name="class-name" type="{http://geode.apache.org/schema/cache}class-name-type"/>
+ *                   &lt;element name="parameter" type="{http://geode.apache.org/schema/cache}parameter-type" maxOccurs="unbounded" minOccurs="0"/>
  *                 &lt;/sequence>
  *               &lt;/restriction>
  *             &lt;/complexContent>
@@ -364,7 +365,7 @@ public class RegionAttributesType {
   @XmlElement(name = "cache-listener", namespace = "http://geode.apache.org/schema/cache")
   protected List<DeclarableType> cacheListeners;
   @XmlElement(namespace = "http://geode.apache.org/schema/cache")
-  protected ClassNameType compressor;
+  protected DeclarableType compressor;
   @XmlElement(name = "eviction-attributes", namespace = "http://geode.apache.org/schema/cache")
   protected RegionAttributesType.EvictionAttributes evictionAttributes;
   @XmlAttribute(name = "concurrency-level")
@@ -744,10 +745,10 @@ public class RegionAttributesType {
    * Gets the value of the compressor property.
    *
    * possible object is
-   * {@link ClassNameType }
+   * {@link DeclarableType }
    *
    */
-  public ClassNameType getCompressor() {
+  public DeclarableType getCompressor() {
     return compressor;
   }
 
@@ -755,10 +756,10 @@ public class RegionAttributesType {
    * Sets the value of the compressor property.
    *
    * allowed object is
-   * {@link ClassNameType }
+   * {@link DeclarableType }
    *
    */
-  public void setCompressor(ClassNameType value) {
+  public void setCompressor(DeclarableType value) {
     this.compressor = value;
   }
 
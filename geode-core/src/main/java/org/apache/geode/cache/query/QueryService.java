@@ -366,6 +366,12 @@ public interface QueryService {
    *        Query2: "Select * from /portfolio p, p.positions.values pos where pos.secId ='VMWARE'"
    *        For index on secId field: indexExpression: "pos.secId" regionPath: "/portfolio p,
    *        p.positions.values pos"
+   *
+   *        Query3: "Select * from /portfolio p where p.status = 'active' and p.mktValue > 25.00"
+   *        For a composite index on status and mktValue fields: indexExpression: "p.status,
+   *        p.mktValue" regionPath: "/portfolio p". A composite index is used by the queries with
+   *        equality conditions on its leading fields and at most one range condition on the field
+   *        that follows them. The regionPath of a composite index must have a single iterator.
    * @return the newly created Index
    * @throws QueryInvalidException if the argument query language strings have invalid syntax
    * @throws IndexInvalidException if the arguments do not correctly specify an index
@@ -112,10 +112,11 @@ public class AllGroupJunction extends AbstractCompiledValue implements Filter, O
     List expansionList = new LinkedList(finalList);
     RuntimeIterator[][] itrsForResultFields = new RuntimeIterator[len][];
     CompiledValue gj = null;
-    Iterator junctionItr = this.abstractGroupOrRangeJunctions.iterator();
+    Iterator junctionItr;
     List grpItrs = null;
     int j = 0;
     RuntimeIterator tempItr = null;
+    junctionItr = getJunctionsSortedOnIncreasingEstimatedSize(context).iterator();
     while (junctionItr.hasNext()) {
       gj = (CompiledValue) junctionItr.next();
       SelectResults filterResults = ((Filter) gj).filterEvaluate(context, null);
@@ -176,6 +177,32 @@ public class AllGroupJunction extends AbstractCompiledValue implements Filter, O
     return resultsSet;
   }
 
+  /**
+   * Returns the junctions ordered so that the ones expected to return the fewest results are
+   * evaluated first, an empty result ending the evaluation of an AND junction. The
+   * CompositeGroupJunctions, which join regions, come after the GroupJunctions.
+   */
+  private List getJunctionsSortedOnIncreasingEstimatedSize(ExecutionContext context)
+      throws FunctionDomainException, TypeMismatchException, NameResolutionException,
+      QueryInvocationTargetException {
+    int len = this.abstractGroupOrRangeJunctions.size();
+    List sortedList = new ArrayList(len);
+    int[] sortedSizes = new int[len];
+    for (int i = 0; i < len; ++i) {
+      Filter toSort = (Filter) this.abstractGroupOrRangeJunctions.get(i);
+      int size = toSort instanceof CompositeGroupJunction ? Integer.MAX_VALUE
+          : toSort.getSizeEstimate(context);
+      int j = 0;
+      while (j < i && sortedSizes[j] <= size) {
+        ++j;
+      }
+      System.arraycopy(sortedSizes, j, sortedSizes, j + 1, i - j);
+      sortedSizes[j] = size;
+      sortedList.add(j, toSort);
+    }
+    return sortedList;
+  }
+
   /**
    * Evaluates the individual GroupJunctions and CompositeGroupJunctions and expands the individual
    * results so obtained to the query from clause iterator level ( i.e top level iterators). The
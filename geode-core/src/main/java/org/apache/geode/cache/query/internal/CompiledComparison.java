@@ -312,8 +312,9 @@ public class CompiledComparison extends AbstractCompiledValue
     // before the index lookup
     int op = reflectOnOperator(idxInfo[0]._key());
 
-    return idxInfo[0]._index.getSizeEstimate(key, op, idxInfo[0]._matchLevel);
-
+    int size = idxInfo[0]._index.getSizeEstimate(key, op, idxInfo[0]._matchLevel);
+    IndexTrackingQueryObserver.recordSizeEstimate(idxInfo[0]._index, size);
+    return size;
   }
 
   /** **************** PRIVATE METHODS ************************** */
@@ -656,7 +657,7 @@ public class CompiledComparison extends AbstractCompiledValue
    * get the path to see if there's an index for, and also determine which CompiledValue is the key
    * while we're at it
    */
-  private PathAndKey getPathAndKey(ExecutionContext context)
+  PathAndKey getPathAndKey(ExecutionContext context)
       throws TypeMismatchException, AmbiguousNameException {
     // RuntimeIterator lIter = context.findRuntimeIterator(_left);
     // RuntimeIterator rIter = context.findRuntimeIterator(_right);
@@ -776,6 +777,13 @@ public class CompiledComparison extends AbstractCompiledValue
       return thisSize <= thatSize;
     }
 
+    // Go with the lowest cost when both sizes are estimated, the indexes estimating range lookups
+    // from the distribution of their keys. The estimate of a RangeJunction is a constant.
+    if (thisSize != thatSize && thisSize < Integer.MAX_VALUE && thatSize < Integer.MAX_VALUE
+        && thatOperator != LITERAL_and) {
+      return thisSize < thatSize;
+    }
+
     // There may be some hard rules that give unoptimal selections based on these switch cases.
     if (this._operator == TOK_EQ || this._operator == TOK_NE || this._operator == TOK_NE_ALT) {
       switch (thatOperator) {
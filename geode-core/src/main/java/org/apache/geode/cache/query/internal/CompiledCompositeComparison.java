@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.geode.cache.query.AmbiguousNameException;
+import org.apache.geode.cache.query.FunctionDomainException;
+import org.apache.geode.cache.query.NameResolutionException;
+import org.apache.geode.cache.query.QueryInvocationTargetException;
+import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.index.CompositeRange;
+import org.apache.geode.cache.query.internal.index.CompositeRangeIndex;
+import org.apache.geode.cache.query.internal.index.IndexData;
+
+/**
+ * The conditions of an AND junction on the leading components of a {@link CompositeRangeIndex},
+ * folded into a single comparison that is evaluated as a filter with one scan of the index. The
+ * index key of the comparison evaluates to the {@link CompositeRange} of the conditions, which the
+ * index looks up like an equality key. Evaluated as a condition, the comparison evaluates the
+ * conjunction of the folded conditions.
+ *
+ * @since Geode 1.8.0
+ */
+public class CompiledCompositeComparison extends CompiledComparison {
+
+  /**
+   * The conjunction of the folded conditions
+   */
+  private final CompiledValue condition;
+
+  private CompiledCompositeComparison(CompiledValue path, CompiledValue rangeKey,
+      CompiledValue condition) {
+    super(path, rangeKey, TOK_EQ);
+    this.condition = condition;
+  }
+
+  @Override
+  public Object evaluate(ExecutionContext context) throws FunctionDomainException,
+      TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
+    return this.condition.evaluate(context);
+  }
+
+  @Override
+  public Set computeDependencies(ExecutionContext context)
+      throws TypeMismatchException, AmbiguousNameException, NameResolutionException {
+    return context.addDependencies(this, this.condition.computeDependencies(context));
+  }
+
+  @Override
+  public boolean isRangeEvaluatable() {
+    // the range is applied by the index itself
+    return false;
+  }
+
+  /**
+   * Folds the comparisons among the given operands of an AND junction that are on the leading
+   * components of a composite range index into a CompiledCompositeComparison, if there is such an
+   * index with at least two components constrained by the comparisons. The index of the folded
+   * comparison is read locked and cached in the context like the index of any comparison.
+   *
+   * @return the operands with the folded comparisons replaced by the CompiledCompositeComparison,
+   *         or the given operands if no comparison is folded
+   */
+  static CompiledValue[] fold(CompiledValue[] operands, ExecutionContext context)
+      throws TypeMismatchException, AmbiguousNameException, NameResolutionException {
+    Map<String, List<Candidate>> candidates = new HashMap<>();
+    Set<String> equalityExpressions = new HashSet<>();
+    Set<String> rangeExpressions = new HashSet<>();
+    RuntimeIterator independentIterator = null;
+    for (CompiledValue operand : operands) {
+      // a CompiledLike is a comparison too, but its key is a pattern
+      if (operand.getClass() != CompiledComparison.class) {
+        continue;
+      }
+      CompiledComparison comparison = (CompiledComparison) operand;
+      int operator = comparison.getOperator();
+      if (operator == TOK_NE || operator == TOK_NE_ALT) {
+        continue;
+      }
+      PathAndKey pathAndKey = comparison.getPathAndKey(context);
+      if (pathAndKey == null || pathAndKey._path instanceof MapIndexable) {
+        continue;
+      }
+      Set dependencies = new HashSet();
+      context.computeUltimateDependencies(pathAndKey._path, dependencies);
+      if (dependencies.size() != 1) {
+        continue;
+      }
+      RuntimeIterator iterator = (RuntimeIterator) dependencies.iterator().next();
+      if (independentIterator == null) {
+        independentIterator = iterator;
+      } else if (iterator != independentIterator) {
+        continue;
+      }
+      StringBuilder sb = new StringBuilder();
+      pathAndKey._path.generateCanonicalizedExpression(sb, context);
+      String expression = sb.toString();
+      // if the key is the LEFT operand, then reflect the operator
+      operator = comparison.reflectOnOperator(pathAndKey._key);
+      candidates.computeIfAbsent(expression, k -> new ArrayList<>())
+          .add(new Candidate(comparison, pathAndKey, operator));
+      if (operator == TOK_EQ) {
+        equalityExpressions.add(expression);
+      } else {
+        rangeExpressions.add(expression);
+      }
+    }
+    if (candidates.size() < 2 || independentIterator.getScopeID() != context.currentScope()
+        .getScopeID()) {
+      return operands;
+    }
+    String regionPath = context.getRegionPathForIndependentRuntimeIterator(independentIterator);
+    if (regionPath == null) {
+      return operands;
+    }
+    List groupRuntimeItrs = context.getCurrScopeDpndntItrsBasedOnSingleIndpndntItr(
+        independentIterator);
+    String[] definitions = new String[groupRuntimeItrs.size()];
+    for (int i = 0; i < definitions.length; i++) {
+      definitions[i] = ((RuntimeIterator) groupRuntimeItrs.get(i)).getDefinition();
+    }
+    IndexData indexData = ((DefaultQueryService) context.getCache().getLocalQueryService())
+        .getCompositeIndex(regionPath, definitions, equalityExpressions, rangeExpressions, context);
+    if (indexData == null) {
+      return operands;
+    }
+
+    CompositeRangeIndex index = (CompositeRangeIndex) indexData.getIndex();
+    String[] components = index.getComponentExpressions();
+    List<CompiledComparison> folded = new ArrayList<>();
+    List<CompiledValue> prefix = new ArrayList<>();
+    CompiledValue path = null;
+    int k = 0;
+    for (; k < components.length; k++) {
+      Candidate equality = find(candidates.get(components[k]), TOK_EQ, TOK_EQ);
+      if (equality == null) {
+        break;
+      }
+      folded.add(equality.comparison);
+      prefix.add(equality.pathAndKey._key);
+      if (path == null) {
+        path = equality.pathAndKey._path;
+      }
+    }
+    Candidate lower = null;
+    Candidate upper = null;
+    if (k < components.length) {
+      List<Candidate> rangeCandidates = candidates.get(components[k]);
+      lower = find(rangeCandidates, TOK_GT, TOK_GE);
+      upper = find(rangeCandidates, TOK_LT, TOK_LE);
+      for (Candidate bound : new Candidate[] {lower, upper}) {
+        if (bound != null) {
+          folded.add(bound.comparison);
+          if (path == null) {
+            path = bound.pathAndKey._path;
+          }
+        }
+      }
+    }
+
+    CompiledValue condition = folded.size() == 1 ? folded.get(0)
+        : new CompiledJunction(folded.toArray(new CompiledValue[folded.size()]), LITERAL_and);
+    CompiledValue rangeKey = new RangeKey(components.length, prefix,
+        lower != null ? lower.pathAndKey._key : null, lower != null ? lower.operator : -1,
+        upper != null ? upper.pathAndKey._key : null, upper != null ? upper.operator : -1,
+        condition);
+    CompiledCompositeComparison composite =
+        new CompiledCompositeComparison(path, rangeKey, condition);
+    composite.computeDependencies(context);
+    context.cachePut(composite, new IndexInfo[] {new IndexInfo(rangeKey, path, index,
+        indexData.getMatchLevel(), indexData.getMapping(), TOK_EQ)});
+
+    Map<CompiledValue, Boolean> foldedOperands = new IdentityHashMap<>();
+    for (CompiledComparison comparison : folded) {
+      foldedOperands.put(comparison, Boolean.TRUE);
+    }
+    List<CompiledValue> result = new ArrayList<>(operands.length);
+    result.add(composite);
+    for (CompiledValue operand : operands) {
+      if (!foldedOperands.containsKey(operand)) {
+        result.add(operand);
+      }
+    }
+    return result.toArray(new CompiledValue[result.size()]);
+  }
+
+  private static Candidate find(List<Candidate> candidates, int operator1, int operator2) {
+    if (candidates != null) {
+      for (Candidate candidate : candidates) {
+        if (candidate.operator == operator1 || candidate.operator == operator2) {
+          return candidate;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * A comparison that can be folded, with its operator reflected so that the path is on the left
+   */
+  private static class Candidate {
+    final CompiledComparison comparison;
+    final PathAndKey pathAndKey;
+    final int operator;
+
+    Candidate(CompiledComparison comparison, PathAndKey pathAndKey, int operator) {
+      this.comparison = comparison;
+      this.pathAndKey = pathAndKey;
+      this.operator = operator;
+    }
+  }
+
+  /**
+   * The index key of a CompiledCompositeComparison, which evaluates to the {@link CompositeRange}
+   * selected by the keys of the folded conditions.
+   */
+  private static class RangeKey extends AbstractCompiledValue {
+    private final int componentCount;
+    private final List<CompiledValue> prefix;
+    private final CompiledValue lowerBound;
+    private final int lowerBoundOperator;
+    private final CompiledValue upperBound;
+    private final int upperBoundOperator;
+    private final CompiledValue condition;
+
+    RangeKey(int componentCount, List<CompiledValue> prefix, CompiledValue lowerBound,
+        int lowerBoundOperator, CompiledValue upperBound, int upperBoundOperator,
+        CompiledValue condition) {
+      this.componentCount = componentCount;
+      this.prefix = prefix;
+      this.lowerBound = lowerBound;
+      this.lowerBoundOperator = lowerBoundOperator;
+      this.upperBound = upperBound;
+      this.upperBoundOperator = upperBoundOperator;
+      this.condition = condition;
+    }
+
+    @Override
+    public int getType() {
+      return COMPOSITE_KEY;
+    }
+
+    @Override
+    public Object evaluate(ExecutionContext context) throws FunctionDomainException,
+        TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
+      List<Object> prefixValues = new ArrayList<>(this.prefix.size());
+      for (CompiledValue key : this.prefix) {
+        prefixValues.add(key.evaluate(context));
+      }
+      return CompositeRange.create(this.componentCount, prefixValues,
+          this.lowerBound != null ? this.lowerBound.evaluate(context) : null,
+          this.lowerBoundOperator,
+          this.upperBound != null ? this.upperBound.evaluate(context) : null,
+          this.upperBoundOperator, this.condition);
+    }
+  }
+}
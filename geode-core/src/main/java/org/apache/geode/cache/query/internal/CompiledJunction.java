@@ -37,6 +37,7 @@ import org.apache.geode.cache.query.Struct;
 import org.apache.geode.cache.query.TypeMismatchException;
 import org.apache.geode.cache.query.internal.index.IndexManager;
 import org.apache.geode.cache.query.internal.index.IndexProtocol;
+import org.apache.geode.cache.query.internal.index.IndexUtils;
 import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
 import org.apache.geode.cache.query.internal.types.StructTypeImpl;
 import org.apache.geode.cache.query.types.ObjectType;
@@ -99,6 +100,13 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
   // not set the place holder
   private static final String PLACEHOLDER_FOR_JOIN = "join";
 
+  /**
+   * The key of the operands of an AND junction folded for a composite range index in the context
+   * of an execution. The junction itself is not used as the key because its cached value tells
+   * whether the where clause has been evaluated with indexes.
+   */
+  private final Object compositeOperandsKey = new Object();
+
   CompiledJunction(CompiledValue[] operands, int operator) {
     // invariant: operator must be LITERAL_and or LITERAL_or
     // invariant: at least two operands
@@ -233,10 +241,11 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
     // The checks invoked before this function have ensured that all the
     // operands are of type ComparisonQueryInfo and of the form 'var = constant'.
     // Also need for sorting will not arise if there are only two operands
-    int len = this._operands.length;
+    CompiledValue[] operands = getOperandsForEvaluation(context);
+    int len = operands.length;
     List sortedList = new ArrayList(len);
     for (int i = 0; i < len; ++i) {
-      Filter toSort = (Filter) this._operands[i];
+      Filter toSort = (Filter) operands[i];
       int indxRsltToSort = toSort.getSizeEstimate(context);
       int sortedListLen = sortedList.size();
       int j = 0;
@@ -404,6 +413,7 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
   protected PlanInfo protGetPlanInfo(ExecutionContext context) throws FunctionDomainException,
       TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
     Support.Assert(_operator == LITERAL_or || _operator == LITERAL_and);
+    CompiledValue[] operands = getOperandsForEvaluation(context);
     PlanInfo resultPlanInfo = new PlanInfo();
     // set default evalAsFilter depending on operator
     boolean isOr = (_operator == LITERAL_or);
@@ -412,8 +422,8 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
     // for LITERAL_and operator, if any say yes to filter,
     // then change default evalAsFilter from false to true
     // of LITERAL_or operator, if any say no to filter, change to false
-    for (int i = 0; i < _operands.length; i++) {
-      PlanInfo opPlanInfo = _operands[i].getPlanInfo(context);
+    for (int i = 0; i < operands.length; i++) {
+      PlanInfo opPlanInfo = operands[i].getPlanInfo(context);
       resultPlanInfo.indexes.addAll(opPlanInfo.indexes);
       if (!isOr && opPlanInfo.evalAsFilter) {
         resultPlanInfo.evalAsFilter = true;
@@ -434,6 +444,28 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
     return Collections.unmodifiableList(Arrays.asList(_operands));
   }
 
+  /**
+   * Returns the operands to evaluate in the given context. The comparisons of an AND junction that
+   * can be evaluated together with a composite range index are folded into a
+   * {@link CompiledCompositeComparison}, once per execution.
+   */
+  CompiledValue[] getOperandsForEvaluation(ExecutionContext context)
+      throws TypeMismatchException, AmbiguousNameException, NameResolutionException {
+    if (_operator != LITERAL_and || !IndexUtils.indexesEnabled
+        || !(context instanceof QueryExecutionContext)) {
+      return _operands;
+    }
+    CompiledValue[] operands = (CompiledValue[]) context.cacheGet(this.compositeOperandsKey);
+    if (operands == null) {
+      operands = _operands;
+      if (context.getAllIndependentIteratorsOfCurrentScope().size() == 1) {
+        operands = CompiledCompositeComparison.fold(_operands, context);
+      }
+      context.cachePut(this.compositeOperandsKey, operands);
+    }
+    return operands;
+  }
+
 
   /**
    * TODO: Should composite operands be part of iterator operands of CompiledJunction or should it
@@ -448,13 +480,14 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
    */
   OrganizedOperands organizeOperands(ExecutionContext context) throws FunctionDomainException,
       TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
+    CompiledValue[] operands = getOperandsForEvaluation(context);
     // get the list of operands to evaluate, and evaluate operands that can use
     // indexes first.
-    List evalOperands = new ArrayList(_operands.length);
+    List evalOperands = new ArrayList(operands.length);
     int indexCount = 0;
     // TODO: Check if we can defer the creation of this array list only
     // if there exists an eval operand
-    List compositeIterOperands = new ArrayList(_operands.length);
+    List compositeIterOperands = new ArrayList(operands.length);
     // Asif: This Map will contain as key the composite filter operand & as
     // value , the set containing independent RuntimeIterators ( which will
     // necessarily be two )
@@ -464,7 +497,7 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
     boolean isJunctionNeeded = false;
     boolean indexExistsOnNonJoinOp = false;
 
-    for (int i = 0; i < _operands.length; i++) {
+    for (int i = 0; i < operands.length; i++) {
       // Asif : If we are inside this function this itself indicates
       // that there exists at least on operand which can be evaluated
       // as an auxFilterEvaluate. If any operand even if its flag of
@@ -481,7 +514,7 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
       // We are here itself implies, that any independent operand can be
       // either true or false for an AND junction but always false for an
       // OR Junction.
-      operand = this._operands[i];
+      operand = operands[i];
       if (!operand.isDependentOnCurrentScope(context)) {
         indexCount++;
         // Asif Ensure that independent operands are always at the start
@@ -1047,10 +1080,11 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
   public boolean isProjectionEvaluationAPossibility(ExecutionContext context)
       throws FunctionDomainException, TypeMismatchException, NameResolutionException,
       QueryInvocationTargetException {
-    for (int i = 0; i < this._operands.length; ++i) {
+    CompiledValue[] operands = getOperandsForEvaluation(context);
+    for (int i = 0; i < operands.length; ++i) {
       // LIKE gives rise to a JUNCTION in CompiledLike whether wildcard is present or not
-      if ((this._operands[i].getType() == JUNCTION || this._operands[i].getType() == LIKE)
-          && this._operands[i].getPlanInfo(context).evalAsFilter) {
+      if ((operands[i].getType() == JUNCTION || operands[i].getType() == LIKE)
+          && operands[i].getPlanInfo(context).evalAsFilter) {
         return false;
       }
     }
@@ -1077,6 +1111,7 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
   public boolean isLimitApplicableAtIndexLevel(ExecutionContext context)
       throws FunctionDomainException, TypeMismatchException, NameResolutionException,
       QueryInvocationTargetException {
+    CompiledValue[] operands = getOperandsForEvaluation(context);
     if (this._operator == LITERAL_or) {
       // There is a slight inefficiency in the sense that if the subjunction ( say AND) cannot apply
       // limit,
@@ -1084,9 +1119,9 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
       // flag
       // governing the behaviour of applying limit at index level, we cannot make it true for
       // specific clauses
-      for (int i = 0; i < this._operands.length; ++i) {
-        if (!this._operands[i].getPlanInfo(context).evalAsFilter
-            || ((Filter) this._operands[i]).isLimitApplicableAtIndexLevel(context)) {
+      for (int i = 0; i < operands.length; ++i) {
+        if (!operands[i].getPlanInfo(context).evalAsFilter
+            || ((Filter) operands[i]).isLimitApplicableAtIndexLevel(context)) {
           return false;
         }
       }
@@ -1102,11 +1137,11 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
       // hard coded to use 1 index
       // we can for the time being return true if there exists atleast one indexable condition
       boolean foundIndex = false;
-      for (int i = 0; i < this._operands.length; ++i) {
-        if (this._operands[i].getPlanInfo(context).evalAsFilter
-            && this._operands[i].getType() == JUNCTION) {
+      for (int i = 0; i < operands.length; ++i) {
+        if (operands[i].getPlanInfo(context).evalAsFilter
+            && operands[i].getType() == JUNCTION) {
           return false;
-        } else if (this._operands[i].getPlanInfo(context).evalAsFilter) {
+        } else if (operands[i].getPlanInfo(context).evalAsFilter) {
           foundIndex = true;
         }
       }
@@ -1118,17 +1153,18 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
   public boolean isOrderByApplicableAtIndexLevel(ExecutionContext context,
       String canonicalizedOrderByClause) throws FunctionDomainException, TypeMismatchException,
       NameResolutionException, QueryInvocationTargetException {
+    CompiledValue[] operands = getOperandsForEvaluation(context);
     if (this._operator == LITERAL_and) {
       // Set<IndexProtocol> usedIndex = new HashSet<IndexProtocol>();
       boolean foundRightIndex = false;
-      for (int i = 0; i < this._operands.length; ++i) {
-        PlanInfo pi = this._operands[i].getPlanInfo(context);
-        if (pi.evalAsFilter && this._operands[i].getType() == JUNCTION) {
+      for (int i = 0; i < operands.length; ++i) {
+        PlanInfo pi = operands[i].getPlanInfo(context);
+        if (pi.evalAsFilter && operands[i].getType() == JUNCTION) {
           return false;
         } else if (pi.evalAsFilter) {
           if (!foundRightIndex) {
             IndexProtocol ip =
-                (IndexProtocol) this._operands[i].getPlanInfo(context).indexes.get(0);
+                (IndexProtocol) operands[i].getPlanInfo(context).indexes.get(0);
             if (ip.getCanonicalizedIndexedExpression().equals(canonicalizedOrderByClause)
                 && pi.isPreferred) {
               foundRightIndex = true;
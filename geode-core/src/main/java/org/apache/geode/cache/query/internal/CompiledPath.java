@@ -29,6 +29,7 @@ import org.apache.geode.cache.query.QueryInvocationTargetException;
 import org.apache.geode.cache.query.QueryService;
 import org.apache.geode.cache.query.TypeMismatchException;
 import org.apache.geode.internal.cache.PartitionedRegion;
+import org.apache.geode.pdx.internal.PdxFieldAccessor;
 
 
 /**
@@ -42,6 +43,7 @@ import org.apache.geode.internal.cache.PartitionedRegion;
 public class CompiledPath extends AbstractCompiledValue {
   private CompiledValue _receiver; // the value represented by the expression before the dot
   private String _tailID; // the identifier after the dot.
+  private PdxFieldAccessor pdxFieldAccessor; // reads the tail from serialized pdx objects
 
   public CompiledPath(CompiledValue rcvr, String id) {
     _receiver = rcvr;
@@ -163,6 +165,20 @@ public class CompiledPath extends AbstractCompiledValue {
     return _receiver;
   }
 
+  /**
+   * Returns the accessor reading the field named by the tail ID from the serialized form of the pdx
+   * objects the receiver evaluates to. The accessor is created on first use and shared by all the
+   * evaluations of this path.
+   */
+  public PdxFieldAccessor getPdxFieldAccessor() {
+    PdxFieldAccessor accessor = this.pdxFieldAccessor;
+    if (accessor == null) {
+      accessor = new PdxFieldAccessor(getTailID());
+      this.pdxFieldAccessor = accessor;
+    }
+    return accessor;
+  }
+
   @Override
   public void generateCanonicalizedExpression(StringBuilder clauseBuffer, ExecutionContext context)
       throws AmbiguousNameException, TypeMismatchException, NameResolutionException {
@@ -28,6 +28,7 @@ import java.util.concurrent.atomic.LongAdder;
 import org.apache.geode.cache.CacheRuntimeException;
 import org.apache.geode.cache.Region;
 import org.apache.geode.cache.client.internal.ProxyCache;
+import org.apache.geode.cache.client.internal.QueryCursor;
 import org.apache.geode.cache.client.internal.ServerProxy;
 import org.apache.geode.cache.client.internal.UserAttributes;
 import org.apache.geode.cache.execute.Function;
@@ -168,18 +169,33 @@ public class DefaultQuery implements Query {
    */
   public DefaultQuery(String queryString, InternalCache cache, boolean isForRemote) {
     this.queryString = queryString;
-    QCompiler compiler = new QCompiler();
-    this.compiledQuery = compiler.compileQuery(queryString);
-    CompiledSelect cs = getSimpleSelect();
-    if (cs != null && !isForRemote && (cs.isGroupBy() || cs.isOrderBy())) {
-      QueryExecutionContext ctx = new QueryExecutionContext(null, cache);
-      try {
-        cs.computeDependencies(ctx);
-      } catch (QueryException qe) {
-        throw new QueryInvalidException("", qe);
+    // plans compiled for remote execution are not transformed, so they are not cached
+    QueryPlanCache planCache = cache == null || isForRemote ? null : cache.getQueryPlanCache();
+    if (planCache != null && !planCache.isEnabled()) {
+      planCache = null;
+    }
+    QueryPlanCache.Plan plan = planCache == null ? null : planCache.get(queryString);
+    if (plan == null) {
+      long generation = planCache == null ? 0 : planCache.getGeneration();
+      QCompiler compiler = new QCompiler();
+      CompiledValue compiled = compiler.compileQuery(queryString);
+      CompiledSelect cs = compiled instanceof CompiledSelect ? (CompiledSelect) compiled : null;
+      if (cs != null && !isForRemote && (cs.isGroupBy() || cs.isOrderBy())) {
+        QueryExecutionContext ctx = new QueryExecutionContext(null, cache);
+        try {
+          cs.computeDependencies(ctx);
+        } catch (QueryException qe) {
+          throw new QueryInvalidException("", qe);
+        }
+      }
+      plan = new QueryPlanCache.Plan(compiled, compiler.isTraceRequested());
+      // a COUNT query keeps its count in the compiled select while it executes
+      if (planCache != null && (cs == null || !cs.isCount())) {
+        planCache.put(queryString, plan, generation);
       }
     }
-    this.traceOn = compiler.isTraceRequested() || QUERY_VERBOSE;
+    this.compiledQuery = plan.getCompiledQuery();
+    this.traceOn = plan.isTraceRequested() || QUERY_VERBOSE;
     this.cache = cache;
     this.stats = new DefaultQueryStatistics();
   }
@@ -267,7 +283,28 @@ public class DefaultQuery implements Query {
       }
 
       context.setCqQueryContext(this.isCqQuery);
-      result = executeUsingContext(context);
+      QueryResultCache resultCache = getResultCache(params);
+      QueryResultCache.Key resultKey = null;
+      QueryResultCache.Entry cachedResults = null;
+      if (resultCache != null) {
+        resultKey = new QueryResultCache.Key(this.queryString, params, isRemoteQuery());
+        cachedResults = resultCache.get(resultKey);
+      }
+      boolean indexUsed;
+      if (cachedResults != null) {
+        result = cachedResults.getResults();
+        indexUsed = cachedResults.isIndexUsed();
+      } else {
+        // the regions are read before the query so that changes made while it is evaluated are
+        // seen as changes after it
+        QueryResultCache.Snapshot snapshot = resultCache == null ? null
+            : QueryResultCache.snapshot(this.cache, getRegionsInQuery(params));
+        result = executeUsingContext(context);
+        indexUsed = ((QueryExecutionContext) context).isIndexUsed();
+        if (snapshot != null && result instanceof SelectResults) {
+          result = resultCache.put(resultKey, (SelectResults) result, indexUsed, snapshot);
+        }
+      }
       // Only wrap/copy results when copy on read is set and an index is used
       // This is because when an index is used, the results are actual references to values in the
       // cache
@@ -285,8 +322,7 @@ public class DefaultQuery implements Query {
       // have the OR condition
       boolean needsCopyOnReadWrapper =
           this.cache.getCopyOnRead() && !DefaultQueryService.COPY_ON_READ_AT_ENTRY_LEVEL
-              || (((QueryExecutionContext) context).isIndexUsed()
-                  && DefaultQueryService.COPY_ON_READ_AT_ENTRY_LEVEL);
+              || (indexUsed && DefaultQueryService.COPY_ON_READ_AT_ENTRY_LEVEL);
       // For local queries returning pdx objects wrap the resultset with
       // ResultsCollectionPdxDeserializerWrapper
       // which deserializes these pdx objects.
@@ -320,6 +356,18 @@ public class DefaultQuery implements Query {
     }
   }
 
+  /**
+   * Returns the cache of the results of this query, or null if they may not be cached.
+   */
+  private QueryResultCache getResultCache(Object[] params) {
+    QueryResultCache resultCache = this.cache.getQueryResultCache();
+    if (resultCache == null || !resultCache.isEnabled() || this.isCqQuery
+        || !QueryResultCache.isCacheable(params)) {
+      return null;
+    }
+    return resultCache;
+  }
+
   /**
    * For Order by queries ,since they are already ordered by the comparator && it takes care of
    * conversion, we do not have to wrap it in a wrapper
@@ -347,6 +395,33 @@ public class DefaultQuery implements Query {
     return result;
   }
 
+  /**
+   * Executes the query on a server of the pool of this query, returning a cursor that reads the
+   * results as they are iterated instead of all of them at once. The cursor must be closed if it
+   * is not iterated to the end.
+   *
+   * @param params the parameters of the query, may be null
+   * @throws UnsupportedOperationException if this query does not execute on a server
+   * @since Geode 1.8.0
+   */
+  public QueryCursor executeWithCursor(Object... params) {
+    if (this.serverProxy == null) {
+      throw new UnsupportedOperationException(
+          "A query cursor is only supported for queries executed on a server");
+    }
+    try {
+      if (this.proxyCache != null) {
+        if (this.proxyCache.isClosed()) {
+          throw proxyCache.getCacheClosedException("Cache is closed for this user.");
+        }
+        UserAttributes.userAttributes.set(this.proxyCache.getUserAttributes());
+      }
+      return this.serverProxy.queryWithCursor(this.queryString, params);
+    } finally {
+      UserAttributes.userAttributes.set(null);
+    }
+  }
+
   /**
    * Execute a PR Query on the specified bucket. Assumes query already meets restrictions for PR
    * Query, and the first iterator in the FROM clause can be replaced with the BucketRegion.
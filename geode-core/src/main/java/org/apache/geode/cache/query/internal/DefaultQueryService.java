@@ -380,6 +380,32 @@ public class DefaultQueryService implements InternalQueryService {
     return indexManager.getBestMatchIndex(indexType, definitions, indexedExpression, context);
   }
 
+  /**
+   * Returns the composite range index of the region whose leading components are constrained by
+   * the most conditions on the given expressions, read locked.
+   *
+   * @param regionPath String containing the region name
+   * @param definitions array of canonicalized iterator definitions of the independent
+   *        RuntimeIterator and its dependent RuntimeIterators
+   * @param equalityExpressions the canonicalized expressions compared for equality
+   * @param rangeExpressions the canonicalized expressions compared with a range operator
+   * @param context ExecutionContext object
+   * @return IndexData object, or null if no composite index can be used
+   */
+  public IndexData getCompositeIndex(String regionPath, String[] definitions,
+      Set<String> equalityExpressions, Set<String> rangeExpressions, ExecutionContext context) {
+    Region region = cache.getRegion(regionPath);
+    if (region == null) {
+      return null;
+    }
+    IndexManager indexManager = IndexUtils.getIndexManager(cache, region, false);
+    if (indexManager == null) {
+      return null;
+    }
+    return indexManager.getCompositeIndex(definitions, equalityExpressions, rangeExpressions,
+        context);
+  }
+
   public Collection getIndexes() {
     ArrayList allIndexes = new ArrayList();
     Iterator rootRegions = cache.rootRegions().iterator();
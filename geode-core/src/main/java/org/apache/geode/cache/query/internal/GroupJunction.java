@@ -177,8 +177,31 @@ public class GroupJunction extends AbstractGroupOrRangeJunction {
     return createOrganizedOperandsObject(indexCount, evalOperands);
   }
 
+  /**
+   * Estimates the size of the junction from the estimates of its operands using an index: the
+   * lowest of them for an AND junction and their sum for an OR junction. Returns 1 if they cannot
+   * be estimated.
+   */
   public int getSizeEstimate(ExecutionContext context) throws FunctionDomainException,
       TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
-    return 1;
+    boolean isAnd = getOperator() == LITERAL_and;
+    long estimate = isAnd ? Integer.MAX_VALUE : 0;
+    for (CompiledValue operand : _operands) {
+      PlanInfo pi = operand.getPlanInfo(context);
+      // the estimate of a RangeJunction is a constant
+      if (!(operand instanceof Filter) || operand instanceof RangeJunction || !pi.evalAsFilter
+          || pi.indexes.size() != 1) {
+        if (isAnd) {
+          continue;
+        }
+        return 1;
+      }
+      int size = ((Filter) operand).getSizeEstimate(context);
+      estimate = isAnd ? Math.min(estimate, size) : estimate + size;
+    }
+    if (isAnd && estimate == Integer.MAX_VALUE) {
+      return 1;
+    }
+    return (int) Math.min(estimate, Integer.MAX_VALUE);
   }
 }
@@ -21,6 +21,7 @@ package org.apache.geode.cache.query.internal;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -42,6 +43,8 @@ public class IndexTrackingQueryObserver extends QueryObserverAdapter {
   private static final ThreadLocal indexInfo = new ThreadLocal();
   private static final ThreadLocal lastKeyUsed = new ThreadLocal();
   private static final ThreadLocal lastIndexUsed = new ThreadLocal();
+  /** The size estimates of the indexes considered by the query, until they are looked up */
+  private static final ThreadLocal<Map<Index, Integer>> sizeEstimates = new ThreadLocal<>();
   private volatile TestHook th;
 
   public void beforeIndexLookup(Index index, int oper, Object key) {
@@ -58,6 +61,7 @@ public class IndexTrackingQueryObserver extends QueryObserverAdapter {
       iInfo = new IndexInfo();
     }
     iInfo.addRegionId(index.getRegion().getFullPath());
+    addSizeEstimate(iInfo, index);
     indexMap.put(indexName, iInfo);
     this.lastIndexUsed.set(index);
     this.lastKeyUsed.set(key);
@@ -82,6 +86,7 @@ public class IndexTrackingQueryObserver extends QueryObserverAdapter {
       iInfo = new IndexInfo();
     }
     iInfo.addRegionId(index.getRegion().getFullPath());
+    addSizeEstimate(iInfo, index);
     indexMap.put(index.getName(), iInfo);
     this.lastIndexUsed.set(index);
     if (th != null) {
@@ -116,6 +121,31 @@ public class IndexTrackingQueryObserver extends QueryObserverAdapter {
     }
   }
 
+  /**
+   * Records the number of results an index is estimated to return for a condition of the query
+   * being executed, to be shown with the actual number of results once the index is looked up.
+   * Does nothing unless the index usage is tracked.
+   */
+  static void recordSizeEstimate(Index index, int size) {
+    if (!(QueryObserverHolder.getInstance() instanceof IndexTrackingQueryObserver)) {
+      return;
+    }
+    Map<Index, Integer> estimates = sizeEstimates.get();
+    if (estimates == null) {
+      estimates = new IdentityHashMap<>();
+      sizeEstimates.set(estimates);
+    }
+    estimates.put(index, size);
+  }
+
+  private void addSizeEstimate(IndexInfo iInfo, Index index) {
+    Map<Index, Integer> estimates = sizeEstimates.get();
+    Integer estimate = estimates == null ? null : estimates.remove(index);
+    if (estimate != null && estimate < Integer.MAX_VALUE) {
+      iInfo.getEstimates().put(index.getRegion().getFullPath(), estimate);
+    }
+  }
+
   private String getIndexName(Index index, Object key) {
     String indexName;
     if ((index instanceof MapRangeIndex || index instanceof CompactMapRangeIndex)
@@ -137,6 +167,7 @@ public class IndexTrackingQueryObserver extends QueryObserverAdapter {
       th.hook(4);
     }
     this.indexInfo.set(null);
+    sizeEstimates.remove();
   }
 
   public void setIndexInfo(Map indexInfoMap) {
@@ -164,10 +195,17 @@ public class IndexTrackingQueryObserver extends QueryObserverAdapter {
     // A {RegionFullPath, results} map for an Index lookup on a Region.
     private Map<String, Integer> results = new Object2ObjectOpenHashMap();
 
+    // A {RegionFullPath, estimated results} map, for the lookups whose size was estimated.
+    private Map<String, Integer> estimates = new Object2ObjectOpenHashMap();
+
     public Map getResults() {
       return results;
     }
 
+    public Map<String, Integer> getEstimates() {
+      return estimates;
+    }
+
     /**
      * Adds a results map (mostly a bucket index lookup results) to the "this" IndexInfo.
      *
@@ -194,11 +232,19 @@ public class IndexTrackingQueryObserver extends QueryObserverAdapter {
       for (Integer i : results.values()) {
         total += i.intValue();
       }
-      return "(Results: " + total + ")";
+      if (estimates.isEmpty()) {
+        return "(Results: " + total + ")";
+      }
+      long estimated = 0;
+      for (Integer i : estimates.values()) {
+        estimated += i.intValue();
+      }
+      return "(Results: " + total + ", Estimated: " + estimated + ")";
     }
 
     public void merge(IndexInfo src) {
       this.addResults(src.getResults());
+      this.estimates.putAll(src.getEstimates());
     }
   }
 
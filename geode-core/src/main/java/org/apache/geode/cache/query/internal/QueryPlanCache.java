@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.internal.cache.CachePerfStats;
+
+/**
+ * Caches the compiled form of the query strings that have been used to create queries on a cache,
+ * so that a query string that is used again is not parsed and transformed again. The state of an
+ * execution is kept in its {@link ExecutionContext}, so one plan is shared by all the queries
+ * created from a query string, the same way a server shares the compiled queries of its clients.
+ * COUNT queries, which count their results in the compiled select, are not cached.
+ * <p>
+ * The cache is disabled unless {@link #MAX_SIZE} is set, and then holds at most that many plans.
+ * When it is full the plans that have not been used since the last eviction are dropped. A plan
+ * resolves its GROUP BY and ORDER BY dependencies against the regions of the cache when it is
+ * compiled, so all the plans are dropped when a region is created, destroyed or recreated. Index
+ * selection is not part of a plan and is done again by each execution.
+ *
+ * @since Geode 1.8.0
+ */
+public class QueryPlanCache {
+
+  /**
+   * System property to set the maximum number of compiled query plans cached by a cache. The
+   * default, zero, disables the cache.
+   */
+  public static final int MAX_SIZE =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "Query.PLAN_CACHE_SIZE", 0);
+
+  private final int maxSize;
+
+  private final CachePerfStats stats;
+
+  private final ConcurrentHashMap<String, Plan> plans = new ConcurrentHashMap<>();
+
+  /**
+   * Incremented each time the cache is invalidated, so that a plan compiled before an
+   * invalidation is not added after it.
+   */
+  private final AtomicLong generation = new AtomicLong();
+
+  public QueryPlanCache(CachePerfStats stats) {
+    this(MAX_SIZE, stats);
+  }
+
+  public QueryPlanCache(int maxSize, CachePerfStats stats) {
+    this.maxSize = maxSize;
+    this.stats = stats;
+  }
+
+  public boolean isEnabled() {
+    return this.maxSize > 0;
+  }
+
+  /**
+   * Returns the generation of the cache, to be passed to {@link #put} with a plan compiled after
+   * this call.
+   */
+  public long getGeneration() {
+    return this.generation.get();
+  }
+
+  /**
+   * Returns the cached plan of the given query string, or null if it is not cached.
+   */
+  public Plan get(String queryString) {
+    Plan plan = this.plans.get(queryString);
+    if (plan == null) {
+      this.stats.incQueryPlanCacheMisses();
+      return null;
+    }
+    plan.used = true;
+    this.stats.incQueryPlanCacheHits();
+    return plan;
+  }
+
+  /**
+   * Caches the plan of the given query string unless the cache has been invalidated since the
+   * given generation.
+   */
+  public void put(String queryString, Plan plan, long generation) {
+    if (!isEnabled()) {
+      return;
+    }
+    if (this.plans.size() >= this.maxSize) {
+      evict();
+    }
+    this.plans.putIfAbsent(queryString, plan);
+    if (this.generation.get() != generation) {
+      // a region changed while the plan was compiled
+      this.plans.remove(queryString, plan);
+    }
+  }
+
+  /**
+   * Drops all the cached plans.
+   */
+  public void invalidate() {
+    this.generation.incrementAndGet();
+    this.plans.clear();
+  }
+
+  public int size() {
+    return this.plans.size();
+  }
+
+  /**
+   * Drops the plans that have not been used since the last eviction. If all of them have been used
+   * the cache is cleared, since they will be cached again as they are used.
+   */
+  private synchronized void evict() {
+    if (this.plans.size() < this.maxSize) {
+      // another thread evicted while this one waited
+      return;
+    }
+    boolean removed = false;
+    for (Iterator<Plan> it = this.plans.values().iterator(); it.hasNext();) {
+      Plan plan = it.next();
+      if (plan.used) {
+        plan.used = false;
+      } else {
+        it.remove();
+        removed = true;
+      }
+    }
+    if (!removed) {
+      this.plans.clear();
+    }
+  }
+
+  /**
+   * The compiled form of a query string.
+   */
+  public static class Plan {
+    private final CompiledValue compiledQuery;
+
+    private final boolean traceRequested;
+
+    /**
+     * Whether the plan has been used since the last eviction
+     */
+    private volatile boolean used;
+
+    public Plan(CompiledValue compiledQuery, boolean traceRequested) {
+      this.compiledQuery = compiledQuery;
+      this.traceRequested = traceRequested;
+    }
+
+    public CompiledValue getCompiledQuery() {
+      return this.compiledQuery;
+    }
+
+    public boolean isTraceRequested() {
+      return this.traceRequested;
+    }
+  }
+}
@@ -0,0 +1,347 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.types.CollectionType;
+import org.apache.geode.cache.query.types.ObjectType;
+import org.apache.geode.cache.util.ObjectSizer;
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.internal.cache.CachePerfStats;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.InternalRegion;
+import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.cache.PartitionedRegion;
+
+/**
+ * Caches the results of the queries executed on a cache, keyed by query string and bind
+ * parameters, so that a query executed again against regions that have not changed since is not
+ * evaluated again. This is meant for queries that are repeated often against slowly changing
+ * regions.
+ * <p>
+ * Each {@link LocalRegion} counts the changes made to its entries, whatever their origin. Cached
+ * results keep the counts of the regions of their query, read before the query was evaluated, and
+ * are dropped when they are looked up and one of the counts has changed. Only queries on regions
+ * that hold all the data the query reads can be cached, so queries on partitioned regions, whose
+ * buckets change on other members, are always evaluated. Queries with bind parameters that are not
+ * immutable values are not cached either.
+ * <p>
+ * The cache is disabled unless {@link #MAX_MEGABYTES} is set. It is bounded by the estimated size
+ * of the results it holds, evicting the least recently used results. The elements of cached results
+ * are copied out of the results of the query, and each execution of the query, including the one
+ * that evaluated it, gets its own unmodifiable view of them.
+ *
+ * @since Geode 1.8.0
+ */
+public class QueryResultCache {
+
+  /**
+   * System property to set the maximum estimated size, in megabytes, of the query results cached
+   * by a cache. Zero, the default, disables the cache.
+   */
+  public static final int MAX_MEGABYTES =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "Query.RESULT_CACHE_MAX_MEGABYTES", 0);
+
+  /**
+   * Whether results are cached, and so whether regions need to count their changes.
+   */
+  public static final boolean ENABLED = MAX_MEGABYTES > 0;
+
+  /**
+   * The estimated overhead of a cached result and of each of its elements
+   */
+  private static final int PER_RESULTS_OVERHEAD = 128;
+  private static final int PER_ELEMENT_OVERHEAD = 16;
+
+  private final long maxBytes;
+
+  private final CachePerfStats stats;
+
+  /** The cached results in access order. Guarded by itself. */
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  /** Guarded by entries */
+  private long bytes;
+
+  public QueryResultCache(CachePerfStats stats) {
+    this(MAX_MEGABYTES * 1024L * 1024L, stats);
+  }
+
+  public QueryResultCache(long maxBytes, CachePerfStats stats) {
+    this.maxBytes = maxBytes;
+    this.stats = stats;
+  }
+
+  public boolean isEnabled() {
+    return this.maxBytes > 0;
+  }
+
+  /**
+   * Returns whether the results of a query with the given bind parameters may be cached.
+   */
+  public static boolean isCacheable(Object[] params) {
+    for (Object param : params) {
+      if (param != null && !(param instanceof String || param instanceof Integer
+          || param instanceof Long || param instanceof Short || param instanceof Byte
+          || param instanceof Double || param instanceof Float || param instanceof Boolean
+          || param instanceof Character || param instanceof BigDecimal
+          || param instanceof BigInteger || param instanceof Enum)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Reads the change counts of the given regions, to be done before a query on them is evaluated.
+   *
+   * @return the counts, or null if a query on the regions may not be cached
+   */
+  public static Snapshot snapshot(InternalCache cache, Collection<String> regionPaths) {
+    if (regionPaths.isEmpty()) {
+      // the query reads bind parameters or constants
+      return null;
+    }
+    LocalRegion[] regions = new LocalRegion[regionPaths.size()];
+    long[] versions = new long[regions.length];
+    int i = 0;
+    for (String regionPath : regionPaths) {
+      InternalRegion region = cache.getRegionByPath(regionPath);
+      if (!(region instanceof LocalRegion) || region instanceof PartitionedRegion
+          || !region.isInitialized()) {
+        return null;
+      }
+      regions[i] = (LocalRegion) region;
+      versions[i] = regions[i].getQueryResultVersion();
+      i++;
+    }
+    return new Snapshot(regions, versions);
+  }
+
+  /**
+   * Returns the cached results of the given query, or null if they are not cached or their regions
+   * have changed since they were cached.
+   */
+  public Entry get(Key key) {
+    Entry entry;
+    synchronized (this.entries) {
+      entry = this.entries.get(key);
+    }
+    if (entry == null) {
+      this.stats.incQueryResultCacheMisses();
+      return null;
+    }
+    if (!entry.snapshot.isCurrent()) {
+      synchronized (this.entries) {
+        if (this.entries.remove(key, entry)) {
+          this.bytes -= entry.bytes;
+          this.stats.incQueryResultCacheBytes(-entry.bytes);
+        }
+      }
+      this.stats.incQueryResultCacheStaleResults();
+      this.stats.incQueryResultCacheMisses();
+      return null;
+    }
+    this.stats.incQueryResultCacheHits();
+    return entry;
+  }
+
+  /**
+   * Caches the results of the given query, evaluated after the given snapshot of its regions was
+   * taken.
+   *
+   * @return the results to return to the execution that evaluated the query, which are a view of
+   *         the cached results if they were cached
+   */
+  public SelectResults put(Key key, SelectResults results, boolean indexUsed, Snapshot snapshot) {
+    if (!isEnabled()) {
+      return results;
+    }
+    long size = estimateSize(results);
+    if (size > this.maxBytes) {
+      return results;
+    }
+    Entry entry = new Entry(copyElements(results), results.getCollectionType().getElementType(),
+        indexUsed, snapshot, size);
+    synchronized (this.entries) {
+      Entry old = this.entries.put(key, entry);
+      long delta = size - (old == null ? 0 : old.bytes);
+      for (Iterator<Entry> it = this.entries.values().iterator(); this.bytes + delta > this.maxBytes
+          && it.hasNext();) {
+        Entry eldest = it.next();
+        if (eldest != entry) {
+          it.remove();
+          delta -= eldest.bytes;
+        }
+      }
+      this.bytes += delta;
+      this.stats.incQueryResultCacheBytes(delta);
+    }
+    return entry.getResults();
+  }
+
+  public int size() {
+    synchronized (this.entries) {
+      return this.entries.size();
+    }
+  }
+
+  public long getBytes() {
+    synchronized (this.entries) {
+      return this.bytes;
+    }
+  }
+
+  /**
+   * Copies the elements of the given results into an unmodifiable collection that keeps whether
+   * they are ordered and whether they may hold duplicates.
+   */
+  private static Collection copyElements(SelectResults<?> results) {
+    CollectionType collectionType = results.getCollectionType();
+    if (collectionType.isOrdered()) {
+      return Collections.unmodifiableList(new ArrayList<>(results));
+    } else if (!collectionType.allowsDuplicates()) {
+      return Collections.unmodifiableSet(new LinkedHashSet<>(results));
+    } else {
+      return Collections.unmodifiableCollection(new ArrayList<>(results));
+    }
+  }
+
+  private static long estimateSize(SelectResults<?> results) {
+    long size = PER_RESULTS_OVERHEAD;
+    for (Object element : results) {
+      size += PER_ELEMENT_OVERHEAD;
+      if (element != null) {
+        size += ObjectSizer.DEFAULT.sizeof(element);
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Identifies the results of a query.
+   */
+  public static class Key {
+    private final String queryString;
+
+    private final Object[] params;
+
+    private final boolean remote;
+
+    public Key(String queryString, Object[] params, boolean remote) {
+      this.queryString = queryString;
+      this.params = params.clone();
+      this.remote = remote;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return this.remote == other.remote && this.queryString.equals(other.queryString)
+          && Arrays.equals(this.params, other.params);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * this.queryString.hashCode() + Arrays.hashCode(this.params);
+    }
+  }
+
+  /**
+   * The change counts of the regions of a query.
+   */
+  public static class Snapshot {
+    private final LocalRegion[] regions;
+
+    private final long[] versions;
+
+    Snapshot(LocalRegion[] regions, long[] versions) {
+      this.regions = regions;
+      this.versions = versions;
+    }
+
+    /**
+     * Returns whether none of the regions has changed or been destroyed since the snapshot.
+     */
+    boolean isCurrent() {
+      for (int i = 0; i < this.regions.length; i++) {
+        if (this.regions[i].isDestroyed()
+            || this.regions[i].getQueryResultVersion() != this.versions[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Cached results of a query.
+   */
+  public static class Entry {
+    private final Collection elements;
+
+    private final ObjectType elementType;
+
+    private final boolean indexUsed;
+
+    private final Snapshot snapshot;
+
+    private final long bytes;
+
+    Entry(Collection elements, ObjectType elementType, boolean indexUsed, Snapshot snapshot,
+        long bytes) {
+      this.elements = elements;
+      this.elementType = elementType;
+      this.indexUsed = indexUsed;
+      this.snapshot = snapshot;
+      this.bytes = bytes;
+    }
+
+    /**
+     * Returns a new view of the cached results, which throws UnsupportedOperationException on any
+     * attempt to modify them.
+     */
+    public SelectResults getResults() {
+      ResultsCollectionWrapper results =
+          new ResultsCollectionWrapper(this.elementType, this.elements);
+      results.setModifiable(false);
+      return results;
+    }
+
+    /**
+     * Returns whether the evaluation of the query used an index, which decides whether its results
+     * need to be copied on read.
+     */
+    public boolean isIndexUsed() {
+      return this.indexUsed;
+    }
+  }
+}
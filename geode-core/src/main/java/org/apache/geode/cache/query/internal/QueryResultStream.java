@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.geode.cache.query.SelectResults;
+
+/**
+ * Hands the results of a query on a partitioned region to a consumer as the members hosting the
+ * buckets finish, instead of holding them until all the buckets have been queried. A stream is
+ * installed for the thread that executes the query with {@link #setCurrent}. It is only used when
+ * the results of the members do not have to be combined, that is when the query has no DISTINCT,
+ * ORDER BY, LIMIT, COUNT or GROUP BY; otherwise all the results are returned by the query as
+ * usual.
+ *
+ * @since Geode 1.8.0
+ */
+public class QueryResultStream {
+
+  private static final ThreadLocal<QueryResultStream> current = new ThreadLocal<>();
+
+  private final BlockingQueue<SelectResults> results = new LinkedBlockingQueue<>();
+
+  private volatile boolean finished;
+
+  /**
+   * Returns the stream of the query executed by the calling thread, or null if it has none.
+   */
+  public static QueryResultStream getCurrent() {
+    return current.get();
+  }
+
+  /**
+   * Sets the stream of the queries executed by the calling thread. Null removes it.
+   */
+  public static void setCurrent(QueryResultStream stream) {
+    if (stream == null) {
+      current.remove();
+    } else {
+      current.set(stream);
+    }
+  }
+
+  /**
+   * Adds the results of a member.
+   */
+  public void add(SelectResults memberResults) {
+    if (!this.finished) {
+      this.results.add(memberResults);
+    }
+  }
+
+  /**
+   * Called once the query has completed. The results already added can still be taken.
+   */
+  public void finish() {
+    this.finished = true;
+  }
+
+  /**
+   * Discards the results that have not been taken and the ones added later.
+   */
+  public void discard() {
+    this.finished = true;
+    this.results.clear();
+  }
+
+  /**
+   * Waits for the next results added to the stream.
+   *
+   * @return the results of a member, or null once the query has completed and all its results have
+   *         been taken
+   */
+  public SelectResults take() throws InterruptedException {
+    while (true) {
+      SelectResults memberResults = this.results.poll(100, TimeUnit.MILLISECONDS);
+      if (memberResults != null) {
+        return memberResults;
+      }
+      if (this.finished) {
+        return this.results.poll();
+      }
+    }
+  }
+}
@@ -23,7 +23,10 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -41,6 +44,7 @@ import org.apache.geode.cache.query.QueryService;
 import org.apache.geode.cache.query.SelectResults;
 import org.apache.geode.cache.query.Struct;
 import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.CompiledBindArgument;
 import org.apache.geode.cache.query.internal.CompiledID;
 import org.apache.geode.cache.query.internal.CompiledIndexOperation;
 import org.apache.geode.cache.query.internal.CompiledIteratorDef;
@@ -74,8 +78,11 @@ import org.apache.geode.internal.cache.partitioned.Bucket;
 import org.apache.geode.internal.cache.persistence.query.CloseableIterator;
 import org.apache.geode.internal.i18n.LocalizedStrings;
 import org.apache.geode.internal.logging.LogService;
+import org.apache.geode.internal.offheap.StoredObject;
+import org.apache.geode.internal.offheap.annotations.Released;
 import org.apache.geode.internal.offheap.annotations.Retained;
 import org.apache.geode.pdx.PdxInstance;
+import org.apache.geode.pdx.internal.PdxFieldAccessor;
 import org.apache.geode.pdx.internal.PdxString;
 
 /**
@@ -141,6 +148,26 @@ public abstract class AbstractIndex implements IndexProtocol {
   /** Flag to indicate if the index is populated with data */
   volatile boolean isPopulated = false;
 
+  /**
+   * The minimum number of index updates after which the statistics of the keys of an index are
+   * rebuilt
+   */
+  private static final int MIN_UPDATES_TO_REBUILD_KEY_STATISTICS = 100;
+
+  /** The number of updates of this index, to know when its key statistics need to be rebuilt */
+  private final LongAdder updates = new LongAdder();
+
+  /**
+   * The number of updates of this index when its key statistics were last rebuilt, or -1 if they
+   * have never been built
+   */
+  private volatile long keyStatisticsUpdates = -1;
+
+  private final AtomicBoolean buildingKeyStatistics = new AtomicBoolean();
+
+  /** The histogram of the keys of this index, built once a range lookup is estimated */
+  private volatile IndexHistogram histogram;
+
   AbstractIndex(InternalCache cache, String indexName, Region region, String fromClause,
       String indexedExpression, String projectionAttributes, String originalFromClause,
       String originalIndexedExpression, String[] defintions, IndexStatistics stats) {
@@ -201,6 +228,88 @@ public abstract class AbstractIndex implements IndexProtocol {
     long end = System.nanoTime();
     this.internalIndexStats.incUpdatesInProgress(-1);
     this.internalIndexStats.incUpdateTime(end - start);
+    this.updates.increment();
+  }
+
+  /**
+   * Rebuilds the statistics of the keys of this index in the background if they have never been
+   * built or the index has been updated by more than a tenth of its values since. Queries keep
+   * using the previous statistics, or none, until the new ones are ready.
+   */
+  void refreshKeyStatistics() {
+    long currentUpdates = this.updates.sum();
+    long builtUpdates = this.keyStatisticsUpdates;
+    if (builtUpdates >= 0 && currentUpdates - builtUpdates <= Math.max(
+        MIN_UPDATES_TO_REBUILD_KEY_STATISTICS, this.internalIndexStats.getNumberOfValues() / 10)) {
+      return;
+    }
+    if (!this.buildingKeyStatistics.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      this.cache.getDistributionManager().getWaitingThreadPool().execute(() -> {
+        try {
+          buildKeyStatistics();
+          this.keyStatisticsUpdates = currentUpdates;
+        } catch (RuntimeException e) {
+          if (logger.isDebugEnabled()) {
+            logger.debug("Could not build the key statistics of index {}", getName(), e);
+          }
+        } finally {
+          this.buildingKeyStatistics.set(false);
+        }
+      });
+    } catch (RejectedExecutionException ignore) {
+      // the cache is closing
+      this.buildingKeyStatistics.set(false);
+    }
+  }
+
+  /**
+   * Builds the statistics of the keys of this index, on a background thread while the index may be
+   * updated.
+   */
+  void buildKeyStatistics() {
+    IndexHistogram.Builder builder =
+        new IndexHistogram.Builder(this.internalIndexStats.getNumberOfValues());
+    if (addKeysToHistogram(builder)) {
+      this.histogram = builder.build();
+    }
+  }
+
+  /**
+   * Records that the statistics of the keys of this index reflect all its updates so far.
+   */
+  void keyStatisticsBuilt() {
+    this.keyStatisticsUpdates = this.updates.sum();
+  }
+
+  /**
+   * Returns the histogram of the keys of this index, and has it rebuilt if there is none or the
+   * index has been updated enough since it was built. Returns null if the index does not keep its
+   * keys in order or the first histogram is not built yet.
+   */
+  IndexHistogram getHistogram() {
+    refreshKeyStatistics();
+    return this.histogram;
+  }
+
+  /**
+   * Adds the keys of this index to the given histogram builder in key order, if the index keeps
+   * them in order.
+   *
+   * @return false if the keys are not in order
+   */
+  boolean addKeysToHistogram(IndexHistogram.Builder builder) {
+    return false;
+  }
+
+  /**
+   * Drops the histogram of the keys of this index, when its data is recreated.
+   */
+  void clearHistogram() {
+    this.histogram = null;
+    this.keyStatisticsUpdates = -1;
   }
 
   long updateIndexUseStats() {
@@ -555,6 +664,59 @@ public abstract class AbstractIndex implements IndexProtocol {
     return value;
   }
 
+  /**
+   * Returns the accessor reading the indexed field straight from the serialized pdx values of the
+   * region when the index is on a field of the region values, like "p.id" from "/region p".
+   * Otherwise returns null, and the indexed expression is always evaluated.
+   */
+  static PdxFieldAccessor getPdxFieldAccessor(IndexCreationHelper helper) {
+    if (!IndexManager.READ_PDX_FIELDS || !(helper instanceof FunctionalIndexCreationHelper)) {
+      return null;
+    }
+    FunctionalIndexCreationHelper functionalHelper = (FunctionalIndexCreationHelper) helper;
+    List iterators = helper.getIterators();
+    CompiledValue indexedExpr = helper.getCompiledIndexedExpression();
+    if (iterators.size() != 1 || functionalHelper.isFirstIteratorRegionEntry
+        || !(functionalHelper.additionalProj instanceof CompiledPath)
+        || !((CompiledPath) functionalHelper.additionalProj).getTailID().equals("value")
+        || !(indexedExpr instanceof CompiledPath)) {
+      return null;
+    }
+    CompiledIteratorDef iterDef = (CompiledIteratorDef) iterators.get(0);
+    CompiledValue receiver = ((CompiledPath) indexedExpr).getReceiver();
+    if (!(iterDef.getCollectionExpr() instanceof CompiledBindArgument)
+        || !(receiver instanceof CompiledID)
+        || !((CompiledID) receiver).getId().equals(iterDef.getName())) {
+      return null;
+    }
+    return ((CompiledPath) indexedExpr).getPdxFieldAccessor();
+  }
+
+  /**
+   * Reads the index key of the entry with the given accessor, without deserializing its value.
+   * Returns {@link PdxFieldAccessor#NOT_READ} if the value is not serialized pdx, in which case the
+   * indexed expression has to be evaluated.
+   */
+  // package-private to avoid synthetic accessor
+  Object readPdxIndexKey(PdxFieldAccessor accessor, RegionEntry entry) {
+    Object value = entry.getValueOffHeapOrDiskWithoutFaultIn((LocalRegion) this.region);
+    if (value instanceof StoredObject) {
+      @Released
+      StoredObject storedObject = (StoredObject) value;
+      try {
+        return accessor.read(storedObject, this.cache);
+      } finally {
+        storedObject.release();
+      }
+    } else if (value instanceof CachedDeserializable) {
+      value = ((CachedDeserializable) value).getValue();
+      if (value instanceof byte[]) {
+        return accessor.read((byte[]) value, this.cache);
+      }
+    }
+    return PdxFieldAccessor.NOT_READ;
+  }
+
   private void addToResultsWithUnionOrIntersection(Collection results,
       SelectResults intermediateResults, boolean isIntersection, Object value) {
 
@@ -904,6 +1066,18 @@ public abstract class AbstractIndex implements IndexProtocol {
 
     public void incUpdatesInProgress(int delta) {}
 
+    public void incUpdateLag(int delta) {}
+
+    public void incUpdatesCoalesced() {}
+
+    public long getUpdateLag() {
+      return 0L;
+    }
+
+    public long getUpdatesCoalesced() {
+      return 0L;
+    }
+
     public void incUsesInProgress(int delta) {}
 
     public void updateNumKeys(long count) {}
@@ -132,6 +132,25 @@ public abstract class AbstractMapIndex extends AbstractIndex {
       this.vsdStats.incUpdatesInProgress(delta);
     }
 
+    public void incUpdateLag(int delta) {
+      this.vsdStats.incUpdateLag(delta);
+    }
+
+    public void incUpdatesCoalesced() {
+      this.vsdStats.incUpdatesCoalesced();
+    }
+
+    /**
+     * Returns the number of updates queued for this index when it is maintained asynchronously.
+     */
+    public long getUpdateLag() {
+      return this.vsdStats.getUpdateLag();
+    }
+
+    public long getUpdatesCoalesced() {
+      return this.vsdStats.getUpdatesCoalesced();
+    }
+
     public void incNumUses() {
       this.vsdStats.incNumUses();
     }
@@ -0,0 +1,461 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.Logger;
+
+import org.apache.geode.CancelCriterion;
+import org.apache.geode.CancelException;
+import org.apache.geode.cache.query.Index;
+import org.apache.geode.cache.query.internal.QueryMonitor;
+import org.apache.geode.cache.query.internal.index.AbstractIndex.InternalIndexStatistics;
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.internal.cache.GemfireCacheHelper;
+import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.cache.RegionEntry;
+import org.apache.geode.internal.logging.LogService;
+import org.apache.geode.internal.logging.LoggingThreadGroup;
+
+/**
+ * Applies the updates of the indexes of a region whose indexes are maintained asynchronously.
+ * <p>
+ * Each index has its own queue of pending updates. The queues are drained in batches by a pool of
+ * threads shared by the indexes of the region, so that the indexes are updated in parallel, but
+ * only one batch of an index is applied at a time so that its updates are applied in order. An
+ * update evaluates the value the entry has when it is applied, so an update of an entry whose
+ * previous update is still queued is merged into it.
+ * <p>
+ * The number of updates queued for an index is its update lag, reported by the updateLag statistic
+ * of the index. When {@link #MAX_QUERY_LAG} is set, a query waits for the lag of the indexes it
+ * uses to drop to it.
+ *
+ * @since Geode 1.8.0
+ */
+public class AsyncIndexUpdater {
+  private static final Logger logger = LogService.getLogger();
+
+  /**
+   * System property to set the number of threads applying the updates of the indexes of a region.
+   */
+  static final int NUM_THREADS = Integer.getInteger(
+      DistributionConfig.GEMFIRE_PREFIX + "index.ASYNC_UPDATE_THREADS",
+      Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+  /**
+   * System property to set the maximum number of updates of an index applied in one batch.
+   */
+  static final int BATCH_SIZE =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "index.ASYNC_UPDATE_BATCH_SIZE", 1000);
+
+  /**
+   * System property to set the number of queued updates an index may have when a query uses it. The
+   * query waits for the updates beyond it to be applied. The default, -1, lets queries use the
+   * indexes without waiting.
+   */
+  public static int MAX_QUERY_LAG =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "index.ASYNC_MAX_QUERY_LAG", -1);
+
+  private final IndexManager indexManager;
+
+  /** the maximum number of updates queued for an index, unbounded if not positive */
+  private final int maxQueuedUpdates;
+
+  private final CancelCriterion stopper;
+
+  private final ThreadPoolExecutor executor;
+
+  private final ConcurrentMap<String, IndexQueue> queues = new ConcurrentHashMap<>();
+
+  /**
+   * The number of queued updates of each entry, across all the indexes. The entry is marked as
+   * being updated while it has queued updates, so that the queries evaluate it again.
+   */
+  private final ConcurrentMap<RegionEntry, Integer> entriesInProgress = new ConcurrentHashMap<>();
+
+  private volatile boolean shutdown = false;
+
+  AsyncIndexUpdater(IndexManager indexManager, int maxQueuedUpdates) {
+    this.indexManager = indexManager;
+    this.maxQueuedUpdates = maxQueuedUpdates;
+    this.stopper = ((LocalRegion) indexManager.getRegion()).getCancelCriterion();
+    final ThreadGroup group =
+        LoggingThreadGroup.createThreadGroup("QueryMonitor Thread Group", logger);
+    this.executor = new ThreadPoolExecutor(NUM_THREADS, NUM_THREADS, 60, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), GemfireCacheHelper.CreateThreadFactory(group,
+            "OqlIndexUpdater:" + indexManager.getRegion().getFullPath()));
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Queues an update of the entry for all the indexes of the region.
+   *
+   * @param action one of IndexManager.ADD_ENTRY, UPDATE_ENTRY, REMOVE_ENTRY or RECREATE_INDEX
+   * @param entry the entry updated, null for RECREATE_INDEX
+   * @param opCode one of IndexProtocol.OTHER_OP, BEFORE_UPDATE_OP, AFTER_UPDATE_OP,
+   *        REMOVE_DUE_TO_GII_TOMBSTONE_CLEANUP or CLEAN_UP_THREAD_LOCALS
+   */
+  public void addTask(int action, RegionEntry entry, int opCode) {
+    List<String> indexNames = this.indexManager.getMaintainedIndexNames();
+    if (this.maxQueuedUpdates > 0) {
+      for (String indexName : indexNames) {
+        IndexQueue queue = this.queues.get(indexName);
+        if (queue != null && queue.lag.get() >= this.maxQueuedUpdates) {
+          throw new IllegalStateException(
+              "The queue of the asynchronous updates of index " + indexName + " is full");
+        }
+      }
+    }
+    for (String indexName : indexNames) {
+      getQueue(indexName).add(action, entry, opCode);
+    }
+  }
+
+  /**
+   * Returns the number of updates queued for the given index.
+   */
+  public int getUpdateLag(String indexName) {
+    IndexQueue queue = this.queues.get(indexName);
+    return queue == null ? 0 : queue.lag.get();
+  }
+
+  /**
+   * Waits for the number of updates queued for the given index to drop to the given lag.
+   */
+  public void waitForLag(String indexName, int maxLag) {
+    IndexQueue queue = this.queues.get(indexName);
+    if (queue != null) {
+      queue.waitForLag(maxLag);
+    }
+  }
+
+  /**
+   * Used by tests to determine if all the queued updates have been applied.
+   */
+  public boolean isDone() {
+    for (IndexQueue queue : this.queues.values()) {
+      if (queue.lag.get() > 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Drops the updates queued for a removed index.
+   */
+  void removeIndex(String indexName) {
+    IndexQueue queue = this.queues.remove(indexName);
+    if (queue != null) {
+      queue.discard();
+    }
+  }
+
+  /**
+   * Stops the threads applying the updates. Does not return until they have stopped.
+   */
+  public void shutdown() {
+    this.shutdown = true;
+    this.executor.shutdownNow();
+    boolean interrupted = false;
+    try {
+      while (!this.executor.awaitTermination(1, TimeUnit.SECONDS)) {
+        // wait for the batches being applied
+      }
+    } catch (InterruptedException ignore) {
+      interrupted = true;
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private IndexQueue getQueue(String indexName) {
+    IndexQueue queue = this.queues.get(indexName);
+    if (queue == null) {
+      queue = new IndexQueue(indexName);
+      IndexQueue existing = this.queues.putIfAbsent(indexName, queue);
+      if (existing != null) {
+        queue = existing;
+      }
+    }
+    return queue;
+  }
+
+  private void beginEntryUpdate(RegionEntry entry) {
+    this.entriesInProgress.compute(entry, (e, count) -> {
+      if (count == null) {
+        e.setUpdateInProgress(true);
+        return 1;
+      }
+      return count + 1;
+    });
+  }
+
+  private void endEntryUpdate(RegionEntry entry) {
+    this.entriesInProgress.computeIfPresent(entry, (e, count) -> {
+      if (count == 1) {
+        e.setUpdateInProgress(false);
+        return null;
+      }
+      return count - 1;
+    });
+  }
+
+  /**
+   * An update of an entry queued for an index. It may stand for several updates of the entry, in
+   * which case the value of the entry is evaluated once when it is applied.
+   */
+  static class PendingUpdate {
+    final RegionEntry entry;
+
+    /**
+     * Whether the old key of the entry is evaluated with a REMOVE_ENTRY, BEFORE_UPDATE_OP before
+     * the action. Both are applied by the same thread, which keeps the old key in a thread local.
+     */
+    boolean beforeUpdate;
+
+    /** the action, or 0 if only the BEFORE_UPDATE_OP has been requested so far */
+    int action;
+
+    int opCode;
+
+    /** the statistics of the index when the update was queued */
+    InternalIndexStatistics stats;
+
+    PendingUpdate(RegionEntry entry, int action, int opCode) {
+      this.entry = entry;
+      if (opCode == IndexProtocol.BEFORE_UPDATE_OP) {
+        this.beforeUpdate = true;
+      } else {
+        this.action = action;
+        this.opCode = opCode;
+      }
+    }
+
+    boolean isQueued() {
+      return this.action != 0;
+    }
+
+    /**
+     * Returns whether later updates of the entry may be merged into this one.
+     */
+    boolean isMergeable() {
+      return this.action == 0 || this.action == IndexManager.ADD_ENTRY
+          || this.action == IndexManager.UPDATE_ENTRY;
+    }
+
+    /**
+     * Merges a later update of the entry into this one, which has not been applied yet.
+     *
+     * @return false if the update can not be merged
+     */
+    boolean merge(int action, int opCode) {
+      if (opCode == IndexProtocol.BEFORE_UPDATE_OP) {
+        if (this.action == 0 || this.action == IndexManager.UPDATE_ENTRY) {
+          this.beforeUpdate = true;
+          return true;
+        }
+        // the entry has not been added to the index yet, so it has no old key
+        return this.action == IndexManager.ADD_ENTRY;
+      }
+      if (this.action == 0) {
+        this.action = action;
+        this.opCode = opCode;
+        return true;
+      }
+      // the value of the entry is evaluated when this update is applied
+      return action == IndexManager.UPDATE_ENTRY && (this.action == IndexManager.ADD_ENTRY
+          || this.action == IndexManager.UPDATE_ENTRY);
+    }
+  }
+
+  /**
+   * The queue of the updates of one index.
+   */
+  private class IndexQueue implements Runnable {
+    private final String indexName;
+
+    private final Queue<PendingUpdate> queue = new ConcurrentLinkedQueue<>();
+
+    /** the queued updates that later updates of their entry may be merged into */
+    private final ConcurrentMap<RegionEntry, PendingUpdate> mergeableUpdates =
+        new ConcurrentHashMap<>();
+
+    private final AtomicInteger lag = new AtomicInteger();
+
+    /** whether a batch of this index is scheduled or being applied */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    IndexQueue(String indexName) {
+      this.indexName = indexName;
+    }
+
+    void add(int action, RegionEntry entry, int opCode) {
+      if (action == IndexManager.RECREATE_INDEX) {
+        enqueue(new PendingUpdate(null, action, opCode));
+        return;
+      }
+      if (opCode == IndexProtocol.CLEAN_UP_THREAD_LOCALS) {
+        // drop an old key evaluation that will not be followed by an update
+        this.mergeableUpdates.computeIfPresent(entry,
+            (e, pending) -> pending.isQueued() ? pending : null);
+        return;
+      }
+      PendingUpdate[] added = new PendingUpdate[1];
+      this.mergeableUpdates.compute(entry, (e, pending) -> {
+        if (pending != null) {
+          boolean wasQueued = pending.isQueued();
+          if (pending.merge(action, opCode)) {
+            if (!wasQueued && pending.isQueued()) {
+              added[0] = pending;
+            } else {
+              incUpdatesCoalesced();
+            }
+            return pending;
+          }
+        }
+        PendingUpdate update = new PendingUpdate(e, action, opCode);
+        if (update.isQueued()) {
+          added[0] = update;
+        }
+        return update.isMergeable() ? update : null;
+      });
+      if (added[0] != null) {
+        enqueue(added[0]);
+      }
+    }
+
+    private void enqueue(PendingUpdate update) {
+      Index index = indexManager.getIndex(this.indexName);
+      if (index instanceof AbstractIndex) {
+        update.stats = ((AbstractIndex) index).internalIndexStats;
+        update.stats.incUpdateLag(1);
+      }
+      if (update.entry != null) {
+        beginEntryUpdate(update.entry);
+      }
+      this.lag.incrementAndGet();
+      this.queue.add(update);
+      schedule();
+    }
+
+    private void incUpdatesCoalesced() {
+      Index index = indexManager.getIndex(this.indexName);
+      if (index instanceof AbstractIndex) {
+        ((AbstractIndex) index).internalIndexStats.incUpdatesCoalesced();
+      }
+    }
+
+    private void schedule() {
+      if (!shutdown && !this.queue.isEmpty() && this.scheduled.compareAndSet(false, true)) {
+        try {
+          executor.execute(this);
+        } catch (RejectedExecutionException ignore) {
+          // shutting down
+          this.scheduled.set(false);
+        }
+      }
+    }
+
+    /**
+     * Applies a batch of the queued updates.
+     */
+    @Override
+    public void run() {
+      List<PendingUpdate> batch = new ArrayList<>();
+      try {
+        PendingUpdate update;
+        while (batch.size() < BATCH_SIZE && (update = this.queue.poll()) != null) {
+          if (update.entry != null) {
+            // later updates of the entry are queued after this batch
+            this.mergeableUpdates.remove(update.entry, update);
+          }
+          batch.add(update);
+        }
+        if (!batch.isEmpty()) {
+          indexManager.processUpdates(this.indexName, batch);
+        }
+      } catch (CancelException ignore) {
+        return;
+      } catch (RuntimeException e) {
+        if (stopper.isCancelInProgress()) {
+          return;
+        }
+        logger.warn("Asynchronous update of index " + this.indexName + " failed", e);
+      } finally {
+        complete(batch);
+        this.scheduled.set(false);
+        if (queues.get(this.indexName) == this) {
+          schedule();
+        }
+      }
+    }
+
+    private void complete(List<PendingUpdate> updates) {
+      for (PendingUpdate update : updates) {
+        if (update.stats != null) {
+          update.stats.incUpdateLag(-1);
+        }
+        if (update.entry != null) {
+          endEntryUpdate(update.entry);
+        }
+      }
+      this.lag.addAndGet(-updates.size());
+      synchronized (this) {
+        notifyAll();
+      }
+    }
+
+    void discard() {
+      List<PendingUpdate> updates = new ArrayList<>();
+      PendingUpdate update;
+      while ((update = this.queue.poll()) != null) {
+        updates.add(update);
+      }
+      this.mergeableUpdates.clear();
+      complete(updates);
+    }
+
+    void waitForLag(int maxLag) {
+      synchronized (this) {
+        while (this.lag.get() > maxLag) {
+          stopper.checkCancelInProgress(null);
+          QueryMonitor.isQueryExecutionCanceled();
+          try {
+            wait(10);
+          } catch (InterruptedException ignore) {
+            // use the index as it is
+            Thread.currentThread().interrupt();
+            return;
+          }
+        }
+      }
+    }
+  }
+}
@@ -70,6 +70,7 @@ import org.apache.geode.internal.cache.entries.VMThinRegionEntryHeap;
 import org.apache.geode.internal.cache.persistence.query.CloseableIterator;
 import org.apache.geode.internal.i18n.LocalizedStrings;
 import org.apache.geode.internal.logging.LogService;
+import org.apache.geode.pdx.internal.PdxFieldAccessor;
 import org.apache.geode.pdx.internal.PdxString;
 
 /**
@@ -444,6 +445,13 @@ public class CompactRangeIndex extends AbstractIndex {
           }
           break;
       }
+      if (matchLevel <= 0) {
+        // the histogram accounts for skewed and non-numeric keys, which the interpolation does not
+        int estimate = estimateRangeSize(key, operator);
+        if (estimate >= 0) {
+          size = estimate;
+        }
+      }
     } catch (ClassCastException e) {
       // no values will match in this index because the key types are not the same
       // This means that there will be 0 results and it will be fast to use this index
@@ -457,6 +465,64 @@ public class CompactRangeIndex extends AbstractIndex {
     return size;
   }
 
+  /**
+   * Estimates the number of values of a range lookup from the histogram of the index.
+   *
+   * @return the estimate, or -1 if the operator is not a range or there is no usable histogram
+   */
+  private int estimateRangeSize(Object key, int operator) throws TypeMismatchException {
+    if (operator != OQLLexerTokenTypes.TOK_LT && operator != OQLLexerTokenTypes.TOK_LE
+        && operator != OQLLexerTokenTypes.TOK_GT && operator != OQLLexerTokenTypes.TOK_GE
+        || key == IndexManager.NULL || key == QueryService.UNDEFINED) {
+      return -1;
+    }
+    IndexHistogram histogram = getHistogram();
+    if (histogram == null) {
+      return -1;
+    }
+    key = getPdxStringForIndexedPdxKeys(TypeUtils.indexKeyFor(key));
+    long below = histogram.estimateValuesBelow(key);
+    if (below < 0) {
+      return -1;
+    }
+    long equal = 0;
+    if (operator == OQLLexerTokenTypes.TOK_LE || operator == OQLLexerTokenTypes.TOK_GT) {
+      equal = indexStore.size(key);
+    }
+    long size;
+    switch (operator) {
+      case OQLLexerTokenTypes.TOK_LT:
+        size = below;
+        break;
+      case OQLLexerTokenTypes.TOK_LE:
+        size = below + equal;
+        break;
+      case OQLLexerTokenTypes.TOK_GT:
+        size = histogram.getTotalValues() - below - equal;
+        break;
+      default:
+        size = histogram.getTotalValues() - below;
+    }
+    return (int) Math.min(Math.max(size, 0), Integer.MAX_VALUE - 1);
+  }
+
+  @Override
+  boolean addKeysToHistogram(IndexHistogram.Builder builder) {
+    CloseableIterator<IndexStoreEntry> iterator = indexStore.iterator(null);
+    try {
+      while (iterator.hasNext()) {
+        Object key = iterator.next().getDeserializedKey();
+        // null and undefined keys never match a range
+        if (key != IndexManager.NULL && key != QueryService.UNDEFINED) {
+          builder.addValue(key);
+        }
+      }
+    } finally {
+      iterator.close();
+    }
+    return true;
+  }
+
   /** Method called while appropriate lock held on index */
   private void lockedQueryPrivate(Object key, int operator, Collection results,
       CompiledValue iterOps, RuntimeIterator runtimeItr, ExecutionContext context, Set keysToRemove,
@@ -724,7 +790,7 @@ public class CompactRangeIndex extends AbstractIndex {
    *
    * @param upperBoundOperator the operator to use to determine a match against the upper bound
    */
-  private void addToResultsFromEntries(Object lowerBoundKey, Object upperBoundKey,
+  void addToResultsFromEntries(Object lowerBoundKey, Object upperBoundKey,
       int lowerBoundOperator, int upperBoundOperator,
       CloseableIterator<IndexStoreEntry> entriesIter, Collection result, CompiledValue iterOps,
       RuntimeIterator runtimeItr, ExecutionContext context, List projAttrib,
@@ -942,6 +1008,7 @@ public class CompactRangeIndex extends AbstractIndex {
 
   void recreateIndexData() throws IMQException {
     indexStore.clear();
+    clearHistogram();
     int numKeys = (int) this.internalIndexStats.getNumberOfKeys();
     if (numKeys > 0) {
       this.internalIndexStats.incNumKeys(-numKeys);
@@ -1007,6 +1074,25 @@ public class CompactRangeIndex extends AbstractIndex {
       this.vsdStats.incUpdatesInProgress(delta);
     }
 
+    public void incUpdateLag(int delta) {
+      this.vsdStats.incUpdateLag(delta);
+    }
+
+    public void incUpdatesCoalesced() {
+      this.vsdStats.incUpdatesCoalesced();
+    }
+
+    /**
+     * Returns the number of updates queued for this index when it is maintained asynchronously.
+     */
+    public long getUpdateLag() {
+      return this.vsdStats.getUpdateLag();
+    }
+
+    public long getUpdatesCoalesced() {
+      return this.vsdStats.getUpdatesCoalesced();
+    }
+
     public void incNumUses() {
       this.vsdStats.incNumUses();
     }
@@ -1120,9 +1206,13 @@ public class CompactRangeIndex extends AbstractIndex {
     private boolean hasIndxUpdateOccurredOnce = false;
     private ExecutionContext initContext = null;
     private int iteratorSize = -1;
+    // Reads the index key from serialized pdx values, null if the index is not on a field of the
+    // region values.
+    private final PdxFieldAccessor pdxFieldAccessor;
 
     /** Creates a new instance of IMQEvaluator */
     IMQEvaluator(IndexCreationHelper helper) {
+      this.pdxFieldAccessor = getPdxFieldAccessor(helper);
       this.cache = helper.getCache();
       this.fromIterators = helper.getIterators();
       this.indexedExpr = helper.getCompiledIndexedExpression();
@@ -1330,6 +1420,13 @@ public class CompactRangeIndex extends AbstractIndex {
      */
     public void evaluate(RegionEntry target, boolean add) throws IMQException {
       assert !target.isInvalid() : "value in RegionEntry should not be INVALID";
+      if (this.pdxFieldAccessor != null) {
+        Object indexKey = readPdxIndexKey(this.pdxFieldAccessor, target);
+        if (indexKey != PdxFieldAccessor.NOT_READ) {
+          updateIndex(add, indexKey, target);
+          return;
+        }
+      }
       DummyQRegion dQRegion = new DummyQRegion(rgn);
       dQRegion.setEntry(target);
       Object params[] = {dQRegion};
@@ -1518,6 +1615,12 @@ public class CompactRangeIndex extends AbstractIndex {
         throws FunctionDomainException, TypeMismatchException, NameResolutionException,
         QueryInvocationTargetException, IMQException {
       Object indexKey = indexedExpr.evaluate(context);
+      RegionEntry entry = ((DummyQRegion) context.getBindArgument(1)).getEntry();
+      updateIndex(add, indexKey, entry);
+    }
+
+    private void updateIndex(boolean add, Object indexKey, RegionEntry entry)
+        throws IMQException {
       if (indexKey == null) {
         indexKey = IndexManager.NULL;
       }
@@ -1527,7 +1630,6 @@ public class CompactRangeIndex extends AbstractIndex {
         setPdxStringFlag(indexKey);
       }
       indexKey = getPdxStringForIndexedPdxKeys(indexKey);
-      RegionEntry entry = ((DummyQRegion) context.getBindArgument(1)).getEntry();
       // Get thread local reverse map if available.
       OldKeyValuePair oldKeyValuePair = null;
       if (oldKeyValue != null) {
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.NullToken;
+import org.apache.geode.cache.query.internal.Undefined;
+import org.apache.geode.cache.query.internal.types.TypeUtils;
+import org.apache.geode.pdx.internal.PdxString;
+
+/**
+ * The key of an entry in a {@link CompositeRangeIndex}: the values of the components of the
+ * indexed expression, ordered component by component. In each component UNDEFINED sorts before
+ * null, which sorts before any other value, the same way the keys of a {@link CompactRangeIndex}
+ * are ordered. Values of different types that cannot be compared are ordered by class name so that
+ * the order is total.
+ * <p>
+ * The bounds of a range scan over the index are built with the {@link #LOWEST} and {@link #HIGHEST}
+ * markers, which sort before and after any component value.
+ *
+ * @since Geode 1.8.0
+ */
+public class CompositeKey implements Comparable<CompositeKey> {
+
+  /**
+   * Sorts before any component value, including UNDEFINED
+   */
+  static final Object LOWEST = new Object() {
+    @Override
+    public String toString() {
+      return "LOWEST";
+    }
+  };
+
+  /**
+   * Sorts after any component value
+   */
+  static final Object HIGHEST = new Object() {
+    @Override
+    public String toString() {
+      return "HIGHEST";
+    }
+  };
+
+  /**
+   * The rank of the components that are neither UNDEFINED, null nor a marker
+   */
+  private static final int VALUE_RANK = 3;
+
+  private static final Comparator NUMERIC_COMPARATOR = TypeUtils.getExtendedNumericComparator();
+
+  private final Object[] components;
+
+  CompositeKey(Object[] components) {
+    this.components = components;
+  }
+
+  /**
+   * Creates the key of the given evaluated components. A null component is stored as
+   * {@link IndexManager#NULL} and the components are converted the way a single-field index key is.
+   */
+  public static CompositeKey of(Object[] components) throws TypeMismatchException {
+    for (int i = 0; i < components.length; i++) {
+      components[i] = toComponent(components[i]);
+    }
+    return new CompositeKey(components);
+  }
+
+  static Object toComponent(Object value) throws TypeMismatchException {
+    if (value == null) {
+      return IndexManager.NULL;
+    } else if (value instanceof PdxString) {
+      return value.toString();
+    } else if (value instanceof Undefined) {
+      return value;
+    }
+    return TypeUtils.indexKeyFor(value);
+  }
+
+  public int size() {
+    return this.components.length;
+  }
+
+  public Object get(int index) {
+    return this.components[index];
+  }
+
+  @Override
+  public int compareTo(CompositeKey other) {
+    int length = Math.min(this.components.length, other.components.length);
+    for (int i = 0; i < length; i++) {
+      int result = compareComponents(this.components[i], other.components[i]);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return Integer.compare(this.components.length, other.components.length);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof CompositeKey && compareTo((CompositeKey) other) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = 1;
+    for (Object component : this.components) {
+      // numbers of different types that compare equal must hash alike
+      int componentHash = component instanceof Number
+          ? Double.hashCode(((Number) component).doubleValue()) : component.hashCode();
+      hash = 31 * hash + componentHash;
+    }
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(this.components);
+  }
+
+  static int compareComponents(Object component1, Object component2) {
+    if (component1 == component2) {
+      return 0;
+    }
+    int rank1 = rank(component1);
+    int rank2 = rank(component2);
+    if (rank1 != rank2) {
+      return rank1 < rank2 ? -1 : 1;
+    }
+    if (rank1 != VALUE_RANK) {
+      return 0;
+    }
+    if (component1 instanceof Number && component2 instanceof Number) {
+      return NUMERIC_COMPARATOR.compare(component1, component2);
+    }
+    try {
+      return ((Comparable) component1).compareTo(component2);
+    } catch (ClassCastException e) {
+      return component1.getClass().getName().compareTo(component2.getClass().getName());
+    }
+  }
+
+  private static int rank(Object component) {
+    if (component == LOWEST) {
+      return 0;
+    } else if (component instanceof Undefined) {
+      return 1;
+    } else if (component instanceof NullToken) {
+      return 2;
+    } else if (component == HIGHEST) {
+      return 4;
+    }
+    return VALUE_RANK;
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.CompiledValue;
+import org.apache.geode.cache.query.internal.Undefined;
+import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
+
+/**
+ * The keys of a {@link CompositeRangeIndex} selected by equality conditions on the leading
+ * components of the index and at most a lower and an upper bound on the component that follows
+ * them. The keys are contiguous in the index, so they are found with a single scan.
+ *
+ * @since Geode 1.8.0
+ */
+public class CompositeRange {
+
+  /**
+   * The range that selects no key
+   */
+  static final CompositeRange EMPTY =
+      new CompositeRange(null, false, null, false, 0, null, null, null);
+
+  private final CompositeKey lowerBound;
+
+  private final boolean lowerBoundInclusive;
+
+  private final CompositeKey upperBound;
+
+  private final boolean upperBoundInclusive;
+
+  /**
+   * The number of leading components selected by equality conditions
+   */
+  private final int prefixLength;
+
+  /**
+   * The lower and upper bounds of the component that follows the prefix, or null if there is none
+   */
+  private final Object rangeLowerBound;
+
+  private final Object rangeUpperBound;
+
+  private final CompiledValue condition;
+
+  private CompositeRange(CompositeKey lowerBound, boolean lowerBoundInclusive,
+      CompositeKey upperBound, boolean upperBoundInclusive, int prefixLength,
+      Object rangeLowerBound, Object rangeUpperBound, CompiledValue condition) {
+    this.lowerBound = lowerBound;
+    this.lowerBoundInclusive = lowerBoundInclusive;
+    this.upperBound = upperBound;
+    this.upperBoundInclusive = upperBoundInclusive;
+    this.prefixLength = prefixLength;
+    this.rangeLowerBound = rangeLowerBound;
+    this.rangeUpperBound = rangeUpperBound;
+    this.condition = condition;
+  }
+
+  /**
+   * Creates the range of the keys of an index with the given number of components.
+   *
+   * @param prefix the values the leading components are equal to
+   * @param lowerBound the lower bound of the component that follows the prefix
+   * @param lowerBoundOperator TOK_GT or TOK_GE, or -1 if there is no lower bound
+   * @param upperBound the upper bound of the component that follows the prefix
+   * @param upperBoundOperator TOK_LT or TOK_LE, or -1 if there is no upper bound
+   * @param condition the query condition the range is built from, evaluated on the entries whose
+   *        index update is in progress
+   */
+  public static CompositeRange create(int componentCount, List<Object> prefix, Object lowerBound,
+      int lowerBoundOperator, Object upperBound, int upperBoundOperator, CompiledValue condition)
+      throws TypeMismatchException {
+    int prefixLength = prefix.size();
+    Object[] lower = new Object[componentCount];
+    Object[] upper = new Object[componentCount];
+    for (int i = 0; i < prefixLength; i++) {
+      Object value = prefix.get(i);
+      if (value instanceof Undefined) {
+        // a comparison with UNDEFINED is never true
+        return EMPTY;
+      }
+      lower[i] = upper[i] = CompositeKey.toComponent(value);
+    }
+    boolean lowerInclusive = true;
+    boolean upperInclusive = true;
+    Object rangeLower = null;
+    Object rangeUpper = null;
+    if (prefixLength < componentCount) {
+      if (lowerBoundOperator == -1 && upperBoundOperator == -1) {
+        Arrays.fill(lower, prefixLength, componentCount, CompositeKey.LOWEST);
+        Arrays.fill(upper, prefixLength, componentCount, CompositeKey.HIGHEST);
+      } else {
+        if (lowerBoundOperator == -1) {
+          // a range does not select the UNDEFINED and null values
+          lower[prefixLength] = IndexManager.NULL;
+          lowerInclusive = false;
+        } else if (lowerBound == null || lowerBound instanceof Undefined) {
+          return EMPTY;
+        } else {
+          lower[prefixLength] = rangeLower = CompositeKey.toComponent(lowerBound);
+          lowerInclusive = lowerBoundOperator == OQLLexerTokenTypes.TOK_GE;
+        }
+        if (upperBoundOperator == -1) {
+          upper[prefixLength] = CompositeKey.HIGHEST;
+        } else if (upperBound == null || upperBound instanceof Undefined) {
+          return EMPTY;
+        } else {
+          upper[prefixLength] = rangeUpper = CompositeKey.toComponent(upperBound);
+          upperInclusive = upperBoundOperator == OQLLexerTokenTypes.TOK_LE;
+        }
+        Arrays.fill(lower, prefixLength + 1, componentCount,
+            lowerInclusive ? CompositeKey.LOWEST : CompositeKey.HIGHEST);
+        Arrays.fill(upper, prefixLength + 1, componentCount,
+            upperInclusive ? CompositeKey.HIGHEST : CompositeKey.LOWEST);
+      }
+    }
+    CompositeKey lowerKey = new CompositeKey(lower);
+    CompositeKey upperKey = new CompositeKey(upper);
+    int comparison = lowerKey.compareTo(upperKey);
+    if (comparison > 0 || (comparison == 0 && !(lowerInclusive && upperInclusive))) {
+      return EMPTY;
+    }
+    return new CompositeRange(lowerKey, lowerInclusive, upperKey, upperInclusive, prefixLength,
+        rangeLower, rangeUpper, condition);
+  }
+
+  /**
+   * Returns whether a key found between the bounds of the range satisfies the conditions of the
+   * range. The components whose type cannot be compared with the value of their condition are
+   * ordered by class name in the index, so they may be found between the bounds without satisfying
+   * the condition.
+   */
+  boolean contains(CompositeKey key) {
+    for (int i = 0; i < this.prefixLength; i++) {
+      if (!isComparable(key.get(i), this.lowerBound.get(i))) {
+        return false;
+      }
+    }
+    return (this.rangeLowerBound == null
+        || isComparable(key.get(this.prefixLength), this.rangeLowerBound))
+        && (this.rangeUpperBound == null
+            || isComparable(key.get(this.prefixLength), this.rangeUpperBound));
+  }
+
+  private static boolean isComparable(Object component, Object value) {
+    if (component instanceof Number && value instanceof Number) {
+      return true;
+    }
+    return component.getClass().isInstance(value) || value.getClass().isInstance(component);
+  }
+
+  public boolean isEmpty() {
+    return this.lowerBound == null;
+  }
+
+  public CompositeKey getLowerBound() {
+    return this.lowerBound;
+  }
+
+  public boolean isLowerBoundInclusive() {
+    return this.lowerBoundInclusive;
+  }
+
+  public CompositeKey getUpperBound() {
+    return this.upperBound;
+  }
+
+  public boolean isUpperBoundInclusive() {
+    return this.upperBoundInclusive;
+  }
+
+  public CompiledValue getCondition() {
+    return this.condition;
+  }
+
+  @Override
+  public String toString() {
+    if (isEmpty()) {
+      return "[]";
+    }
+    return (this.lowerBoundInclusive ? "[" : "(") + this.lowerBound + ", " + this.upperBound
+        + (this.upperBoundInclusive ? "]" : ")");
+  }
+}
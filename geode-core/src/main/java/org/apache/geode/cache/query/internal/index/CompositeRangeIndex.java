@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.query.FunctionDomainException;
+import org.apache.geode.cache.query.IndexStatistics;
+import org.apache.geode.cache.query.NameResolutionException;
+import org.apache.geode.cache.query.QueryInvocationTargetException;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.CompiledValue;
+import org.apache.geode.cache.query.internal.ExecutionContext;
+import org.apache.geode.cache.query.internal.IndexInfo;
+import org.apache.geode.cache.query.internal.RuntimeIterator;
+import org.apache.geode.cache.query.internal.index.IndexStore.IndexStoreEntry;
+import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.persistence.query.CloseableIterator;
+
+/**
+ * A CompositeRangeIndex is a {@link CompactRangeIndex} on several path expressions, created from a
+ * comma separated indexed expression such as "p.status, p.ts". Its keys are {@link CompositeKey}s
+ * ordered component by component, so the entries selected by equality conditions on the leading
+ * components and a range condition on the component that follows them are found with a single
+ * scan of the index.
+ * <p>
+ * The conditions of an AND junction on the components of the index are folded into one
+ * {@link org.apache.geode.cache.query.internal.CompiledCompositeComparison} whose index key
+ * evaluates to a {@link CompositeRange}.
+ *
+ * @since Geode 1.8.0
+ */
+public class CompositeRangeIndex extends CompactRangeIndex {
+
+  /**
+   * The maximum number of entries counted to estimate the number of entries in a range
+   */
+  private static final int MAX_SIZE_ESTIMATE_COUNT = 1000;
+
+  /**
+   * The canonicalized expressions of the components of the index
+   */
+  private final String[] componentExpressions;
+
+  public CompositeRangeIndex(InternalCache cache, String indexName, Region region,
+      String fromClause, String indexedExpression, String projectionAttributes,
+      String origFromClause, String origIndexExpr, String[] definitions,
+      String[] componentExpressions, IndexStatistics stats) {
+    super(cache, indexName, region, fromClause, indexedExpression, projectionAttributes,
+        origFromClause, origIndexExpr, definitions, stats);
+    this.componentExpressions = componentExpressions;
+  }
+
+  public String[] getComponentExpressions() {
+    return this.componentExpressions;
+  }
+
+  /**
+   * Returns the number of leading components of the index that are constrained by conditions on
+   * the given expressions: the components with an equality condition, followed by at most one
+   * component with a range condition.
+   */
+  int getConstrainedComponentCount(Set<String> equalityExpressions,
+      Set<String> rangeExpressions) {
+    int count = 0;
+    for (String component : this.componentExpressions) {
+      if (equalityExpressions.contains(component)) {
+        count++;
+      } else {
+        if (rangeExpressions.contains(component)) {
+          count++;
+        }
+        break;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  void lockedQuery(Object key, int operator, Collection results, CompiledValue iterOps,
+      RuntimeIterator indpndntItr, ExecutionContext context, List projAttrib,
+      SelectResults intermediateResults, boolean isIntersection) throws TypeMismatchException,
+      FunctionDomainException, NameResolutionException, QueryInvocationTargetException {
+    if (key instanceof CompositeRange) {
+      lockedRangeQuery((CompositeRange) key, results, iterOps, indpndntItr, context, projAttrib,
+          intermediateResults, isIntersection);
+    } else {
+      super.lockedQuery(key, operator, results, iterOps, indpndntItr, context, projAttrib,
+          intermediateResults, isIntersection);
+    }
+  }
+
+  @Override
+  void lockedQuery(Object key, int operator, Collection results, Set keysToRemove,
+      ExecutionContext context) throws TypeMismatchException, FunctionDomainException,
+      NameResolutionException, QueryInvocationTargetException {
+    if (key instanceof CompositeRange) {
+      lockedRangeQuery((CompositeRange) key, results, null, null, context, null, null, true);
+    } else {
+      super.lockedQuery(key, operator, results, keysToRemove, context);
+    }
+  }
+
+  /** Method called while appropriate lock held on index */
+  private void lockedRangeQuery(CompositeRange range, Collection results, CompiledValue iterOps,
+      RuntimeIterator runtimeItr, ExecutionContext context, List projAttrib,
+      SelectResults intermediateResults, boolean isIntersection) throws TypeMismatchException,
+      FunctionDomainException, NameResolutionException, QueryInvocationTargetException {
+    if (range.isEmpty() || isEmpty()) {
+      return;
+    }
+    int limit = -1;
+    Boolean applyLimit = (Boolean) context.cacheGet(CompiledValue.CAN_APPLY_LIMIT_AT_INDEX);
+    if (applyLimit != null && applyLimit) {
+      limit = (Integer) context.cacheGet(CompiledValue.RESULT_LIMIT);
+    }
+    CloseableIterator<IndexStoreEntry> iterator = null;
+    try {
+      iterator = new RangeIterator(range, getIndexStorage().iterator(range.getLowerBound(),
+          range.isLowerBoundInclusive(), range.getUpperBound(), range.isUpperBoundInclusive(),
+          null));
+      addToResultsFromEntries(range, null, OQLLexerTokenTypes.TOK_EQ, -1, iterator, results,
+          iterOps, runtimeItr, context, projAttrib, intermediateResults, isIntersection, limit);
+    } finally {
+      if (iterator != null) {
+        iterator.close();
+      }
+    }
+  }
+
+  @Override
+  public int getSizeEstimate(Object key, int operator, int matchLevel)
+      throws TypeMismatchException {
+    if (!(key instanceof CompositeRange)) {
+      return super.getSizeEstimate(key, operator, matchLevel);
+    }
+    CompositeRange range = (CompositeRange) key;
+    if (range.isEmpty()) {
+      return 0;
+    }
+    long start = updateIndexUseStats(false);
+    CloseableIterator<IndexStoreEntry> iterator = null;
+    try {
+      iterator = getIndexStorage().iterator(range.getLowerBound(), range.isLowerBoundInclusive(),
+          range.getUpperBound(), range.isUpperBoundInclusive(), null);
+      int size = 0;
+      while (size < MAX_SIZE_ESTIMATE_COUNT && iterator.hasNext()) {
+        iterator.next();
+        size++;
+      }
+      return size;
+    } finally {
+      if (iterator != null) {
+        iterator.close();
+      }
+      updateIndexUseEndStats(start, false);
+    }
+  }
+
+  @Override
+  protected boolean evaluateEntry(IndexInfo indexInfo, ExecutionContext context, Object keyVal)
+      throws FunctionDomainException, TypeMismatchException, NameResolutionException,
+      QueryInvocationTargetException {
+    CompiledValue key = indexInfo._key();
+    Object range = key != null ? key.evaluate(context) : null;
+    if (range instanceof CompositeRange) {
+      return Boolean.TRUE.equals(((CompositeRange) range).getCondition().evaluate(context));
+    }
+    return super.evaluateEntry(indexInfo, context, keyVal);
+  }
+
+  /**
+   * Iterates over the entries found between the bounds of a range that satisfy the conditions of
+   * the range.
+   */
+  private static class RangeIterator implements CloseableIterator<IndexStoreEntry> {
+    private final CompositeRange range;
+
+    private final CloseableIterator<IndexStoreEntry> entries;
+
+    private IndexStoreEntry next;
+
+    RangeIterator(CompositeRange range, CloseableIterator<IndexStoreEntry> entries) {
+      this.range = range;
+      this.entries = entries;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (this.next == null && this.entries.hasNext()) {
+        IndexStoreEntry entry = this.entries.next();
+        Object key = entry.getDeserializedKey();
+        if (key instanceof CompositeKey && this.range.contains((CompositeKey) key)) {
+          this.next = entry;
+        }
+      }
+      return this.next != null;
+    }
+
+    @Override
+    public IndexStoreEntry next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      IndexStoreEntry entry = this.next;
+      this.next = null;
+      return entry;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+      this.entries.close();
+    }
+  }
+}
@@ -69,6 +69,12 @@ class FunctionalIndexCreationHelper extends IndexCreationHelper {
 
   Object[] mapKeys;
 
+  /**
+   * The canonicalized components of the indexed expression of a composite index, null if the index
+   * is not composite
+   */
+  String[] compositeIndexComponents;
+
   /**
    * The Iterators for index creation are different then those which are used for index updates as
    * in case of Index creation the 0th iterator is modified such that it always represents
@@ -145,6 +151,14 @@ class FunctionalIndexCreationHelper extends IndexCreationHelper {
     return this.isAllKeys;
   }
 
+  /**
+   * Returns true if the indexed expression is a comma separated list of expressions, which makes
+   * the index a {@link CompositeRangeIndex}.
+   */
+  boolean isCompositeIndex() {
+    return this.compositeIndexComponents != null;
+  }
+
   /**
    * The function is modified to optimize the index creation code. If the 0th iterator of from
    * clause is not on Entries, then the 0th iterator is replaced with that of entries & the value
@@ -441,6 +455,11 @@ class FunctionalIndexCreationHelper extends IndexCreationHelper {
    * TODO: refactor large method prepareIndexExpression
    */
   private void prepareIndexExpression(String indexedExpression) throws IndexInvalidException {
+    List<String> components = splitCompositeIndexExpression(indexedExpression);
+    if (components.size() > 1) {
+      prepareCompositeIndexExpression(indexedExpression, components);
+      return;
+    }
     CompiledValue expr = this.compiler.compileQuery(indexedExpression);
     if (expr == null) {
       throw new IndexInvalidException(
@@ -519,6 +538,76 @@ class FunctionalIndexCreationHelper extends IndexCreationHelper {
     this.indexedExpr = expr;
   }
 
+  /**
+   * Prepares the indexed expression of a composite index, each component of which must be a path
+   * expression that could be indexed on its own.
+   */
+  private void prepareCompositeIndexExpression(String indexedExpression, List<String> components)
+      throws IndexInvalidException {
+    int size = components.size();
+    CompiledValue[] exprs = new CompiledValue[size];
+    CompiledValue[] modifiedExprs = new CompiledValue[size];
+    this.compositeIndexComponents = new String[size];
+    for (int i = 0; i < size; i++) {
+      CompiledValue expr = this.compiler.compileQuery(components.get(i));
+      if (!(expr instanceof CompiledPath || expr instanceof CompiledOperation
+          || expr instanceof CompiledID) || expr instanceof MapIndexable) {
+        throw new IndexInvalidException(
+            LocalizedStrings.FunctionalIndexCreationHelper_INVALID_INDEXED_EXPRESSION_0
+                .toLocalizedString(indexedExpression));
+      }
+      try {
+        StringBuilder sb = new StringBuilder();
+        expr.generateCanonicalizedExpression(sb, this.context);
+        this.compositeIndexComponents[i] = sb.toString();
+        modifiedExprs[i] = expr;
+        if (!this.isFirstIteratorRegionEntry
+            && this.compositeIndexComponents[i].contains(this.canonicalizedIteratorNames[0])) {
+          modifiedExprs[i] = getModifiedDependentCompiledValue(this.context, -1, expr, true);
+        }
+      } catch (Exception e) {
+        throw new IndexInvalidException(
+            LocalizedStrings.FunctionalIndexCreationHelper_INVALID_INDEXED_EXPRESSION_0
+                .toLocalizedString(indexedExpression),
+            e);
+      }
+      exprs[i] = expr;
+    }
+    this.indexedExpression = String.join(", ", this.compositeIndexComponents);
+    this.indexedExpr = new CompositeIndexExpression(exprs);
+    this.modifiedIndexExpr = new CompositeIndexExpression(modifiedExprs);
+  }
+
+  /**
+   * Splits an indexed expression on the commas that are not within parentheses, brackets, braces
+   * or string literals.
+   */
+  static List<String> splitCompositeIndexExpression(String indexedExpression) {
+    List<String> components = new ArrayList<>();
+    int depth = 0;
+    char quote = 0;
+    int start = 0;
+    for (int i = 0; i < indexedExpression.length(); i++) {
+      char c = indexedExpression.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '\'' || c == '"') {
+        quote = c;
+      } else if (c == '(' || c == '[' || c == '{') {
+        depth++;
+      } else if (c == ')' || c == ']' || c == '}') {
+        depth--;
+      } else if (c == ',' && depth == 0) {
+        components.add(indexedExpression.substring(start, i).trim());
+        start = i + 1;
+      }
+    }
+    components.add(indexedExpression.substring(start).trim());
+    return components;
+  }
+
   private void prepareProjectionAttributes(String projectionAttributes)
       throws IndexInvalidException {
     if (projectionAttributes != null && !projectionAttributes.equals("*")) {
@@ -29,14 +29,17 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
+import it.unimi.dsi.fastutil.HashCommon;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import org.apache.logging.log4j.Logger;
 
+import org.apache.geode.InternalGemFireError;
 import org.apache.geode.cache.EntryDestroyedException;
 import org.apache.geode.cache.Region;
 import org.apache.geode.cache.RegionAttributes;
 import org.apache.geode.cache.query.AmbiguousNameException;
 import org.apache.geode.cache.query.FunctionDomainException;
+import org.apache.geode.cache.query.IndexMaintenanceException;
 import org.apache.geode.cache.query.IndexStatistics;
 import org.apache.geode.cache.query.IndexType;
 import org.apache.geode.cache.query.NameResolutionException;
@@ -72,9 +75,12 @@ import org.apache.geode.internal.cache.LocalRegion;
 import org.apache.geode.internal.cache.RegionEntry;
 import org.apache.geode.internal.cache.Token;
 import org.apache.geode.internal.cache.persistence.query.CloseableIterator;
+import org.apache.geode.internal.hll.CardinalityMergeException;
+import org.apache.geode.internal.hll.HyperLogLogPlus;
 import org.apache.geode.internal.i18n.LocalizedStrings;
 import org.apache.geode.internal.logging.LogService;
 import org.apache.geode.internal.offheap.StoredObject;
+import org.apache.geode.pdx.internal.PdxFieldAccessor;
 
 /**
  * A HashIndex is an index that can be used for equal and not equals queries It is created only when
@@ -94,6 +100,12 @@ import org.apache.geode.internal.offheap.StoredObject;
 public class HashIndex extends AbstractIndex {
   private static final Logger logger = LogService.getLogger();
 
+  /**
+   * The precision of the distinct key estimate, which uses 2^precision registers and is within
+   * about 3% of the actual count
+   */
+  private static final int DISTINCT_KEYS_PRECISION = 10;
+
   /**
    * ThreadLocal for Map for under update RegionEntries=>oldKey (reverse map) if
    * {@link IndexManager#INPLACE_OBJECT_MODIFICATION} is false.
@@ -119,6 +131,26 @@ public class HashIndex extends AbstractIndex {
   // used for sorting asc and desc queries
   private HashIndexComparator comparator;
 
+  /**
+   * The number of sketches the distinct keys are spread over, by adding thread, so that concurrent
+   * updates of the index rarely wait for each other. A power of 2.
+   */
+  private static final int DISTINCT_KEYS_STRIPES = 16;
+
+  /**
+   * Estimate the number of distinct keys of the index, since the index only knows the number of
+   * values of a key by walking them. Each key added is offered to one of the sketches, guarded by
+   * itself, and the estimate is that of their union. Keys cannot be removed from a sketch, so they
+   * are replaced by sketches rebuilt from the keys of the index along with its key statistics.
+   */
+  private volatile HyperLogLogPlus[] distinctKeys = newDistinctKeys();
+
+  /**
+   * The sketches being rebuilt from the keys of the index, to which added keys are also offered, or
+   * null
+   */
+  private volatile HyperLogLogPlus[] rebuiltDistinctKeys;
+
   /**
    * Create a HashIndex that can be used when executing queries.
    *
@@ -148,6 +180,8 @@ public class HashIndex extends AbstractIndex {
     }
 
     entriesSet = new HashIndexSet();
+    // the sketches are offered every key added from now on
+    keyStatisticsBuilt();
   }
 
   /**
@@ -238,6 +272,7 @@ public class HashIndex extends AbstractIndex {
         }
         // Update Stats after real addition
         internalIndexStats.incNumValues(1);
+        offerDistinctKey(newKey);
 
       }
     } catch (TypeMismatchException ex) {
@@ -443,15 +478,12 @@ public class HashIndex extends AbstractIndex {
     try {
       switch (operator) {
         case OQLLexerTokenTypes.TOK_EQ: {
-          key = TypeUtils.indexKeyFor(key);
-          size = this.entriesSet.size(key);
+          size = estimateValuesPerKey();
         }
           break;
         case OQLLexerTokenTypes.TOK_NE_ALT:
         case OQLLexerTokenTypes.TOK_NE:
-          size = this.region.size();
-          key = TypeUtils.indexKeyFor(key);
-          size = this.entriesSet.size(key);
+          size = Math.max(this.region.size() - estimateValuesPerKey(), 0);
           break;
       }
     } finally {
@@ -460,6 +492,87 @@ public class HashIndex extends AbstractIndex {
     return size;
   }
 
+  /**
+   * Estimates the number of values of a key as the average number of values per distinct key,
+   * since the size of the entries set is the number of values of all the keys.
+   */
+  private int estimateValuesPerKey() {
+    refreshKeyStatistics();
+    long values = this.internalIndexStats.getNumberOfValues();
+    if (values <= 0) {
+      return 0;
+    }
+    long keys = estimateDistinctKeys(this.distinctKeys);
+    return (int) Math.min((values + keys - 1) / Math.max(keys, 1), Integer.MAX_VALUE - 1);
+  }
+
+  private static HyperLogLogPlus[] newDistinctKeys() {
+    HyperLogLogPlus[] sketches = new HyperLogLogPlus[DISTINCT_KEYS_STRIPES];
+    for (int i = 0; i < sketches.length; i++) {
+      sketches[i] = new HyperLogLogPlus(DISTINCT_KEYS_PRECISION);
+    }
+    return sketches;
+  }
+
+  private void offerDistinctKey(Object key) {
+    long hash = HashCommon.mix((long) key.hashCode());
+    offerDistinctKey(this.distinctKeys, hash);
+    HyperLogLogPlus[] rebuilt = this.rebuiltDistinctKeys;
+    if (rebuilt != null) {
+      offerDistinctKey(rebuilt, hash);
+    }
+  }
+
+  private static void offerDistinctKey(HyperLogLogPlus[] sketches, long hash) {
+    HyperLogLogPlus sketch =
+        sketches[(int) Thread.currentThread().getId() & (DISTINCT_KEYS_STRIPES - 1)];
+    synchronized (sketch) {
+      sketch.offerHashed(hash);
+    }
+  }
+
+  private static long estimateDistinctKeys(HyperLogLogPlus[] sketches) {
+    HyperLogLogPlus union = new HyperLogLogPlus(DISTINCT_KEYS_PRECISION);
+    try {
+      for (HyperLogLogPlus sketch : sketches) {
+        synchronized (sketch) {
+          union.addAll(sketch);
+        }
+      }
+    } catch (CardinalityMergeException e) {
+      // all the sketches have the same precision
+      throw new InternalGemFireError(e);
+    }
+    return union.cardinality();
+  }
+
+  /**
+   * Rebuilds the distinct key sketches from the keys of the index, so that they forget the keys
+   * removed since they were built. The keys added while the index is walked are offered to both the
+   * current and the rebuilt sketches, which replace the current ones once the walk is done.
+   */
+  @Override
+  void buildKeyStatistics() {
+    HyperLogLogPlus[] rebuilt = newDistinctKeys();
+    this.rebuiltDistinctKeys = rebuilt;
+    try {
+      Iterator entries = this.entriesSet.iterator();
+      while (entries.hasNext()) {
+        Object entry = entries.next();
+        if (entry != null && entry != HashIndexSet.REMOVED) {
+          Object key = TypeUtils.indexKeyFor(((IMQEvaluator) this.evaluator).evaluateKey(entry));
+          offerDistinctKey(rebuilt, HashCommon.mix((long) key.hashCode()));
+        }
+      }
+      this.distinctKeys = rebuilt;
+    } catch (TypeMismatchException e) {
+      throw new IndexMaintenanceException(
+          "Could not rebuild the distinct keys of index " + getName(), e);
+    } finally {
+      this.rebuiltDistinctKeys = null;
+    }
+  }
+
   /**
    * Convert a RegionEntry or THashSet<RegionEntry> to be consistently a Collection
    */
@@ -786,6 +899,8 @@ public class HashIndex extends AbstractIndex {
     if (IndexManager.isObjectModificationInplace()) {
       entryToValuesMap.clear();
     }
+    this.distinctKeys = newDistinctKeys();
+    keyStatisticsBuilt();
     int numKeys = (int) this.internalIndexStats.getNumberOfKeys();
     if (numKeys > 0) {
       this.internalIndexStats.incNumKeys(-numKeys);
@@ -880,6 +995,25 @@ public class HashIndex extends AbstractIndex {
       this.vsdStats.incUpdatesInProgress(delta);
     }
 
+    public void incUpdateLag(int delta) {
+      this.vsdStats.incUpdateLag(delta);
+    }
+
+    public void incUpdatesCoalesced() {
+      this.vsdStats.incUpdatesCoalesced();
+    }
+
+    /**
+     * Returns the number of updates queued for this index when it is maintained asynchronously.
+     */
+    public long getUpdateLag() {
+      return this.vsdStats.getUpdateLag();
+    }
+
+    public long getUpdatesCoalesced() {
+      return this.vsdStats.getUpdatesCoalesced();
+    }
+
     public void incNumUses() {
       this.vsdStats.incNumUses();
     }
@@ -1002,9 +1136,13 @@ public class HashIndex extends AbstractIndex {
     private boolean hasIndxUpdateOccurredOnce = false;
     private ExecutionContext initContext = null;
     private int iteratorSize = -1;
+    // Reads the index key from serialized pdx values, null if the index is not on a field of the
+    // region values.
+    private final PdxFieldAccessor pdxFieldAccessor;
 
     /** Creates a new instance of IMQEvaluator */
     IMQEvaluator(IndexCreationHelper helper) {
+      this.pdxFieldAccessor = getPdxFieldAccessor(helper);
       this.cache = helper.getCache();
       this.fromIterators = helper.getIterators();
       this.indexedExpr = helper.getCompiledIndexedExpression();
@@ -1058,6 +1196,13 @@ public class HashIndex extends AbstractIndex {
      */
     public void evaluate(RegionEntry target, boolean add) throws IMQException {
       assert !target.isInvalid() : "value in RegionEntry should not be INVALID";
+      if (this.pdxFieldAccessor != null) {
+        Object indexKey = readPdxIndexKey(this.pdxFieldAccessor, target);
+        if (indexKey != PdxFieldAccessor.NOT_READ) {
+          updateIndex(add, indexKey, target);
+          return;
+        }
+      }
       ExecutionContext context = null;
       try {
         context = createExecutionContext(target);
@@ -1219,11 +1364,16 @@ public class HashIndex extends AbstractIndex {
         throws FunctionDomainException, TypeMismatchException, NameResolutionException,
         QueryInvocationTargetException, IMQException {
       Object indexKey = indexedExpr.evaluate(context);
+      RegionEntry entry = ((DummyQRegion) context.getBindArgument(1)).getEntry();
+      updateIndex(add, indexKey, entry);
+    }
+
+    private void updateIndex(boolean add, Object indexKey, RegionEntry entry)
+        throws IMQException {
       if (indexKey == null) {
         indexKey = IndexManager.NULL;
       }
 
-      RegionEntry entry = ((DummyQRegion) context.getBindArgument(1)).getEntry();
       // Get thread local reverse map if available.
       if (add) {
         // Add new index entries before removing old ones.
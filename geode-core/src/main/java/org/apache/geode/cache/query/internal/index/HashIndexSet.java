@@ -40,6 +40,12 @@ import org.apache.geode.pdx.internal.PdxString;
  * An implementation of the <tt>Set</tt> interface for the HashIndex Not exactly a set as the hash
  * keys can actually collide but will continue to look for an empty location to store the value
  *
+ * The hash code of the index key of each object is kept in a parallel array, so that probing and
+ * rehashing do not evaluate the indexed expression on the objects of the set, which may have to be
+ * deserialized. The integral index keys are also kept in a primitive column, allocated when the
+ * first integral key is added, so that the lookups of an integral key skip the objects whose key
+ * differs without evaluating them. An object whose key matches is still evaluated, since it may
+ * have changed since it was added.
  */
 public class HashIndexSet implements Set {
 
@@ -50,6 +56,13 @@ public class HashIndexSet implements Set {
   class HashIndexSetProperties {
     /** the set of Objects */
     protected final transient Object[] set;
+    /** the hash codes of the index keys of the objects in the set */
+    protected final transient int[] hashes;
+    /**
+     * the integral index keys of the objects in the set, null until an integral key is added. Read
+     * by iterators without synchronization, so it is replaced with a single write.
+     */
+    transient volatile PrimitiveKeys primitiveKeys;
     /** used for hashing into the table **/
     protected final int mask;
 
@@ -79,8 +92,69 @@ public class HashIndexSet implements Set {
 
     public HashIndexSetProperties(final Object[] set, final int mask) {
       this.set = set;
+      this.hashes = new int[set.length];
       this.mask = mask;
     }
+
+    /**
+     * Sets the cached hash code and index key of the given slot, before the object is stored in
+     * it.
+     */
+    void setKey(int slot, int hash, Object indexKey) {
+      this.hashes[slot] = hash;
+      if (isIntegral(indexKey)) {
+        setPrimitiveKey(slot, ((Number) indexKey).longValue());
+      } else {
+        clearPrimitiveKey(slot);
+      }
+    }
+
+    void setPrimitiveKey(int slot, long key) {
+      PrimitiveKeys keys = this.primitiveKeys;
+      if (keys == null) {
+        keys = new PrimitiveKeys(this.set.length);
+        this.primitiveKeys = keys;
+      }
+      keys.set(slot, key);
+    }
+
+    void clearPrimitiveKey(int slot) {
+      PrimitiveKeys keys = this.primitiveKeys;
+      if (keys != null) {
+        keys.clear(slot);
+      }
+    }
+  }
+
+  /**
+   * The integral index keys of the slots of a set, with a bit set of the slots that have one. Both
+   * arrays are only ever published together.
+   */
+  static final class PrimitiveKeys {
+    private final long[] keys;
+    private final long[] slots;
+
+    PrimitiveKeys(int length) {
+      this.keys = new long[length];
+      this.slots = new long[(length + 63) >>> 6];
+    }
+
+    void set(int slot, long key) {
+      this.keys[slot] = key;
+      this.slots[slot >>> 6] |= 1L << slot;
+    }
+
+    void clear(int slot) {
+      this.slots[slot >>> 6] &= ~(1L << slot);
+    }
+
+    boolean has(int slot) {
+      return (this.slots[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    long get(int slot) {
+      return this.keys[slot];
+    }
   }
 
   private transient CachePerfStats cacheStats;
@@ -160,6 +234,15 @@ public class HashIndexSet implements Set {
     return object.hashCode();
   }
 
+  /**
+   * Returns whether the given index key is kept in the primitive key column. Two integral keys are
+   * equal, as compared by the query engine, if and only if their long values are equal.
+   */
+  static boolean isIntegral(Object indexKey) {
+    return indexKey instanceof Integer || indexKey instanceof Long || indexKey instanceof Short
+        || indexKey instanceof Byte;
+  }
+
   /**
    * Locates the index of <tt>obj</tt>.
    *
@@ -279,9 +362,11 @@ public class HashIndexSet implements Set {
     // grow/shrink capacity if needed
     preInsertHook();
     HashIndexSetProperties metaData = hashIndexSetProperties;
-    int indexSlot = insertionIndex(indexKey, metaData);
+    int hash = computeHash(indexKey);
+    int indexSlot = insertionIndex(hash, metaData);
 
     Object old = metaData.set[indexSlot];
+    metaData.setKey(indexSlot, hash, indexKey);
     addObjectToSet(metaData.set, indexSlot, obj);
     hashIndexSetProperties = metaData;
     // only call this now if we are adding to an actual empty slot, otherwise we
@@ -301,12 +386,17 @@ public class HashIndexSet implements Set {
    * @return the index of an open or resused position
    */
   protected int insertionIndex(Object indexKey, HashIndexSetProperties metaData) {
-    int hash;
+    return insertionIndex(computeHash(indexKey), metaData);
+  }
+
+  /**
+   * Locates the next available insertion index for the provided hash code of an index key
+   */
+  private int insertionIndex(int hash, HashIndexSetProperties metaData) {
     int pos;
     int mask = metaData.mask;
     Object curr;
     final Object[] array = metaData.set;
-    hash = computeHash(indexKey);
 
     long start = -1L;
     if (this.cacheStats != null) {
@@ -371,6 +461,7 @@ public class HashIndexSet implements Set {
     }
     Object[] oldSet = metaData.set;
     int oldCapacity = oldSet.length;
+    PrimitiveKeys oldPrimitiveKeys = metaData.primitiveKeys;
 
 
 
@@ -387,12 +478,14 @@ public class HashIndexSet implements Set {
       if (oldSet[i] != null && oldSet[i] != REMOVED) {
         Object o = oldSet[i];
 
-        Object key = _imqEvaluator.evaluateKey(o);
-        if (key == null) {
-          key = IndexManager.NULL;
-        }
-        int index = insertionIndex(key, newHashIndexProperties);
+        // the cached hash code and key are those the object was added with
+        int hash = metaData.hashes[i];
+        int index = insertionIndex(hash, newHashIndexProperties);
         if (index >= 0) {
+          newHashIndexProperties.hashes[index] = hash;
+          if (oldPrimitiveKeys != null && oldPrimitiveKeys.has(i)) {
+            newHashIndexProperties.setPrimitiveKey(index, oldPrimitiveKeys.get(i));
+          }
           addObjectToSet(newHashIndexProperties.set, index, o);
         }
       }
@@ -433,6 +526,7 @@ public class HashIndexSet implements Set {
     for (int i = set.length; i-- > 0;) {
       set[i] = null;
     }
+    metaData.primitiveKeys = null;
     hashIndexSetProperties = metaData;
   }
 
@@ -621,6 +715,7 @@ public class HashIndexSet implements Set {
       return false;
     } else {
       metaData.set[index] = REMOVED;
+      metaData.clearPrimitiveKey(index);
       metaData.size--;
       metaData.removedTokens++;
       hashIndexSetProperties = metaData;
@@ -683,6 +778,9 @@ public class HashIndexSet implements Set {
     private Object keyToMatch;
     // objects at time of iterator creation
     private final Object[] objects;
+    private final HashIndexSetProperties metaData;
+    private boolean integralKeyToMatch;
+    private long primitiveKeyToMatch;
     private int pos;
     private int prevPos;
     private Collection keysToRemove;
@@ -696,12 +794,18 @@ public class HashIndexSet implements Set {
       this.pos = 0;
       this.prevPos = 0;
       this.objects = metaData.set;
+      this.metaData = metaData;
       current = objects[pos];
     }
 
     private HashIndexSetIterator(Object keyToMatch, HashIndexSetProperties metaData) {
       this.keyToMatch = keyToMatch;
       this.objects = metaData.set;
+      this.metaData = metaData;
+      if (isIntegral(keyToMatch)) {
+        integralKeyToMatch = true;
+        primitiveKeyToMatch = ((Number) keyToMatch).longValue();
+      }
       mask = metaData.mask;
       hash = computeHash(keyToMatch);
       pos = (it.unimi.dsi.fastutil.HashCommon.mix(hash)) & mask;
@@ -732,8 +836,12 @@ public class HashIndexSet implements Set {
         current = objects[pos];
         // For Equals query
         while (current != null) {
-          if (current != REMOVED) {
-            if (objectMatchesIndexKey(keyToMatch, current)) {
+          if (current != REMOVED && metaData.hashes[pos] == hash) {
+            // a different integral key rules the object out without evaluating it
+            PrimitiveKeys primitiveKeys = metaData.primitiveKeys;
+            boolean differentKey = integralKeyToMatch && primitiveKeys != null
+                && primitiveKeys.has(pos) && primitiveKeys.get(pos) != primitiveKeyToMatch;
+            if (!differentKey && objectMatchesIndexKey(keyToMatch, current)) {
               return true;
             }
           }
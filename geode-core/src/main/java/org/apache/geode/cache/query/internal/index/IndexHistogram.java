@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.Comparator;
+
+import org.apache.geode.cache.query.internal.types.TypeUtils;
+
+/**
+ * An equi-depth histogram of the keys of a sorted index, used to estimate how many values a range
+ * lookup on the index returns whatever the type and distribution of the keys. It holds at most
+ * {@link #MAX_BOUNDARIES} keys of the index, chosen so that about as many values lie between any
+ * two consecutive ones, with the number of values whose key is lower than each of them. It is built
+ * by walking the index in key order.
+ *
+ * @since Geode 1.8.0
+ */
+class IndexHistogram {
+
+  static final int MAX_BOUNDARIES = 64;
+
+  private static final Comparator COMPARATOR = TypeUtils.getExtendedNumericComparator();
+
+  private final Object[] keys;
+
+  /** The number of values whose key is lower than each key */
+  private final long[] valuesBefore;
+
+  /** The greatest key of the index */
+  private final Object lastKey;
+
+  private final long totalValues;
+
+  private IndexHistogram(Object[] keys, long[] valuesBefore, Object lastKey, long totalValues) {
+    this.keys = keys;
+    this.valuesBefore = valuesBefore;
+    this.lastKey = lastKey;
+    this.totalValues = totalValues;
+  }
+
+  long getTotalValues() {
+    return this.totalValues;
+  }
+
+  int getNumberOfBoundaries() {
+    return this.keys.length;
+  }
+
+  /**
+   * Estimates the number of values whose key is lower than the given key.
+   *
+   * @return the estimate, or -1 if the key cannot be compared with the keys of the index
+   */
+  long estimateValuesBelow(Object key) {
+    int low = 0;
+    int high = this.keys.length - 1;
+    // the last boundary not greater than the key
+    int floor = -1;
+    boolean equal = false;
+    try {
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        int cmp = COMPARATOR.compare(this.keys[mid], key);
+        if (cmp < 0) {
+          floor = mid;
+          low = mid + 1;
+        } else if (cmp > 0) {
+          high = mid - 1;
+        } else {
+          floor = mid;
+          equal = true;
+          break;
+        }
+      }
+    } catch (ClassCastException ignore) {
+      return -1;
+    }
+    if (floor < 0) {
+      return 0;
+    }
+    if (equal) {
+      return this.valuesBefore[floor];
+    }
+    if (floor == this.keys.length - 1 && COMPARATOR.compare(key, this.lastKey) > 0) {
+      return this.totalValues;
+    }
+    // assume the key is in the middle of the values between the two boundaries
+    long next = floor + 1 < this.keys.length ? this.valuesBefore[floor + 1] : this.totalValues;
+    return this.valuesBefore[floor] + (next - this.valuesBefore[floor]) / 2;
+  }
+
+  /**
+   * Builds a histogram from the values of an index added in key order. A key becomes a boundary
+   * once at least depth values lie between the previous boundary and it, and so does a key that has
+   * at least depth values on its own, so that the values of a frequent key are not spread over the
+   * keys around it. The depth is derived from the expected number of values; if more are added,
+   * every other boundary is dropped and the depth doubled whenever there is no room left.
+   */
+  static class Builder {
+    private final Object[] keys = new Object[MAX_BOUNDARIES * 2];
+
+    private final long[] valuesBefore = new long[MAX_BOUNDARIES * 2];
+
+    private int size;
+
+    /** The minimum number of values between two boundaries */
+    private long depth;
+
+    private long totalValues;
+
+    /** The last key added, and the number of values whose key is lower than it */
+    private Object lastKey;
+
+    private long lastKeyValuesBefore;
+
+    /**
+     * @param expectedValues the number of values the index is expected to hold
+     */
+    Builder(long expectedValues) {
+      this.depth = Math.max(1, (expectedValues + MAX_BOUNDARIES - 1) / MAX_BOUNDARIES);
+    }
+
+    /**
+     * Adds a value of the given key, the keys being added in order.
+     */
+    void addValue(Object key) {
+      if (this.lastKey == null || !key.equals(this.lastKey)) {
+        addKey(key);
+      }
+      this.totalValues++;
+    }
+
+    /**
+     * Adds the given number of values of a key greater than the ones added so far.
+     */
+    void addValues(Object key, int values) {
+      addKey(key);
+      this.totalValues += values;
+    }
+
+    private void addKey(Object key) {
+      endLastKey();
+      if (this.size == 0 || this.totalValues - this.valuesBefore[this.size - 1] >= this.depth) {
+        addBoundary(key, this.totalValues);
+      }
+      this.lastKey = key;
+      this.lastKeyValuesBefore = this.totalValues;
+    }
+
+    /**
+     * Makes the last key added a boundary if it has enough values on its own.
+     */
+    private void endLastKey() {
+      if (this.lastKey != null && this.keys[this.size - 1] != this.lastKey
+          && this.totalValues - this.lastKeyValuesBefore >= this.depth) {
+        addBoundary(this.lastKey, this.lastKeyValuesBefore);
+      }
+    }
+
+    private void addBoundary(Object key, long valuesBeforeKey) {
+      if (this.size == this.keys.length) {
+        for (int i = 0; i < this.size / 2; i++) {
+          this.keys[i] = this.keys[i * 2];
+          this.valuesBefore[i] = this.valuesBefore[i * 2];
+        }
+        this.size /= 2;
+        this.depth *= 2;
+      }
+      this.keys[this.size] = key;
+      this.valuesBefore[this.size] = valuesBeforeKey;
+      this.size++;
+    }
+
+    IndexHistogram build() {
+      endLastKey();
+      // keep at most MAX_BOUNDARIES keys
+      int step = this.size > MAX_BOUNDARIES ? 2 : 1;
+      int length = (this.size + step - 1) / step;
+      Object[] histogramKeys = new Object[length];
+      long[] histogramValuesBefore = new long[length];
+      for (int i = 0; i < length; i++) {
+        histogramKeys[i] = this.keys[i * step];
+        histogramValuesBefore[i] = this.valuesBefore[i * step];
+      }
+      return new IndexHistogram(histogramKeys, histogramValuesBefore, this.lastKey,
+          this.totalValues);
+    }
+  }
+}
@@ -23,20 +23,17 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.logging.log4j.Logger;
 
-import org.apache.geode.SystemFailure;
 import org.apache.geode.cache.Region;
 import org.apache.geode.cache.query.AmbiguousNameException;
 import org.apache.geode.cache.query.Index;
@@ -73,7 +70,6 @@ import org.apache.geode.internal.cache.TXManagerImpl;
 import org.apache.geode.internal.cache.TXStateProxy;
 import org.apache.geode.internal.i18n.LocalizedStrings;
 import org.apache.geode.internal.logging.LogService;
-import org.apache.geode.internal.logging.LoggingThreadGroup;
 
 public class IndexManager {
   private static final Logger logger = LogService.getLogger();
@@ -102,7 +98,7 @@ public class IndexManager {
   private final ConcurrentMap indexes = new ConcurrentHashMap();
   // TODO Asif : Fix the appropriate size of the Map & the concurrency level
   private ConcurrentMap canonicalizedIteratorNameMap = new ConcurrentHashMap();
-  private IndexUpdaterThread updater;
+  private AsyncIndexUpdater updater;
 
   // Threshold for Queue.
   private final int INDEX_MAINTENANCE_BUFFER =
@@ -111,6 +107,14 @@ public class IndexManager {
   public static boolean JOIN_OPTIMIZATION =
       !Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "index.DisableJoinOptimization");
 
+  /**
+   * System property to evaluate the indexed expression on the deserialized values of the region
+   * even when the indexed field can be read straight from the serialized pdx values. Used by the
+   * indexes created after it is set.
+   */
+  public static boolean READ_PDX_FIELDS =
+      !Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "index.DisablePdxFieldAccessor");
+
   // Added for test purposes only.
   public static boolean INPLACE_OBJECT_MODIFICATION_FOR_TEST = false;
 
@@ -167,11 +171,7 @@ public class IndexManager {
         region.getAttributes().getEvictionAttributes().getAction().isOverflowToDisk();
     this.offHeap = region.getAttributes().getOffHeap();
     if (!indexMaintenanceSynchronous) {
-      final LoggingThreadGroup group =
-          LoggingThreadGroup.createThreadGroup("QueryMonitor Thread Group", logger);
-      updater = new IndexUpdaterThread(group, this.INDEX_MAINTENANCE_BUFFER,
-          "OqlIndexUpdater:" + region.getFullPath());
-      updater.start();
+      updater = new AsyncIndexUpdater(this, this.INDEX_MAINTENANCE_BUFFER);
     }
   }
 
@@ -237,9 +237,9 @@ public class IndexManager {
   }
 
   /**
-   * Used by tests to access the updater thread to determine its progress
+   * Used by tests to access the asynchronous updater to determine its progress
    */
-  public IndexUpdaterThread getUpdaterThread() {
+  public AsyncIndexUpdater getAsyncIndexUpdater() {
     return this.updater;
   }
 
@@ -299,6 +299,16 @@ public class IndexManager {
         // Asif: For now support Map index as non compact .expand later
         // The limitation for compact range index also apply to hash index for now
         isCompactOrHash = shouldCreateCompactIndex((FunctionalIndexCreationHelper) helper);
+        if (((FunctionalIndexCreationHelper) helper).isCompositeIndex()) {
+          if (indexType != IndexType.FUNCTIONAL) {
+            throw new IndexInvalidException(
+                "A composite index on " + origIndexedExpression + " must be a range index");
+          }
+          if (!isCompactOrHash) {
+            throw new IndexInvalidException("A composite index on " + origIndexedExpression
+                + " requires a single iterator on the region values and synchronous index maintenance");
+          }
+        }
       } else if (indexType == IndexType.PRIMARY_KEY) {
         helper = new PrimaryKeyIndexCreationHelper(origFromClause, origIndexedExpression,
             projectionAttributes, (InternalCache) region.getCache(), externalContext, this);
@@ -450,6 +460,14 @@ public class IndexManager {
 
     // indexedExpression requirement
     CompiledValue cv = helper.getCompiledIndexedExpression();
+    if (cv instanceof CompositeIndexExpression) {
+      for (CompiledValue component : ((CompositeIndexExpression) cv).getComponents()) {
+        if (!isPathExpression(component)) {
+          return false;
+        }
+      }
+      return isFromClauseCompactIndexCompatible(helper);
+    }
     int nodeType;
     do {
       nodeType = cv.getType();
@@ -471,6 +489,25 @@ public class IndexManager {
       }
     }
 
+    return isFromClauseCompactIndexCompatible(helper);
+  }
+
+  /**
+   * Returns true if the expression is a path or method invocation on an iterator
+   */
+  private static boolean isPathExpression(CompiledValue cv) {
+    int nodeType;
+    do {
+      nodeType = cv.getType();
+      if (nodeType == CompiledValue.PATH) {
+        cv = ((CompiledPath) cv).getReceiver();
+      }
+    } while (nodeType == CompiledValue.PATH);
+    return nodeType == OQLLexerTokenTypes.Identifier || nodeType == OQLLexerTokenTypes.METHOD_INV;
+  }
+
+  private static boolean isFromClauseCompactIndexCompatible(
+      FunctionalIndexCreationHelper helper) {
     // fromClause requirement
     List iterators = helper.getIterators();
     if (iterators.size() != 1) {
@@ -552,6 +589,9 @@ public class IndexManager {
       }
 
     }
+    if (indxData != null) {
+      waitForUpdateLag(indxData._index);
+    }
     return indxData;
   }
 
@@ -722,11 +762,88 @@ public class IndexManager {
             "The best index found for index expression: {} is: {} with Match-level: {} and mapping: {}",
             indexExprStr, bestIndex, bestIndexMatchLevel, Arrays.toString(bestMapping));
       }
+      waitForUpdateLag(bestIndex);
     }
     return bestIndex != null
         ? new IndexData((IndexProtocol) bestIndex, bestIndexMatchLevel, bestMapping) : null;
   }
 
+  /**
+   * Returns the composite range index whose iterators exactly match the given ones and whose
+   * leading components are constrained by the most conditions. The components are constrained by
+   * the conditions on the given equality expressions, and the component that follows them may be
+   * constrained by a condition on one of the given range expressions. The index returned is read
+   * locked, like the one returned by {@link #getBestMatchIndex}.
+   *
+   * @return the composite index, or null if no composite index has at least two constrained leading
+   *         components
+   */
+  public IndexData getCompositeIndex(String[] definitions, Set<String> equalityExpressions,
+      Set<String> rangeExpressions, ExecutionContext context) {
+    Index bestIndex = null;
+    PartitionedIndex bestPRIndex = null;
+    int[] bestMapping = null;
+    // a single constrained component is left to the single field indexes
+    int bestConstrainedComponents = 1;
+
+    for (Object ind : this.indexes.values()) {
+      // the index is still being created
+      if (ind instanceof FutureTask || !((AbstractIndex) ind).isPopulated()) {
+        continue;
+      }
+      Index index = (Index) ind;
+      PartitionedIndex prIndex = null;
+      if (index instanceof PartitionedIndex) {
+        prIndex = (PartitionedIndex) index;
+        index = prIndex.getBucketIndex();
+      }
+      if (!(index instanceof CompositeRangeIndex)) {
+        continue;
+      }
+      int constrainedComponents = ((CompositeRangeIndex) index)
+          .getConstrainedComponentCount(equalityExpressions, rangeExpressions);
+      if (constrainedComponents <= bestConstrainedComponents) {
+        continue;
+      }
+      int[] mapping = new int[definitions.length];
+      if (getMatchLevel(definitions,
+          ((IndexProtocol) index).getCanonicalizedIteratorDefinitions(), mapping) != 0) {
+        continue;
+      }
+
+      // For PR the index needs to be available on all the query buckets.
+      if (prIndex != null) {
+        if (!prIndex.acquireIndexReadLockForRemove()) {
+          continue;
+        }
+        try {
+          prIndex.verifyAndCreateMissingIndex(context.getBucketList());
+        } catch (Exception ignored) {
+          // Index is not there on all buckets.
+          prIndex.releaseIndexReadLockForRemove();
+          continue;
+        }
+      } else if (!((AbstractIndex) index).acquireIndexReadLockForRemove()) {
+        continue;
+      }
+
+      // release the lock on the index that is no longer the best one
+      if (bestPRIndex != null) {
+        bestPRIndex.releaseIndexReadLockForRemove();
+      } else if (bestIndex != null) {
+        ((AbstractIndex) bestIndex).releaseIndexReadLockForRemove();
+      }
+      bestIndex = index;
+      bestPRIndex = prIndex;
+      bestMapping = mapping;
+      bestConstrainedComponents = constrainedComponents;
+    }
+    if (bestIndex != null) {
+      waitForUpdateLag(bestIndex);
+    }
+    return bestIndex != null ? new IndexData((IndexProtocol) bestIndex, 0, bestMapping) : null;
+  }
+
   /*
    * Asif : This function returns the best match index. The crietria used to identify best match
    * index is based currently , relative to the query from clause. If the iterators of query from
@@ -833,6 +950,9 @@ public class IndexManager {
     if (this.indexes.remove(indexTask) != null) {
       AbstractIndex indexHandle = (AbstractIndex) index;
       indexHandle.destroy();
+      if (this.updater != null) {
+        this.updater.removeIndex(index.getName());
+      }
     }
   }
 
@@ -855,6 +975,9 @@ public class IndexManager {
       numIndexes++;
       IndexTask indexTask = (IndexTask) entry.getKey();
       this.indexes.remove(indexTask);
+      if (this.updater != null) {
+        this.updater.removeIndex(indexTask.indexName);
+      }
     }
     return numIndexes;
   }
@@ -1007,142 +1130,184 @@ public class IndexManager {
       // creator thread in waiting , but that can cause starvation
       // for index creator thread. So we will give priorityto index
       // creation thread
-      if (IndexManager.testHook != null) {
-        if (logger.isDebugEnabled()) {
-          logger.debug("IndexManager TestHook is set.");
+      invokeTestHooks(action, opCode);
+
+      Iterator iter = this.indexes.values().iterator();
+      while (iter.hasNext()) {
+        Object ind = iter.next();
+        // Check if the value is instance of FutureTask, this means
+        // the index is in create phase.
+        if (ind instanceof FutureTask) {
+          continue;
         }
-        testHook.hook(6); // ConcurrentIndexInitOnOverflowRegionDUnitTest
+        applyAction((IndexProtocol) ind, entry, action, opCode);
       }
+    } finally {
+      this.cache.setPdxReadSerializedOverride(initialPdxReadSerialized);
+      ((TXManagerImpl) this.cache.getCacheTransactionManager()).unpauseTransaction(tx);
 
-      long start = 0;
-      boolean indexLockAcquired = false;
-      switch (action) {
-        case ADD_ENTRY: {
-          if (IndexManager.testHook != null) {
-            if (logger.isDebugEnabled()) {
-              logger.debug("IndexManager TestHook in ADD_ENTRY.");
-            }
-            testHook.hook(5);
-          }
-          // this action is only called after update
-          assert opCode == IndexProtocol.OTHER_OP;
-
-          // Asif The behaviour can arise if an index creation has already
-          // acted upon a newly added entry , but by the time callback
-          // occurs , the index is added to the map & thus
-          // the add operation will now have an effect of update.
-          // so we need to remove the mapping even if it is an Add action
-          // as otherwise the new results will get added into the
-          // old results instead of replacement
-          Iterator iter = this.indexes.values().iterator();
-          while (iter.hasNext()) {
-            Object ind = iter.next();
-            // Check if the value is instance of FutureTask, this means
-            // the index is in create phase.
-            if (ind instanceof FutureTask) {
-              continue;
-            }
-            IndexProtocol index = (IndexProtocol) ind;
-
-            if (index.isValid() && ((AbstractIndex) index).isPopulated()
-                && index.getType() != IndexType.PRIMARY_KEY) {
-              // Asif : If the current Index contains an entry inspite
-              // of add operation , this can only mean that Index
-              // has already acted on it during creation, so do not
-              // apply IMQ on it
-              if (!index.containsEntry(entry)) {
-                if (logger.isDebugEnabled()) {
-                  logger.debug("Adding to index: {}{} value: {}", index.getName(),
-                      this.region.getFullPath(), entry.getKey());
-                }
-                start = ((AbstractIndex) index).updateIndexUpdateStats();
-                addIndexMapping(entry, index);
-                ((AbstractIndex) index).updateIndexUpdateStats(start);
-              }
-            }
+      getCachePerfStats().endIndexUpdate(startPA);
+    }
+  }
+
+  /**
+   * Applies a batch of the updates of an index maintained asynchronously, in order. Called by the
+   * {@link AsyncIndexUpdater}.
+   */
+  void processUpdates(String indexName, List<AsyncIndexUpdater.PendingUpdate> updates) {
+    Boolean initialPdxReadSerialized = this.cache.getPdxReadSerializedOverride();
+    this.cache.setPdxReadSerializedOverride(true);
+    TXStateProxy tx = null;
+    if (!this.cache.isClient()) {
+      tx = ((TXManagerImpl) this.cache.getCacheTransactionManager()).pauseTransaction();
+    }
+
+    try {
+      // the index is skipped while it is created, as by processAction
+      IndexProtocol index = (IndexProtocol) getIndex(indexName);
+      if (index == null) {
+        return;
+      }
+      for (AsyncIndexUpdater.PendingUpdate update : updates) {
+        if (update.action == RECREATE_INDEX) {
+          recreateIndex(index);
+          continue;
+        }
+        final long startPA = getCachePerfStats().startIndexUpdate();
+        try {
+          if (update.beforeUpdate) {
+            invokeTestHooks(REMOVE_ENTRY, IndexProtocol.BEFORE_UPDATE_OP);
+            applyAction(index, update.entry, REMOVE_ENTRY, IndexProtocol.BEFORE_UPDATE_OP);
           }
-          break;
+          invokeTestHooks(update.action, update.opCode);
+          applyAction(index, update.entry, update.action, update.opCode);
+        } catch (QueryException e) {
+          logger.warn("Asynchronous update of index " + indexName + " for the entry "
+              + update.entry.getKey() + " failed", e);
+        } finally {
+          getCachePerfStats().endIndexUpdate(startPA);
         }
-        case UPDATE_ENTRY: {
+      }
+    } finally {
+      this.cache.setPdxReadSerializedOverride(initialPdxReadSerialized);
+      ((TXManagerImpl) this.cache.getCacheTransactionManager()).unpauseTransaction(tx);
+    }
+  }
 
-          if (IndexManager.testHook != null) {
-            if (logger.isDebugEnabled()) {
-              logger.debug("IndexManager TestHook in UPDATE_ENTRY.");
-            }
-            testHook.hook(5);
-            testHook.hook(9); // QueryDataInconsistencyDUnitTest
+  private void invokeTestHooks(int action, int opCode) {
+    if (IndexManager.testHook != null) {
+      if (logger.isDebugEnabled()) {
+        logger.debug("IndexManager TestHook is set.");
+      }
+      testHook.hook(6); // ConcurrentIndexInitOnOverflowRegionDUnitTest
+    }
+    switch (action) {
+      case ADD_ENTRY: {
+        if (IndexManager.testHook != null) {
+          if (logger.isDebugEnabled()) {
+            logger.debug("IndexManager TestHook in ADD_ENTRY.");
           }
+          testHook.hook(5);
+        }
+        // this action is only called after update
+        assert opCode == IndexProtocol.OTHER_OP;
+        break;
+      }
+      case UPDATE_ENTRY: {
+        if (IndexManager.testHook != null) {
+          if (logger.isDebugEnabled()) {
+            logger.debug("IndexManager TestHook in UPDATE_ENTRY.");
+          }
+          testHook.hook(5);
+          testHook.hook(9); // QueryDataInconsistencyDUnitTest
+        }
 
-          // this action is only called with opCode AFTER_UPDATE_OP
-          assert opCode == IndexProtocol.AFTER_UPDATE_OP;
-          Iterator iter = this.indexes.values().iterator();
-          while (iter.hasNext()) {
-            Object ind = iter.next();
-            // Check if the value is instance of FutureTask, this means
-            // the index is in create phase.
-            if (ind instanceof FutureTask) {
-              continue;
-            }
-            IndexProtocol index = (IndexProtocol) ind;
-
-            if (((AbstractIndex) index).isPopulated() && index.getType() != IndexType.PRIMARY_KEY) {
-              if (logger.isDebugEnabled()) {
-                logger.debug("Updating index: {}{} value: {}", index.getName(),
-                    this.region.getFullPath(), entry.getKey());
-              }
-              start = ((AbstractIndex) index).updateIndexUpdateStats();
-
-              addIndexMapping(entry, index);
-
-              ((AbstractIndex) index).updateIndexUpdateStats(start);
-            }
+        // this action is only called with opCode AFTER_UPDATE_OP
+        assert opCode == IndexProtocol.AFTER_UPDATE_OP;
+        break;
+      }
+      case REMOVE_ENTRY: {
+        if (IndexManager.testHook != null) {
+          if (logger.isDebugEnabled()) {
+            logger.debug("IndexManager TestHook in REMOVE_ENTRY.");
           }
-          break;
+          testHook.hook(5);
+          testHook.hook(10);
         }
-        case REMOVE_ENTRY: {
+        break;
+      }
+      default: {
+        throw new IndexMaintenanceException(
+            LocalizedStrings.IndexManager_INVALID_ACTION.toLocalizedString());
+      }
+    }
+  }
 
-          if (IndexManager.testHook != null) {
+  /**
+   * Applies an update of the entry to one index.
+   */
+  private void applyAction(IndexProtocol index, RegionEntry entry, int action, int opCode)
+      throws QueryException {
+    long start = 0;
+    switch (action) {
+      case ADD_ENTRY: {
+        // Asif The behaviour can arise if an index creation has already
+        // acted upon a newly added entry , but by the time callback
+        // occurs , the index is added to the map & thus
+        // the add operation will now have an effect of update.
+        // so we need to remove the mapping even if it is an Add action
+        // as otherwise the new results will get added into the
+        // old results instead of replacement
+        if (index.isValid() && ((AbstractIndex) index).isPopulated()
+            && index.getType() != IndexType.PRIMARY_KEY) {
+          // Asif : If the current Index contains an entry inspite
+          // of add operation , this can only mean that Index
+          // has already acted on it during creation, so do not
+          // apply IMQ on it
+          if (!index.containsEntry(entry)) {
             if (logger.isDebugEnabled()) {
-              logger.debug("IndexManager TestHook in REMOVE_ENTRY.");
+              logger.debug("Adding to index: {}{} value: {}", index.getName(),
+                  this.region.getFullPath(), entry.getKey());
             }
-            testHook.hook(5);
-            testHook.hook(10);
+            start = ((AbstractIndex) index).updateIndexUpdateStats();
+            addIndexMapping(entry, index);
+            ((AbstractIndex) index).updateIndexUpdateStats(start);
           }
-          Iterator iter = this.indexes.values().iterator();
-          while (iter.hasNext()) {
-            Object ind = iter.next();
-            // Check if the value is instance of FutureTask, this means
-            // the index is in create phase.
-            if (ind instanceof FutureTask) {
-              continue;
-            }
-            IndexProtocol index = (IndexProtocol) ind;
-
-            if (((AbstractIndex) index).isPopulated() && index.getType() != IndexType.PRIMARY_KEY) {
-              AbstractIndex abstractIndex = (AbstractIndex) index;
-              if (logger.isDebugEnabled()) {
-                logger.debug("Removing from index: {}{} value: {}", index.getName(),
-                    this.region.getFullPath(), entry.getKey());
-              }
-              start = ((AbstractIndex) index).updateIndexUpdateStats();
+        }
+        break;
+      }
+      case UPDATE_ENTRY: {
+        if (((AbstractIndex) index).isPopulated() && index.getType() != IndexType.PRIMARY_KEY) {
+          if (logger.isDebugEnabled()) {
+            logger.debug("Updating index: {}{} value: {}", index.getName(),
+                this.region.getFullPath(), entry.getKey());
+          }
+          start = ((AbstractIndex) index).updateIndexUpdateStats();
 
-              index.removeIndexMapping(entry, opCode);
+          addIndexMapping(entry, index);
 
-              ((AbstractIndex) index).updateIndexUpdateStats(start);
-            }
-          }
-          break;
-        }
-        default: {
-          throw new IndexMaintenanceException(
-              LocalizedStrings.IndexManager_INVALID_ACTION.toLocalizedString());
+          ((AbstractIndex) index).updateIndexUpdateStats(start);
         }
+        break;
       }
-    } finally {
-      this.cache.setPdxReadSerializedOverride(initialPdxReadSerialized);
-      ((TXManagerImpl) this.cache.getCacheTransactionManager()).unpauseTransaction(tx);
+      case REMOVE_ENTRY: {
+        if (((AbstractIndex) index).isPopulated() && index.getType() != IndexType.PRIMARY_KEY) {
+          if (logger.isDebugEnabled()) {
+            logger.debug("Removing from index: {}{} value: {}", index.getName(),
+                this.region.getFullPath(), entry.getKey());
+          }
+          start = ((AbstractIndex) index).updateIndexUpdateStats();
 
-      getCachePerfStats().endIndexUpdate(startPA);
+          index.removeIndexMapping(entry, opCode);
+
+          ((AbstractIndex) index).updateIndexUpdateStats(start);
+        }
+        break;
+      }
+      default: {
+        throw new IndexMaintenanceException(
+            LocalizedStrings.IndexManager_INVALID_ACTION.toLocalizedString());
+      }
     }
   }
 
@@ -1211,7 +1376,6 @@ public class IndexManager {
    */
   private void recreateAllIndexesForRegion() {
 
-    long start = 0;
     waitBeforeUpdate();
     try {
       // opCode is ignored for this operation
@@ -1223,14 +1387,7 @@ public class IndexManager {
         if (ind instanceof FutureTask) {
           continue;
         }
-        IndexProtocol index = (IndexProtocol) ind;
-        if (index.getType() == IndexType.FUNCTIONAL || index.getType() == IndexType.HASH) {
-          AbstractIndex aIndex = ((AbstractIndex) index);
-          start = ((AbstractIndex) index).updateIndexUpdateStats();
-          ((AbstractIndex) index).recreateIndexData();
-          ((AbstractIndex) index).updateIndexUpdateStats(start);
-
-        }
+        recreateIndexData((IndexProtocol) ind);
       }
     } catch (Exception e) {
       throw new IndexInvalidException(e);
@@ -1239,6 +1396,29 @@ public class IndexManager {
     }
   }
 
+  /**
+   * Recreates one index of this region, blocking all updates on all indexes while recreate is in
+   * progress, as {@link #recreateAllIndexesForRegion} does.
+   */
+  private void recreateIndex(IndexProtocol index) {
+    waitBeforeUpdate();
+    try {
+      recreateIndexData(index);
+    } catch (Exception e) {
+      throw new IndexInvalidException(e);
+    } finally {
+      notifyAfterUpdate();
+    }
+  }
+
+  private void recreateIndexData(IndexProtocol index) throws IMQException {
+    if (index.getType() == IndexType.FUNCTIONAL || index.getType() == IndexType.HASH) {
+      long start = ((AbstractIndex) index).updateIndexUpdateStats();
+      ((AbstractIndex) index).recreateIndexData();
+      ((AbstractIndex) index).updateIndexUpdateStats(start);
+    }
+  }
+
   /**
    * Wait for index initialization before entry create, update, invalidate or destroy operation.
    *
@@ -1295,6 +1475,38 @@ public class IndexManager {
       updater.shutdown();
   }
 
+  /**
+   * Returns the names of the indexes of this region updated with the region entries, including the
+   * ones being created.
+   */
+  List<String> getMaintainedIndexNames() {
+    List<String> indexNames = new ArrayList<>(this.indexes.size());
+    for (Object object : this.indexes.entrySet()) {
+      Map.Entry entry = (Map.Entry) object;
+      IndexTask indexTask = (IndexTask) entry.getKey();
+      IndexType indexType = entry.getValue() instanceof Index
+          ? ((Index) entry.getValue()).getType() : indexTask.indexType;
+      if (indexType != IndexType.PRIMARY_KEY) {
+        indexNames.add(indexTask.indexName);
+      }
+    }
+    return indexNames;
+  }
+
+  /**
+   * Waits, when {@link AsyncIndexUpdater#MAX_QUERY_LAG} is set, for the number of queued
+   * asynchronous updates of the given index to drop to it, before a query uses the index.
+   */
+  public static void waitForUpdateLag(Index index) {
+    if (AsyncIndexUpdater.MAX_QUERY_LAG < 0) {
+      return;
+    }
+    IndexManager indexManager = ((LocalRegion) index.getRegion()).getIndexManager();
+    if (indexManager != null && indexManager.updater != null) {
+      indexManager.updater.waitForLag(index.getName(), AsyncIndexUpdater.MAX_QUERY_LAG);
+    }
+  }
+
   /**
    * Removes indexes for a destroyed bucket region from the list of bucket indexes in the
    * {@link PartitionedIndex}.
@@ -1391,118 +1603,6 @@ public class IndexManager {
 
   ////////////////////// Inner Classes //////////////////////
 
-  public class IndexUpdaterThread extends Thread {
-
-    private volatile boolean running = true;
-
-    private volatile boolean shutdownRequested = false;
-
-    private volatile BlockingQueue pendingTasks;
-
-    /**
-     * Creates instance of IndexUpdaterThread
-     */
-    IndexUpdaterThread(ThreadGroup group, int updateThreshold, String threadName) {
-      super(group, threadName);
-      // Check if threshold is set.
-      if (updateThreshold > 0) {
-        // Create a bounded queue.
-        pendingTasks = new ArrayBlockingQueue(updateThreshold);
-      } else {
-        // Create non-bounded queue.
-        pendingTasks = new LinkedBlockingQueue();
-      }
-      this.setDaemon(true);
-    }
-
-    public void addTask(int action, RegionEntry entry, int opCode) {
-      Object[] task = new Object[3];
-      task[0] = action;
-      task[1] = entry;
-      task[2] = opCode;
-      pendingTasks.add(task);
-    }
-
-    /**
-     * Stops this thread. Does not return until it has stopped.
-     */
-    public void shutdown() {
-      if (!this.running) {
-        return;
-      }
-      this.shutdownRequested = true;
-      this.interrupt();
-      try {
-        this.join();
-      } catch (InterruptedException ignore) {
-        Thread.currentThread().interrupt();
-        // just return, we're done
-      }
-    }
-
-    @Override
-    public void run() {
-      // async writers main loop
-      // logger.debug("DiskRegion writer started (writer=" + this + ")");
-      org.apache.geode.CancelCriterion stopper = ((LocalRegion) region).getCancelCriterion();
-      try {
-        while (!this.shutdownRequested) {
-          // Termination checks
-          SystemFailure.checkFailure();
-          if (stopper.isCancelInProgress()) {
-            break;
-          }
-          try {
-            Object[] task = (Object[]) pendingTasks.take();
-            if (this.shutdownRequested) {
-              break;
-            }
-            updateIndexes(task);
-          } catch (InterruptedException ignore) {
-            return; // give up (exit the thread)
-          }
-        }
-      } finally {
-        this.running = false;
-      }
-    }
-
-    private void updateIndexes(Object[] task) {
-      int action = (Integer) task[0];
-      RegionEntry entry = (RegionEntry) task[1];
-      int opCode = (Integer) task[2];
-      // System.out.println("entry = "+entry.getKey());
-      if (entry != null || action == RECREATE_INDEX) {
-        try {
-          if (action == RECREATE_INDEX) {
-            recreateAllIndexesForRegion();
-          } else {
-            if (entry != null) {
-              entry.setUpdateInProgress(true);
-            }
-            processAction(entry, action, opCode);
-          }
-        } catch (Exception e) {
-          e.printStackTrace();
-        } finally {
-          if (entry != null && action != RECREATE_INDEX) {
-            entry.setUpdateInProgress(false);
-          }
-        }
-      }
-    }
-
-    /**
-     * Used by tests to determine if the updater thread has finished updating its indexes. The list
-     * is cleared without synchronization, which makes this methods somewhat unsafe from a threading
-     * point of view.
-     */
-    public synchronized boolean isDone() {
-      return this.pendingTasks.size() == 0;
-    }
-
-  }
-
   /**
    * Index Task used to create the index. This is used along with the FutureTask to take care of,
    * same index creation request from multiple threads. At any time only one thread succeeds and
@@ -1618,7 +1718,15 @@ public class IndexManager {
         // boolean isCompact = !helper.isMapTypeIndex() &&
         // shouldCreateCompactIndex((FunctionalIndexCreationHelper)helper);
         if (this.isCompactOrHash || this.isLDM) {
-          if (indexType == IndexType.FUNCTIONAL && !helper.isMapTypeIndex()) {
+          if (indexType == IndexType.FUNCTIONAL
+              && ((FunctionalIndexCreationHelper) helper).isCompositeIndex()) {
+            index = new CompositeRangeIndex(cache, indexName, region, fromClause,
+                indexedExpression, projectionAttributes, origFromClause, origIndexedExpression,
+                definitions, ((FunctionalIndexCreationHelper) helper).compositeIndexComponents,
+                stats);
+            logger.info("Using Composite Range index implementation for '{}' on region {}",
+                indexName, region.getFullPath());
+          } else if (indexType == IndexType.FUNCTIONAL && !helper.isMapTypeIndex()) {
             index = new CompactRangeIndex(cache, indexName, region, fromClause, indexedExpression,
                 projectionAttributes, origFromClause, origIndexedExpression, definitions, stats);
             logger.info("Using Compact Range index implementation for '{}' on region {}", indexName,
@@ -40,6 +40,8 @@ public class IndexStats {
   private static final int readLockCountId;
   private static final int numMapIndexKeysId;
   private static final int numBucketIndexesId;
+  private static final int updateLagId;
+  private static final int updatesCoalescedId;
 
   /** The Statistics object that we delegate most behavior to */
   private final Statistics stats;
@@ -66,7 +68,14 @@ public class IndexStats {
             f.createIntGauge("readLockCount", "Current number of read locks taken.", "uses"),
             f.createLongGauge("numMapIndexKeys", "Number of keys in this Map index", "keys"),
             f.createIntGauge("numBucketIndexes",
-                "Number of bucket indexes in the partitioned region", "indexes"),});
+                "Number of bucket indexes in the partitioned region", "indexes"),
+            f.createLongGauge("updateLag",
+                "Number of updates queued for this index when it is maintained asynchronously",
+                "updates"),
+            f.createLongCounter("updatesCoalesced",
+                "Number of asynchronous updates of this index merged into a queued update of the "
+                    + "same entry",
+                "updates"),});
 
     // Initialize id fields
     numKeysId = type.nameToId("numKeys");
@@ -80,6 +89,8 @@ public class IndexStats {
     readLockCountId = type.nameToId("readLockCount");
     numMapIndexKeysId = type.nameToId("numMapIndexKeys");
     numBucketIndexesId = type.nameToId("numBucketIndexes");
+    updateLagId = type.nameToId("updateLag");
+    updatesCoalescedId = type.nameToId("updatesCoalesced");
   }
 
   /**
@@ -126,6 +137,14 @@ public class IndexStats {
     return stats.getInt(numBucketIndexesId);
   }
 
+  public long getUpdateLag() {
+    return stats.getLong(updateLagId);
+  }
+
+  public long getUpdatesCoalesced() {
+    return stats.getLong(updatesCoalescedId);
+  }
+
   public void incNumUpdates() {
     this.stats.incLong(numUpdatesId, 1);
   }
@@ -182,6 +201,14 @@ public class IndexStats {
     this.stats.incInt(numBucketIndexesId, delta);
   }
 
+  public void incUpdateLag(int delta) {
+    this.stats.incLong(updateLagId, delta);
+  }
+
+  public void incUpdatesCoalesced() {
+    this.stats.incLong(updatesCoalescedId, 1);
+  }
+
   /**
    * Closes these stats so that they can not longer be used. The stats are closed when the cache is
    * closed.
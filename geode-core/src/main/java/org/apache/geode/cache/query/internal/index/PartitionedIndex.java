@@ -234,6 +234,9 @@ public class PartitionedIndex extends AbstractIndex {
       throw new QueryInvocationTargetException(
           "Index Manager not found, " + " unable to fetch the index " + indexName);
     }
+    if (index != null) {
+      IndexManager.waitForUpdateLag(index);
+    }
 
     return index;
   }
@@ -467,6 +470,25 @@ public class PartitionedIndex extends AbstractIndex {
       this.vsdStats.incUpdatesInProgress(delta);
     }
 
+    public void incUpdateLag(int delta) {
+      this.vsdStats.incUpdateLag(delta);
+    }
+
+    public void incUpdatesCoalesced() {
+      this.vsdStats.incUpdatesCoalesced();
+    }
+
+    /**
+     * Returns the number of updates queued for this index when it is maintained asynchronously.
+     */
+    public long getUpdateLag() {
+      return this.vsdStats.getUpdateLag();
+    }
+
+    public long getUpdatesCoalesced() {
+      return this.vsdStats.getUpdatesCoalesced();
+    }
+
     public void incNumUses() {
       this.vsdStats.incNumUses();
     }
@@ -758,12 +758,71 @@ public class RangeIndex extends AbstractIndex {
           }
           break;
       }
+      if (matchLevel <= 0) {
+        // the histogram accounts for skewed and non-numeric keys, which the interpolation does not
+        int estimate = estimateRangeSize(key, operator);
+        if (estimate >= 0) {
+          size = estimate;
+        }
+      }
     } finally {
       updateIndexUseEndStats(start, false);
     }
     return size;
   }
 
+  /**
+   * Estimates the number of values of a range lookup from the histogram of the index.
+   *
+   * @return the estimate, or -1 if the operator is not a range or there is no usable histogram
+   */
+  private int estimateRangeSize(Object key, int operator) throws TypeMismatchException {
+    if (operator != OQLLexerTokenTypes.TOK_LT && operator != OQLLexerTokenTypes.TOK_LE
+        && operator != OQLLexerTokenTypes.TOK_GT && operator != OQLLexerTokenTypes.TOK_GE
+        || key == null || key == QueryService.UNDEFINED) {
+      return -1;
+    }
+    IndexHistogram histogram = getHistogram();
+    if (histogram == null) {
+      return -1;
+    }
+    key = getPdxStringForIndexedPdxKeys(TypeUtils.indexKeyFor(key));
+    long below = histogram.estimateValuesBelow(key);
+    if (below < 0) {
+      return -1;
+    }
+    long equal = 0;
+    if (operator == OQLLexerTokenTypes.TOK_LE || operator == OQLLexerTokenTypes.TOK_GT) {
+      RegionEntryToValuesMap valMap = (RegionEntryToValuesMap) this.valueToEntriesMap.get(key);
+      equal = valMap == null ? 0 : valMap.getNumValues();
+    }
+    long size;
+    switch (operator) {
+      case OQLLexerTokenTypes.TOK_LT:
+        size = below;
+        break;
+      case OQLLexerTokenTypes.TOK_LE:
+        size = below + equal;
+        break;
+      case OQLLexerTokenTypes.TOK_GT:
+        size = histogram.getTotalValues() - below - equal;
+        break;
+      default:
+        size = histogram.getTotalValues() - below;
+    }
+    return (int) Math.min(Math.max(size, 0), MAX_VALUE - 1);
+  }
+
+  @Override
+  boolean addKeysToHistogram(IndexHistogram.Builder builder) {
+    for (Object entry : this.valueToEntriesMap.entrySet()) {
+      Map.Entry mapEntry = (Map.Entry) entry;
+      builder.addValues(mapEntry.getKey(),
+          ((RegionEntryToValuesMap) mapEntry.getValue()).getNumValues());
+    }
+    return true;
+  }
+
   private void evaluate(Object key, int operator, Collection results, Set keysToRemove, int limit,
       ExecutionContext context) throws TypeMismatchException {
     key = TypeUtils.indexKeyFor(key);
@@ -1159,6 +1218,7 @@ public class RangeIndex extends AbstractIndex {
     this.entryToValuesMap.clear();
     this.nullMappedEntries.clear();
     this.undefinedMappedEntries.clear();
+    clearHistogram();
     int numKeys = (int) this.internalIndexStats.getNumberOfKeys();
     if (numKeys > 0) {
       this.internalIndexStats.incNumKeys(-numKeys);
@@ -1507,6 +1567,25 @@ public class RangeIndex extends AbstractIndex {
       this.vsdStats.incUpdatesInProgress(delta);
     }
 
+    public void incUpdateLag(int delta) {
+      this.vsdStats.incUpdateLag(delta);
+    }
+
+    public void incUpdatesCoalesced() {
+      this.vsdStats.incUpdatesCoalesced();
+    }
+
+    /**
+     * Returns the number of updates queued for this index when it is maintained asynchronously.
+     */
+    public long getUpdateLag() {
+      return this.vsdStats.getUpdateLag();
+    }
+
+    public long getUpdatesCoalesced() {
+      return this.vsdStats.getUpdatesCoalesced();
+    }
+
     public void incNumUses() {
       this.vsdStats.incNumUses();
     }
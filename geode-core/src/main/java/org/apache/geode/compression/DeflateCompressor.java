@@ -0,0 +1,374 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.geode.compression;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.Declarable;
+
+/**
+ * An implementation of {@link Compressor} that uses the JDK's DEFLATE (zlib) codec, optionally with
+ * a preset dictionary.
+ * <p>
+ * Small values, such as PDX serialized objects with a handful of fields, compress poorly on their
+ * own because each one is too short to contain much repetition. A dictionary made of byte
+ * sequences that are common across the values of a region, see {@link #trainDictionary}, lets each
+ * value refer back to them instead. The dictionary is part of the compressor, so it is distributed
+ * with the region attributes, and values can only be decompressed by a compressor with the same
+ * dictionary.
+ * <p>
+ * In cache.xml the level and the Base64 encoded dictionary are given as the <code>level</code> and
+ * <code>dictionary</code> parameters of the compressor, see {@link #initialize}.
+ *
+ * @since Geode 1.8.0
+ */
+public class DeflateCompressor implements Compressor, Declarable, Serializable {
+  private static final long serialVersionUID = -2795040582187226379L;
+
+  /**
+   * The largest useful dictionary. DEFLATE cannot refer back further than this.
+   */
+  public static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+
+  private static final int SHINGLE_SIZE = 8;
+
+  private static final int SEGMENT_SIZE = 64;
+
+  /**
+   * DEFLATE can not expand its input by more than this factor, so a length prefix that claims more
+   * is corrupt and must not be allocated.
+   */
+  private static final long MAX_INFLATION_RATIO = 1032;
+
+  /**
+   * The number of idle codecs kept for reuse. Codecs beyond this are ended as soon as they are
+   * returned so that their native memory is released.
+   */
+  private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+  private int level;
+
+  private byte[] dictionary;
+
+  private transient BlockingQueue<Deflater> deflaters;
+
+  private transient BlockingQueue<Inflater> inflaters;
+
+  /**
+   * Create a new DeflateCompressor that uses the default compression level and no dictionary.
+   */
+  public DeflateCompressor() {
+    this(Deflater.DEFAULT_COMPRESSION, null);
+  }
+
+  /**
+   * Create a new DeflateCompressor.
+   *
+   * @param level the compression level, from 0 to 9, or -1 for the default
+   * @param dictionary the preset dictionary, or null for none
+   * @throws IllegalArgumentException if level is out of range or the dictionary is larger than
+   *         {@link #MAX_DICTIONARY_SIZE}
+   */
+  public DeflateCompressor(int level, byte[] dictionary) {
+    if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+      throw new IllegalArgumentException("Invalid compression level " + level);
+    }
+    if (dictionary != null && dictionary.length > MAX_DICTIONARY_SIZE) {
+      throw new IllegalArgumentException("Dictionary of " + dictionary.length
+          + " bytes is larger than the maximum of " + MAX_DICTIONARY_SIZE);
+    }
+    this.level = level;
+    this.dictionary = dictionary == null || dictionary.length == 0 ? null : dictionary.clone();
+    this.deflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+    this.inflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+  }
+
+  /**
+   * Used for declarative configuration from cache.xml. The following properties may be specified:
+   * <ul>
+   * <li><b>level</b> - the compression level, from 0 to 9, or -1 for the default</li>
+   * <li><b>dictionary</b> - the Base64 encoded preset dictionary, for example one built by
+   * {@link #trainDictionary}</li>
+   * </ul>
+   *
+   * @throws IllegalArgumentException if a property is not valid
+   */
+  @Override
+  public void initialize(Cache cache, Properties properties) {
+    String levelProperty = properties.getProperty("level");
+    String dictionaryProperty = properties.getProperty("dictionary");
+    DeflateCompressor configured = new DeflateCompressor(
+        levelProperty == null ? Deflater.DEFAULT_COMPRESSION
+            : Integer.parseInt(levelProperty.trim()),
+        dictionaryProperty == null ? null
+            : Base64.getMimeDecoder().decode(dictionaryProperty.trim()));
+    this.level = configured.level;
+    this.dictionary = configured.dictionary;
+  }
+
+  /**
+   * Returns the properties that {@link #initialize} would configure this compressor from.
+   */
+  public Properties getConfig() {
+    Properties properties = new Properties();
+    properties.setProperty("level", String.valueOf(this.level));
+    if (this.dictionary != null) {
+      properties.setProperty("dictionary", Base64.getEncoder().encodeToString(this.dictionary));
+    }
+    return properties;
+  }
+
+  @Override
+  public byte[] compress(byte[] input) {
+    Deflater deflater = borrowDeflater();
+    try {
+      if (this.dictionary != null) {
+        deflater.setDictionary(this.dictionary);
+      }
+      deflater.setInput(input);
+      deflater.finish();
+      // room for the length prefix and for input that does not compress
+      byte[] output = new byte[4 + input.length + input.length / 1000 + 64];
+      ByteBuffer.wrap(output).putInt(input.length);
+      int length = 4;
+      while (!deflater.finished()) {
+        if (length == output.length) {
+          output = Arrays.copyOf(output, output.length * 2);
+        }
+        length += deflater.deflate(output, length, output.length - length);
+      }
+      return Arrays.copyOf(output, length);
+    } finally {
+      returnDeflater(deflater);
+    }
+  }
+
+  @Override
+  public byte[] decompress(byte[] input) {
+    if (input.length < 4) {
+      throw new CompressionException("Compressed value is only " + input.length + " bytes");
+    }
+    int expectedLength = ByteBuffer.wrap(input).getInt();
+    if (expectedLength < 0 || expectedLength > (input.length - 4) * MAX_INFLATION_RATIO) {
+      throw new CompressionException("Invalid uncompressed length " + expectedLength + " for "
+          + (input.length - 4) + " compressed bytes");
+    }
+    byte[] output = new byte[expectedLength];
+    if (expectedLength == 0) {
+      return output;
+    }
+    Inflater inflater = borrowInflater();
+    try {
+      inflater.setInput(input, 4, input.length - 4);
+      int length = 0;
+      while (!inflater.finished()) {
+        if (inflater.needsDictionary()) {
+          if (this.dictionary == null) {
+            throw new CompressionException("Value was compressed with a dictionary");
+          }
+          inflater.setDictionary(this.dictionary);
+        }
+        int inflated = inflater.inflate(output, length, output.length - length);
+        if (inflated == 0 && !inflater.needsDictionary() && !inflater.finished()) {
+          throw new CompressionException("Compressed value is truncated or longer than "
+              + expectedLength + " bytes when decompressed");
+        }
+        length += inflated;
+      }
+      if (length != expectedLength) {
+        throw new CompressionException(
+            "Expected " + expectedLength + " bytes but decompressed " + length);
+      }
+      return output;
+    } catch (DataFormatException | IllegalArgumentException e) {
+      throw new CompressionException(e);
+    } finally {
+      returnInflater(inflater);
+    }
+  }
+
+  /**
+   * Returns a copy of this compressor's dictionary, or null if it has none.
+   */
+  public byte[] getDictionary() {
+    return this.dictionary == null ? null : this.dictionary.clone();
+  }
+
+  public int getLevel() {
+    return this.level;
+  }
+
+  /**
+   * Builds a dictionary from sample values. The dictionary is made of the segments of the samples
+   * that contain the most byte sequences shared with other samples, with the most useful segments
+   * last since DEFLATE can refer to them most cheaply.
+   *
+   * @param samples values representative of those that will be compressed
+   * @param maxSize the maximum dictionary size, at most {@link #MAX_DICTIONARY_SIZE}
+   * @return the dictionary, empty if the samples have nothing in common
+   */
+  public static byte[] trainDictionary(Collection<byte[]> samples, int maxSize) {
+    maxSize = Math.min(maxSize, MAX_DICTIONARY_SIZE);
+
+    // count how many samples each shingle occurs in
+    Map<Long, Integer> counts = new HashMap<>();
+    for (byte[] sample : samples) {
+      Set<Long> seen = new HashSet<>();
+      for (int i = 0; i + SHINGLE_SIZE <= sample.length; i++) {
+        Long shingle = shingle(sample, i);
+        if (seen.add(shingle)) {
+          counts.merge(shingle, 1, Integer::sum);
+        }
+      }
+    }
+
+    List<Segment> segments = new ArrayList<>();
+    for (byte[] sample : samples) {
+      for (int start = 0; start < sample.length; start += SEGMENT_SIZE) {
+        int end = Math.min(sample.length, start + SEGMENT_SIZE);
+        long score = 0;
+        for (int i = start; i + SHINGLE_SIZE <= end; i++) {
+          int count = counts.get(shingle(sample, i));
+          if (count > 1) {
+            score += count;
+          }
+        }
+        if (score > 0) {
+          segments.add(new Segment(sample, start, end, score));
+        }
+      }
+    }
+    segments.sort((a, b) -> Long.compare(b.score, a.score));
+
+    List<Segment> chosen = new ArrayList<>();
+    Set<ByteBuffer> distinct = new HashSet<>();
+    int size = 0;
+    for (Segment segment : segments) {
+      int length = segment.end - segment.start;
+      if (size + length > maxSize) {
+        continue;
+      }
+      if (distinct.add(ByteBuffer.wrap(segment.sample, segment.start, length))) {
+        chosen.add(segment);
+        size += length;
+      }
+    }
+
+    byte[] dictionary = new byte[size];
+    int position = size;
+    for (Segment segment : chosen) {
+      int length = segment.end - segment.start;
+      position -= length;
+      System.arraycopy(segment.sample, segment.start, dictionary, position, length);
+    }
+    return dictionary;
+  }
+
+  private static long shingle(byte[] bytes, int offset) {
+    long result = 0;
+    for (int i = offset; i < offset + SHINGLE_SIZE; i++) {
+      result = (result << 8) | (bytes[i] & 0xFF);
+    }
+    return result;
+  }
+
+  private static class Segment {
+    final byte[] sample;
+    final int start;
+    final int end;
+    final long score;
+
+    Segment(byte[] sample, int start, int end, long score) {
+      this.sample = sample;
+      this.start = start;
+      this.end = end;
+      this.score = score;
+    }
+  }
+
+  private Deflater borrowDeflater() {
+    Deflater deflater = this.deflaters.poll();
+    return deflater == null ? new Deflater(this.level) : deflater;
+  }
+
+  private void returnDeflater(Deflater deflater) {
+    deflater.reset();
+    if (!this.deflaters.offer(deflater)) {
+      deflater.end();
+    }
+  }
+
+  private Inflater borrowInflater() {
+    Inflater inflater = this.inflaters.poll();
+    return inflater == null ? new Inflater() : inflater;
+  }
+
+  private void returnInflater(Inflater inflater) {
+    inflater.reset();
+    if (!this.inflaters.offer(inflater)) {
+      inflater.end();
+    }
+  }
+
+  /**
+   * The number of idle deflaters and inflaters kept for reuse. For testing.
+   */
+  int getPooledCodecCount() {
+    return this.deflaters.size() + this.inflaters.size();
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    this.deflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+    this.inflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * this.level + Arrays.hashCode(this.dictionary);
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (other == null || getClass() != other.getClass()) {
+      return false;
+    }
+    DeflateCompressor that = (DeflateCompressor) other;
+    return this.level == that.level && Arrays.equals(this.dictionary, that.dictionary);
+  }
+}
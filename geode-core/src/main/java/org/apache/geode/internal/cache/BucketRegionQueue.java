@@ -14,17 +14,11 @@
  */
 package org.apache.geode.internal.cache;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -37,7 +31,6 @@ import org.apache.geode.cache.RegionAttributes;
 import org.apache.geode.cache.RegionDestroyedException;
 import org.apache.geode.cache.TimeoutException;
 import org.apache.geode.internal.cache.execute.BucketMovedException;
-import org.apache.geode.internal.cache.persistence.query.mock.ByteComparator;
 import org.apache.geode.internal.cache.versions.RegionVersionVector;
 import org.apache.geode.internal.cache.versions.VersionSource;
 import org.apache.geode.internal.cache.wan.AbstractGatewaySenderEventProcessor;
@@ -63,9 +56,10 @@ public class BucketRegionQueue extends AbstractBucketRegionQueue {
 
   /**
    * A transient deque, but should be treated like as a fifo queue to maintain the eventSeqNum of
-   * the events that are to be sent to remote site. It is cleared when the queue is cleared.
+   * the events that are to be sent to remote site. It is cleared when the queue is cleared. The
+   * keys are kept as primitive longs to keep the memory used per queued event small.
    */
-  private final BlockingDeque<Object> eventSeqNumDeque = new LinkedBlockingDeque<Object>();
+  private final LongKeyDeque eventSeqNumDeque = new LongKeyDeque();
 
   private long lastKeyRecovered;
 
@@ -97,47 +91,21 @@ public class BucketRegionQueue extends AbstractBucketRegionQueue {
     getInitializationLock().writeLock().lock();
     try {
       if (!this.keySet().isEmpty()) {
-        if (getPartitionedRegion().getColocatedWith() == null) {
-          List<EventID> keys = new ArrayList<EventID>(this.keySet());
-          Collections.sort(keys, new Comparator<EventID>() {
-            @Override
-            public int compare(EventID o1, EventID o2) {
-              int compareMem =
-                  new ByteComparator().compare(o1.getMembershipID(), o2.getMembershipID());
-              if (compareMem == 1) {
-                return 1;
-              } else if (compareMem == -1) {
-                return -1;
-              } else {
-                if (o1.getThreadID() > o2.getThreadID()) {
-                  return 1;
-                } else if (o1.getThreadID() < o2.getThreadID()) {
-                  return -1;
-                } else {
-                  return o1.getSequenceID() < o2.getSequenceID() ? -1
-                      : o1.getSequenceID() == o2.getSequenceID() ? 0 : 1;
-                }
-              }
-            }
-          });
-          for (EventID eventID : keys) {
-            eventSeqNumDeque.addLast(eventID);
+        // the shadow region of a parallel queue is always colocated with the data region, so the
+        // keys are the Long tail keys of the events
+        TreeSet<Long> sortedKeys = new TreeSet<Long>(this.keySet());
+        // although the empty check for this.keySet() is done above,
+        // do the same for sortedKeys as well because the keySet() might have become
+        // empty since the above check was made (keys might have been destroyed through
+        // BatchRemoval)
+        // fix for #49679 NoSuchElementException thrown from BucketRegionQueue.initialize
+        if (!sortedKeys.isEmpty()) {
+          for (Long key : sortedKeys) {
+            eventSeqNumDeque.addLast(key);
           }
-        } else {
-          TreeSet<Long> sortedKeys = new TreeSet<Long>(this.keySet());
-          // although the empty check for this.keySet() is done above,
-          // do the same for sortedKeys as well because the keySet() might have become
-          // empty since the above check was made (keys might have been destroyed through
-          // BatchRemoval)
-          // fix for #49679 NoSuchElementException thrown from BucketRegionQueue.initialize
-          if (!sortedKeys.isEmpty()) {
-            for (Long key : sortedKeys) {
-              eventSeqNumDeque.addLast(key);
-            }
-            lastKeyRecovered = sortedKeys.last();
-            if (this.getEventSeqNum() != null) {
-              Atomics.setIfGreater(getEventSeqNum(), lastKeyRecovered);
-            }
+          lastKeyRecovered = sortedKeys.last();
+          if (this.getEventSeqNum() != null) {
+            Atomics.setIfGreater(getEventSeqNum(), lastKeyRecovered);
           }
         }
 
@@ -193,7 +161,7 @@ public class BucketRegionQueue extends AbstractBucketRegionQueue {
 
   @Override
   public void beforeAcquiringPrimaryState() {
-    Iterator<Object> itr = eventSeqNumDeque.iterator();
+    Iterator<Long> itr = eventSeqNumDeque.iterator();
     markEventsAsDuplicate(itr);
   }
 
@@ -363,7 +331,7 @@ public class BucketRegionQueue extends AbstractBucketRegionQueue {
       if (logger.isDebugEnabled()) {
         logger.debug(" removing the key {} from eventSeqNumQueue", event.getKey());
       }
-      this.eventSeqNumDeque.remove(event.getKey());
+      this.eventSeqNumDeque.remove((Long) event.getKey());
     }
   }
 
@@ -417,7 +385,7 @@ public class BucketRegionQueue extends AbstractBucketRegionQueue {
         // RegionQueue[1])[0];
         // //queue.addToPeekedKeys(key);
         // }
-        this.eventSeqNumDeque.remove(key);
+        this.eventSeqNumDeque.remove((Long) key);
       }
       return object; // OFFHEAP: ok since callers are careful to do destroys on
                      // region queue after finished with peeked object.
@@ -429,7 +397,7 @@ public class BucketRegionQueue extends AbstractBucketRegionQueue {
   protected void addToEventQueue(Object key, boolean didPut, EntryEventImpl event) {
     if (didPut) {
       if (this.initialized) {
-        this.eventSeqNumDeque.addLast(key);
+        this.eventSeqNumDeque.addLast((Long) key);
         updateLargestQueuedKey((Long) key);
       }
       if (logger.isDebugEnabled()) {
@@ -447,7 +415,7 @@ public class BucketRegionQueue extends AbstractBucketRegionQueue {
   }
 
   public void pushKeyIntoQueue(Object key) {
-    eventSeqNumDeque.addFirst(key);
+    eventSeqNumDeque.addFirst((Long) key);
   }
 
   private void updateLargestQueuedKey(Long key) {
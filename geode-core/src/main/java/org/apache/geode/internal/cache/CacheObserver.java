@@ -177,4 +177,10 @@ public interface CacheObserver {
    * Invoked just before ShutdownAll operation
    */
   void beforeShutdownAll();
+
+  /**
+   * Invoked by a sync writer after its record has been buffered and the oplog lock released, just
+   * before it waits for the record to be group committed
+   */
+  void beforeGroupCommit(Oplog oplog);
 }
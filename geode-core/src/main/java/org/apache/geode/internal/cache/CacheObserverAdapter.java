@@ -131,4 +131,7 @@ public class CacheObserverAdapter implements CacheObserver {
 
   @Override
   public void beforeShutdownAll() {}
+
+  @Override
+  public void beforeGroupCommit(Oplog oplog) {}
 }
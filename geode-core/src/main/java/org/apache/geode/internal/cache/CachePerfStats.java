@@ -80,6 +80,12 @@ public class CachePerfStats {
   protected static final int queryResultsHashCollisionsId;
   protected static final int queryResultsHashCollisionProbeTimeId;
   protected static final int partitionedRegionQueryRetriesId;
+  protected static final int queryPlanCacheHitsId;
+  protected static final int queryPlanCacheMissesId;
+  protected static final int queryResultCacheHitsId;
+  protected static final int queryResultCacheMissesId;
+  protected static final int queryResultCacheStaleResultsId;
+  protected static final int queryResultCacheBytesId;
 
   protected static final int txSuccessLifeTimeId;
   protected static final int txFailedLifeTimeId;
@@ -242,6 +248,18 @@ public class CachePerfStats {
         "Total time spent probing the hashtable in an OQL result set due to hash code collisions, includes reads, writes, and rehashes";
     final String partitionedRegionOQLQueryRetriesDesc =
         "Total number of times an OQL Query on a Partitioned Region had to be retried";
+    final String queryPlanCacheHitsDesc =
+        "Total number of times a query was created from a cached compiled plan of its query string";
+    final String queryPlanCacheMissesDesc =
+        "Total number of times a query string had to be compiled because its plan was not cached";
+    final String queryResultCacheHitsDesc =
+        "Total number of times the results of a query were taken from the query result cache";
+    final String queryResultCacheMissesDesc =
+        "Total number of times a query was evaluated because its results were not cached or were stale";
+    final String queryResultCacheStaleResultsDesc =
+        "Total number of times cached query results were dropped because their regions had changed";
+    final String queryResultCacheBytesDesc =
+        "The estimated size of the query results held by the query result cache";
     final String txSuccessLifeTimeDesc =
         "The total amount of time, in nanoseconds, spent in a transaction before a successful commit. The time measured starts at transaction begin and ends when commit is called.";
     final String txFailedLifeTimeDesc =
@@ -418,6 +436,14 @@ public class CachePerfStats {
                 queryResultsHashCollisionProbeTimeDesc, "nanoseconds"),
             f.createLongCounter("partitionedRegionQueryRetries",
                 partitionedRegionOQLQueryRetriesDesc, "retries"),
+            f.createLongCounter("queryPlanCacheHits", queryPlanCacheHitsDesc, "operations"),
+            f.createLongCounter("queryPlanCacheMisses", queryPlanCacheMissesDesc, "operations"),
+            f.createLongCounter("queryResultCacheHits", queryResultCacheHitsDesc, "operations"),
+            f.createLongCounter("queryResultCacheMisses", queryResultCacheMissesDesc,
+                "operations"),
+            f.createLongCounter("queryResultCacheStaleResults", queryResultCacheStaleResultsDesc,
+                "operations"),
+            f.createLongGauge("queryResultCacheBytes", queryResultCacheBytesDesc, "bytes"),
 
             f.createIntCounter("txCommits", txCommitsDesc, "commits"),
             f.createIntCounter("txCommitChanges", txCommitChangesDesc, "changes"),
@@ -562,6 +588,12 @@ public class CachePerfStats {
     queryResultsHashCollisionsId = type.nameToId("queryResultsHashCollisions");
     queryResultsHashCollisionProbeTimeId = type.nameToId("queryResultsHashCollisionProbeTime");
     partitionedRegionQueryRetriesId = type.nameToId("partitionedRegionQueryRetries");
+    queryPlanCacheHitsId = type.nameToId("queryPlanCacheHits");
+    queryPlanCacheMissesId = type.nameToId("queryPlanCacheMisses");
+    queryResultCacheHitsId = type.nameToId("queryResultCacheHits");
+    queryResultCacheMissesId = type.nameToId("queryResultCacheMisses");
+    queryResultCacheStaleResultsId = type.nameToId("queryResultCacheStaleResults");
+    queryResultCacheBytesId = type.nameToId("queryResultCacheBytes");
 
     txSuccessLifeTimeId = type.nameToId("txSuccessLifeTime");
     txFailedLifeTimeId = type.nameToId("txFailedLifeTime");
@@ -1486,6 +1518,54 @@ public class CachePerfStats {
     return this.stats.getLong(partitionedRegionQueryRetriesId);
   }
 
+  public void incQueryPlanCacheHits() {
+    this.stats.incLong(queryPlanCacheHitsId, 1);
+  }
+
+  public long getQueryPlanCacheHits() {
+    return this.stats.getLong(queryPlanCacheHitsId);
+  }
+
+  public void incQueryPlanCacheMisses() {
+    this.stats.incLong(queryPlanCacheMissesId, 1);
+  }
+
+  public long getQueryPlanCacheMisses() {
+    return this.stats.getLong(queryPlanCacheMissesId);
+  }
+
+  public void incQueryResultCacheHits() {
+    this.stats.incLong(queryResultCacheHitsId, 1);
+  }
+
+  public long getQueryResultCacheHits() {
+    return this.stats.getLong(queryResultCacheHitsId);
+  }
+
+  public void incQueryResultCacheMisses() {
+    this.stats.incLong(queryResultCacheMissesId, 1);
+  }
+
+  public long getQueryResultCacheMisses() {
+    return this.stats.getLong(queryResultCacheMissesId);
+  }
+
+  public void incQueryResultCacheStaleResults() {
+    this.stats.incLong(queryResultCacheStaleResultsId, 1);
+  }
+
+  public long getQueryResultCacheStaleResults() {
+    return this.stats.getLong(queryResultCacheStaleResultsId);
+  }
+
+  public void incQueryResultCacheBytes(long delta) {
+    this.stats.incLong(queryResultCacheBytesId, delta);
+  }
+
+  public long getQueryResultCacheBytes() {
+    return this.stats.getLong(queryResultCacheBytesId);
+  }
+
   public QueueStatHelper getEvictionQueueStatHelper() {
     return new QueueStatHelper() {
       public void add() {
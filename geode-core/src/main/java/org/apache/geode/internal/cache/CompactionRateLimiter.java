@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Limits the rate at which the compactors of a disk store copy live data forward so that
+ * compaction does not starve foreground writes of disk bandwidth. Up to one second of unused
+ * budget may be spent at once after the compactor has been idle.
+ *
+ * @since Geode 1.8.0
+ */
+class CompactionRateLimiter {
+
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  /**
+   * The longest a compactor sleeps before checking again whether it has been asked to stop.
+   */
+  static final long MAX_SLEEP_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  private final long bytesPerSecond;
+
+  /**
+   * The time at which all the bytes acquired so far will have been paid for.
+   */
+  private long nextFreeTime = Long.MIN_VALUE;
+
+  CompactionRateLimiter(long bytesPerSecond) {
+    if (bytesPerSecond <= 0) {
+      throw new IllegalArgumentException("bytesPerSecond must be positive: " + bytesPerSecond);
+    }
+    this.bytesPerSecond = bytesPerSecond;
+  }
+
+  /**
+   * Blocks until the given number of bytes can be copied without exceeding the rate.
+   */
+  void acquire(long bytes) throws InterruptedException {
+    acquire(bytes, () -> false);
+  }
+
+  /**
+   * Blocks until the given number of bytes can be copied without exceeding the rate, or until
+   * stopped returns true. It is checked at least every {@link #MAX_SLEEP_NANOS} while waiting so
+   * that closing a disk store is not held up by a throttled compactor.
+   */
+  void acquire(long bytes, BooleanSupplier stopped) throws InterruptedException {
+    long waitNanos;
+    synchronized (this) {
+      long now = nanoTime();
+      if (this.nextFreeTime < now - NANOS_PER_SECOND) {
+        this.nextFreeTime = now - NANOS_PER_SECOND;
+      }
+      waitNanos = this.nextFreeTime - now;
+      this.nextFreeTime += bytes * NANOS_PER_SECOND / this.bytesPerSecond;
+    }
+    while (waitNanos > 0 && !stopped.getAsBoolean()) {
+      long sleepNanos = Math.min(waitNanos, MAX_SLEEP_NANOS);
+      sleep(sleepNanos);
+      waitNanos -= sleepNanos;
+    }
+  }
+
+  long nanoTime() {
+    return System.nanoTime();
+  }
+
+  void sleep(long nanos) throws InterruptedException {
+    TimeUnit.NANOSECONDS.sleep(nanos);
+  }
+}
@@ -221,6 +221,21 @@ public class DiskStoreImpl implements DiskStore {
       DistributionConfig.GEMFIRE_PREFIX + "MAX_CONCURRENT_COMPACTIONS",
       Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "MAX_CONCURRENT_ROLLS", 1).intValue());
 
+  /**
+   * The maximum rate, in megabytes per second, at which the compactors of each disk store copy
+   * live data forward into the current oplog. Defaults to 0, which means compaction is not rate
+   * limited.
+   */
+  public static final int COMPACTION_RATE_LIMIT =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "COMPACTION_RATE_LIMIT", 0);
+
+  /**
+   * This system property sets the number of threads used to load oplogs into memory ahead of their
+   * recovery. Defaults to 0, which turns prefetching off.
+   */
+  static final int RECOVERY_PREFETCH_THREADS =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "disk.recoveryPrefetchThreads", 0);
+
   /**
    * This system property indicates that maximum number of delayed write tasks that can be pending
    * before submitting the tasks start blocking. These tasks are things like unpreblow oplogs,
@@ -292,6 +307,9 @@ public class DiskStoreImpl implements DiskStore {
 
   private final int compactionThreshold;
 
+  /** Null if compaction is not rate limited */
+  private final CompactionRateLimiter compactionRateLimiter;
+
   /**
    * The limit of how many items can be in the async queue before async starts blocking and a flush
    * is forced. If this value is 0 then no limit.
@@ -408,6 +426,8 @@ public class DiskStoreImpl implements DiskStore {
     this.autoCompact = props.getAutoCompact();
     this.allowForceCompaction = props.getAllowForceCompaction();
     this.compactionThreshold = calcCompactionThreshold(props.getCompactionThreshold());
+    this.compactionRateLimiter = COMPACTION_RATE_LIMIT > 0
+        ? new CompactionRateLimiter(COMPACTION_RATE_LIMIT * 1024L * 1024L) : null;
     this.maxOplogSizeInBytes = props.getMaxOplogSizeInBytes();
     this.timeInterval = props.getTimeInterval();
     this.queueSize = props.getQueueSize();
@@ -2110,6 +2130,23 @@ public class DiskStoreImpl implements DiskStore {
     return this.compactionThreshold;
   }
 
+  /**
+   * Called by a compactor after it has copied bytes forward. Blocks as long as needed to keep
+   * compaction within {@link #COMPACTION_RATE_LIMIT}, but returns as soon as the disk store
+   * starts closing or the compactor is stopped.
+   */
+  void throttleCompaction(long bytes, OplogCompactor compactor) {
+    if (this.compactionRateLimiter == null) {
+      return;
+    }
+    try {
+      this.compactionRateLimiter.acquire(bytes,
+          () -> isClosing() || !compactor.keepCompactorRunning());
+    } catch (InterruptedException ignore) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
   private final boolean isCompactionPossible;
 
   boolean isCompactionPossible() {
@@ -58,6 +58,9 @@ public class DiskStoreStats {
   private static final int oplogRecoveriesId;
   private static final int oplogRecoveryTimeId;
   private static final int oplogRecoveredBytesId;
+  private static final int oplogPrefetchesId;
+  private static final int oplogPrefetchTimeId;
+  private static final int oplogPrefetchedBytesId;
   private static final int bytesReadId;
   private static final int removesId;
   private static final int removeTimeId;
@@ -104,6 +107,12 @@ public class DiskStoreStats {
     final String oplogRecoveryTimeDesc = "The total amount of time spent doing an oplog recovery";
     final String oplogRecoveredBytesDesc =
         "The total number of bytes that have been read from oplogs during a recovery";
+    final String oplogPrefetchesDesc =
+        "The total number of oplog files loaded into memory ahead of their recovery";
+    final String oplogPrefetchTimeDesc =
+        "The total amount of time spent loading oplog files into memory ahead of their recovery";
+    final String oplogPrefetchedBytesDesc =
+        "The total number of bytes loaded into memory ahead of their recovery";
     final String removesDesc =
         "The total number of region entries that have been removed from disk";
     final String removeTimeDesc = "The total amount of time spent removing from disk";
@@ -149,6 +158,9 @@ public class DiskStoreStats {
             f.createIntCounter("oplogRecoveries", oplogRecoveriesDesc, "ops"),
             f.createLongCounter("oplogRecoveryTime", oplogRecoveryTimeDesc, "nanoseconds"),
             f.createLongCounter("oplogRecoveredBytes", oplogRecoveredBytesDesc, "bytes"),
+            f.createIntCounter("oplogPrefetches", oplogPrefetchesDesc, "oplogs"),
+            f.createLongCounter("oplogPrefetchTime", oplogPrefetchTimeDesc, "nanoseconds"),
+            f.createLongCounter("oplogPrefetchedBytes", oplogPrefetchedBytesDesc, "bytes"),
             f.createLongCounter("removes", removesDesc, "ops"),
             f.createLongCounter("removeTime", removeTimeDesc, "nanoseconds"),
             f.createIntGauge("queueSize", queueSizeDesc, "entries"),
@@ -218,6 +230,9 @@ public class DiskStoreStats {
     oplogRecoveriesId = type.nameToId("oplogRecoveries");
     oplogRecoveryTimeId = type.nameToId("oplogRecoveryTime");
     oplogRecoveredBytesId = type.nameToId("oplogRecoveredBytes");
+    oplogPrefetchesId = type.nameToId("oplogPrefetches");
+    oplogPrefetchTimeId = type.nameToId("oplogPrefetchTime");
+    oplogPrefetchedBytesId = type.nameToId("oplogPrefetchedBytes");
     removesId = type.nameToId("removes");
     removeTimeId = type.nameToId("removeTime");
     queueSizeId = type.nameToId("queueSize");
@@ -451,6 +466,17 @@ public class DiskStoreStats {
     this.stats.incLong(oplogRecoveredBytesId, bytesRead);
   }
 
+  public long startOplogPrefetch() {
+    return DistributionStats.getStatTime();
+  }
+
+  public void endOplogPrefetch(long start, long bytesRead) {
+    long end = DistributionStats.getStatTime();
+    this.stats.incInt(oplogPrefetchesId, 1);
+    this.stats.incLong(oplogPrefetchTimeId, end - start);
+    this.stats.incLong(oplogPrefetchedBytesId, bytesRead);
+  }
+
   public void incRecoveredEntryCreates() {
     this.stats.incLong(recoveredEntryCreatesId, 1);
   }
@@ -316,6 +316,24 @@ public class DummyCachePerfStats extends CachePerfStats {
   @Override
   public void endQueryExecution(long executionTime) {}
 
+  @Override
+  public void incQueryPlanCacheHits() {}
+
+  @Override
+  public void incQueryPlanCacheMisses() {}
+
+  @Override
+  public void incQueryResultCacheHits() {}
+
+  @Override
+  public void incQueryResultCacheMisses() {}
+
+  @Override
+  public void incQueryResultCacheStaleResults() {}
+
+  @Override
+  public void incQueryResultCacheBytes(long delta) {}
+
   @Override
   public int getTxCommits() {
     return 0;
@@ -138,6 +138,8 @@ import org.apache.geode.cache.query.QueryService;
 import org.apache.geode.cache.query.internal.DefaultQueryService;
 import org.apache.geode.cache.query.internal.InternalQueryService;
 import org.apache.geode.cache.query.internal.QueryMonitor;
+import org.apache.geode.cache.query.internal.QueryPlanCache;
+import org.apache.geode.cache.query.internal.QueryResultCache;
 import org.apache.geode.cache.query.internal.cq.CqService;
 import org.apache.geode.cache.query.internal.cq.CqServiceProvider;
 import org.apache.geode.cache.server.CacheServer;
@@ -368,6 +370,12 @@ public class GemFireCacheImpl implements InternalCache, InternalClientCache, Has
 
   private final CachePerfStats cachePerfStats;
 
+  /** the compiled plans of the query strings used on this cache */
+  private final QueryPlanCache queryPlanCache;
+
+  /** the results of the queries executed on this cache */
+  private final QueryResultCache queryResultCache;
+
   /** Date on which this instances was created */
   private final Date creationDate;
 
@@ -894,6 +902,8 @@ public class GemFireCacheImpl implements InternalCache, InternalClientCache, Has
       // Create the CacheStatistics
       this.cachePerfStats = new CachePerfStats(system);
       CachePerfStats.enableClockStats = this.system.getConfig().getEnableTimeStatistics();
+      this.queryPlanCache = new QueryPlanCache(this.cachePerfStats);
+      this.queryResultCache = new QueryResultCache(this.cachePerfStats);
 
       this.transactionManager = new TXManagerImpl(this.cachePerfStats, this);
       this.dm.addMembershipListener(this.transactionManager);
@@ -3249,6 +3259,10 @@ public class GemFireCacheImpl implements InternalCache, InternalClientCache, Has
     } else {
       this.pathToRegion.put(path, r);
     }
+    // cached query plans are resolved against the regions that existed when they were compiled
+    if (this.queryPlanCache != null) {
+      this.queryPlanCache.invalidate();
+    }
   }
 
   /**
@@ -4465,6 +4479,16 @@ public class GemFireCacheImpl implements InternalCache, InternalClientCache, Has
     return this.queryMonitorDisabledForLowMem;
   }
 
+  @Override
+  public QueryPlanCache getQueryPlanCache() {
+    return this.queryPlanCache;
+  }
+
+  @Override
+  public QueryResultCache getQueryResultCache() {
+    return this.queryResultCache;
+  }
+
   /**
    * Returns the QueryMonitor instance based on system property MAX_QUERY_EXECUTION_TIME.
    *
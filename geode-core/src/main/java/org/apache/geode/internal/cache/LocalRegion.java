@@ -44,6 +44,7 @@ import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Pattern;
@@ -136,6 +137,7 @@ import org.apache.geode.cache.query.TypeMismatchException;
 import org.apache.geode.cache.query.internal.DefaultQuery;
 import org.apache.geode.cache.query.internal.DefaultQueryService;
 import org.apache.geode.cache.query.internal.ExecutionContext;
+import org.apache.geode.cache.query.internal.QueryResultCache;
 import org.apache.geode.cache.query.internal.cq.CqService;
 import org.apache.geode.cache.query.internal.index.IndexCreationData;
 import org.apache.geode.cache.query.internal.index.IndexManager;
@@ -466,6 +468,12 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
 
   private final EventTracker eventTracker;
 
+  /**
+   * Counts the changes to the entries of this region while query results are cached, so that the
+   * results of queries on this region are not used once it has changed.
+   */
+  private final LongAdder queryResultVersion = new LongAdder();
+
   /**
    * Register interest count to track if any register interest is in progress for this region. This
    * count will be incremented when register interest starts and decremented when register interest
@@ -4996,6 +5004,7 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
   void basicInvalidatePart2(RegionEntry regionEntry, EntryEventImpl event,
       boolean conflictWithClear, boolean invokeCallbacks) {
     updateStatsForInvalidate();
+    entriesChanged();
 
     if (invokeCallbacks) {
       try {
@@ -5009,6 +5018,23 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
     }
   }
 
+  /**
+   * Returns the number of changes made to the entries of this region since it was created, if
+   * {@link QueryResultCache#ENABLED}.
+   */
+  public long getQueryResultVersion() {
+    return this.queryResultVersion.sum();
+  }
+
+  /**
+   * Called once entries of this region have changed, after the change is visible to queries
+   */
+  private void entriesChanged() {
+    if (QueryResultCache.ENABLED) {
+      this.queryResultVersion.increment();
+    }
+  }
+
   /**
    * Update stats
    */
@@ -5067,6 +5093,7 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
     }
     if (didInvalidate) {
       updateStatsForInvalidate();
+      entriesChanged();
       // Bug 40842: clearing index of the old value performed in AbstractRegionMap
     }
     if (didDestroy) {
@@ -5155,6 +5182,7 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
     if (isCreate) {
       updateStatsForCreate();
     }
+    entriesChanged();
     if (!isProxy() && !clearConflict) {
       if (this.indexManager != null) {
         try {
@@ -5798,6 +5826,7 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
       long lastModified, boolean clearConflict) {
 
     final boolean isNewKey = event.getOperation().isCreate();
+    entriesChanged();
 
     // Invoke callbacks only if we are not creating a tombstone
     final boolean invokeCallbacks = event.basicGetNewValue() != Token.TOMBSTONE;
@@ -6743,6 +6772,7 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
       }
     }
     VersionTag v = event.getVersionTag();
+    entriesChanged();
 
     /*
      * destroys that are not part of the cleaning out of keys prior to a register-interest are
@@ -6929,6 +6959,7 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
     } else if (!alreadyDestroyedOrRemoved) {
       updateStatsForDestroy();
     }
+    entriesChanged();
     if (this.entryUserAttributes != null) {
       this.entryUserAttributes.remove(key);
     }
@@ -9143,6 +9174,7 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
       txClearRegion();
       // Now clear the map of committed entries
       Set<VersionSource> remainingIDs = clearEntries(rvv);
+      entriesChanged();
       if (!this.getDataPolicy().withPersistence()) {
         // persistent regions do not reap IDs
         if (myVector != null) {
@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A thread-safe deque of the long keys of a {@link BucketRegionQueue}, kept in a single circular
+ * array of primitive longs. A linked deque of boxed keys costs a node and a {@link Long} per queued
+ * event; this deque costs eight bytes per event, which matters for queues holding millions of
+ * events.
+ * <p>
+ * A key removed from the middle of the deque is replaced by a marker that is skipped when the head
+ * reaches it, since keys are nearly always removed in the order they were added. The array shrinks
+ * when it becomes mostly empty.
+ *
+ * @since Geode 1.8.0
+ */
+class LongKeyDeque implements Iterable<Long> {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  /**
+   * Marks a removed key. Queue keys are never negative.
+   */
+  private static final long REMOVED = Long.MIN_VALUE;
+
+  private long[] elements = new long[INITIAL_CAPACITY];
+
+  /**
+   * The index of the first used slot
+   */
+  private int head;
+
+  /**
+   * The number of used slots, including the removed keys
+   */
+  private int slots;
+
+  /**
+   * The number of keys in the deque
+   */
+  private int size;
+
+  public synchronized void addLast(long key) {
+    ensureCapacity();
+    this.elements[(this.head + this.slots) & mask()] = key;
+    this.slots++;
+    this.size++;
+  }
+
+  public synchronized void addFirst(long key) {
+    ensureCapacity();
+    this.head = (this.head - 1) & mask();
+    this.elements[this.head] = key;
+    this.slots++;
+    this.size++;
+  }
+
+  /**
+   * Returns the first key, or null if the deque is empty.
+   */
+  public synchronized Long peekFirst() {
+    if (this.size == 0) {
+      return null;
+    }
+    return this.elements[this.head];
+  }
+
+  /**
+   * Removes and returns the first key.
+   *
+   * @throws NoSuchElementException if the deque is empty
+   */
+  public synchronized Long removeFirst() {
+    if (this.size == 0) {
+      throw new NoSuchElementException();
+    }
+    long key = this.elements[this.head];
+    removeHead();
+    return key;
+  }
+
+  /**
+   * Removes the first occurrence of the given key.
+   *
+   * @return whether the key was in the deque
+   */
+  public synchronized boolean remove(long key) {
+    int mask = mask();
+    for (int i = 0; i < this.slots; i++) {
+      int index = (this.head + i) & mask;
+      if (this.elements[index] == key) {
+        if (i == 0) {
+          removeHead();
+        } else if (i == this.slots - 1) {
+          this.slots--;
+          this.size--;
+          trimTail();
+        } else {
+          this.elements[index] = REMOVED;
+          this.size--;
+        }
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public synchronized void clear() {
+    this.elements = new long[INITIAL_CAPACITY];
+    this.head = 0;
+    this.slots = 0;
+    this.size = 0;
+  }
+
+  public synchronized int size() {
+    return this.size;
+  }
+
+  public synchronized boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /**
+   * Returns the keys in the deque, from first to last.
+   */
+  public synchronized long[] toArray() {
+    long[] keys = new long[this.size];
+    int mask = mask();
+    int count = 0;
+    for (int i = 0; i < this.slots; i++) {
+      long key = this.elements[(this.head + i) & mask];
+      if (key != REMOVED) {
+        keys[count++] = key;
+      }
+    }
+    return keys;
+  }
+
+  /**
+   * Returns an iterator over a snapshot of the keys. Like the iterators of the concurrent
+   * collections it never throws ConcurrentModificationException, and it does not support
+   * removal.
+   */
+  @Override
+  public Iterator<Long> iterator() {
+    final long[] keys = toArray();
+    return new Iterator<Long>() {
+      private int next;
+
+      @Override
+      public boolean hasNext() {
+        return this.next < keys.length;
+      }
+
+      @Override
+      public Long next() {
+        if (this.next >= keys.length) {
+          throw new NoSuchElementException();
+        }
+        return keys[this.next++];
+      }
+    };
+  }
+
+  private int mask() {
+    return this.elements.length - 1;
+  }
+
+  private void removeHead() {
+    this.head = (this.head + 1) & mask();
+    this.slots--;
+    this.size--;
+    // skip the keys removed from the middle that are now at the head
+    while (this.slots > 0 && this.elements[this.head] == REMOVED) {
+      this.head = (this.head + 1) & mask();
+      this.slots--;
+    }
+    shrinkIfSparse();
+  }
+
+  private void trimTail() {
+    while (this.slots > 0 && this.elements[(this.head + this.slots - 1) & mask()] == REMOVED) {
+      this.slots--;
+    }
+    shrinkIfSparse();
+  }
+
+  private void ensureCapacity() {
+    if (this.slots == this.elements.length) {
+      resize(this.elements.length << 1);
+    }
+  }
+
+  private void shrinkIfSparse() {
+    int length = this.elements.length;
+    if (length > INITIAL_CAPACITY && this.slots < length >>> 2) {
+      resize(length >>> 1);
+    }
+  }
+
+  /**
+   * Copies the used slots to the start of an array of the given capacity, which must be a power of
+   * two that can hold them, dropping the removed keys on the way.
+   */
+  private void resize(int capacity) {
+    long[] resized = new long[capacity];
+    int mask = mask();
+    int count = 0;
+    for (int i = 0; i < this.slots; i++) {
+      long key = this.elements[(this.head + i) & mask];
+      if (key != REMOVED) {
+        resized[count++] = key;
+      }
+    }
+    this.elements = resized;
+    this.head = 0;
+    this.slots = count;
+  }
+}
@@ -180,6 +180,15 @@ public class Oplog implements CompactableOplog, Flushable {
   private static final boolean SYNC_WRITES =
       Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "syncWrites");
 
+  /**
+   * This system property instructs that sync writes be group committed: instead of each writer
+   * flushing its own record while holding the oplog lock, the record is left in the write buffer
+   * and flushed, together with the records of any other writers waiting at the same time, after the
+   * lock has been released. Not final so that tests can turn it on.
+   */
+  static boolean GROUP_COMMIT =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "disk.groupCommit");
+
   /**
    * The HighWaterMark of recentValues.
    */
@@ -518,6 +527,12 @@ public class Oplog implements CompactableOplog, Flushable {
    */
   final Object lock = new Object();
 
+  /**
+   * Held by the thread that is flushing on behalf of all the sync writers waiting for a group
+   * commit. See {@link #groupCommit}.
+   */
+  private final Object groupCommitLock = new Object();
+
   final ByteBuffer[] bbArray = new ByteBuffer[2];
 
   private boolean lockedForKRFcreate = false;
@@ -2241,6 +2256,23 @@ public class Oplog implements CompactableOplog, Flushable {
     }
   }
 
+  /**
+   * Returns the file that {@link #recoverCrf} will read, or null if there is none.
+   */
+  File getRecoveryFile(boolean recoverValuesSync) {
+    if (this.crf.f == null) {
+      return null;
+    }
+    if (!recoverValuesSync && getParent().getDiskInitFile().hasKrf(this.oplogId)) {
+      File krf = new File(this.drf.f.getParentFile(),
+          oplogSet.getPrefix() + getParent().getName() + "_" + this.oplogId + KRF_FILE_EXT);
+      if (krf.exists()) {
+        return krf;
+      }
+    }
+    return this.crf.f;
+  }
+
   private boolean offlineCompactPhase2 = false;
 
   private boolean isPhase1() {
@@ -3481,6 +3513,7 @@ public class Oplog implements CompactableOplog, Flushable {
       System.out.println("basicCreate KRF_DEBUG");
       Thread.sleep(1000);
     }
+    long groupCommitTarget = -1;
     getParent().getBackupLock().lock();
     try {
       synchronized (this.lock) { // TODO soplog perf analysis shows this as a
@@ -3544,7 +3577,10 @@ public class Oplog implements CompactableOplog, Flushable {
           id.setOplogId(getOplogId());
           // do the io while holding lock so that switch can set doneAppending
           // Write the data to the opLog for the synch mode
-          startPosForSynchOp = writeOpLogBytes(this.crf, async, true);
+          startPosForSynchOp = writeOpLogBytes(this.crf, async, !isGroupCommit(async));
+          if (isGroupCommit(async)) {
+            groupCommitTarget = getGroupCommitTarget(this.crf);
+          }
           // if (this.crf.currSize != startPosForSynchOp) {
           // assert false;
           // }
@@ -3600,6 +3636,9 @@ public class Oplog implements CompactableOplog, Flushable {
     } finally {
       getParent().getBackupLock().unlock();
     }
+    if (groupCommitTarget != -1) {
+      groupCommit(this.crf, groupCommitTarget);
+    }
     if (useNextOplog) {
       if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
         CacheObserverHolder.getInstance().afterSwitchingOplog();
@@ -4480,6 +4519,7 @@ public class Oplog implements CompactableOplog, Flushable {
       System.out.println("basicModify KRF_DEBUG");
       Thread.sleep(1000);
     }
+    long groupCommitTarget = -1;
     getParent().getBackupLock().lock();
     try {
       synchronized (this.lock) {
@@ -4506,7 +4546,10 @@ public class Oplog implements CompactableOplog, Flushable {
             long oldOplogId;
             // do the io while holding lock so that switch can set doneAppending
             // Write the data to the opLog for the synch mode
-            startPosForSynchOp = writeOpLogBytes(this.crf, async, true);
+            startPosForSynchOp = writeOpLogBytes(this.crf, async, !isGroupCommit(async));
+            if (isGroupCommit(async)) {
+              groupCommitTarget = getGroupCommitTarget(this.crf);
+            }
             this.crf.currSize = temp;
             startPosForSynchOp += getOpStateValueOffset();
             if (logger.isTraceEnabled(LogMarker.PERSIST_WRITES_VERBOSE)) {
@@ -4577,6 +4620,9 @@ public class Oplog implements CompactableOplog, Flushable {
     } finally {
       getParent().getBackupLock().unlock();
     }
+    if (groupCommitTarget != -1) {
+      groupCommit(this.crf, groupCommitTarget);
+    }
     if (useNextOplog) {
       if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
         CacheObserverHolder.getInstance().afterSwitchingOplog();
@@ -4609,6 +4655,7 @@ public class Oplog implements CompactableOplog, Flushable {
       throws IOException, InterruptedException {
     boolean useNextOplog = false;
     int adjustment = 0;
+    long groupCommitTarget = -1;
     getParent().getBackupLock().lock();
     try {
       synchronized (this.lock) {
@@ -4631,7 +4678,10 @@ public class Oplog implements CompactableOplog, Flushable {
               throw cce;
             }
             this.firstRecord = false;
-            writeOpLogBytes(this.crf, async, true);
+            writeOpLogBytes(this.crf, async, !isGroupCommit(async));
+            if (isGroupCommit(async)) {
+              groupCommitTarget = getGroupCommitTarget(this.crf);
+            }
             this.crf.currSize = temp;
             if (logger.isTraceEnabled(LogMarker.PERSIST_WRITES_VERBOSE)) {
               logger.trace(LogMarker.PERSIST_WRITES_VERBOSE,
@@ -4653,6 +4703,9 @@ public class Oplog implements CompactableOplog, Flushable {
     } finally {
       getParent().getBackupLock().unlock();
     }
+    if (groupCommitTarget != -1) {
+      groupCommit(this.crf, groupCommitTarget);
+    }
     if (useNextOplog) {
       if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
         CacheObserverHolder.getInstance().afterSwitchingOplog();
@@ -4927,6 +4980,7 @@ public class Oplog implements CompactableOplog, Flushable {
 
     boolean useNextOplog = false;
     long startPosForSynchOp = -1;
+    long groupCommitTarget = -1;
     Oplog emptyOplog = null;
     if (DiskStoreImpl.KRF_DEBUG) {
       // wait for cache close to create krf
@@ -4976,7 +5030,10 @@ public class Oplog implements CompactableOplog, Flushable {
             // before we flush the crf.
             // However we can't have removes by async if we are doing a sync write
             // because we might be killed right after we do this write.
-            startPosForSynchOp = writeOpLogBytes(this.drf, async, true);
+            startPosForSynchOp = writeOpLogBytes(this.drf, async, !isGroupCommit(async));
+            if (isGroupCommit(async)) {
+              groupCommitTarget = getGroupCommitTarget(this.drf);
+            }
             setHasDeletes(true);
             if (logger.isDebugEnabled(LogMarker.PERSIST_WRITES_VERBOSE)) {
               logger.debug("basicRemove: id=<{}> key=<{}> drId={} oplog#{}", abs(id.getKeyId()),
@@ -5008,6 +5065,9 @@ public class Oplog implements CompactableOplog, Flushable {
     } finally {
       getParent().getBackupLock().unlock();
     }
+    if (groupCommitTarget != -1) {
+      groupCommit(this.drf, groupCommitTarget);
+    }
     if (useNextOplog) {
       if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
         CacheObserverHolder.getInstance().afterSwitchingOplog();
@@ -5032,6 +5092,13 @@ public class Oplog implements CompactableOplog, Flushable {
     return this.crf.writeBuf;
   }
 
+  /**
+   * test hook
+   */
+  long getCrfBytesCommitted() {
+    return this.crf.bytesCommitted;
+  }
+
   private void flushNoSync(OplogFile olf) throws IOException {
     flushAllNoSync(false); // @todo
   }
@@ -5172,6 +5239,95 @@ public class Oplog implements CompactableOplog, Flushable {
     }
   }
 
+  /**
+   * Returns true if a sync write should be left in the write buffer and group committed once the
+   * oplog lock has been released, instead of being flushed by {@link #writeOpLogBytes}.
+   */
+  private boolean isGroupCommit(boolean async) {
+    return GROUP_COMMIT && !async;
+  }
+
+  /**
+   * Returns the number of bytes of olf that need to be flushed for the record just written to it to
+   * be on disk. Must be called while synchronized on {@link #lock}.
+   */
+  private long getGroupCommitTarget(OplogFile olf) {
+    return olf.bytesFlushed + olf.writeBuf.position();
+  }
+
+  /**
+   * Waits until the first target bytes of olf have been flushed. The first waiter to get the group
+   * commit lock becomes the leader: it flushes the drf and crf write buffers, which also hold the
+   * records of every writer that arrived in the meantime, and then forces both files outside of
+   * the oplog lock so that writers can keep filling the buffers. The waiters it covered see their
+   * target reached and return without doing any io.
+   */
+  private void groupCommit(OplogFile olf, long target) {
+    if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
+      CacheObserverHolder.getInstance().beforeGroupCommit(this);
+    }
+    if (olf.bytesCommitted >= target) {
+      return;
+    }
+    if (Thread.holdsLock(this.lock)) {
+      // we can't wait for a leader that needs the oplog lock
+      flushAll(false);
+      checkGroupCommitted(olf, olf.bytesFlushed, target);
+      return;
+    }
+    synchronized (this.groupCommitLock) {
+      if (olf.bytesCommitted >= target) {
+        return;
+      }
+      long drfFlushed;
+      long crfFlushed;
+      synchronized (this.lock) {
+        flushAll(false, false);
+        drfFlushed = this.drf.bytesFlushed;
+        crfFlushed = this.crf.bytesFlushed;
+      }
+      if (SYNC_WRITES) {
+        try {
+          force(this.drf);
+          force(this.crf);
+        } catch (IOException ex) {
+          getParent().getCancelCriterion().checkCancelInProgress(ex);
+          throw new DiskAccessException(LocalizedStrings.Oplog_FAILED_WRITING_KEY_TO_0
+              .toLocalizedString(this.diskFile.getPath()), ex, getParent());
+        }
+      }
+      this.drf.bytesCommitted = drfFlushed;
+      this.crf.bytesCommitted = crfFlushed;
+    }
+    checkGroupCommitted(olf, olf.bytesCommitted, target);
+  }
+
+  /**
+   * Switching or closing an oplog flushes it, so a record that is still not on disk after a group
+   * commit was dropped by a file that was closed underneath it. Fail the write the same way a sync
+   * write to a closed file does instead of reporting it as persisted.
+   */
+  private void checkGroupCommitted(OplogFile olf, long committed, long target) {
+    if (committed < target) {
+      throw new DiskAccessException(
+          LocalizedStrings.Oplog_FAILED_WRITING_KEY_TO_0.toLocalizedString(olf.f.getPath()),
+          getParent());
+    }
+  }
+
+  private void force(OplogFile olf) throws IOException {
+    if (olf.RAFClosed) {
+      // closing the oplog flushed it
+      return;
+    }
+    try {
+      // Synch Meta Data as well as content
+      olf.channel.force(true);
+    } catch (ClosedChannelException ignore) {
+      // the oplog was closed (which flushed it) while we were forcing
+    }
+  }
+
   /**
    * Since the ByteBuffer being writen to can have additional bytes which are used for extending the
    * size of the file, it is necessary that the ByteBuffer provided should have limit which is set
@@ -5961,6 +6117,7 @@ public class Oplog implements CompactableOplog, Flushable {
             }
             lastDe = de;
             didCompact = false;
+            int compactedBytes = 0;
             synchronized (de) { // fix for bug 41797
               DiskId did = de.getDiskId();
               assert did != null;
@@ -5985,12 +6142,15 @@ public class Oplog implements CompactableOplog, Flushable {
                   getOplogSet().getChild().copyForwardModifyForCompact(dr, de, wrapper);
                   // the did's oplogId will now be set to the current active oplog
                   didCompact = true;
+                  compactedBytes = wrapper.getValidLength();
                 }
               } // did
             } // de
             if (didCompact) {
               totalCount++;
               getStats().endCompactionUpdate(opStart);
+              // throttle outside of the entry locks so that writers are not blocked
+              getParent().throttleCompaction(compactedBytes, compactor);
               opStart = getStats().getStatTime();
               // Check if the value byte array happens to be any of the
               // constant
@@ -6464,6 +6624,8 @@ public class Oplog implements CompactableOplog, Flushable {
     public ByteBuffer writeBuf;
     public long currSize;
     public long bytesFlushed;
+    /** The number of bytes flushed, and forced if syncWrites, by a group commit */
+    public volatile long bytesCommitted;
     public boolean unpreblown;
   }
 
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.Logger;
+
+import org.apache.geode.internal.logging.LogService;
+import org.apache.geode.internal.logging.LoggingThreadGroup;
+
+/**
+ * Memory maps the files that recovery is about to read and loads them into physical memory on
+ * background threads. Oplogs have to be replayed one at a time, newest first, because that order
+ * decides which record of an entry wins; this lets the disk reads for the next oplogs overlap
+ * with the replay of the current one so that the recovery thread finds their pages resident.
+ *
+ * @since Geode 1.8.0
+ */
+class OplogRecoveryPrefetcher {
+  private static final Logger logger = LogService.getLogger();
+
+  /**
+   * Files are mapped a chunk at a time so that large oplogs do not need a large mapping.
+   */
+  static final int CHUNK_SIZE = 64 * 1024 * 1024;
+
+  /**
+   * How long close waits for the chunks that are still being loaded to be unmapped.
+   */
+  private static final long CLOSE_TIMEOUT_SECONDS = 60;
+
+  /**
+   * The jdk 9+ {@code sun.misc.Unsafe.invokeCleaner} method and its receiver, or null on jdk 8
+   * where a mapping is released through its {@code cleaner()} instead.
+   */
+  private static final Object unsafe;
+  private static final Method invokeCleaner;
+  static {
+    Object tmpUnsafe = null;
+    Method tmpInvokeCleaner = null;
+    try {
+      Class<?> c = Class.forName("sun.misc.Unsafe");
+      tmpInvokeCleaner = c.getMethod("invokeCleaner", ByteBuffer.class);
+      Field f = c.getDeclaredField("theUnsafe");
+      f.setAccessible(true);
+      tmpUnsafe = f.get(null);
+    } catch (ReflectiveOperationException | RuntimeException ignore) {
+      tmpInvokeCleaner = null;
+    }
+    unsafe = tmpUnsafe;
+    invokeCleaner = tmpInvokeCleaner;
+  }
+
+  private final List<File> files;
+
+  private final int readAhead;
+
+  private final DiskStoreStats stats;
+
+  private final ExecutorService executor;
+
+  /**
+   * The number of files that have been handed to the executor. Only used by the recovery thread.
+   */
+  private int submitted;
+
+  /**
+   * @param files the files in the order they will be recovered; null elements are skipped
+   * @param threads the number of files to load concurrently and ahead of the one being recovered
+   */
+  OplogRecoveryPrefetcher(List<File> files, int threads, DiskStoreStats stats) {
+    this.files = files;
+    this.readAhead = threads;
+    this.stats = stats;
+    final ThreadGroup group =
+        LoggingThreadGroup.createThreadGroup("Oplog Recovery Prefetch Thread Group", logger);
+    this.executor = Executors.newFixedThreadPool(threads,
+        GemfireCacheHelper.CreateThreadFactory(group, "Oplog Recovery Prefetcher"));
+  }
+
+  /**
+   * Called by the recovery thread before it recovers the file at index so that the files following
+   * it start loading.
+   */
+  void recovering(int index) {
+    int limit = Math.min(this.files.size(), index + 1 + this.readAhead);
+    while (this.submitted < limit) {
+      final File file = this.files.get(this.submitted++);
+      if (file != null) {
+        this.executor.execute(() -> prefetch(file));
+      }
+    }
+  }
+
+  /**
+   * Stops prefetching and waits for the chunks that are still being loaded to be unmapped, so that
+   * no oplog is left mapped once recovery is done with it.
+   */
+  void close() {
+    this.executor.shutdownNow();
+    try {
+      this.executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  boolean isClosed() {
+    return this.executor.isTerminated();
+  }
+
+  private void prefetch(File file) {
+    long start = this.stats.startOplogPrefetch();
+    long bytes = 0;
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long size = channel.size();
+      while (bytes < size && !this.executor.isShutdown()) {
+        long length = Math.min(CHUNK_SIZE, size - bytes);
+        MappedByteBuffer mapping = channel.map(MapMode.READ_ONLY, bytes, length);
+        try {
+          mapping.load();
+        } finally {
+          // the pages stay in the os page cache; don't keep the file mapped until gc
+          unmap(mapping);
+        }
+        bytes += length;
+      }
+    } catch (IOException e) {
+      // The file may have been removed since recovery started. Recovery will read it,
+      // or not, exactly as it would have without the prefetch.
+      if (logger.isDebugEnabled()) {
+        logger.debug("Could not prefetch {} for recovery", file, e);
+      }
+    } finally {
+      this.stats.endOplogPrefetch(start, bytes);
+    }
+  }
+
+  /**
+   * Releases the mapping now instead of when the buffer is garbage collected. Returns false if this
+   * jvm does not allow it, in which case the mapping is released by gc as before. The buffer must
+   * not be used after this returns true.
+   */
+  static boolean unmap(MappedByteBuffer buffer) {
+    try {
+      if (invokeCleaner != null) {
+        invokeCleaner.invoke(unsafe, buffer);
+      } else {
+        Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+        cleanerMethod.setAccessible(true);
+        Object cleaner = cleanerMethod.invoke(buffer);
+        if (cleaner == null) {
+          return false;
+        }
+        cleaner.getClass().getMethod("clean").invoke(cleaner);
+      }
+      return true;
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      if (logger.isDebugEnabled()) {
+        logger.debug("Could not unmap a prefetched oplog chunk", e);
+      }
+      return false;
+    }
+  }
+}
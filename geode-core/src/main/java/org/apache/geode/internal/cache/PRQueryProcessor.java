@@ -29,9 +29,15 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.logging.log4j.Logger;
 
@@ -79,6 +85,18 @@ public class PRQueryProcessor {
   /* For Test purpose */
   public static int TEST_NUM_THREADS = 0;
 
+  /**
+   * System property to execute the query on the buckets with a work-stealing fork-join pool. The
+   * pool has numThreads threads if that is set, or one per processor otherwise.
+   *
+   * @since Geode 1.8.0
+   */
+  public static final boolean FORK_JOIN =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "PRQueryProcessor.forkJoin");
+
+  /* For Test purpose */
+  public static boolean TEST_FORK_JOIN = false;
+
   private PartitionedRegionDataStore _prds;
   private PartitionedRegion pr;
   private final DefaultQuery query;
@@ -89,6 +107,18 @@ public class PRQueryProcessor {
 
   private boolean isIndexUsedForLocalQuery = false;
 
+  /** the first exception thrown by a bucket query executed by the fork-join pool */
+  private final AtomicReference<Exception> forkJoinFailure = new AtomicReference<>();
+
+  /** the number of results found by the bucket queries executed by the fork-join pool */
+  private final AtomicInteger numResultsFound = new AtomicInteger();
+
+  /**
+   * the number of results after which the buckets not queried yet by the fork-join pool are
+   * skipped, or -1
+   */
+  private int resultsLimit = -1;
+
   public PRQueryProcessor(PartitionedRegionDataStore prDS, DefaultQuery query, Object[] parameters,
       List<Integer> buckets) {
     Assert.assertTrue(!buckets.isEmpty(), "bucket list can not be empty. ");
@@ -132,7 +162,9 @@ public class PRQueryProcessor {
     // ((IndexTrackingQueryObserver)observer).setIndexInfo(resultCollector.getIndexInfoMap());
     // }
 
-    if (NUM_THREADS > 1 || TEST_NUM_THREADS > 1) {
+    if (FORK_JOIN || TEST_FORK_JOIN) {
+      executeWithForkJoinPool(resultCollector);
+    } else if (NUM_THREADS > 1 || TEST_NUM_THREADS > 1) {
       executeWithThreadPool(resultCollector);
     } else {
       executeSequentially(resultCollector, this._bucketsToQuery);
@@ -208,6 +240,60 @@ public class PRQueryProcessor {
 
   }
 
+  /**
+   * Executes the query on the buckets with the fork-join pool, which splits the bucket list until
+   * each task queries one bucket, so that idle threads steal the buckets of busy ones. The sorted
+   * results of each bucket of an ORDER BY or GROUP BY query are merged. Unless the results must be
+   * sorted or made distinct, no more buckets are queried once LIMIT results are found.
+   */
+  private void executeWithForkJoinPool(Collection<Collection> resultCollector)
+      throws QueryException, InterruptedException, ForceReattemptException {
+    if (Thread.interrupted())
+      throw new InterruptedException();
+
+    CompiledSelect cs = this.query.getSimpleSelect();
+    if (cs != null && cs.isCount()) {
+      // a COUNT query keeps its count in the compiled select, so its buckets are not queried
+      // concurrently
+      executeSequentially(resultCollector, this._bucketsToQuery);
+      return;
+    }
+    int limit = this.query.getLimit(this.parameters);
+    if (cs != null && !cs.isOrderBy() && !cs.isGroupBy() && !cs.isDistinct()) {
+      this.resultsLimit = limit;
+    }
+
+    try {
+      PRQueryExecutor.getForkJoinPool()
+          .invoke(new ForkJoinQueryTask(this._bucketsToQuery, resultCollector));
+    } catch (RejectedExecutionException e) {
+      // the pool is shut down when the cache is closed
+      this.pr.checkReadiness();
+      throw e;
+    }
+
+    Exception failure = this.forkJoinFailure.get();
+    if (failure instanceof QueryException) {
+      throw (QueryException) failure;
+    } else if (failure instanceof ForceReattemptException) {
+      throw (ForceReattemptException) failure;
+    } else if (failure instanceof CacheRuntimeException) {
+      throw (CacheRuntimeException) failure;
+    } else if (failure != null) {
+      throw new InternalGemFireException(
+          LocalizedStrings.PRQueryProcessor_GOT_UNEXPECTED_EXCEPTION_WHILE_EXECUTING_QUERY_ON_PARTITIONED_REGION_BUCKET
+              .toLocalizedString(),
+          failure);
+    }
+
+    if (cs != null && (cs.isOrderBy() || cs.isGroupBy())) {
+      ExecutionContext context = new QueryExecutionContext(this.parameters, pr.getCache());
+      Collection mergedResults = coalesceOrderedResults(resultCollector, context, cs, limit);
+      resultCollector.clear();
+      resultCollector.add(mergedResults);
+    }
+  }
+
   /**
    * @throws ForceReattemptException if bucket was moved so caller should try query again
    */
@@ -352,7 +438,10 @@ public class PRQueryProcessor {
 
   }
 
-  private void executeQueryOnBuckets(Collection<Collection> resultCollector,
+  /**
+   * @return the number of results found in the buckets
+   */
+  private int executeQueryOnBuckets(Collection<Collection> resultCollector,
       ExecutionContext context)
       throws ForceReattemptException, QueryInvocationTargetException, QueryException {
     // Check if QueryMonitor is enabled, if so add query to be monitored.
@@ -377,6 +466,7 @@ public class PRQueryProcessor {
         resultCollector.add((Collection) results);
       }
       isIndexUsedForLocalQuery = ((QueryExecutionContext) context).isIndexUsed();
+      return ((Collection) results).size();
 
     } catch (BucketMovedException bme) {
       if (logger.isDebugEnabled()) {
@@ -422,6 +512,51 @@ public class PRQueryProcessor {
     PRQueryExecutor.shutdownNow();
   }
 
+  /**
+   * Fork-join task that executes the query on a list of buckets by splitting it in two halves
+   * until one bucket is left.
+   */
+  @SuppressWarnings("synthetic-access")
+  private class ForkJoinQueryTask extends RecursiveAction {
+    private final List<Integer> buckets;
+    private final Collection<Collection> resultCollector;
+
+    ForkJoinQueryTask(List<Integer> buckets, Collection<Collection> resultCollector) {
+      this.buckets = buckets;
+      this.resultCollector = resultCollector;
+    }
+
+    @Override
+    protected void compute() {
+      if (isQueryDone()) {
+        return;
+      }
+      int size = this.buckets.size();
+      if (size == 1) {
+        executeOnBucket(this.buckets.get(0));
+        return;
+      }
+      int middle = size / 2;
+      invokeAll(new ForkJoinQueryTask(this.buckets.subList(0, middle), this.resultCollector),
+          new ForkJoinQueryTask(this.buckets.subList(middle, size), this.resultCollector));
+    }
+
+    private boolean isQueryDone() {
+      return forkJoinFailure.get() != null || query.isCanceled()
+          || (resultsLimit >= 0 && numResultsFound.get() >= resultsLimit);
+    }
+
+    private void executeOnBucket(Integer bucketId) {
+      ExecutionContext context = new QueryExecutionContext(parameters, pr.getCache(), query);
+      context.setBucketList(Collections.singletonList(bucketId));
+      try {
+        numResultsFound.addAndGet(executeQueryOnBuckets(this.resultCollector, context));
+      } catch (QueryException | ForceReattemptException | CacheRuntimeException e) {
+        forkJoinFailure.compareAndSet(null, e);
+      }
+    }
+  }
+
   /**
    * A ThreadPool ( Fixed Size ) with an executor service to execute the query execution spread over
    * buckets.
@@ -432,6 +567,8 @@ public class PRQueryProcessor {
 
     private static ExecutorService execService = null;
 
+    private static ForkJoinPool forkJoinPool = null;
+
     /**
      * Closes the executor service. This is called from
      * {@link PartitionedRegion#afterRegionsClosedByCacheClose(InternalCache)}
@@ -440,11 +577,36 @@ public class PRQueryProcessor {
       if (execService != null) {
         execService.shutdown();
       }
+      if (forkJoinPool != null) {
+        forkJoinPool.shutdown();
+      }
     }
 
     static synchronized void shutdownNow() {
       if (execService != null)
         execService.shutdownNow();
+      if (forkJoinPool != null) {
+        forkJoinPool.shutdownNow();
+      }
+    }
+
+    /**
+     * Returns the fork-join pool, creating it if needed.
+     */
+    static synchronized ForkJoinPool getForkJoinPool() {
+      if (forkJoinPool == null || forkJoinPool.isShutdown()) {
+        int numThreads = TEST_NUM_THREADS > 1 ? TEST_NUM_THREADS : NUM_THREADS;
+        if (numThreads <= 1) {
+          numThreads = Runtime.getRuntime().availableProcessors();
+        }
+        forkJoinPool = new ForkJoinPool(numThreads, pool -> {
+          ForkJoinWorkerThread thread =
+              ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+          thread.setName("PRQueryProcessor-" + thread.getPoolIndex());
+          return thread;
+        }, null, false);
+      }
+      return forkJoinPool;
     }
 
     static synchronized ExecutorService getExecutorService() {
@@ -56,6 +56,7 @@ import org.apache.geode.cache.query.internal.OrderByComparator;
 import org.apache.geode.cache.query.internal.PRQueryTraceInfo;
 import org.apache.geode.cache.query.internal.QueryExecutionContext;
 import org.apache.geode.cache.query.internal.QueryMonitor;
+import org.apache.geode.cache.query.internal.QueryResultStream;
 import org.apache.geode.cache.query.internal.ResultsSet;
 import org.apache.geode.cache.query.internal.SortedResultsBag;
 import org.apache.geode.cache.query.internal.SortedStructBag;
@@ -134,6 +135,11 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
   private final IntOpenHashSet successfulBuckets;
   // set of members failed to execute query
   private Set<InternalDistributedMember> failedMembers;
+  /**
+   * Where the results of a member are handed as soon as it has finished, if the query is executed
+   * with a {@link QueryResultStream} and its results do not have to be combined
+   */
+  private volatile QueryResultStream resultStream;
 
   /**
    * Construct a PartitionedRegionQueryEvaluator
@@ -160,6 +166,7 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
     if (query != null && query.isTraced()) {
       prQueryTraceInfoList = new ConcurrentLinkedQueue();
     }
+    this.resultStream = QueryResultStream.getCurrent();
   }
 
   @Override
@@ -480,6 +487,9 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
     this.node2bucketIds = buildNodeToBucketMap();
     Assert.assertTrue(!this.node2bucketIds.isEmpty(),
         " There are no data stores hosting any of the buckets.");
+    if (this.resultStream != null && !canStreamResults()) {
+      this.resultStream = null;
+    }
 
     boolean needsRetry = true;
     int retry = 0;
@@ -536,6 +546,50 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
     return addResultsToResultSet();
   }
 
+  /**
+   * Returns true if the results of the members are not combined, so that they can be streamed as
+   * the members finish.
+   */
+  private boolean canStreamResults() throws QueryException {
+    CompiledSelect cs = this.query.getSimpleSelect();
+    return cs != null && cs.getType() != CompiledValue.GROUP_BY_SELECT && !cs.isDistinct()
+        && !cs.isCount() && cs.getOrderByAttrs() == null
+        && this.query.getLimit(this.parameters) < 0;
+  }
+
+  /**
+   * Hands the results of a member that has finished to the result stream of the query. The member
+   * keeps its (now empty) results list, so that its buckets are not queried again on a retry.
+   * (package access for unit test purposes)
+   */
+  void streamMemberResults(InternalDistributedMember member) {
+    QueryResultStream stream = this.resultStream;
+    if (stream == null) {
+      return;
+    }
+    MemberResultsList results = (MemberResultsList) this.resultsPerMember.get(member);
+    if (results == null) {
+      return;
+    }
+    List<Collection> memberResults;
+    synchronized (results) {
+      if (!results.isLastChunkReceived() || results.isEmpty()) {
+        return;
+      }
+      memberResults = new ArrayList<Collection>(results);
+      results.clear();
+    }
+    // local results are domain objects, remote ones are converted as in buildCumulativeResults
+    boolean localResults = member.equals(this.pr.getMyId());
+    CumulativeNonDistinctResults.Metadata metadata =
+        CumulativeNonDistinctResults.getCollectionMetadata(
+            !localResults && !this.pr.getCache().getPdxReadSerializedByAnyGemFireServices(),
+            !localResults && !this.query.isKeepSerialized(), localResults);
+    stream.add(new CumulativeNonDistinctResults(memberResults, -1,
+        this.cumulativeResults.getCollectionType().getElementType(),
+        Collections.nCopies(memberResults.size(), metadata)));
+  }
+
   /**
    * Wait for 10 ms between reattempts.
    */
@@ -1009,6 +1063,7 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
         if (otherResults != null) {
           resultCollector.addAll(otherResults);
         }
+        streamMemberResults(me);
 
       } catch (ForceReattemptException retryRequired) {
         if (logger.isDebugEnabled()) {
@@ -1120,6 +1175,9 @@ public class PartitionedRegionQueryEvaluator extends StreamingPartitionOperation
             }
           }
           isLast = isAborted || trackMessage(m); // interpret msgNum
+          if (isLast && !isAborted) {
+            streamMemberResults(m.getSender());
+          }
           // @todo ezoerner send an abort message to data provider if
           // !doContinue (region was destroyed or cache closed);
           // also provide ability to explicitly cancel
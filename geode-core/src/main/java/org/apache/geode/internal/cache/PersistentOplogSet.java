@@ -450,24 +450,43 @@ public class PersistentOplogSet implements OplogSet {
       }
       parent.incDeadRecordCount(deletedIds.size());
       // now figure out live entries
-      latestOplog = true;
-      for (Oplog oplog : oplogSet) {
-        long startOpLogRead = parent.getStats().startOplogRead();
-        long bytesRead = oplog.recoverCrf(deletedIds,
-            // @todo make recoverValues per region
-            recoverValues(), recoverValuesSync(), this.alreadyRecoveredOnce.get(),
-            oplogsNeedingValueRecovery, latestOplog);
-        latestOplog = false;
-        if (!this.alreadyRecoveredOnce.get()) {
-          updateOplogEntryId(oplog.getMaxRecoveredOplogEntryId());
+      OplogRecoveryPrefetcher prefetcher = null;
+      if (DiskStoreImpl.RECOVERY_PREFETCH_THREADS > 0) {
+        List<File> files = new ArrayList<File>(oplogSet.size());
+        for (Oplog oplog : oplogSet) {
+          files.add(oplog.getRecoveryFile(recoverValuesSync()));
         }
-        byteCount += bytesRead;
-        parent.getStats().endOplogRead(startOpLogRead, bytesRead);
+        prefetcher = new OplogRecoveryPrefetcher(files, DiskStoreImpl.RECOVERY_PREFETCH_THREADS,
+            parent.getStats());
+      }
+      try {
+        latestOplog = true;
+        int index = 0;
+        for (Oplog oplog : oplogSet) {
+          if (prefetcher != null) {
+            prefetcher.recovering(index++);
+          }
+          long startOpLogRead = parent.getStats().startOplogRead();
+          long bytesRead = oplog.recoverCrf(deletedIds,
+              // @todo make recoverValues per region
+              recoverValues(), recoverValuesSync(), this.alreadyRecoveredOnce.get(),
+              oplogsNeedingValueRecovery, latestOplog);
+          latestOplog = false;
+          if (!this.alreadyRecoveredOnce.get()) {
+            updateOplogEntryId(oplog.getMaxRecoveredOplogEntryId());
+          }
+          byteCount += bytesRead;
+          parent.getStats().endOplogRead(startOpLogRead, bytesRead);
 
-        // Callback to the disk regions to indicate the oplog is recovered
-        // Used for offline export
-        for (DiskRecoveryStore drs : this.currentRecoveryMap.values()) {
-          drs.getDiskRegionView().oplogRecovered(oplog.oplogId);
+          // Callback to the disk regions to indicate the oplog is recovered
+          // Used for offline export
+          for (DiskRecoveryStore drs : this.currentRecoveryMap.values()) {
+            drs.getDiskRegionView().oplogRecovered(oplog.oplogId);
+          }
+        }
+      } finally {
+        if (prefetcher != null) {
+          prefetcher.close();
         }
       }
       long endOpLogRecovery = System.currentTimeMillis();
@@ -72,6 +72,7 @@ import org.apache.geode.cache.query.internal.cq.InternalCqQuery;
 import org.apache.geode.cache.server.CacheServer;
 import org.apache.geode.cache.util.CacheListenerAdapter;
 import org.apache.geode.distributed.DistributedMember;
+import org.apache.geode.distributed.internal.DistributionConfig;
 import org.apache.geode.distributed.internal.DistributionManager;
 import org.apache.geode.distributed.internal.InternalDistributedSystem;
 import org.apache.geode.distributed.internal.membership.InternalDistributedMember;
@@ -257,6 +258,27 @@ public class HARegionQueue implements RegionQueue {
    */
   protected static volatile int messageSyncInterval = DEFAULT_MESSAGE_SYNC_INTERVAL;
 
+  /**
+   * System property to have destroys and invalidates conflated like updates, so that a destroy or
+   * invalidate replaces the event queued for its key instead of following it.
+   *
+   * @since Geode 1.8.0
+   */
+  public static final boolean COALESCE_BY_KEY =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "HARegionQueue.COALESCE_BY_KEY");
+
+  /**
+   * System property to set the number of queued events above which a queue conflates the events of
+   * the clients that use the server's conflation setting, even in regions that do not enable
+   * subscription conflation, so that a slow client receives only the latest state of its hot keys.
+   * Zero disables it.
+   *
+   * @since Geode 1.8.0
+   */
+  public static final int CONFLATION_THRESHOLD =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "HARegionQueue.CONFLATION_THRESHOLD",
+          0);
+
   /**
    * The underlying map (may hold reference to a Region or a ConcurrentHashMap) for this
    * HARegionQueue instance (and also shared by all the HARegionQueue instances associated with the
@@ -279,6 +301,21 @@ public class HARegionQueue implements RegionQueue {
   /** @since GemFire 5.7 */
   protected byte clientConflation = Handshake.CONFLATION_DEFAULT;
 
+  /**
+   * The number of queued events above which this queue conflates events that are not otherwise
+   * conflated. Zero disables it.
+   *
+   * @since Geode 1.8.0
+   */
+  int conflationThreshold = CONFLATION_THRESHOLD;
+
+  /**
+   * Whether this queue conflates destroys and invalidates like updates.
+   *
+   * @since Geode 1.8.0
+   */
+  boolean coalesceByKey = COALESCE_BY_KEY;
+
   /**
    * Boolean to indicate whether client is a slow receiver
    *
@@ -564,18 +601,26 @@ public class HARegionQueue implements RegionQueue {
         if (event instanceof HAEventWrapper) {
           ClientUpdateMessage cum = (ClientUpdateMessage) this.haContainer.get(event);
           if (cum != null) {
-            retVal = cum.isUpdate();
+            retVal = isConflatableOperation(cum);
           }
           break;
         }
         if (event instanceof ClientUpdateMessage) {
           // Does this ever happen now?
-          retVal = ((ClientUpdateMessage) event).isUpdate();
+          retVal = isConflatableOperation((ClientUpdateMessage) event);
           break;
         }
         // Oddness
         break;
       case Handshake.CONFLATION_DEFAULT:
+        if (!retVal && this.coalesceByKey) {
+          // the event only knows whether it is an update in a region that enables conflation
+          ClientUpdateMessage cum = event instanceof HAEventWrapper
+              ? (ClientUpdateMessage) this.haContainer.get(event)
+              : event instanceof ClientUpdateMessage ? (ClientUpdateMessage) event : null;
+          retVal = cum != null && isConflatableOperation(cum)
+              && isConflationEnabled(cum.getRegionName());
+        }
         return retVal;
       default:
         throw new InternalGemFireError("Invalid clientConflation");
@@ -583,6 +628,63 @@ public class HARegionQueue implements RegionQueue {
     return retVal;
   }
 
+  /**
+   * Returns whether the operation of a message may replace the message queued for its key: updates,
+   * and also destroys and invalidates if {@link #coalesceByKey} is set.
+   */
+  boolean isConflatableOperation(ClientUpdateMessage cum) {
+    return cum.isUpdate() || (this.coalesceByKey && (cum.isDestroy() || cum.isInvalidate()));
+  }
+
+  private boolean isConflationEnabled(String regionName) {
+    Region region = this.region.getGemFireCache().getRegion(regionName);
+    return region != null && region.getAttributes().getEnableSubscriptionConflation();
+  }
+
+  /**
+   * Returns whether an event may have been added to the conflation map, so that its entry has to be
+   * removed from the map with the event. Events conflated because the queue was over its
+   * {@link #conflationThreshold} are not known to {@link #shouldBeConflated}.
+   */
+  boolean mayBeInConflationMap(Conflatable event) {
+    if (shouldBeConflated(event)) {
+      return true;
+    }
+    return this.conflationThreshold > 0 && this.clientConflation == Handshake.CONFLATION_DEFAULT
+        && event.getKeyToConflate() != null;
+  }
+
+  /**
+   * Conflates an event that is not conflated by {@link #shouldBeConflated} when the queue holds
+   * more than {@link #conflationThreshold} events. Only entry events whose full value is sent can
+   * replace the event queued for their key. An event carrying a delta removes its key from the
+   * conflation map instead, so that the event its delta is based on is not removed by a later event.
+   *
+   * @return the position of the event replaced by the given one, or null
+   */
+  Long conflateOverThreshold(Conflatable event, Long position) {
+    if (this.clientConflation != Handshake.CONFLATION_DEFAULT
+        || event instanceof ClientMarkerMessageImpl || event.getKeyToConflate() == null) {
+      return null;
+    }
+    Object cum = event instanceof HAEventWrapper ? this.haContainer.get(event) : event;
+    if (!(cum instanceof ClientUpdateMessageImpl)) {
+      return null;
+    }
+    ClientUpdateMessageImpl message = (ClientUpdateMessageImpl) cum;
+    if (!message.hasDelta()) {
+      if (isConflatableOperation(message) && size() > this.conflationThreshold) {
+        return addToConflationMap(event, position);
+      }
+      return null;
+    }
+    Map latestIndexesForRegion = (Map) this.indexes.get(event.getRegionToConflate());
+    if (latestIndexesForRegion != null) {
+      latestIndexesForRegion.remove(event.getKeyToConflate());
+    }
+    return null;
+  }
+
   /**
    * Adds an object at the queue's tail. The implementation supports concurrent put operations in a
    * performant manner. This is done in following steps: <br>
@@ -1021,7 +1123,7 @@ public class HARegionQueue implements RegionQueue {
       long threadId = id.getThreadID();
       DispatchedAndCurrentEvents dace =
           (DispatchedAndCurrentEvents) eventsMap.get(new ThreadIdentifier(memID, threadId));
-      if (shouldBeConflated(cf)) {
+      if (mayBeInConflationMap(cf)) {
         dace.destroy((Long) key, cf.getKeyToConflate(), cf.getRegionToConflate());
       } else {
         dace.destroy((Long) key);
@@ -1229,7 +1331,7 @@ public class HARegionQueue implements RegionQueue {
       DispatchedAndCurrentEvents dace = (DispatchedAndCurrentEvents) this.eventsMap.get(threadid);
       Assert.assertTrue(dace != null);
       Object keyToConflate = null;
-      if (shouldBeConflated(object)) {
+      if (mayBeInConflationMap(object)) {
         keyToConflate = object.getKeyToConflate();
       }
       dace.removeEventAndSetSequenceID(
@@ -1317,7 +1419,7 @@ public class HARegionQueue implements RegionQueue {
 
         Object key = null;
         String r = null;
-        if (shouldBeConflated(event)) {
+        if (mayBeInConflationMap(event)) {
           key = event.getKeyToConflate();
           r = event.getRegionToConflate();
         }
@@ -3059,6 +3161,8 @@ public class HARegionQueue implements RegionQueue {
             // same
             // ThreadIdentifier or different one.
             oldPosition = owningQueue.addToConflationMap(eventInHARegion, position);
+          } else if (owningQueue.conflationThreshold > 0) {
+            oldPosition = owningQueue.conflateOverThreshold(eventInHARegion, position);
           }
 
           // Take the size lock & add to the list of availabelIds
@@ -3113,11 +3217,17 @@ public class HARegionQueue implements RegionQueue {
             this.counters.remove(oldPosition);
           }
           // <HA overflow>
+          Object released = conflatable;
           if (conflatable instanceof HAEventWrapper) {
-            owningQueue.decAndRemoveFromHAContainer((HAEventWrapper) conflatable,
+            released = owningQueue.decAndRemoveFromHAContainer((HAEventWrapper) conflatable,
                 "Remove Old Conflated Entry");
           }
           // </HA overflow>
+          // count the memory released, which is none if other queues still hold the message
+          if (released instanceof ClientUpdateMessageImpl) {
+            owningQueue.stats
+                .incBytesConflated(((ClientUpdateMessageImpl) released).getSizeInBytes());
+          }
           // update statistics
 
           // Fix for bug 39291:
@@ -3147,8 +3257,10 @@ public class HARegionQueue implements RegionQueue {
       // position
       // that is passed
       ConcurrentMap conflationMap = (ConcurrentMap) owningQueue.indexes.get(rName);
-      Assert.assertTrue(conflationMap != null);
-      conflationMap.remove(key, position);
+      // the map may not exist if the event was only a candidate for conflation over the threshold
+      if (conflationMap != null) {
+        conflationMap.remove(key, position);
+      }
     }
 
     /**
@@ -3278,7 +3390,7 @@ public class HARegionQueue implements RegionQueue {
             // so increment the statistic
             owningQueue.stats.incEventsRemovedByQrm();
 
-            if (!owningQueue.shouldBeConflated(event)) {
+            if (!owningQueue.mayBeInConflationMap(event)) {
               // Just update the counters set
               this.destroy(counter);
               continue; // we're done
@@ -3737,14 +3849,16 @@ public class HARegionQueue implements RegionQueue {
    * Decrements reference count for the wrapper in the container by one. If the decremented ref
    * count is zero and put is not in progress, removes the entry from the haContainer.
    *
+   * @return the message removed from the haContainer, or null if it is still referenced
    * @since GemFire 5.7
    */
-  public void decAndRemoveFromHAContainer(HAEventWrapper wrapper) {
-    decAndRemoveFromHAContainer(wrapper, "");
+  public Object decAndRemoveFromHAContainer(HAEventWrapper wrapper) {
+    return decAndRemoveFromHAContainer(wrapper, "");
   }
 
-  public void decAndRemoveFromHAContainer(HAEventWrapper wrapper, String caller) {
+  public Object decAndRemoveFromHAContainer(HAEventWrapper wrapper, String caller) {
     boolean decAndRemovePerformed = false;
+    Object removed = null;
 
     while (!decAndRemovePerformed) {
       HAEventWrapper haContainerKey =
@@ -3762,7 +3876,7 @@ public class HARegionQueue implements RegionQueue {
                 + "; Wrapper details: " + haContainerKey);
           }
           if (haContainerKey.decAndGetReferenceCount() == 0L) {
-            HARegionQueue.this.haContainer.remove(haContainerKey);
+            removed = HARegionQueue.this.haContainer.remove(haContainerKey);
             if (logger.isDebugEnabled()) {
               logger.debug(
                   caller + " removed Event ID hash code: " + haContainerKey.hashCode()
@@ -3775,6 +3889,7 @@ public class HARegionQueue implements RegionQueue {
         }
       }
     }
+    return removed;
   }
 
   /**
@@ -70,6 +70,8 @@ public class HARegionQueueStats {
    */
   protected static final String NUM_SEQUENCE_VIOLATED = "numSequenceViolated";
 
+  protected static final String BYTES_CONFLATED = "bytesConflated";
+
   /** Id of the events queued statistic */
   private static final int _eventsQueuedId;
 
@@ -103,6 +105,8 @@ public class HARegionQueueStats {
   /** Id of the num sequence violated statistic */
   private static final int _numSequenceViolated;
 
+  private static final int _bytesConflated;
+
   /**
    * Static initializer to create and initialize the <code>StatisticsType</code>
    */
@@ -141,7 +145,11 @@ public class HARegionQueueStats {
             "operations"),
 
         f.createLongCounter(NUM_SEQUENCE_VIOLATED, "Number of events that has violated sequence.",
-            "operations")});
+            "operations"),
+
+        f.createLongCounter(BYTES_CONFLATED,
+            "Estimated memory released by events conflated for the queue that were not referenced by any other queue.",
+            "bytes")});
 
     // Initialize id fields
     _eventsQueuedId = _type.nameToId(EVENTS_QUEUED);
@@ -155,6 +163,7 @@ public class HARegionQueueStats {
     _eventsDispatched = _type.nameToId(EVENTS_DISPATCHED);
     _numVoidRemovals = _type.nameToId(NUM_VOID_REMOVALS);
     _numSequenceViolated = _type.nameToId(NUM_SEQUENCE_VIOLATED);
+    _bytesConflated = _type.nameToId(BYTES_CONFLATED);
   }
 
   /** The <code>Statistics</code> instance to which most behavior is delegated */
@@ -363,6 +372,22 @@ public class HARegionQueueStats {
     this._stats.incLong(_numSequenceViolated, 1);
   }
 
+  /**
+   * Returns the current value of the "bytesConflated" stat.
+   *
+   * @return the current value of the "bytesConflated" stat
+   */
+  public long getBytesConflated() {
+    return this._stats.getLong(_bytesConflated);
+  }
+
+  /**
+   * Increments the "bytesConflated" stat by the given number of bytes.
+   */
+  public void incBytesConflated(long bytes) {
+    this._stats.incLong(_bytesConflated, bytes);
+  }
+
   /**
    * Returns true if the stats instance has been closed.
    *
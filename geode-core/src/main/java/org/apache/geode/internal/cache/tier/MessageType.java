@@ -382,10 +382,17 @@ public class MessageType {
   public static final int PUT_ALL_WITH_CALLBACK = 108;
 
   public static final int REMOVE_ALL = 109;
+
+  /**
+   * A query whose results are sent as they are produced, to be read with a cursor
+   *
+   * @since Geode 1.8.0
+   */
+  public static final int QUERY_WITH_CURSOR = 110;
   /**
    * Must be equal to last valid message id.
    */
-  private static final int LAST_VALID_MESSAGE_ID = REMOVE_ALL;
+  private static final int LAST_VALID_MESSAGE_ID = QUERY_WITH_CURSOR;
 
 
   public static boolean validate(int messageType) {
@@ -605,6 +612,8 @@ public class MessageType {
         return "PUT_ALL_WITH_CALLBACK";
       case REMOVE_ALL:
         return "REMOVE_ALL";
+      case QUERY_WITH_CURSOR:
+        return "QUERY_WITH_CURSOR";
       default:
         return Integer.toString(type);
     }
@@ -48,6 +48,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.RejectedExecutionHandler;
@@ -128,6 +129,17 @@ public class AcceptorImpl implements Acceptor, Runnable, CommBufferPool {
    */
   private final ThreadPoolExecutor clientQueueInitPool;
 
+  /**
+   * A pool used to send the results of queries executed with a cursor while the queries run.
+   */
+  private final ThreadPoolExecutor queryCursorPool;
+
+  /**
+   * The thread group of the pools a gateway receiver applies the events of a batch in parallel
+   * with, or null if they are applied by the server connection threads.
+   */
+  private final ThreadGroup gatewayApplyThreadGroup;
+
   /**
    * The port on which this acceptor listens for client connections
    */
@@ -190,6 +202,13 @@ public class AcceptorImpl implements Acceptor, Runnable, CommBufferPool {
    */
   public static final int DEFAULT_HANDSHAKE_TIMEOUT_MS = 59000;
 
+  /**
+   * The number of threads a gateway receiver applies the events of its batches with. With 0 or 1
+   * the events are applied by the server connection thread that read the batch.
+   */
+  public static final int GATEWAY_RECEIVER_APPLY_THREADS =
+      Integer.getInteger("GatewayReceiver.APPLY_THREADS", 0).intValue();
+
   /**
    * Test value for handshake timeout
    */
@@ -550,6 +569,10 @@ public class AcceptorImpl implements Acceptor, Runnable, CommBufferPool {
     pool = initializeServerConnectionThreadPool();
     hsPool = initializeHandshakerThreadPool();
     clientQueueInitPool = initializeClientQueueInitializerThreadPool();
+    queryCursorPool = initializeQueryCursorThreadPool();
+    gatewayApplyThreadGroup = isGatewayReceiver && GATEWAY_RECEIVER_APPLY_THREADS > 1
+        ? LoggingThreadGroup.createThreadGroup("Gateway Apply on port " + this.localPort, logger)
+        : null;
 
     isAuthenticationRequired = this.securityService.isClientSecurityRequired();
 
@@ -626,6 +649,31 @@ public class AcceptorImpl implements Acceptor, Runnable, CommBufferPool {
         clientQueueThreadFactory, 60000, getThreadMonitorObj());
   }
 
+  private ThreadPoolExecutor initializeQueryCursorThreadPool() {
+    final ThreadGroup queryCursorThreadGroup =
+        LoggingThreadGroup.createThreadGroup("Query Cursor on port " + this.localPort, logger);
+
+    ThreadFactory queryCursorThreadFactory = new ThreadFactory() {
+      AtomicInteger threadNum = new AtomicInteger(-1);
+
+      @Override
+      public Thread newThread(Runnable command) {
+        String threadName =
+            queryCursorThreadGroup.getName() + " Thread " + threadNum.incrementAndGet();
+        Thread thread = new Thread(queryCursorThreadGroup, command, threadName);
+        thread.setDaemon(true);
+        return thread;
+      }
+    };
+    // one thread per query being streamed, and no more than the threads that can execute queries:
+    // the selector threads if there are any, otherwise one thread per connection. A query beyond
+    // that is rejected rather than queued, since its results would not be sent until another
+    // query completes.
+    int maxQueryCursors = this.maxThreads > 0 ? this.maxThreads : this.maxConnections;
+    return new ThreadPoolExecutor(0, maxQueryCursors, 60, TimeUnit.SECONDS,
+        new SynchronousQueue<>(), queryCursorThreadFactory);
+  }
+
   private ThreadPoolExecutor initializeServerConnectionThreadPool() throws IOException {
     String gName = "ServerConnection "
         // + serverSock.getInetAddress()
@@ -682,6 +730,48 @@ public class AcceptorImpl implements Acceptor, Runnable, CommBufferPool {
     return this.acceptorId;
   }
 
+  /**
+   * Returns the pool used to send the results of queries executed with a cursor.
+   */
+  public ExecutorService getQueryCursorPool() {
+    return this.queryCursorPool;
+  }
+
+  /**
+   * Returns true if this acceptor is a gateway receiver that applies the events of a batch in
+   * parallel rather than with the server connection thread that read the batch.
+   */
+  public boolean isGatewayApplyInParallel() {
+    return this.gatewayApplyThreadGroup != null;
+  }
+
+  /**
+   * Creates the pool a gateway receiver connection applies the events of its batches in parallel
+   * with. Each connection has its own pool so that a batch whose events keep failing, which a
+   * sender that does not remove events on exception retries until they succeed, only holds up the
+   * sender of that batch.
+   */
+  ThreadPoolExecutor createGatewayApplyPool(final String connectionName) {
+    ThreadFactory gatewayApplyThreadFactory = new ThreadFactory() {
+      AtomicInteger threadNum = new AtomicInteger(-1);
+
+      @Override
+      public Thread newThread(Runnable command) {
+        String threadName = gatewayApplyThreadGroup.getName() + " for " + connectionName
+            + " Thread " + threadNum.incrementAndGet();
+        Thread thread = new Thread(gatewayApplyThreadGroup, command, threadName);
+        thread.setDaemon(true);
+        return thread;
+      }
+    };
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(GATEWAY_RECEIVER_APPLY_THREADS,
+        GATEWAY_RECEIVER_APPLY_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+        gatewayApplyThreadFactory);
+    // an idle connection does not keep its threads
+    pool.allowCoreThreadTimeOut(true);
+    return pool;
+  }
+
   public CacheServerStats getStats() {
     return this.stats;
   }
@@ -1699,6 +1789,7 @@ public class AcceptorImpl implements Acceptor, Runnable, CommBufferPool {
     }
     this.clientQueueInitPool.shutdown();
     this.hsPool.shutdown();
+    this.queryCursorPool.shutdown();
   }
 
   private void shutdownSCs() {
@@ -1716,6 +1807,7 @@ public class AcceptorImpl implements Acceptor, Runnable, CommBufferPool {
         && (selectorThread == null || !selectorThread.isAlive())
         && (pool == null || pool.isShutdown()) && (hsPool == null || hsPool.isShutdown())
         && (clientQueueInitPool == null || clientQueueInitPool.isShutdown())
+        && (queryCursorPool == null || queryCursorPool.isShutdown())
         && (selector == null || !selector.isOpen()) && (tmpSel == null || !tmpSel.isOpen());
   }
 
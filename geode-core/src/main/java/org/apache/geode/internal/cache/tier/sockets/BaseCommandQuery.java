@@ -19,6 +19,9 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.apache.geode.cache.RegionDestroyedException;
 import org.apache.geode.cache.operations.QueryOperationContext;
@@ -29,6 +32,7 @@ import org.apache.geode.cache.query.SelectResults;
 import org.apache.geode.cache.query.Struct;
 import org.apache.geode.cache.query.internal.CqEntry;
 import org.apache.geode.cache.query.internal.DefaultQuery;
+import org.apache.geode.cache.query.internal.QueryResultStream;
 import org.apache.geode.cache.query.internal.cq.ServerCQ;
 import org.apache.geode.cache.query.internal.types.CollectionTypeImpl;
 import org.apache.geode.cache.query.internal.types.StructTypeImpl;
@@ -85,6 +89,11 @@ public abstract class BaseCommandQuery extends BaseCommand {
     if (servConn.getClientVersion().compareTo(Version.GFE_70) >= 0) {
       ((DefaultQuery) query).setRemoteQuery(true);
     }
+    // Results read with a cursor are sent as they are produced, unless they have to be
+    // authorized or post processed as a whole.
+    boolean streamResults = sendResults && cqQuery == null
+        && msg.getMessageType() == MessageType.QUERY_WITH_CURSOR
+        && servConn.getPostAuthzRequest() == null && !securityService.needPostProcess();
     // Process the query request
     try {
       // integrated security
@@ -101,7 +110,9 @@ public abstract class BaseCommandQuery extends BaseCommand {
       // in the future if we support arbitrary queries
       Object result = null;
 
-      if (params != null) {
+      if (streamResults) {
+        result = executeWithCursor(msg, query, params, queryString, servConn, securityService);
+      } else if (params != null) {
         result = query.execute(params);
       } else {
         result = query.execute();
@@ -190,7 +201,7 @@ public abstract class BaseCommandQuery extends BaseCommand {
         start = DistributionStats.getStatTime();
         stats.incProcessQueryTime(start - oldStart);
 
-        if (sendResults) {
+        if (sendResults && !streamResults) {
           queryResponseMsg.setMessageType(MessageType.RESPONSE);
           queryResponseMsg.setTransactionId(msg.getTransactionId());
           queryResponseMsg.sendHeader();
@@ -212,11 +223,11 @@ public abstract class BaseCommandQuery extends BaseCommand {
           // send it as a part of ObjectPartList
           if (hasSerializedObjects) {
             sendResultsAsObjectPartList(numberOfChunks, servConn, selectResults.asList(), isStructs,
-                collectionType, queryString, cqQuery, sendCqResultsWithKey, sendResults,
+                collectionType, queryString, cqQuery, sendCqResultsWithKey, sendResults, true,
                 securityService);
           } else {
-            sendResultsAsObjectArray(selectResults, numberOfChunks, servConn, isStructs,
-                collectionType, queryString, cqQuery, sendCqResultsWithKey, sendResults);
+            sendResultsAsObjectArray(selectResults.toArray(), numberOfChunks, servConn, isStructs,
+                collectionType, queryString, cqQuery, sendCqResultsWithKey, sendResults, true);
           }
         }
 
@@ -227,9 +238,11 @@ public abstract class BaseCommandQuery extends BaseCommand {
 
       } else if (result instanceof Integer) {
         if (sendResults) {
-          queryResponseMsg.setMessageType(MessageType.RESPONSE);
-          queryResponseMsg.setTransactionId(msg.getTransactionId());
-          queryResponseMsg.sendHeader();
+          if (!streamResults) {
+            queryResponseMsg.setMessageType(MessageType.RESPONSE);
+            queryResponseMsg.setTransactionId(msg.getTransactionId());
+            queryResponseMsg.sendHeader();
+          }
           writeQueryResponseChunk(result, null, true, servConn);
         }
       } else {
@@ -292,6 +305,93 @@ public abstract class BaseCommandQuery extends BaseCommand {
     return results.getCollectionType();
   }
 
+  /**
+   * Executes a query whose results the client reads with a cursor. The response header is sent
+   * first. The results that the query streams, which are those of the members hosting the buckets
+   * of a partitioned region as they finish, are then sent by a query cursor thread while the query
+   * runs. The results returned by the query are left to the caller to send, in the last chunk. The
+   * query fails if all the query cursor threads are busy. (package access for unit test purposes)
+   */
+  Object executeWithCursor(Message msg, Query query, Object[] params, String queryString,
+      ServerConnection servConn, SecurityService securityService) throws Exception {
+    ChunkedMessage queryResponseMsg = servConn.getQueryResponseMessage();
+    queryResponseMsg.setMessageType(MessageType.RESPONSE);
+    queryResponseMsg.setTransactionId(msg.getTransactionId());
+    queryResponseMsg.sendHeader();
+
+    QueryResultStream stream = new QueryResultStream();
+    AcceptorImpl acceptor = servConn.getAcceptor();
+    Future<Void> sender;
+    try {
+      sender = acceptor.getQueryCursorPool().submit(() -> {
+        acceptor.setTLCommBuffer();
+        try {
+          sendStreamedResults(stream, (DefaultQuery) query, queryString, servConn,
+              securityService);
+        } catch (IOException e) {
+          // the client can't be reached, the failure is reported once the query has completed
+          stream.discard();
+          throw e;
+        } finally {
+          acceptor.releaseTLCommBuffer();
+        }
+        return null;
+      });
+    } catch (RejectedExecutionException e) {
+      throw new QueryException(
+          "The maximum number of queries executed with a cursor are already running on this server",
+          e);
+    }
+
+    QueryResultStream.setCurrent(stream);
+    try {
+      if (params != null) {
+        return query.execute(params);
+      } else {
+        return query.execute();
+      }
+    } finally {
+      QueryResultStream.setCurrent(null);
+      stream.finish();
+      try {
+        sender.get();
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+          throw (IOException) cause;
+        } else if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw (RuntimeException) cause;
+      }
+    }
+  }
+
+  /**
+   * Sends the results of the members as they are added to the stream, none of them in the last
+   * chunk. (package access for unit test purposes)
+   */
+  void sendStreamedResults(QueryResultStream stream, DefaultQuery query,
+      String queryString, ServerConnection servConn, SecurityService securityService)
+      throws IOException, InterruptedException {
+    SelectResults memberResults;
+    while ((memberResults = stream.take()) != null) {
+      int numberOfChunks = (int) Math.ceil(memberResults.size() * 1.0 / MAXIMUM_CHUNK_SIZE);
+      if (numberOfChunks == 0) {
+        continue;
+      }
+      CollectionType collectionType = getCollectionType(memberResults);
+      boolean isStructs = collectionType.getElementType().isStructType();
+      if (query.isKeepSerialized()) {
+        sendResultsAsObjectPartList(numberOfChunks, servConn, memberResults.asList(), isStructs,
+            collectionType, queryString, null, false, true, false, securityService);
+      } else {
+        sendResultsAsObjectArray(memberResults.toArray(), numberOfChunks, servConn, isStructs,
+            collectionType, queryString, null, false, true, false);
+      }
+    }
+  }
+
   private boolean sendCqResultsWithKey(ServerConnection servConn) {
     Version clientVersion = servConn.getClientVersion();
     if (clientVersion.compareTo(Version.GFE_65) >= 0) {
@@ -349,14 +449,13 @@ public abstract class BaseCommandQuery extends BaseCommand {
     }
   }
 
-  private void sendResultsAsObjectArray(SelectResults selectResults, int numberOfChunks,
+  private void sendResultsAsObjectArray(Object[] objs, int numberOfChunks,
       ServerConnection servConn, boolean isStructs, CollectionType collectionType,
-      String queryString, ServerCQ cqQuery, boolean sendCqResultsWithKey, boolean sendResults)
-      throws IOException {
+      String queryString, ServerCQ cqQuery, boolean sendCqResultsWithKey, boolean sendResults,
+      boolean lastResults) throws IOException {
     int resultIndex = 0;
     // For CQ only as we dont want CQEntries which have null values.
     int cqResultIndex = 0;
-    Object[] objs = selectResults.toArray();
     for (int j = 0; j < numberOfChunks; j++) {
       boolean incompleteArray = false;
       if (logger.isTraceEnabled()) {
@@ -425,8 +524,8 @@ public abstract class BaseCommandQuery extends BaseCommand {
       }
 
       if (sendResults) {
-        writeQueryResponseChunk(results, collectionType, (resultIndex == objs.length),
-            servConn);
+        writeQueryResponseChunk(results, collectionType,
+            lastResults && (resultIndex == objs.length), servConn);
 
         if (logger.isDebugEnabled()) {
           logger.debug("{}: Sent chunk ({} of {}) of query response for query: {}",
@@ -443,8 +542,8 @@ public abstract class BaseCommandQuery extends BaseCommand {
 
   private void sendResultsAsObjectPartList(int numberOfChunks, ServerConnection servConn, List objs,
       boolean isStructs, CollectionType collectionType, String queryString, ServerCQ cqQuery,
-      boolean sendCqResultsWithKey, boolean sendResults, final SecurityService securityService)
-      throws IOException {
+      boolean sendCqResultsWithKey, boolean sendResults, boolean lastResults,
+      final SecurityService securityService) throws IOException {
     int resultIndex = 0;
     Object result = null;
     for (int j = 0; j < numberOfChunks; j++) {
@@ -494,8 +593,8 @@ public abstract class BaseCommandQuery extends BaseCommand {
       }
 
       if (sendResults) {
-        writeQueryResponseChunk(serializedObjs, collectionType, ((j + 1) == numberOfChunks),
-            servConn);
+        writeQueryResponseChunk(serializedObjs, collectionType,
+            lastResults && ((j + 1) == numberOfChunks), servConn);
 
         if (logger.isDebugEnabled()) {
           logger.debug("{}: Sent chunk ({} of {}) of query response for query: {}",
@@ -291,6 +291,14 @@ public class ClientUpdateMessageImpl implements ClientUpdateMessage, Sizeable, N
     return this.versionTag;
   }
 
+  /**
+   * Returns whether this message carries a delta that is sent instead of the full value to the
+   * clients whose events are not conflated.
+   */
+  public boolean hasDelta() {
+    return this.deltaBytes != null;
+  }
+
   public boolean isCreate() {
     return this._operation == EnumListenerEvent.AFTER_CREATE;
   }
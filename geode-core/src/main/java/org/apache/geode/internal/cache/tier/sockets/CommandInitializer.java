@@ -329,7 +329,12 @@ public class CommandInitializer {
     ALL_COMMANDS.put(Version.GEODE_150, commands);
     ALL_COMMANDS.put(Version.GEODE_160, commands);
     ALL_COMMANDS.put(Version.GEODE_170, commands);
-    ALL_COMMANDS.put(Version.GEODE_180, commands);
+
+    Map<Integer, Command> geode18Commands = new HashMap<Integer, Command>();
+    geode18Commands.putAll(commands);
+    ALL_COMMANDS.put(Version.GEODE_180, geode18Commands);
+    // Query results can be streamed to a cursor
+    geode18Commands.put(MessageType.QUERY_WITH_CURSOR, QueryWithParametersGeode10.getCommand());
 
   }
 
@@ -88,6 +88,14 @@ public class Message {
 
   static final int DEFAULT_MAX_MESSAGE_SIZE = 1073741824;
 
+  /**
+   * Parts at least this large whose bytes are stored off-heap are written to a socket channel
+   * straight from off-heap memory, with a gathering write, instead of being copied into the comm
+   * buffer first.
+   */
+  static final int MIN_DIRECT_WRITE_SIZE =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "Message.MIN_DIRECT_WRITE_SIZE", 4096);
+
   private static final Logger logger = LogService.getLogger();
 
   private static final int PART_HEADER_SIZE = 5; // 4 bytes for length, 1 byte for isObject
@@ -604,7 +612,16 @@ public class Message {
           int partLen = part.getLength();
           commBuffer.putInt(partLen);
           commBuffer.put(part.getTypeCode());
-          if (partLen <= commBuffer.remaining()) {
+          ByteBuffer offHeapBuffer = null;
+          if (this.socketChannel != null && partLen >= MIN_DIRECT_WRITE_SIZE) {
+            offHeapBuffer = part.getOffHeapByteBuffer();
+          }
+          if (offHeapBuffer != null) {
+            flushBuffer(offHeapBuffer);
+            if (this.messageStats != null) {
+              this.messageStats.incSentBytes(partLen);
+            }
+          } else if (partLen <= commBuffer.remaining()) {
             part.writeTo(commBuffer);
           } else {
             flushBuffer();
@@ -649,6 +666,24 @@ public class Message {
     cb.clear();
   }
 
+  /**
+   * Writes the contents of the comm buffer followed by the given buffer to the socket channel
+   * with gathering writes so that the given buffer never has to be copied into the comm buffer.
+   */
+  private void flushBuffer(ByteBuffer buffer) throws IOException {
+    final ByteBuffer cb = getCommBuffer();
+    cb.flip();
+    int commBufferBytes = cb.remaining();
+    final ByteBuffer[] buffers = new ByteBuffer[] {cb, buffer};
+    do {
+      this.socketChannel.write(buffers);
+    } while (buffer.remaining() > 0);
+    if (this.messageStats != null) {
+      this.messageStats.incSentBytes(commBufferBytes);
+    }
+    cb.clear();
+  }
+
   private void readHeaderAndBody(int headerReadTimeoutMillis) throws IOException {
     clearParts();
     // TODO: for server changes make sure sc is not null as this class also used by client
@@ -283,6 +283,18 @@ public class Part {
     }
   }
 
+  /**
+   * Returns a direct ByteBuffer that views the bytes of this part in off-heap memory, or null if
+   * they are not stored off-heap or cannot be viewed without copying them. The buffer is only
+   * valid while the off-heap value stays retained.
+   */
+  ByteBuffer getOffHeapByteBuffer() {
+    if (getLength() > 0 && this.part instanceof StoredObject) {
+      return ((StoredObject) this.part).createDirectByteBuffer();
+    }
+    return null;
+  }
+
   /**
    * Write the contents of this part to the specified output stream. This is only called for parts
    * that will not fit into the commBuffer so they need to be written directly to the stream. A
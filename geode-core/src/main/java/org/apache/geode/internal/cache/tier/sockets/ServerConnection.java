@@ -35,7 +35,9 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import org.apache.commons.lang.mutable.MutableInt;
 import org.apache.logging.log4j.Logger;
@@ -198,6 +200,13 @@ public abstract class ServerConnection implements Runnable {
    */
   private int latestBatchIdReplied = -1;
 
+  /**
+   * The pool this gateway receiver connection applies the events of its batches in parallel with,
+   * created when the first batch is applied
+   */
+  private ThreadPoolExecutor gatewayApplyPool;
+  private final Object gatewayApplyPoolLock = new Object();
+
   /**
    * Client identity from handshake
    */
@@ -1471,6 +1480,15 @@ public abstract class ServerConnection implements Runnable {
     } catch (Exception ignored) {
     }
 
+    synchronized (this.gatewayApplyPoolLock) {
+      if (this.gatewayApplyPool != null) {
+        // the events still queued are cancelled so the connection thread stops waiting for them
+        for (Runnable task : this.gatewayApplyPool.shutdownNow()) {
+          ((Future<?>) task).cancel(false);
+        }
+      }
+    }
+
     try {
       if (this.postAuthzRequest != null) {
         this.postAuthzRequest.close();
@@ -1530,6 +1548,22 @@ public abstract class ServerConnection implements Runnable {
     return this.name;
   }
 
+  /**
+   * Returns the pool this gateway receiver connection applies the events of its batches in
+   * parallel with, creating it if needed.
+   */
+  public ThreadPoolExecutor getGatewayApplyPool() {
+    synchronized (this.gatewayApplyPoolLock) {
+      if (this.gatewayApplyPool == null) {
+        this.gatewayApplyPool = getAcceptor().createGatewayApplyPool(this.name);
+        if (isClosed()) {
+          this.gatewayApplyPool.shutdown();
+        }
+      }
+      return this.gatewayApplyPool;
+    }
+  }
+
   /**
    * returns the name of this connection
    */
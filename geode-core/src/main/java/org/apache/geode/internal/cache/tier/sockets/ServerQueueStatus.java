@@ -38,6 +38,8 @@ public class ServerQueueStatus {
   private DistributedMember memberId = null;
   /** size of the PDX registry on the server. Currently only set for gateways */
   private int pdxSize = 0;
+  /** whether the server accepts compressed batches. Currently only set for gateways */
+  private boolean compressedBatchesAccepted = false;
 
   /**
    * Constructor Called when connectionsPerServer is nto equal to 0
@@ -129,6 +131,14 @@ public class ServerQueueStatus {
     this.pdxSize = pdxSize;
   }
 
+  public boolean isCompressedBatchesAccepted() {
+    return compressedBatchesAccepted;
+  }
+
+  public void setCompressedBatchesAccepted(boolean compressedBatchesAccepted) {
+    this.compressedBatchesAccepted = compressedBatchesAccepted;
+  }
+
   /**
    * The member id of the server we connected to.
    *
@@ -194,6 +194,12 @@ public class ServerSideHandshakeImpl extends Handshake implements ServerSideHand
       dos.writeInt(pdxSize);
     }
 
+    // Tell a 1.8 or greater gateway sender that it can compress its batches
+    if (communicationMode.isWAN() && this.clientVersion.compareTo(Version.GEODE_180) >= 0
+        && currentServerVersion.compareTo(Version.GEODE_180) >= 0) {
+      dos.writeBoolean(true);
+    }
+
     // Flush
     dos.flush();
   }
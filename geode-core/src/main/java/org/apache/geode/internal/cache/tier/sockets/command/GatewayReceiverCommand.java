@@ -16,10 +16,19 @@ package org.apache.geode.internal.cache.tier.sockets.command;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.geode.CancelException;
 import org.apache.geode.cache.EntryNotFoundException;
+import org.apache.geode.cache.Region;
 import org.apache.geode.cache.RegionDestroyedException;
 import org.apache.geode.cache.operations.DestroyOperationContext;
 import org.apache.geode.cache.operations.PutOperationContext;
@@ -34,6 +43,8 @@ import org.apache.geode.internal.cache.EventID;
 import org.apache.geode.internal.cache.EventIDHolder;
 import org.apache.geode.internal.cache.InternalCache;
 import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.cache.PartitionedRegion;
+import org.apache.geode.internal.cache.PartitionedRegionHelper;
 import org.apache.geode.internal.cache.tier.CachedRegionHelper;
 import org.apache.geode.internal.cache.tier.Command;
 import org.apache.geode.internal.cache.tier.MessageType;
@@ -43,6 +54,7 @@ import org.apache.geode.internal.cache.tier.sockets.Part;
 import org.apache.geode.internal.cache.tier.sockets.ServerConnection;
 import org.apache.geode.internal.cache.versions.VersionTag;
 import org.apache.geode.internal.cache.wan.BatchException70;
+import org.apache.geode.internal.cache.wan.GatewaySenderBatchCodec;
 import org.apache.geode.internal.cache.wan.GatewayReceiverStats;
 import org.apache.geode.internal.i18n.LocalizedStrings;
 import org.apache.geode.internal.logging.log4j.LocalizedMessage;
@@ -80,14 +92,8 @@ public class GatewayReceiverCommand extends BaseCommand {
   @Override
   public void cmdExecute(final Message clientMessage, final ServerConnection serverConnection,
       final SecurityService securityService, long start) throws IOException, InterruptedException {
-    Part regionNamePart = null, keyPart = null, valuePart = null, callbackArgPart = null;
-    String regionName = null;
-    Object callbackArg = null, key = null;
     int partNumber = 0;
-    CachedRegionHelper crHelper = serverConnection.getCachedRegionHelper();
     GatewayReceiverStats stats = (GatewayReceiverStats) serverConnection.getCacheServerStats();
-    EventID eventId = null;
-    LocalRegion region = null;
     List<BatchException70> exceptions = new ArrayList<BatchException70>();
     Throwable fatalException = null;
     // requiresResponse = true;// let PROCESS_BATCH deal with this itself
@@ -96,7 +102,6 @@ public class GatewayReceiverCommand extends BaseCommand {
       start = DistributionStats.getStatTime();
       stats.incReadProcessBatchRequestTime(start - oldStart);
     }
-    Part callbackArgExistsPart;
 
     stats.incBatchSize(clientMessage.getPayloadLength());
 
@@ -163,581 +168,53 @@ public class GatewayReceiverCommand extends BaseCommand {
     partNumber = 2;
     int dsid = clientMessage.getPart(partNumber++).getInt();
 
-    boolean removeOnException =
-        clientMessage.getPart(partNumber++).getSerializedForm()[0] == 1 ? true : false;
-
-    // event received in batch also have PDX events at the start of the batch,to
-    // represent correct index on which the exception occurred, number of PDX
-    // events need to be subtracted.
-    int indexWithoutPDXEvent = -1; //
-    for (int i = 0; i < numberOfEvents; i++) {
-      boolean retry = true;
-      boolean isPdxEvent = false;
-      indexWithoutPDXEvent++;
-      // System.out.println("Processing event " + i + " in batch " + batchId + "
-      // starting with part number " + partNumber);
-      Part actionTypePart = clientMessage.getPart(partNumber);
-      int actionType = actionTypePart.getInt();
-
-      long versionTimeStamp = VersionTag.ILLEGAL_VERSION_TIMESTAMP;
-      EventIDHolder clientEvent = null;
-
-      boolean callbackArgExists = false;
+    byte flags = clientMessage.getPart(partNumber++).getSerializedForm()[0];
+    boolean removeOnException = (flags & 0x01) == 1;
 
+    // The parts of the events, which are the following parts of the message unless the sender
+    // compressed them into a single part
+    Message eventsMessage = clientMessage;
+    if ((flags & GatewaySenderBatchCodec.COMPRESSED) != 0) {
       try {
-        do {
-          if (isPdxEvent) {
-            // This is a retried event. Reset the PDX event index.
-            indexWithoutPDXEvent++;
-          }
-          isPdxEvent = false;
-          Part possibleDuplicatePart = clientMessage.getPart(partNumber + 1);
-          byte[] possibleDuplicatePartBytes;
-          try {
-            possibleDuplicatePartBytes = (byte[]) possibleDuplicatePart.getObject();
-          } catch (Exception e) {
-            logger.warn(LocalizedMessage.create(
-                LocalizedStrings.ProcessBatch_0_CAUGHT_EXCEPTION_PROCESSING_BATCH_REQUEST_1_CONTAINING_2_EVENTS,
-                new Object[] {serverConnection.getName(), Integer.valueOf(batchId),
-                    Integer.valueOf(numberOfEvents)}),
-                e);
-            handleException(removeOnException, stats, e);
-            break;
-          }
-          boolean possibleDuplicate = possibleDuplicatePartBytes[0] == 0x01;
-
-          // Make sure instance variables are null before each iteration
-          regionName = null;
-          key = null;
-          callbackArg = null;
-
-          // Retrieve the region name from the message parts
-          regionNamePart = clientMessage.getPart(partNumber + 2);
-          regionName = regionNamePart.getString();
-          if (regionName.equals(PeerTypeRegistration.REGION_FULL_PATH)) {
-            indexWithoutPDXEvent--;
-            isPdxEvent = true;
-          }
-
-          // Retrieve the event id from the message parts
-          // This was going to be used to determine possible
-          // duplication of events, but it is unused now. In
-          // fact the event id is overridden by the FROM_GATEWAY
-          // token.
-          Part eventIdPart = clientMessage.getPart(partNumber + 3);
-          eventIdPart.setVersion(serverConnection.getClientVersion());
-          // String eventId = eventIdPart.getString();
-          try {
-            eventId = (EventID) eventIdPart.getObject();
-          } catch (Exception e) {
-            logger.warn(LocalizedMessage.create(
-                LocalizedStrings.ProcessBatch_0_CAUGHT_EXCEPTION_PROCESSING_BATCH_REQUEST_1_CONTAINING_2_EVENTS,
-                new Object[] {serverConnection.getName(), Integer.valueOf(batchId),
-                    Integer.valueOf(numberOfEvents)}),
-                e);
-            handleException(removeOnException, stats, e);
-            break;
-          }
-
-          // Retrieve the key from the message parts
-          keyPart = clientMessage.getPart(partNumber + 4);
-          try {
-            key = keyPart.getStringOrObject();
-          } catch (Exception e) {
-            logger.warn(LocalizedMessage.create(
-                LocalizedStrings.ProcessBatch_0_CAUGHT_EXCEPTION_PROCESSING_BATCH_REQUEST_1_CONTAINING_2_EVENTS,
-                new Object[] {serverConnection.getName(), Integer.valueOf(batchId),
-                    Integer.valueOf(numberOfEvents)}),
-                e);
-            handleException(removeOnException, stats, e);
-            break;
-          }
-          int index = -1;
-          switch (actionType) {
-            case 0: // Create
-              try {
-
-                /*
-                 * CLIENT EXCEPTION HANDLING TESTING CODE String keySt = (String) key;
-                 * System.out.println("Processing new key: " + key); if
-                 * (keySt.startsWith("failure")) { throw new Exception(LocalizedStrings
-                 * .ProcessBatch_THIS_EXCEPTION_REPRESENTS_A_FAILURE_ON_THE_SERVER
-                 * .toLocalizedString()); }
-                 */
-
-                // Retrieve the value from the message parts (do not deserialize it)
-                valuePart = clientMessage.getPart(partNumber + 5);
-                // try {
-                // logger.warn(getName() + ": Creating key " + key + " value " +
-                // valuePart.getObject());
-                // } catch (Exception e) {}
-
-                // Retrieve the callbackArg from the message parts if necessary
-                index = partNumber + 6;
-                callbackArgExistsPart = clientMessage.getPart(index++);
-                {
-                  byte[] partBytes = (byte[]) callbackArgExistsPart.getObject();
-                  callbackArgExists = partBytes[0] == 0x01;
-                }
-                if (callbackArgExists) {
-                  callbackArgPart = clientMessage.getPart(index++);
-                  try {
-                    callbackArg = callbackArgPart.getObject();
-                  } catch (Exception e) {
-                    logger
-                        .warn(
-                            LocalizedMessage
-                                .create(
-                                    LocalizedStrings.ProcessBatch_0_CAUGHT_EXCEPTION_PROCESSING_BATCH_CREATE_REQUEST_1_FOR_2_EVENTS,
-                                    new Object[] {serverConnection.getName(),
-                                        Integer.valueOf(batchId), Integer.valueOf(numberOfEvents)}),
-                            e);
-                    throw e;
-                  }
-                }
-                if (logger.isDebugEnabled()) {
-                  logger.debug(
-                      "{}: Processing batch create request {} on {} for region {} key {} value {} callbackArg {}, eventId={}",
-                      serverConnection.getName(), batchId, serverConnection.getSocketString(),
-                      regionName, key, valuePart, callbackArg, eventId);
-                }
-                versionTimeStamp = clientMessage.getPart(index++).getLong();
-                // Process the create request
-                if (key == null || regionName == null) {
-                  StringId message = null;
-                  Object[] messageArgs =
-                      new Object[] {serverConnection.getName(), Integer.valueOf(batchId)};
-                  if (key == null) {
-                    message =
-                        LocalizedStrings.ProcessBatch_0_THE_INPUT_REGION_NAME_FOR_THE_BATCH_CREATE_REQUEST_1_IS_NULL;
-                  }
-                  if (regionName == null) {
-                    message =
-                        LocalizedStrings.ProcessBatch_0_THE_INPUT_REGION_NAME_FOR_THE_BATCH_CREATE_REQUEST_1_IS_NULL;
-                  }
-                  String s = message.toLocalizedString(messageArgs);
-                  logger.warn(s);
-                  throw new Exception(s);
-                }
-                region = (LocalRegion) crHelper.getRegion(regionName);
-                if (region == null) {
-                  handleRegionNull(serverConnection, regionName, batchId);
-                } else {
-                  clientEvent = new EventIDHolder(eventId);
-                  if (versionTimeStamp > 0) {
-                    VersionTag tag = VersionTag.create(region.getVersionMember());
-                    tag.setIsGatewayTag(true);
-                    tag.setVersionTimeStamp(versionTimeStamp);
-                    tag.setDistributedSystemId(dsid);
-                    clientEvent.setVersionTag(tag);
-                  }
-                  clientEvent.setPossibleDuplicate(possibleDuplicate);
-                  handleMessageRetry(region, clientEvent);
-                  byte[] value = valuePart.getSerializedForm();
-                  boolean isObject = valuePart.isObject();
-                  // [sumedh] This should be done on client while sending
-                  // since that is the WAN gateway
-                  AuthorizeRequest authzRequest = serverConnection.getAuthzRequest();
-                  if (authzRequest != null) {
-                    PutOperationContext putContext =
-                        authzRequest.putAuthorize(regionName, key, value, isObject, callbackArg);
-                    value = putContext.getSerializedValue();
-                    isObject = putContext.isObject();
-                  }
-                  // Attempt to create the entry
-                  boolean result = false;
-                  if (isPdxEvent) {
-                    result = addPdxType(crHelper, key, value);
-                  } else {
-                    result = region.basicBridgeCreate(key, value, isObject, callbackArg,
-                        serverConnection.getProxyID(), false, clientEvent, false);
-                    // If the create fails (presumably because it already exists),
-                    // attempt to update the entry
-                    if (!result) {
-                      result = region.basicBridgePut(key, value, null, isObject, callbackArg,
-                          serverConnection.getProxyID(), false, clientEvent);
-                    }
-                  }
-
-                  if (result || clientEvent.isConcurrencyConflict()) {
-                    serverConnection.setModificationInfo(true, regionName, key);
-                    stats.incCreateRequest();
-                    retry = false;
-                  } else {
-                    // This exception will be logged in the catch block below
-                    throw new Exception(
-                        LocalizedStrings.ProcessBatch_0_FAILED_TO_CREATE_OR_UPDATE_ENTRY_FOR_REGION_1_KEY_2_VALUE_3_CALLBACKARG_4
-                            .toLocalizedString(new Object[] {serverConnection.getName(), regionName,
-                                key, valuePart, callbackArg}));
-                  }
-                }
-              } catch (Exception e) {
-                logger.warn(LocalizedMessage.create(
-                    LocalizedStrings.ProcessBatch_0_CAUGHT_EXCEPTION_PROCESSING_BATCH_CREATE_REQUEST_1_FOR_2_EVENTS,
-                    new Object[] {serverConnection.getName(), Integer.valueOf(batchId),
-                        Integer.valueOf(numberOfEvents)}),
-                    e);
-                handleException(removeOnException, stats, e);
-              }
-              break;
-            case 1: // Update
-              try {
-                /*
-                 * CLIENT EXCEPTION HANDLING TESTING CODE keySt = (String) key;
-                 * System.out.println("Processing updated key: " + key); if
-                 * (keySt.startsWith("failure")) { throw new Exception(LocalizedStrings
-                 * .ProcessBatch_THIS_EXCEPTION_REPRESENTS_A_FAILURE_ON_THE_SERVER
-                 * .toLocalizedString()); }
-                 */
-
-                // Retrieve the value from the message parts (do not deserialize it)
-                valuePart = clientMessage.getPart(partNumber + 5);
-                // try {
-                // logger.warn(getName() + ": Updating key " + key + " value " +
-                // valuePart.getObject());
-                // } catch (Exception e) {}
-
-                // Retrieve the callbackArg from the message parts if necessary
-                index = partNumber + 6;
-                callbackArgExistsPart = clientMessage.getPart(index++);
-                {
-                  byte[] partBytes = (byte[]) callbackArgExistsPart.getObject();
-                  callbackArgExists = partBytes[0] == 0x01;
-                }
-                if (callbackArgExists) {
-                  callbackArgPart = clientMessage.getPart(index++);
-                  try {
-                    callbackArg = callbackArgPart.getObject();
-                  } catch (Exception e) {
-                    logger
-                        .warn(
-                            LocalizedMessage
-                                .create(
-                                    LocalizedStrings.ProcessBatch_0_CAUGHT_EXCEPTION_PROCESSING_BATCH_UPDATE_REQUEST_1_CONTAINING_2_EVENTS,
-                                    new Object[] {serverConnection.getName(),
-                                        Integer.valueOf(batchId), Integer.valueOf(numberOfEvents)}),
-                            e);
-                    throw e;
-                  }
-                }
-                versionTimeStamp = clientMessage.getPart(index++).getLong();
-                if (logger.isDebugEnabled()) {
-                  logger.debug(
-                      "{}: Processing batch update request {} on {} for region {} key {} value {} callbackArg {}",
-                      serverConnection.getName(), batchId, serverConnection.getSocketString(),
-                      regionName, key, valuePart, callbackArg);
-                }
-                // Process the update request
-                if (key == null || regionName == null) {
-                  StringId message = null;
-                  Object[] messageArgs =
-                      new Object[] {serverConnection.getName(), Integer.valueOf(batchId)};
-                  if (key == null) {
-                    message =
-                        LocalizedStrings.ProcessBatch_0_THE_INPUT_KEY_FOR_THE_BATCH_UPDATE_REQUEST_1_IS_NULL;
-                  }
-                  if (regionName == null) {
-                    message =
-                        LocalizedStrings.ProcessBatch_0_THE_INPUT_REGION_NAME_FOR_THE_BATCH_UPDATE_REQUEST_1_IS_NULL;
-                  }
-                  String s = message.toLocalizedString(messageArgs);
-                  logger.warn(s);
-                  throw new Exception(s);
-                }
-                region = (LocalRegion) crHelper.getRegion(regionName);
-                if (region == null) {
-                  handleRegionNull(serverConnection, regionName, batchId);
-                } else {
-                  clientEvent = new EventIDHolder(eventId);
-                  if (versionTimeStamp > 0) {
-                    VersionTag tag = VersionTag.create(region.getVersionMember());
-                    tag.setIsGatewayTag(true);
-                    tag.setVersionTimeStamp(versionTimeStamp);
-                    tag.setDistributedSystemId(dsid);
-                    clientEvent.setVersionTag(tag);
-                  }
-                  clientEvent.setPossibleDuplicate(possibleDuplicate);
-                  handleMessageRetry(region, clientEvent);
-                  byte[] value = valuePart.getSerializedForm();
-                  boolean isObject = valuePart.isObject();
-                  AuthorizeRequest authzRequest = serverConnection.getAuthzRequest();
-                  if (authzRequest != null) {
-                    PutOperationContext putContext = authzRequest.putAuthorize(regionName, key,
-                        value, isObject, callbackArg, PutOperationContext.UPDATE);
-                    value = putContext.getSerializedValue();
-                    isObject = putContext.isObject();
-                  }
-                  boolean result = false;
-                  if (isPdxEvent) {
-                    result = addPdxType(crHelper, key, value);
-                  } else {
-                    result = region.basicBridgePut(key, value, null, isObject, callbackArg,
-                        serverConnection.getProxyID(), false, clientEvent);
-                  }
-                  if (result || clientEvent.isConcurrencyConflict()) {
-                    serverConnection.setModificationInfo(true, regionName, key);
-                    stats.incUpdateRequest();
-                    retry = false;
-                  } else {
-                    final Object[] msgArgs = new Object[] {serverConnection.getName(), regionName,
-                        key, valuePart, callbackArg};
-                    final StringId message =
-                        LocalizedStrings.ProcessBatch_0_FAILED_TO_UPDATE_ENTRY_FOR_REGION_1_KEY_2_VALUE_3_AND_CALLBACKARG_4;
-                    String s = message.toLocalizedString(msgArgs);
-                    logger.info(s);
-                    throw new Exception(s);
-                  }
-                }
-              } catch (Exception e) {
-                // Preserve the connection under all circumstances
-                logger.warn(LocalizedMessage.create(
-                    LocalizedStrings.ProcessBatch_0_CAUGHT_EXCEPTION_PROCESSING_BATCH_UPDATE_REQUEST_1_CONTAINING_2_EVENTS,
-                    new Object[] {serverConnection.getName(), Integer.valueOf(batchId),
-                        Integer.valueOf(numberOfEvents)}),
-                    e);
-                handleException(removeOnException, stats, e);
-              }
-              break;
-            case 2: // Destroy
-              try {
-                // Retrieve the callbackArg from the message parts if necessary
-                index = partNumber + 5;
-                callbackArgExistsPart = clientMessage.getPart(index++);
-                {
-                  byte[] partBytes = (byte[]) callbackArgExistsPart.getObject();
-                  callbackArgExists = partBytes[0] == 0x01;
-                }
-                if (callbackArgExists) {
-                  callbackArgPart = clientMessage.getPart(index++);
-                  try {
-                    callbackArg = callbackArgPart.getObject();
-                  } catch (Exception e) {
-                    logger
-                        .warn(
-                            LocalizedMessage
-                                .create(
-                                    LocalizedStrings.ProcessBatch_0_CAUGHT_EXCEPTION_PROCESSING_BATCH_DESTROY_REQUEST_1_CONTAINING_2_EVENTS,
-                                    new Object[] {serverConnection.getName(),
-                                        Integer.valueOf(batchId), Integer.valueOf(numberOfEvents)}),
-                            e);
-                    throw e;
-                  }
-                }
-
-                versionTimeStamp = clientMessage.getPart(index++).getLong();
-                if (logger.isDebugEnabled()) {
-                  logger.debug("{}: Processing batch destroy request {} on {} for region {} key {}",
-                      serverConnection.getName(), batchId, serverConnection.getSocketString(),
-                      regionName, key);
-                }
-
-                // Process the destroy request
-                if (key == null || regionName == null) {
-                  StringId message = null;
-                  if (key == null) {
-                    message =
-                        LocalizedStrings.ProcessBatch_0_THE_INPUT_KEY_FOR_THE_BATCH_DESTROY_REQUEST_1_IS_NULL;
-                  }
-                  if (regionName == null) {
-                    message =
-                        LocalizedStrings.ProcessBatch_0_THE_INPUT_REGION_NAME_FOR_THE_BATCH_DESTROY_REQUEST_1_IS_NULL;
-                  }
-                  Object[] messageArgs =
-                      new Object[] {serverConnection.getName(), Integer.valueOf(batchId)};
-                  String s = message.toLocalizedString(messageArgs);
-                  logger.warn(s);
-                  throw new Exception(s);
-                }
-                region = (LocalRegion) crHelper.getRegion(regionName);
-                if (region == null) {
-                  handleRegionNull(serverConnection, regionName, batchId);
-                } else {
-                  clientEvent = new EventIDHolder(eventId);
-                  if (versionTimeStamp > 0) {
-                    VersionTag tag = VersionTag.create(region.getVersionMember());
-                    tag.setIsGatewayTag(true);
-                    tag.setVersionTimeStamp(versionTimeStamp);
-                    tag.setDistributedSystemId(dsid);
-                    clientEvent.setVersionTag(tag);
-                  }
-                  handleMessageRetry(region, clientEvent);
-                  // Destroy the entry
-                  AuthorizeRequest authzRequest = serverConnection.getAuthzRequest();
-                  if (authzRequest != null) {
-                    DestroyOperationContext destroyContext =
-                        authzRequest.destroyAuthorize(regionName, key, callbackArg);
-                    callbackArg = destroyContext.getCallbackArg();
-                  }
-                  try {
-                    region.basicBridgeDestroy(key, callbackArg, serverConnection.getProxyID(),
-                        false, clientEvent);
-                    serverConnection.setModificationInfo(true, regionName, key);
-                  } catch (EntryNotFoundException e) {
-                    logger.info(LocalizedMessage.create(
-                        LocalizedStrings.ProcessBatch_0_DURING_BATCH_DESTROY_NO_ENTRY_WAS_FOUND_FOR_KEY_1,
-                        new Object[] {serverConnection.getName(), key}));
-                    // throw new Exception(e);
-                  }
-                  stats.incDestroyRequest();
-                  retry = false;
-                }
-              } catch (Exception e) {
-                logger.warn(LocalizedMessage.create(
-                    LocalizedStrings.ProcessBatch_0_CAUGHT_EXCEPTION_PROCESSING_BATCH_DESTROY_REQUEST_1_CONTAINING_2_EVENTS,
-                    new Object[] {serverConnection.getName(), Integer.valueOf(batchId),
-                        Integer.valueOf(numberOfEvents)}),
-                    e);
-                handleException(removeOnException, stats, e);
-              }
-              break;
-            case 3: // Update Time-stamp for a RegionEntry
-
-              try {
-                // Region name
-                regionNamePart = clientMessage.getPart(partNumber + 2);
-                regionName = regionNamePart.getString();
-
-                // Retrieve the event id from the message parts
-                eventIdPart = clientMessage.getPart(partNumber + 3);
-                eventId = (EventID) eventIdPart.getObject();
-
-                // Retrieve the key from the message parts
-                keyPart = clientMessage.getPart(partNumber + 4);
-                key = keyPart.getStringOrObject();
-
-                // Retrieve the callbackArg from the message parts if necessary
-                index = partNumber + 5;
-                callbackArgExistsPart = clientMessage.getPart(index++);
-
-                byte[] partBytes = (byte[]) callbackArgExistsPart.getObject();
-                callbackArgExists = partBytes[0] == 0x01;
-
-                if (callbackArgExists) {
-                  callbackArgPart = clientMessage.getPart(index++);
-                  callbackArg = callbackArgPart.getObject();
-                }
-
-                versionTimeStamp = clientMessage.getPart(index++).getLong();
-                if (logger.isDebugEnabled()) {
-                  logger.debug(
-                      "{}: Processing batch update-version request {} on {} for region {} key {} value {} callbackArg {}",
-                      serverConnection.getName(), batchId, serverConnection.getSocketString(),
-                      regionName, key, valuePart, callbackArg);
-                }
-                // Process the update time-stamp request
-                if (key == null || regionName == null) {
-                  StringId message =
-                      LocalizedStrings.ProcessBatch_0_CAUGHT_EXCEPTION_PROCESSING_BATCH_UPDATE_VERSION_REQUEST_1_CONTAINING_2_EVENTS;
-
-                  Object[] messageArgs = new Object[] {serverConnection.getName(),
-                      Integer.valueOf(batchId), Integer.valueOf(numberOfEvents)};
-                  String s = message.toLocalizedString(messageArgs);
-                  logger.warn(s);
-                  throw new Exception(s);
-
-                } else {
-                  region = (LocalRegion) crHelper.getRegion(regionName);
-
-                  if (region == null) {
-                    handleRegionNull(serverConnection, regionName, batchId);
-                  } else {
-
-                    clientEvent = new EventIDHolder(eventId);
-
-                    if (versionTimeStamp > 0) {
-                      VersionTag tag = VersionTag.create(region.getVersionMember());
-                      tag.setIsGatewayTag(true);
-                      tag.setVersionTimeStamp(versionTimeStamp);
-                      tag.setDistributedSystemId(dsid);
-                      clientEvent.setVersionTag(tag);
-                    }
-
-                    // Update the version tag
-                    try {
-                      region.basicBridgeUpdateVersionStamp(key, callbackArg,
-                          serverConnection.getProxyID(), false, clientEvent);
-                    } catch (EntryNotFoundException e) {
-                      logger.info(LocalizedMessage.create(
-                          LocalizedStrings.ProcessBatch_0_DURING_BATCH_UPDATE_VERSION_NO_ENTRY_WAS_FOUND_FOR_KEY_1,
-                          new Object[] {serverConnection.getName(), key}));
-                    }
-                    retry = false;
-                  }
-                }
-              } catch (Exception e) {
-                logger.warn(LocalizedMessage.create(
-                    LocalizedStrings.ProcessBatch_0_CAUGHT_EXCEPTION_PROCESSING_BATCH_UPDATE_VERSION_REQUEST_1_CONTAINING_2_EVENTS,
-                    new Object[] {serverConnection.getName(), Integer.valueOf(batchId),
-                        Integer.valueOf(numberOfEvents)}),
-                    e);
-                handleException(removeOnException, stats, e);
-              }
-
-              break;
-            default:
-              logger.fatal(LocalizedMessage.create(
-                  LocalizedStrings.Processbatch_0_UNKNOWN_ACTION_TYPE_1_FOR_BATCH_FROM_2,
-                  new Object[] {serverConnection.getName(), Integer.valueOf(actionType),
-                      serverConnection.getSocketString()}));
-              stats.incUnknowsOperationsReceived();
-          }
-        } while (retry);
-      } catch (CancelException e) {
-        if (logger.isDebugEnabled()) {
-          logger.debug(
-              "{} ignoring message of type {} from client {} because shutdown occurred during message processing.",
-              serverConnection.getName(), MessageType.getString(clientMessage.getMessageType()),
-              serverConnection.getProxyID());
-        }
-        serverConnection.setFlagProcessMessagesAsFalse();
-        serverConnection.setClientDisconnectedException(e);
-        return;
+        eventsMessage = GatewaySenderBatchCodec.decode(
+            clientMessage.getPart(partNumber).getSerializedForm(), numberOfEvents,
+            serverConnection.getClientVersion());
+        partNumber = 0;
       } catch (Exception e) {
-        // If an interrupted exception is thrown , rethrow it
-        checkForInterrupt(serverConnection, e);
-
-        // If we have an issue with the PDX registry, stop processing more data
-        if (e.getCause() instanceof PdxRegistryMismatchException) {
-          fatalException = e.getCause();
-          logger.fatal(LocalizedMessage.create(LocalizedStrings.GatewayReceiver_PDX_CONFIGURATION,
-              new Object[] {serverConnection.getMembershipID()}), e.getCause());
-          break;
-        }
+        logger.warn(LocalizedMessage.create(
+            LocalizedStrings.ProcessBatch_0_CAUGHT_EXCEPTION_PROCESSING_BATCH_REQUEST_1_CONTAINING_2_EVENTS,
+            new Object[] {serverConnection.getName(), Integer.valueOf(batchId),
+                Integer.valueOf(numberOfEvents)}),
+            e);
+        serverConnection.incrementLatestBatchIdReplied(batchId);
+        writeFatalException(clientMessage, e, serverConnection, batchId);
+        serverConnection.setAsTrue(RESPONDED);
+        return;
+      }
+    }
 
-        // Increment the batch id unless the received batch id is -1 (a
-        // failover batch)
-        DistributedSystem ds = crHelper.getCache().getDistributedSystem();
-        String exceptionMessage = LocalizedStrings.GatewayReceiver_EXCEPTION_WHILE_PROCESSING_BATCH
-            .toLocalizedString(new Object[] {
-                ((InternalDistributedSystem) ds).getDistributionManager().getDistributedSystemId(),
-                ds.getDistributedMember()});
-        BatchException70 be =
-            new BatchException70(exceptionMessage, e, indexWithoutPDXEvent, batchId);
-        exceptions.add(be);
-      } finally {
-        // Increment the partNumber
-        if (actionType == 0 /* create */ || actionType == 1 /* update */) {
-          if (callbackArgExists) {
-            partNumber += 9;
-          } else {
-            partNumber += 8;
-          }
-        } else if (actionType == 2 /* destroy */) {
-          if (callbackArgExists) {
-            partNumber += 8;
-          } else {
-            partNumber += 7;
-          }
-        } else if (actionType == 3 /* update-version */) {
-          if (callbackArgExists) {
-            partNumber += 8;
-          } else {
-            partNumber += 7;
-          }
-        }
+    try {
+      fatalException = applyEvents(eventsMessage, partNumber, numberOfEvents, batchId, dsid,
+          removeOnException, serverConnection, stats, exceptions);
+    } catch (CancelException e) {
+      if (logger.isDebugEnabled()) {
+        logger.debug(
+            "{} ignoring message of type {} from client {} because shutdown occurred during message processing.",
+            serverConnection.getName(), MessageType.getString(clientMessage.getMessageType()),
+            serverConnection.getProxyID());
       }
+      serverConnection.setFlagProcessMessagesAsFalse();
+      serverConnection.setClientDisconnectedException(e);
+      return;
     }
 
+    writeBatchResponse(clientMessage, serverConnection, stats, batchId, numberOfEvents,
+        fatalException, exceptions, start);
+  }
+
+  private void writeBatchResponse(Message clientMessage, ServerConnection serverConnection,
+      GatewayReceiverStats stats, int batchId, int numberOfEvents, Throwable fatalException,
+      List<BatchException70> exceptions, long start) throws IOException {
     {
       long oldStart = start;
       start = DistributionStats.getStatTime();
@@ -768,6 +245,450 @@ public class GatewayReceiverCommand extends BaseCommand {
     }
   }
 
+  /**
+   * Applies the events of a batch. The server connection thread applies them one by one unless the
+   * acceptor applies the events of gateway batches in parallel and the connection has no
+   * authorization callback, which is per connection and not known to be thread safe. In that case
+   * the events are grouped by the bucket of their key, or by their key for the other regions, and
+   * the pool of the connection applies the groups in parallel, each in the order of the batch, so
+   * the events of a key are applied in order. The PDX types, which the other events may depend on,
+   * are always added by the server connection thread as they are read. Either way the batch is
+   * fully applied before it is acknowledged and the next batch of the connection is read.
+   *
+   * @return the exception that stopped the batch from being applied, if any
+   */
+  private Throwable applyEvents(Message eventsMessage, int partNumber, int numberOfEvents,
+      int batchId, int dsid, boolean removeOnException, ServerConnection serverConnection,
+      GatewayReceiverStats stats, List<BatchException70> exceptions)
+      throws InterruptedException, IOException {
+    CachedRegionHelper crHelper = serverConnection.getCachedRegionHelper();
+    ThreadPoolExecutor pool = null;
+    if (serverConnection.getAcceptor().isGatewayApplyInParallel()
+        && serverConnection.getAuthzRequest() == null) {
+      pool = serverConnection.getGatewayApplyPool();
+    }
+    List<ReceivedEvent>[] groups = pool == null ? null : new List[pool.getMaximumPoolSize()];
+    List<BatchException70> failures = Collections.synchronizedList(new ArrayList<>());
+    AtomicReference<Throwable> fatalException = new AtomicReference<>();
+
+    // event received in batch also have PDX events at the start of the batch,to
+    // represent correct index on which the exception occurred, number of PDX
+    // events need to be subtracted.
+    int indexWithoutPDXEvent = -1;
+    for (int i = 0; i < numberOfEvents; i++) {
+      indexWithoutPDXEvent++;
+      int actionType = eventsMessage.getPart(partNumber).getInt();
+      if (actionType < 0 || actionType > 3) {
+        logger.fatal(LocalizedMessage.create(
+            LocalizedStrings.Processbatch_0_UNKNOWN_ACTION_TYPE_1_FOR_BATCH_FROM_2,
+            new Object[] {serverConnection.getName(), Integer.valueOf(actionType),
+                serverConnection.getSocketString()}));
+        stats.incUnknowsOperationsReceived();
+        partNumber += 2;
+        continue;
+      }
+      ReceivedEvent event = new ReceivedEvent(eventsMessage, partNumber, actionType);
+      partNumber = event.nextPartNumber;
+      if (!event.read(serverConnection)) {
+        logger.warn(LocalizedMessage.create(
+            LocalizedStrings.ProcessBatch_0_CAUGHT_EXCEPTION_PROCESSING_BATCH_REQUEST_1_CONTAINING_2_EVENTS,
+            new Object[] {serverConnection.getName(), Integer.valueOf(batchId),
+                Integer.valueOf(numberOfEvents)}),
+            event.readException);
+        try {
+          // reading the event again would fail the same way, so it is skipped unless the sender
+          // wants its failed events reported
+          handleException(removeOnException, stats, event.readException);
+        } catch (Exception e) {
+          checkForInterrupt(serverConnection, e);
+          failures.add(createBatchException(crHelper, e, indexWithoutPDXEvent, batchId));
+        }
+        continue;
+      }
+      if (PeerTypeRegistration.REGION_FULL_PATH.equals(event.regionName)) {
+        indexWithoutPDXEvent--;
+        event.isPdxEvent = true;
+      }
+      event.index = indexWithoutPDXEvent;
+      serverConnection.setModificationInfo(true, event.regionName, event.key);
+      if (groups == null || event.isPdxEvent) {
+        applyEventWithRetries(event, crHelper, dsid, removeOnException, serverConnection, stats,
+            batchId, numberOfEvents, failures, fatalException);
+        if (fatalException.get() != null) {
+          return fatalException.get();
+        }
+        continue;
+      }
+      int group = Math.floorMod(getGroupKey(crHelper, event), groups.length);
+      if (groups[group] == null) {
+        groups[group] = new ArrayList<>();
+      }
+      groups[group].add(event);
+    }
+
+    if (groups != null) {
+      applyGroups(groups, pool, crHelper, dsid, removeOnException, serverConnection, stats,
+          batchId, numberOfEvents, failures, fatalException);
+    }
+
+    // report the failures in the order of the batch, as when the events are applied one by one
+    failures.sort(Comparator.comparingInt(BatchException70::getIndex));
+    exceptions.addAll(failures);
+    return fatalException.get();
+  }
+
+  /**
+   * Applies the given groups of events in parallel with the given pool and waits for all of them
+   * to be applied. A group stops being applied once another group has failed fatally.
+   */
+  private void applyGroups(List<ReceivedEvent>[] groups, ThreadPoolExecutor pool,
+      CachedRegionHelper crHelper, int dsid, boolean removeOnException,
+      ServerConnection serverConnection, GatewayReceiverStats stats, int batchId,
+      int numberOfEvents, List<BatchException70> failures,
+      AtomicReference<Throwable> fatalException) throws InterruptedException {
+    List<Future<Void>> futures = new ArrayList<>(groups.length);
+    try {
+      for (List<ReceivedEvent> group : groups) {
+        if (group == null) {
+          continue;
+        }
+        futures.add(pool.submit(() -> {
+          for (ReceivedEvent event : group) {
+            if (fatalException.get() != null) {
+              break;
+            }
+            applyEventWithRetries(event, crHelper, dsid, removeOnException, serverConnection,
+                stats, batchId, numberOfEvents, failures, fatalException);
+          }
+          return null;
+        }));
+      }
+    } catch (RejectedExecutionException e) {
+      // the connection was closed, which shut its pool down
+      fatalException.compareAndSet(null, e);
+    }
+    stats.incParallelApplyGroups(futures.size());
+    // wait for every group, even after a failure, so that none is still being applied once the
+    // batch is acknowledged
+    for (Future<Void> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        for (Future<Void> f : futures) {
+          f.cancel(true);
+        }
+        throw e;
+      } catch (CancellationException e) {
+        // the connection was closed before the group was applied
+        fatalException.compareAndSet(null, e);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof CancelException) {
+          throw (CancelException) cause;
+        }
+        if (cause instanceof InterruptedException) {
+          throw (InterruptedException) cause;
+        }
+        fatalException.compareAndSet(null, cause);
+      }
+    }
+  }
+
+  /**
+   * Applies an event of a batch, retrying it until it is applied unless the sender wants its
+   * failed events reported. A failure is added to the given list, unless it is a PDX registry
+   * mismatch that prevents the rest of the batch from being applied.
+   */
+  private void applyEventWithRetries(ReceivedEvent event, CachedRegionHelper crHelper, int dsid,
+      boolean removeOnException, ServerConnection serverConnection, GatewayReceiverStats stats,
+      int batchId, int numberOfEvents, List<BatchException70> failures,
+      AtomicReference<Throwable> fatalException) throws InterruptedException, IOException {
+    try {
+      while (true) {
+        try {
+          applyEvent(event, crHelper, dsid, serverConnection, stats, batchId, numberOfEvents);
+          return;
+        } catch (CancelException e) {
+          throw e;
+        } catch (Exception e) {
+          logger.warn(LocalizedMessage.create(getApplyFailedMessage(event.actionType),
+              new Object[] {serverConnection.getName(), Integer.valueOf(batchId),
+                  Integer.valueOf(numberOfEvents)}),
+              e);
+          handleException(removeOnException, stats, e);
+        }
+      }
+    } catch (CancelException e) {
+      throw e;
+    } catch (Exception e) {
+      // If an interrupted exception is thrown , rethrow it
+      checkForInterrupt(serverConnection, e);
+
+      // If we have an issue with the PDX registry, stop processing more data
+      if (e.getCause() instanceof PdxRegistryMismatchException) {
+        logger.fatal(LocalizedMessage.create(LocalizedStrings.GatewayReceiver_PDX_CONFIGURATION,
+            new Object[] {serverConnection.getMembershipID()}), e.getCause());
+        fatalException.compareAndSet(null, e.getCause());
+        return;
+      }
+      failures.add(createBatchException(crHelper, e, event.index, batchId));
+    }
+  }
+
+  /**
+   * Applies an event of a batch once.
+   */
+  private void applyEvent(ReceivedEvent event, CachedRegionHelper crHelper, int dsid,
+      ServerConnection serverConnection, GatewayReceiverStats stats, int batchId,
+      int numberOfEvents) throws Exception {
+    if (logger.isDebugEnabled()) {
+      logger.debug(
+          "{}: Processing batch event of type {} for request {} on {} for region {} key {} callbackArg {}, eventId={}",
+          serverConnection.getName(), event.actionType, batchId,
+          serverConnection.getSocketString(), event.regionName, event.key, event.callbackArg,
+          event.eventId);
+    }
+    if (event.key == null || event.regionName == null) {
+      String s = getNullKeyOrRegionMessage(event.actionType, event.regionName != null)
+          .toLocalizedString(new Object[] {serverConnection.getName(), Integer.valueOf(batchId),
+              Integer.valueOf(numberOfEvents)});
+      logger.warn(s);
+      throw new Exception(s);
+    }
+    LocalRegion region = (LocalRegion) crHelper.getRegion(event.regionName);
+    if (region == null) {
+      handleRegionNull(serverConnection, event.regionName, batchId);
+      return;
+    }
+    EventIDHolder clientEvent = new EventIDHolder(event.eventId);
+    if (event.versionTimeStamp > 0) {
+      VersionTag tag = VersionTag.create(region.getVersionMember());
+      tag.setIsGatewayTag(true);
+      tag.setVersionTimeStamp(event.versionTimeStamp);
+      tag.setDistributedSystemId(dsid);
+      clientEvent.setVersionTag(tag);
+    }
+    AuthorizeRequest authzRequest = serverConnection.getAuthzRequest();
+    switch (event.actionType) {
+      case 0: // Create
+      case 1: // Update
+        clientEvent.setPossibleDuplicate(event.possibleDuplicate);
+        handleMessageRetry(region, clientEvent);
+        byte[] value = event.valuePart.getSerializedForm();
+        boolean isObject = event.valuePart.isObject();
+        if (authzRequest != null) {
+          PutOperationContext putContext = event.actionType == 0
+              ? authzRequest.putAuthorize(event.regionName, event.key, value, isObject,
+                  event.callbackArg)
+              : authzRequest.putAuthorize(event.regionName, event.key, value, isObject,
+                  event.callbackArg, PutOperationContext.UPDATE);
+          value = putContext.getSerializedValue();
+          isObject = putContext.isObject();
+        }
+        boolean result;
+        if (event.isPdxEvent) {
+          result = addPdxType(crHelper, event.key, value);
+        } else {
+          result = event.actionType == 0 && region.basicBridgeCreate(event.key, value, isObject,
+              event.callbackArg, serverConnection.getProxyID(), false, clientEvent, false);
+          // If this is an update, or the create fails because the entry exists, update the entry
+          if (!result) {
+            result = region.basicBridgePut(event.key, value, null, isObject, event.callbackArg,
+                serverConnection.getProxyID(), false, clientEvent);
+          }
+        }
+        if (!result && !clientEvent.isConcurrencyConflict()) {
+          Object[] msgArgs = new Object[] {serverConnection.getName(), event.regionName,
+              event.key, event.valuePart, event.callbackArg};
+          if (event.actionType == 0) {
+            // This exception will be logged by the caller
+            throw new Exception(
+                LocalizedStrings.ProcessBatch_0_FAILED_TO_CREATE_OR_UPDATE_ENTRY_FOR_REGION_1_KEY_2_VALUE_3_CALLBACKARG_4
+                    .toLocalizedString(msgArgs));
+          }
+          String s =
+              LocalizedStrings.ProcessBatch_0_FAILED_TO_UPDATE_ENTRY_FOR_REGION_1_KEY_2_VALUE_3_AND_CALLBACKARG_4
+                  .toLocalizedString(msgArgs);
+          logger.info(s);
+          throw new Exception(s);
+        }
+        if (event.actionType == 0) {
+          stats.incCreateRequest();
+        } else {
+          stats.incUpdateRequest();
+        }
+        if (!event.isPdxEvent) {
+          stats.incEventsApplied();
+        }
+        break;
+      case 2: // Destroy
+        handleMessageRetry(region, clientEvent);
+        Object callbackArg = event.callbackArg;
+        if (authzRequest != null) {
+          DestroyOperationContext destroyContext =
+              authzRequest.destroyAuthorize(event.regionName, event.key, callbackArg);
+          callbackArg = destroyContext.getCallbackArg();
+        }
+        try {
+          region.basicBridgeDestroy(event.key, callbackArg, serverConnection.getProxyID(), false,
+              clientEvent);
+        } catch (EntryNotFoundException e) {
+          logger.info(LocalizedMessage.create(
+              LocalizedStrings.ProcessBatch_0_DURING_BATCH_DESTROY_NO_ENTRY_WAS_FOUND_FOR_KEY_1,
+              new Object[] {serverConnection.getName(), event.key}));
+        }
+        stats.incDestroyRequest();
+        stats.incEventsApplied();
+        break;
+      default: // Update Time-stamp for a RegionEntry
+        try {
+          region.basicBridgeUpdateVersionStamp(event.key, event.callbackArg,
+              serverConnection.getProxyID(), false, clientEvent);
+        } catch (EntryNotFoundException e) {
+          logger.info(LocalizedMessage.create(
+              LocalizedStrings.ProcessBatch_0_DURING_BATCH_UPDATE_VERSION_NO_ENTRY_WAS_FOUND_FOR_KEY_1,
+              new Object[] {serverConnection.getName(), event.key}));
+        }
+        stats.incEventsApplied();
+    }
+  }
+
+  private static StringId getNullKeyOrRegionMessage(int actionType, boolean isKeyNull) {
+    switch (actionType) {
+      case 0: // Create
+        return LocalizedStrings.ProcessBatch_0_THE_INPUT_REGION_NAME_FOR_THE_BATCH_CREATE_REQUEST_1_IS_NULL;
+      case 1: // Update
+        return isKeyNull
+            ? LocalizedStrings.ProcessBatch_0_THE_INPUT_KEY_FOR_THE_BATCH_UPDATE_REQUEST_1_IS_NULL
+            : LocalizedStrings.ProcessBatch_0_THE_INPUT_REGION_NAME_FOR_THE_BATCH_UPDATE_REQUEST_1_IS_NULL;
+      case 2: // Destroy
+        return isKeyNull
+            ? LocalizedStrings.ProcessBatch_0_THE_INPUT_KEY_FOR_THE_BATCH_DESTROY_REQUEST_1_IS_NULL
+            : LocalizedStrings.ProcessBatch_0_THE_INPUT_REGION_NAME_FOR_THE_BATCH_DESTROY_REQUEST_1_IS_NULL;
+      default: // Update Time-stamp for a RegionEntry
+        return LocalizedStrings.ProcessBatch_0_CAUGHT_EXCEPTION_PROCESSING_BATCH_UPDATE_VERSION_REQUEST_1_CONTAINING_2_EVENTS;
+    }
+  }
+
+  private static StringId getApplyFailedMessage(int actionType) {
+    switch (actionType) {
+      case 0: // Create
+        return LocalizedStrings.ProcessBatch_0_CAUGHT_EXCEPTION_PROCESSING_BATCH_CREATE_REQUEST_1_FOR_2_EVENTS;
+      case 1: // Update
+        return LocalizedStrings.ProcessBatch_0_CAUGHT_EXCEPTION_PROCESSING_BATCH_UPDATE_REQUEST_1_CONTAINING_2_EVENTS;
+      case 2: // Destroy
+        return LocalizedStrings.ProcessBatch_0_CAUGHT_EXCEPTION_PROCESSING_BATCH_DESTROY_REQUEST_1_CONTAINING_2_EVENTS;
+      default: // Update Time-stamp for a RegionEntry
+        return LocalizedStrings.ProcessBatch_0_CAUGHT_EXCEPTION_PROCESSING_BATCH_UPDATE_VERSION_REQUEST_1_CONTAINING_2_EVENTS;
+    }
+  }
+
+  /**
+   * Returns the bucket of the key of the given event if it is in a partitioned region without a
+   * partition resolver, which is the case where the bucket depends on the key only. Otherwise
+   * returns the hash code of the key.
+   */
+  private static int getGroupKey(CachedRegionHelper crHelper, ReceivedEvent event) {
+    if (event.regionName != null && event.key != null) {
+      Region region = crHelper.getRegion(event.regionName);
+      if (region instanceof PartitionedRegion
+          && ((PartitionedRegion) region).getPartitionResolver() == null) {
+        return PartitionedRegionHelper.getHashKey((PartitionedRegion) region, event.key);
+      }
+    }
+    return event.key == null ? 0 : event.key.hashCode();
+  }
+
+  private static BatchException70 createBatchException(CachedRegionHelper crHelper, Exception e,
+      int index, int batchId) {
+    DistributedSystem ds = crHelper.getCache().getDistributedSystem();
+    String exceptionMessage = LocalizedStrings.GatewayReceiver_EXCEPTION_WHILE_PROCESSING_BATCH
+        .toLocalizedString(new Object[] {
+            ((InternalDistributedSystem) ds).getDistributionManager().getDistributedSystemId(),
+            ds.getDistributedMember()});
+    return new BatchException70(exceptionMessage, e, index, batchId);
+  }
+
+  /**
+   * An event of a batch, read from its parts
+   */
+  private static class ReceivedEvent {
+    private final Message eventsMessage;
+
+    private final int partNumber;
+
+    private final int actionType;
+
+    private final boolean callbackArgExists;
+
+    /** The number of the first part of the next event */
+    private final int nextPartNumber;
+
+    private boolean possibleDuplicate;
+
+    private String regionName;
+
+    private EventID eventId;
+
+    private Object key;
+
+    private Part valuePart;
+
+    private Object callbackArg;
+
+    private long versionTimeStamp;
+
+    private boolean isPdxEvent;
+
+    /** The index of the event in the batch, not counting the PDX events */
+    private int index;
+
+    /** The exception thrown by the last call to {@link #read} */
+    private Exception readException;
+
+    ReceivedEvent(Message eventsMessage, int partNumber, int actionType) {
+      this.eventsMessage = eventsMessage;
+      this.partNumber = partNumber;
+      this.actionType = actionType;
+      // create and update events have a value part before the callback arg
+      int callbackArgExistsPartNumber = partNumber + (actionType < 2 ? 6 : 5);
+      this.callbackArgExists =
+          eventsMessage.getPart(callbackArgExistsPartNumber).getSerializedForm()[0] == 0x01;
+      this.nextPartNumber = callbackArgExistsPartNumber + (this.callbackArgExists ? 3 : 2);
+    }
+
+    /**
+     * Reads the event from its parts, deserializing all but its value.
+     *
+     * @return false if the event could not be read, in which case the exception is kept in
+     *         {@link #readException}
+     */
+    boolean read(ServerConnection serverConnection) {
+      try {
+        this.possibleDuplicate =
+            this.eventsMessage.getPart(this.partNumber + 1).getSerializedForm()[0] == 0x01;
+        this.regionName = this.eventsMessage.getPart(this.partNumber + 2).getString();
+        Part eventIdPart = this.eventsMessage.getPart(this.partNumber + 3);
+        eventIdPart.setVersion(serverConnection.getClientVersion());
+        this.eventId = (EventID) eventIdPart.getObject();
+        this.key = this.eventsMessage.getPart(this.partNumber + 4).getStringOrObject();
+        int index = this.partNumber + 5;
+        if (this.actionType < 2) {
+          this.valuePart = this.eventsMessage.getPart(index++);
+        }
+        index++;
+        if (this.callbackArgExists) {
+          this.callbackArg = this.eventsMessage.getPart(index++).getObject();
+        }
+        this.versionTimeStamp = this.eventsMessage.getPart(index).getLong();
+        return true;
+      } catch (Exception e) {
+        this.readException = e;
+        return false;
+      }
+    }
+  }
+
   private boolean addPdxType(CachedRegionHelper crHelper, Object key, Object value)
       throws Exception {
     if (key instanceof EnumId) {
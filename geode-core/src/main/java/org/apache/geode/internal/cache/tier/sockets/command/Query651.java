@@ -57,7 +57,8 @@ public class Query651 extends BaseCommandQuery {
     long compiledQueryId = 0;
     Object[] queryParams = null;
     try {
-      if (clientMessage.getMessageType() == MessageType.QUERY_WITH_PARAMETERS) {
+      if (clientMessage.getMessageType() == MessageType.QUERY_WITH_PARAMETERS
+          || clientMessage.getMessageType() == MessageType.QUERY_WITH_CURSOR) {
         // Query with parameters supported from 6.6 onwards.
         int params = clientMessage.getPart(1).getInt(); // Number of parameters.
         // In case of native client there will be extra two parameters at 2 and 3 index.
@@ -74,6 +75,10 @@ public class Query651 extends BaseCommandQuery {
         for (int i = 0; i < queryParams.length; i++) {
           queryParams[i] = clientMessage.getPart(i + paramStartIndex).getObject();
         }
+        if (params == 0 && clientMessage.getMessageType() == MessageType.QUERY_WITH_CURSOR) {
+          // a query with a cursor may have no parameters
+          queryParams = null;
+        }
       } else {
         // this is optional part for message specific timeout, which right now send by native client
         // need to take care while adding new message
@@ -194,6 +194,28 @@ public abstract class AbstractGatewaySender implements InternalGatewaySender, Di
   public static int TOKEN_TIMEOUT =
       Integer.getInteger("GatewaySender.TOKEN_TIMEOUT", 120000).intValue();
 
+  /**
+   * The maximum number of batches a gateway sender event processor sends to the remote site
+   * without having received their acknowledgement. Zero means no limit.
+   */
+  public static final int MAX_UNACKED_BATCHES =
+      Integer.getInteger("GatewaySender.MAX_UNACKED_BATCHES", 0).intValue();
+
+  /**
+   * Whether the size of the batches is adapted to the latency of their acknowledgements and the
+   * depth of the queue, the batch size of the sender being the maximum.
+   */
+  public static final boolean ADAPTIVE_BATCH_SIZE =
+      Boolean.getBoolean("GatewaySender.ADAPTIVE_BATCH_SIZE");
+
+  /**
+   * Whether batches are sent compressed to the gateway receivers that accept them.
+   *
+   * @see GatewaySenderBatchCodec
+   */
+  public static final boolean COMPRESS_BATCHES =
+      Boolean.getBoolean("GatewaySender.COMPRESS_BATCHES");
+
   /**
    * The name of the DistributedLockService used when accessing the GatewaySender's meta data
    * region.
@@ -147,11 +147,32 @@ public abstract class AbstractGatewaySenderEventProcessor extends Thread
    */
   private int batchSize;
 
+  /**
+   * Adapts the size of the batches to the latency of their acknowledgements, if
+   * {@link AbstractGatewaySender#ADAPTIVE_BATCH_SIZE} is set.
+   */
+  private final AdaptiveBatchSizer batchSizer;
+
+  /**
+   * The time (ns) each batch sent to the remote site and not yet acknowledged was sent. The batches
+   * are sent in order on one connection, so the order of the events of a key or a thread is kept
+   * whatever the number of batches waiting for their acknowledgement.
+   */
+  private final Map<Integer, Long> batchIdToSendTimeMap = new ConcurrentHashMap<>();
+
+  /**
+   * Notified when a batch is acknowledged, for the processor waiting for a batch to be
+   * acknowledged before sending more than {@link AbstractGatewaySender#MAX_UNACKED_BATCHES}.
+   */
+  private final Object unackedBatchesLock = new Object();
+
   public AbstractGatewaySenderEventProcessor(LoggingThreadGroup createThreadGroup, String string,
       GatewaySender sender, ThreadsMonitoring tMonitoring) {
     super(createThreadGroup, string);
     this.sender = (AbstractGatewaySender) sender;
     this.batchSize = sender.getBatchSize();
+    this.batchSizer =
+        AbstractGatewaySender.ADAPTIVE_BATCH_SIZE ? new AdaptiveBatchSizer(this.batchSize) : null;
     this.threadMonitoring = tMonitoring;
   }
 
@@ -495,7 +516,8 @@ public abstract class AbstractGatewaySenderEventProcessor extends Thread
                * Thread.currentThread().interrupt(); } } }
                */
             }
-            events = this.queue.peek(this.batchSize, batchTimeInterval);
+            waitForUnackedBatches();
+            events = this.queue.peek(getPeekSize(), batchTimeInterval);
           } catch (InterruptedException e) {
             interrupted = true;
             this.sender.getCancelCriterion().checkCancelInProgress(e);
@@ -607,6 +629,7 @@ public abstract class AbstractGatewaySenderEventProcessor extends Thread
               eventsArr[0] = events;
               eventsArr[1] = filteredList;
               this.batchIdToEventsMap.put(getBatchId(), eventsArr);
+              batchSent(getBatchId());
               // find out PDX event and append it in front of the list
               pdxEventsToBeDispatched = addPDXEvent();
               eventsToBeDispatched.addAll(pdxEventsToBeDispatched);
@@ -891,6 +914,7 @@ public abstract class AbstractGatewaySenderEventProcessor extends Thread
 
   private void resetLastPeekedEvents() {
     this.batchIdToEventsMap.clear();
+    clearUnackedBatches();
     // make sure that when there is problem while receiving ack, pdx gateway
     // sender events isDispatched is set to false so that same events will be
     // dispatched in next batch
@@ -998,6 +1022,7 @@ public abstract class AbstractGatewaySenderEventProcessor extends Thread
     }
 
     List<GatewaySenderEventImpl>[] eventsArr = this.batchIdToEventsMap.remove(batchId);
+    batchAcknowledged(batchId, eventsArr);
     if (eventsArr != null) {
       List<GatewaySenderEventImpl> filteredEvents = eventsArr[1];
       for (GatewayEventFilter filter : sender.getGatewayEventFilters()) {
@@ -1019,6 +1044,72 @@ public abstract class AbstractGatewaySenderEventProcessor extends Thread
     }
   }
 
+  /**
+   * Returns the number of events to peek into the next batch.
+   */
+  private int getPeekSize() {
+    if (this.batchSizer == null || this.dispatcher instanceof GatewaySenderEventCallbackDispatcher) {
+      return this.batchSize;
+    }
+    int size = this.batchSizer.getBatchSize(eventQueueSize(), this.batchSize);
+    this.sender.getStatistics().setCurrentBatchSize(size);
+    return size;
+  }
+
+  /**
+   * Waits until fewer than {@link AbstractGatewaySender#MAX_UNACKED_BATCHES} batches are waiting
+   * for their acknowledgement, or the processor stops or resends its batches.
+   */
+  private void waitForUnackedBatches() throws InterruptedException {
+    if (AbstractGatewaySender.MAX_UNACKED_BATCHES <= 0) {
+      return;
+    }
+    synchronized (this.unackedBatchesLock) {
+      while (this.batchIdToSendTimeMap.size() >= AbstractGatewaySender.MAX_UNACKED_BATCHES
+          && !stopped() && !this.resetLastPeekedEvents) {
+        // recheck periodically since the batches are dropped without notification when the
+        // connection is reset
+        this.unackedBatchesLock.wait(100);
+      }
+    }
+  }
+
+  private void batchSent(int batchId) {
+    if (this.batchIdToSendTimeMap.put(batchId, System.nanoTime()) == null) {
+      this.sender.getStatistics().incBatchesInFlight(1);
+    }
+  }
+
+  private void batchAcknowledged(int batchId, List<GatewaySenderEventImpl>[] eventsArr) {
+    Long sendTime = this.batchIdToSendTimeMap.remove(batchId);
+    if (sendTime == null) {
+      return;
+    }
+    final GatewaySenderStats statistics = this.sender.getStatistics();
+    long latency = System.nanoTime() - sendTime;
+    statistics.endBatchAcknowledgement(latency);
+    if (this.batchSizer != null) {
+      this.batchSizer.batchAcknowledged(latency);
+    }
+    if (eventsArr != null && !eventsArr[0].isEmpty()) {
+      statistics
+          .setReplicationLag(System.currentTimeMillis() - eventsArr[0].get(0).getCreationTime());
+    }
+    if (AbstractGatewaySender.MAX_UNACKED_BATCHES > 0) {
+      synchronized (this.unackedBatchesLock) {
+        this.unackedBatchesLock.notifyAll();
+      }
+    }
+  }
+
+  private void clearUnackedBatches() {
+    for (Integer batchId : this.batchIdToSendTimeMap.keySet()) {
+      if (this.batchIdToSendTimeMap.remove(batchId) != null) {
+        this.sender.getStatistics().incBatchesInFlight(-1);
+      }
+    }
+  }
+
   public void handleUnSuccessBatchAck(int bId) {
     this.sender.getStatistics().incBatchesRedistributed();
     // Set posDup flag on each event in the batch
@@ -1188,6 +1279,7 @@ public abstract class AbstractGatewaySenderEventProcessor extends Thread
           // try to stop it again
           dispatcher.stop();
           this.batchIdToEventsMap.clear();
+          clearUnackedBatches();
         }
       } catch (InterruptedException ex) {
         Thread.currentThread().interrupt();
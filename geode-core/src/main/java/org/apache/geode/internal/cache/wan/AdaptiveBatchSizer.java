@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.wan;
+
+/**
+ * Adapts the number of events a gateway sender event processor peeks into a batch to the latency
+ * of the acknowledgements of its batches and to the depth of its queue, the way a congestion
+ * window adapts to round trip times. While the acknowledgements come back about as fast as the
+ * fastest recently seen and the queue holds more than a batch, batches grow by a step. Once the
+ * acknowledgements take more than twice as long, the remote site is falling behind and batches
+ * shrink by a quarter.
+ * <p>
+ * The batch size stays between an eighth of the maximum and the maximum, which is the batch size
+ * of the processor. It is updated by the ack reader thread and read by the processor thread.
+ *
+ * @since Geode 1.8.0
+ */
+class AdaptiveBatchSizer {
+
+  /**
+   * The number of acknowledgements after which the lowest latency is forgotten, so that a permanent
+   * change of the round trip time is eventually taken as the new baseline
+   */
+  static final int BASELINE_ACKS = 100;
+
+  private int batchSize;
+
+  private int maxBatchSize;
+
+  /** The lowest acknowledgement latency seen in the last {@link #BASELINE_ACKS} acks */
+  private long baselineLatency = Long.MAX_VALUE;
+
+  private int acksSinceBaseline;
+
+  /** The moving average of the acknowledgement latencies, weighing the last one by an eighth */
+  private long averageLatency;
+
+  private int lastQueueSize;
+
+  AdaptiveBatchSizer(int maxBatchSize) {
+    this.maxBatchSize = Math.max(maxBatchSize, 1);
+    this.batchSize = this.maxBatchSize;
+  }
+
+  /**
+   * Returns the number of events to peek into the next batch.
+   *
+   * @param queueSize the number of events in the queue
+   * @param maxBatchSize the batch size of the processor, which may have been reduced since the
+   *        last batch
+   */
+  synchronized int getBatchSize(int queueSize, int maxBatchSize) {
+    this.lastQueueSize = queueSize;
+    if (maxBatchSize != this.maxBatchSize) {
+      this.maxBatchSize = Math.max(maxBatchSize, 1);
+      this.batchSize = Math.min(this.batchSize, this.maxBatchSize);
+    }
+    return this.batchSize;
+  }
+
+  /**
+   * Adapts the batch size to the time a batch took to be acknowledged.
+   */
+  synchronized void batchAcknowledged(long latencyNanos) {
+    if (latencyNanos < this.baselineLatency || ++this.acksSinceBaseline >= BASELINE_ACKS) {
+      this.baselineLatency = latencyNanos;
+      this.acksSinceBaseline = 0;
+    }
+    this.averageLatency = this.averageLatency == 0 ? latencyNanos
+        : this.averageLatency + (latencyNanos - this.averageLatency) / 8;
+
+    int minBatchSize = Math.max(this.maxBatchSize / 8, 1);
+    if (this.averageLatency > this.baselineLatency * 2) {
+      this.batchSize = Math.max(this.batchSize * 3 / 4, minBatchSize);
+    } else if (this.lastQueueSize > this.batchSize) {
+      this.batchSize = Math.min(this.batchSize + Math.max(this.maxBatchSize / 16, 1),
+          this.maxBatchSize);
+    }
+  }
+
+  synchronized int getBatchSize() {
+    return this.batchSize;
+  }
+}
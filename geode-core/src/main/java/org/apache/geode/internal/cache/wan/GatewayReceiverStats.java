@@ -59,6 +59,12 @@ public class GatewayReceiverStats extends CacheServerStats {
   /** Name of the events retried */
   private static final String EVENTS_RETRIED = "eventsRetried";
 
+  /** Name of the events applied statistic */
+  private static final String EVENTS_APPLIED = "eventsApplied";
+
+  /** Name of the parallel apply groups statistic */
+  private static final String PARALLEL_APPLY_GROUPS = "parallelApplyGroups";
+
   // /** Id of the events queued statistic */
   // private int failoverBatchesReceivedId;
 
@@ -92,6 +98,12 @@ public class GatewayReceiverStats extends CacheServerStats {
   /** Id of the events retried statistic */
   private int eventsRetriedId;
 
+  /** Id of the events applied statistic */
+  private int eventsAppliedId;
+
+  /** Id of the parallel apply groups statistic */
+  private int parallelApplyGroupsId;
+
   // ///////////////////// Constructors ///////////////////////
 
   public static GatewayReceiverStats createGatewayReceiverStats(String ownerName) {
@@ -118,7 +130,13 @@ public class GatewayReceiverStats extends CacheServerStats {
         f.createIntCounter(EXCEPTIONS_OCCURRED,
             "number of exceptions occurred while porcessing the batches", "operations"),
         f.createIntCounter(EVENTS_RETRIED,
-            "total number events retried by this GatewayReceiver due to exceptions", "operations")};
+            "total number events retried by this GatewayReceiver due to exceptions", "operations"),
+        f.createIntCounter(EVENTS_APPLIED,
+            "total number of events of the batches received by this GatewayReceiver that were applied without an exception",
+            "operations"),
+        f.createIntCounter(PARALLEL_APPLY_GROUPS,
+            "total number of groups of events of a batch applied in parallel by this GatewayReceiver",
+            "operations")};
     return new GatewayReceiverStats(f, ownerName, typeName, descriptors);
 
   }
@@ -138,6 +156,8 @@ public class GatewayReceiverStats extends CacheServerStats {
     unknowsOperationsReceivedId = statType.nameToId(UNKNOWN_OPERATIONS_RECEIVED);
     exceptionsOccurredId = statType.nameToId(EXCEPTIONS_OCCURRED);
     eventsRetriedId = statType.nameToId(EVENTS_RETRIED);
+    eventsAppliedId = statType.nameToId(EVENTS_APPLIED);
+    parallelApplyGroupsId = statType.nameToId(PARALLEL_APPLY_GROUPS);
   }
 
   // /////////////////// Instance Methods /////////////////////
@@ -263,6 +283,25 @@ public class GatewayReceiverStats extends CacheServerStats {
     return this.stats.getInt(eventsRetriedId);
   }
 
+  public void incEventsApplied() {
+    this.stats.incInt(eventsAppliedId, 1);
+  }
+
+  public int getEventsApplied() {
+    return this.stats.getInt(eventsAppliedId);
+  }
+
+  /**
+   * Increments the number of groups of events applied in parallel by the given amount.
+   */
+  public void incParallelApplyGroups(int delta) {
+    this.stats.incInt(parallelApplyGroupsId, delta);
+  }
+
+  public int getParallelApplyGroups() {
+    return this.stats.getInt(parallelApplyGroupsId);
+  }
+
   /**
    * Returns the current time (ns).
    *
@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.wan;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import org.apache.geode.DataSerializer;
+import org.apache.geode.compression.DeflateCompressor;
+import org.apache.geode.internal.ByteArrayDataInput;
+import org.apache.geode.internal.HeapDataOutputStream;
+import org.apache.geode.internal.InternalDataSerializer;
+import org.apache.geode.internal.Version;
+import org.apache.geode.internal.cache.EventID;
+import org.apache.geode.internal.cache.tier.sockets.CacheServerHelper;
+import org.apache.geode.internal.cache.tier.sockets.Message;
+import org.apache.geode.internal.util.BlobHelper;
+
+/**
+ * Encodes the events of a gateway sender batch into a single compressed message part, and decodes
+ * them back into the parts a batch of events is sent as when it is not compressed.
+ * <p>
+ * Within a batch the region paths and the member ids of the event ids are written once and then
+ * referred to by their index, so that a batch of events of a few regions created by a few members
+ * does not repeat them for each event. The encoded batch is then compressed with DEFLATE.
+ * <p>
+ * A gateway sender only compresses its batches if {@link AbstractGatewaySender#COMPRESS_BATCHES}
+ * is set and the gateway receiver it is connected to has told it in the handshake that it accepts
+ * them.
+ *
+ * @since Geode 1.8.0
+ */
+public class GatewaySenderBatchCodec {
+
+  /**
+   * Bit set in the flags part of a batch, after the distributed system id, when the events of the
+   * batch are encoded in the following part. The lowest bit of the flags is the
+   * removeFromQueueOnException flag.
+   */
+  public static final byte COMPRESSED = 0x02;
+
+  private static final DeflateCompressor compressor = new DeflateCompressor(Deflater.BEST_SPEED,
+      null);
+
+  private static final byte STRING_KEY = 0;
+
+  private static final byte OBJECT_KEY = 1;
+
+  private GatewaySenderBatchCodec() {
+    // no instances allowed
+  }
+
+  /**
+   * Returns the compressed encoding of the given events.
+   */
+  public static byte[] encode(List<GatewaySenderEventImpl> events) throws IOException {
+    Map<String, Integer> regionPaths = new HashMap<>();
+    Map<MemberId, Integer> memberIds = new HashMap<>();
+    try (HeapDataOutputStream out = new HeapDataOutputStream(Version.CURRENT)) {
+      for (GatewaySenderEventImpl event : events) {
+        int action = event.getAction();
+        out.writeInt(action);
+        out.writeBoolean(event.getPossibleDuplicate());
+        if (action < 0 || action > 3) {
+          continue;
+        }
+        String regionPath = event.getRegionPath();
+        if (writeReference(regionPaths, regionPath, out)) {
+          DataSerializer.writeString(regionPath, out);
+        }
+        EventID eventId = event.getEventId();
+        MemberId memberId = new MemberId(eventId.getMembershipID());
+        if (writeReference(memberIds, memberId, out)) {
+          DataSerializer.writeByteArray(memberId.bytes, out);
+        }
+        out.writeLong(eventId.getThreadID());
+        out.writeLong(eventId.getSequenceID());
+        out.writeInt(eventId.getBucketID());
+        Object key = event.getKey();
+        if (key == null || key instanceof String) {
+          out.writeByte(STRING_KEY);
+          DataSerializer.writeString((String) key, out);
+        } else {
+          out.writeByte(OBJECT_KEY);
+          DataSerializer.writeByteArray(BlobHelper.serializeToBlob(key), out);
+        }
+        if (action < 2) {
+          out.writeByte(event.getValueIsObject());
+          DataSerializer.writeByteArray(event.getSerializedValue(), out);
+        }
+        Object callbackArg = event.getSenderCallbackArgument();
+        out.writeBoolean(callbackArg != null);
+        if (callbackArg != null) {
+          DataSerializer.writeByteArray(BlobHelper.serializeToBlob(callbackArg), out);
+        }
+        out.writeLong(event.getVersionTimeStamp());
+      }
+      return compressor.compress(out.toByteArray());
+    }
+  }
+
+  /**
+   * Decodes a compressed batch of events into a message whose parts are laid out the way the
+   * events of an uncompressed batch are, starting with the first part.
+   *
+   * @param encoded the part holding the compressed events
+   * @param numberOfEvents the number of events in the batch
+   * @param version the version of the gateway sender
+   */
+  public static Message decode(byte[] encoded, int numberOfEvents, Version version)
+      throws IOException {
+    List<String> regionPaths = new ArrayList<>();
+    List<byte[]> memberIds = new ArrayList<>();
+    // the parts are collected first since their number depends on the events
+    List<Object> parts = new ArrayList<>(numberOfEvents * 8);
+    List<Boolean> isObject = new ArrayList<>(numberOfEvents * 8);
+    ByteArrayDataInput in = new ByteArrayDataInput();
+    in.initialize(compressor.decompress(encoded), version);
+    for (int i = 0; i < numberOfEvents; i++) {
+      int action = in.readInt();
+      addPart(parts, isObject, action, false);
+      addPart(parts, isObject, new byte[] {in.readBoolean() ? (byte) 0x01 : (byte) 0x00}, false);
+      if (action < 0 || action > 3) {
+        continue;
+      }
+      String regionPath = readReference(regionPaths, in);
+      if (regionPath == null) {
+        regionPath = DataSerializer.readString(in);
+        regionPaths.add(regionPath);
+      }
+      addPart(parts, isObject, toUTF(regionPath), false);
+      byte[] memberId = readReference(memberIds, in);
+      if (memberId == null) {
+        memberId = DataSerializer.readByteArray(in);
+        memberIds.add(memberId);
+      }
+      EventID eventId = new EventID(memberId, in.readLong(), in.readLong(), in.readInt());
+      addPart(parts, isObject, BlobHelper.serializeToBlob(eventId, version), true);
+      if (in.readByte() == STRING_KEY) {
+        String key = DataSerializer.readString(in);
+        addPart(parts, isObject, toUTF(key), false);
+      } else {
+        addPart(parts, isObject, DataSerializer.readByteArray(in), true);
+      }
+      if (action < 2) {
+        boolean valueIsObject = in.readByte() == 0x01;
+        addPart(parts, isObject, DataSerializer.readByteArray(in), valueIsObject);
+      }
+      boolean callbackArgExists = in.readBoolean();
+      addPart(parts, isObject, new byte[] {callbackArgExists ? (byte) 0x01 : (byte) 0x00}, false);
+      if (callbackArgExists) {
+        addPart(parts, isObject, DataSerializer.readByteArray(in), true);
+      }
+      addPart(parts, isObject, in.readLong(), false);
+    }
+
+    Message message = new Message(parts.size(), version);
+    for (int i = 0; i < parts.size(); i++) {
+      Object part = parts.get(i);
+      if (part instanceof Integer) {
+        message.addIntPart((Integer) part);
+      } else if (part instanceof Long) {
+        message.addLongPart((Long) part);
+      } else {
+        message.addRawPart((byte[]) part, isObject.get(i));
+      }
+    }
+    return message;
+  }
+
+  private static byte[] toUTF(String string) {
+    return string == null ? null : CacheServerHelper.toUTF(string);
+  }
+
+  private static void addPart(List<Object> parts, List<Boolean> isObject, Object part,
+      boolean object) {
+    parts.add(part);
+    isObject.add(object);
+  }
+
+  /**
+   * Writes the index of the given value in the given dictionary, adding it if it is not there.
+   *
+   * @return true if the value was added, in which case it must be written after its index
+   */
+  private static <T> boolean writeReference(Map<T, Integer> dictionary, T value,
+      HeapDataOutputStream out) throws IOException {
+    Integer index = dictionary.get(value);
+    boolean added = index == null;
+    if (added) {
+      index = dictionary.size();
+      dictionary.put(value, index);
+    }
+    InternalDataSerializer.writeUnsignedVL(index, out);
+    return added;
+  }
+
+  /**
+   * Reads an index written by {@link #writeReference} and returns the value it refers to, or null
+   * if the value follows the index.
+   */
+  private static <T> T readReference(List<T> dictionary, DataInput in) throws IOException {
+    int index = (int) InternalDataSerializer.readUnsignedVL(in);
+    if (index == dictionary.size()) {
+      return null;
+    }
+    if (index > dictionary.size()) {
+      throw new IOException("Invalid reference " + index + " in a dictionary of "
+          + dictionary.size() + " entries");
+    }
+    return dictionary.get(index);
+  }
+
+  /**
+   * A member id compared by the contents of its bytes
+   */
+  private static class MemberId {
+    private final byte[] bytes;
+
+    private final int hashCode;
+
+    MemberId(byte[] bytes) {
+      this.bytes = bytes;
+      this.hashCode = Arrays.hashCode(bytes);
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hashCode;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof MemberId
+          && Arrays.equals(this.bytes, ((MemberId) other).bytes);
+    }
+  }
+}
@@ -98,6 +98,12 @@ public class GatewaySenderStats {
   protected static final String SYNCHRONIZATION_EVENTS_ENQUEUED = "synchronizationEventsEnqueued";
   protected static final String SYNCHRONIZATION_EVENTS_PROVIDED = "synchronizationEventsProvided";
 
+  protected static final String BATCHES_IN_FLIGHT = "batchesInFlight";
+  protected static final String BATCHES_ACKNOWLEDGED = "batchesAcknowledged";
+  protected static final String BATCH_ACKNOWLEDGEMENT_TIME = "batchAcknowledgementTime";
+  protected static final String CURRENT_BATCH_SIZE = "currentBatchSize";
+  protected static final String REPLICATION_LAG = "replicationLag";
+
   /** Id of the events queued statistic */
   protected static int eventsReceivedId;
   /** Id of the events queued statistic */
@@ -159,6 +165,16 @@ public class GatewaySenderStats {
   protected static int synchronizationEventsEnqueuedId;
   /** Id of synchronization events provided */
   protected static int synchronizationEventsProvidedId;
+  /** Id of batches sent and not yet acknowledged */
+  protected static int batchesInFlightId;
+  /** Id of batches acknowledged */
+  protected static int batchesAcknowledgedId;
+  /** Id of batch acknowledgement time */
+  protected static int batchAcknowledgementTimeId;
+  /** Id of current batch size */
+  protected static int currentBatchSizeId;
+  /** Id of replication lag */
+  protected static int replicationLagId;
 
   /**
    * Static initializer to create and initialize the <code>StatisticsType</code>
@@ -244,7 +260,21 @@ public class GatewaySenderStats {
             f.createIntCounter(SYNCHRONIZATION_EVENTS_ENQUEUED,
                 "Number of synchronization events added to the event queue.", "operations"),
             f.createIntCounter(SYNCHRONIZATION_EVENTS_PROVIDED,
-                "Number of synchronization events provided to other members.", "operations"),});
+                "Number of synchronization events provided to other members.", "operations"),
+            f.createIntGauge(BATCHES_IN_FLIGHT,
+                "Number of batches sent to the remote site and not yet acknowledged.",
+                "operations"),
+            f.createIntCounter(BATCHES_ACKNOWLEDGED,
+                "Number of batches acknowledged by the remote site.", "operations"),
+            f.createLongCounter(BATCH_ACKNOWLEDGEMENT_TIME,
+                "Total time between sending batches and receiving their acknowledgements.",
+                "nanoseconds"),
+            f.createIntGauge(CURRENT_BATCH_SIZE,
+                "Number of events peeked into the last batch when the batch size is adaptive.",
+                "operations"),
+            f.createLongGauge(REPLICATION_LAG,
+                "Time between the creation of the oldest event of the last acknowledged batch and its acknowledgement.",
+                "milliseconds"),});
 
     // Initialize id fields
     eventsReceivedId = type.nameToId(EVENTS_RECEIVED);
@@ -280,6 +310,11 @@ public class GatewaySenderStats {
     loadBalanceTimeId = type.nameToId(LOAD_BALANCE_TIME);
     synchronizationEventsEnqueuedId = type.nameToId(SYNCHRONIZATION_EVENTS_ENQUEUED);
     synchronizationEventsProvidedId = type.nameToId(SYNCHRONIZATION_EVENTS_PROVIDED);
+    batchesInFlightId = type.nameToId(BATCHES_IN_FLIGHT);
+    batchesAcknowledgedId = type.nameToId(BATCHES_ACKNOWLEDGED);
+    batchAcknowledgementTimeId = type.nameToId(BATCH_ACKNOWLEDGEMENT_TIME);
+    currentBatchSizeId = type.nameToId(CURRENT_BATCH_SIZE);
+    replicationLagId = type.nameToId(REPLICATION_LAG);
   }
 
   ////////////////////// Instance Fields //////////////////////
@@ -884,6 +919,58 @@ public class GatewaySenderStats {
     this.stats.incInt(synchronizationEventsProvidedId, 1);
   }
 
+  /**
+   * Increments the number of batches sent and not yet acknowledged by the given delta.
+   */
+  public void incBatchesInFlight(int delta) {
+    this.stats.incInt(batchesInFlightId, delta);
+  }
+
+  public int getBatchesInFlight() {
+    return this.stats.getInt(batchesInFlightId);
+  }
+
+  /**
+   * Increments the "batchesAcknowledged" and "batchAcknowledgementTime" stats and decrements the
+   * "batchesInFlight" stat.
+   *
+   * @param elapsed The time between sending the batch and receiving its acknowledgement (ns)
+   */
+  public void endBatchAcknowledgement(long elapsed) {
+    this.stats.incInt(batchesInFlightId, -1);
+    this.stats.incInt(batchesAcknowledgedId, 1);
+    this.stats.incLong(batchAcknowledgementTimeId, elapsed);
+  }
+
+  public int getBatchesAcknowledged() {
+    return this.stats.getInt(batchesAcknowledgedId);
+  }
+
+  public long getBatchAcknowledgementTime() {
+    return this.stats.getLong(batchAcknowledgementTimeId);
+  }
+
+  public void setCurrentBatchSize(int size) {
+    this.stats.setInt(currentBatchSizeId, size);
+  }
+
+  public int getCurrentBatchSize() {
+    return this.stats.getInt(currentBatchSizeId);
+  }
+
+  /**
+   * Sets the "replicationLag" stat.
+   *
+   * @param lag The age of the oldest event of the last acknowledged batch (ms)
+   */
+  public void setReplicationLag(long lag) {
+    this.stats.setLong(replicationLagId, lag);
+  }
+
+  public long getReplicationLag() {
+    return this.stats.getLong(replicationLagId);
+  }
+
   public Statistics getStats() {
     return stats;
   }
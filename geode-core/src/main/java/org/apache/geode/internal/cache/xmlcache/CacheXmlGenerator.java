@@ -108,6 +108,7 @@ import org.apache.geode.cache.wan.GatewayEventSubstitutionFilter;
 import org.apache.geode.cache.wan.GatewayReceiver;
 import org.apache.geode.cache.wan.GatewaySender;
 import org.apache.geode.cache.wan.GatewayTransportFilter;
+import org.apache.geode.compression.DeflateCompressor;
 import org.apache.geode.distributed.Role;
 import org.apache.geode.internal.Assert;
 import org.apache.geode.internal.cache.AbstractRegion;
@@ -2212,6 +2213,8 @@ public class CacheXmlGenerator extends CacheXml implements XMLReader {
       props = ((Declarable2) callback).getConfig();
     } else if (callback instanceof ReflectionBasedAutoSerializer) {
       props = ((ReflectionBasedAutoSerializer) callback).getConfig();
+    } else if (callback instanceof DeflateCompressor) {
+      props = ((DeflateCompressor) callback).getConfig();
     } else if (callback instanceof Declarable && cache instanceof GemFireCacheImpl) {
       props = ((InternalCache) cache).getDeclarableProperties((Declarable) callback);
     }
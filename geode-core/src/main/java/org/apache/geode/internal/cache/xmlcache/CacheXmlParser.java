@@ -1975,23 +1975,34 @@ public class CacheXmlParser extends CacheXml implements ContentHandler {
   }
 
   /**
-   * Ending the <code>compressor</code> registration should leave us with a class name on the stack.
-   * Pull it off and setup the {@link Compressor} on the region attributes.
+   * Ending the <code>compressor</code> registration should leave us with a class name, optionally
+   * followed by parameters, on the stack. Pull them off and setup the {@link Compressor} on the
+   * region attributes. A compressor with parameters must be {@link Declarable}.
    */
   private void endCompressor() {
-    Class<?> klass = getClassFromStack();
-    if (!Compressor.class.isAssignableFrom(klass)) {
-      throw new CacheXmlException(
-          LocalizedStrings.CacheXmlParser_A_0_IS_NOT_AN_INSTANCE_OF_A_COMPRESSOR
-              .toLocalizedString(klass.getName()));
-    }
-
     Compressor compressor;
-    try {
-      compressor = (Compressor) klass.newInstance();
-    } catch (Exception ex) {
-      throw new CacheXmlException(LocalizedStrings.CacheXmlParser_WHILE_INSTANTIATING_A_0
-          .toLocalizedString(klass.getName()), ex);
+    if (stack.peek() instanceof Parameter) {
+      Declarable d = createDeclarable();
+      if (!(d instanceof Compressor)) {
+        throw new CacheXmlException(
+            LocalizedStrings.CacheXmlParser_A_0_IS_NOT_AN_INSTANCE_OF_A_COMPRESSOR
+                .toLocalizedString(d.getClass().getName()));
+      }
+      compressor = (Compressor) d;
+    } else {
+      Class<?> klass = getClassFromStack();
+      if (!Compressor.class.isAssignableFrom(klass)) {
+        throw new CacheXmlException(
+            LocalizedStrings.CacheXmlParser_A_0_IS_NOT_AN_INSTANCE_OF_A_COMPRESSOR
+                .toLocalizedString(klass.getName()));
+      }
+
+      try {
+        compressor = (Compressor) klass.newInstance();
+      } catch (Exception ex) {
+        throw new CacheXmlException(LocalizedStrings.CacheXmlParser_WHILE_INSTANTIATING_A_0
+            .toLocalizedString(klass.getName()), ex);
+      }
     }
 
     Object a = stack.peek();
@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.NavigableSet;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReferenceArray;
@@ -32,6 +33,7 @@ import org.apache.logging.log4j.Logger;
 import org.apache.geode.OutOfOffHeapMemoryException;
 import org.apache.geode.distributed.internal.DistributionConfig;
 import org.apache.geode.internal.logging.LogService;
+import org.apache.geode.internal.logging.LoggingThreadGroup;
 
 /**
  * Manages the free lists and slabs for a MemoryAllocator
@@ -141,9 +143,35 @@ public class FreeListManager {
   private final CopyOnWriteArrayList<Fragment> fragmentList;
   private final MemoryAllocatorImpl ma;
 
+  /**
+   * See {@link #BACKGROUND_DEFRAGMENTATION_PERCENT}. Zero disables background defragmentation.
+   */
+  private final int backgroundDefragmentationPercent;
+  private final AtomicInteger fragmentAllocationsSinceCheck = new AtomicInteger();
+  /**
+   * Set when a background defragmentation is requested and cleared once it has run.
+   */
+  private final AtomicBoolean backgroundDefragmentationRequested = new AtomicBoolean();
+  /**
+   * Guards {@link #backgroundDefragmenter}; the defragmenter waits on it for requests.
+   */
+  private final Object backgroundDefragmenterLock = new Object();
+  /**
+   * The daemon thread that runs the background defragmentations. It is started by the first
+   * request and ends once the slabs are freed.
+   */
+  private Thread backgroundDefragmenter;
+  private volatile boolean slabsFreed;
+
   public FreeListManager(MemoryAllocatorImpl ma, final Slab[] slabs) {
+    this(ma, slabs, BACKGROUND_DEFRAGMENTATION_PERCENT);
+  }
+
+  FreeListManager(MemoryAllocatorImpl ma, final Slab[] slabs,
+      int backgroundDefragmentationPercent) {
     this.ma = ma;
     this.slabs = slabs;
+    this.backgroundDefragmentationPercent = backgroundDefragmentationPercent;
     long total = 0;
     Fragment[] tmp = new Fragment[slabs.length];
     for (int i = 0; i < slabs.length; i++) {
@@ -314,6 +342,22 @@ public class FreeListManager {
   static {
     verifyOffHeapFreeListCount(TINY_FREE_LIST_COUNT);
   }
+  /**
+   * If greater than zero then a background thread defragments memory once the free space left in
+   * fragments drops below this percentage of all free memory. Without it the first allocation that
+   * cannot be satisfied from the fragments does the defragmentation itself and every other thread
+   * that needs a fragment waits for it. Must be between 0 and 100; defaults to 0 (disabled).
+   */
+  public static final int BACKGROUND_DEFRAGMENTATION_PERCENT = Integer.getInteger(
+      DistributionConfig.GEMFIRE_PREFIX + "OFF_HEAP_BACKGROUND_DEFRAGMENTATION_PERCENT", 0);
+  static {
+    verifyBackgroundDefragmentationPercent(BACKGROUND_DEFRAGMENTATION_PERCENT);
+  }
+  /**
+   * How many allocations from fragments are done between checks of
+   * {@link #BACKGROUND_DEFRAGMENTATION_PERCENT}. Each check walks the fragment list.
+   */
+  static final int BACKGROUND_DEFRAGMENTATION_CHECK_INTERVAL = 1024;
   /**
    * How many unused bytes are allowed in a huge memory allocation.
    */
@@ -373,6 +417,10 @@ public class FreeListManager {
           // So just return true causing the caller to retry the allocation.
           return true;
         }
+        if (this.slabsFreed) {
+          // freeSlabs sets slabsFreed under this monitor, so the slabs are no longer readable
+          return false;
+        }
         boolean result = doDefragment(chunkSize);
 
         // Signal any waiters that a defragmentation happened.
@@ -385,6 +433,102 @@ public class FreeListManager {
     }
   }
 
+  /**
+   * Called after each allocation from a fragment. Every
+   * {@link #BACKGROUND_DEFRAGMENTATION_CHECK_INTERVAL} calls this compares the free space left in
+   * the fragments with the total free memory and requests a background defragmentation if most of
+   * the free memory is only reachable through the free lists.
+   */
+  private void checkBackgroundDefragmentation() {
+    if (this.backgroundDefragmentationPercent <= 0) {
+      return;
+    }
+    if (this.fragmentAllocationsSinceCheck
+        .incrementAndGet() < BACKGROUND_DEFRAGMENTATION_CHECK_INTERVAL) {
+      return;
+    }
+    this.fragmentAllocationsSinceCheck.set(0);
+    long freeMemory = getFreeMemory();
+    if (freeMemory <= 0) {
+      return;
+    }
+    long fragmentFreeSpace = 0;
+    for (Fragment fragment : this.fragmentList) {
+      fragmentFreeSpace += fragment.freeSpace();
+    }
+    if (fragmentFreeSpace * 100 < freeMemory * this.backgroundDefragmentationPercent
+        && this.backgroundDefragmentationRequested.compareAndSet(false, true)) {
+      requestBackgroundDefragmentation();
+    }
+  }
+
+  /**
+   * Wakes the background defragmenter, starting it on the first request. Unit tests override this
+   * method to call {@link #runBackgroundDefragmentation()} themselves.
+   */
+  protected void requestBackgroundDefragmentation() {
+    synchronized (this.backgroundDefragmenterLock) {
+      if (this.backgroundDefragmenter == null && !this.slabsFreed) {
+        ThreadGroup group =
+            LoggingThreadGroup.createThreadGroup("Off-Heap Defragmentation Thread Group", logger);
+        Thread thread =
+            new Thread(group, this::runBackgroundDefragmenter, "OffHeapBackgroundDefragmentation");
+        thread.setDaemon(true);
+        thread.start();
+        this.backgroundDefragmenter = thread;
+      }
+      this.backgroundDefragmenterLock.notifyAll();
+    }
+  }
+
+  private void runBackgroundDefragmenter() {
+    while (awaitBackgroundDefragmentationRequest()) {
+      runBackgroundDefragmentation();
+    }
+  }
+
+  /**
+   * Waits for a background defragmentation to be requested. Returns false once the slabs have
+   * been freed.
+   */
+  private boolean awaitBackgroundDefragmentationRequest() {
+    synchronized (this.backgroundDefragmenterLock) {
+      try {
+        while (!this.backgroundDefragmentationRequested.get() && !this.slabsFreed) {
+          this.backgroundDefragmenterLock.wait();
+        }
+      } catch (InterruptedException e) {
+        return false;
+      }
+      return !this.slabsFreed;
+    }
+  }
+
+  /**
+   * Runs the requested background defragmentation. It waits for the monitor that the
+   * defragmentations of allocating threads and {@link #freeSlabs()} hold, but allocations that are
+   * satisfied from the free lists or the fragments never take it. (package access for unit tests)
+   */
+  void runBackgroundDefragmentation() {
+    try {
+      if (!this.slabsFreed) {
+        defragment(OffHeapStoredObject.MIN_CHUNK_SIZE);
+      }
+    } finally {
+      this.backgroundDefragmentationRequested.set(false);
+    }
+  }
+
+  /**
+   * Returns the background defragmenter thread, or null if it has not been started. (package
+   * access for unit tests)
+   */
+  Thread getBackgroundDefragmenter() {
+    synchronized (this.backgroundDefragmenterLock) {
+      return this.backgroundDefragmenter;
+    }
+  }
+
   /**
    * Simple interface the represents a "stack" of primitive longs. Currently this interface only
    * allows supports poll but more could be added if needed in the future. This interface was
@@ -546,6 +690,13 @@ public class FreeListManager {
     }
   }
 
+  static void verifyBackgroundDefragmentationPercent(int percent) {
+    if (percent < 0 || percent > 100) {
+      throw new IllegalStateException(DistributionConfig.GEMFIRE_PREFIX
+          + "OFF_HEAP_BACKGROUND_DEFRAGMENTATION_PERCENT must be >= 0 and <= 100.");
+    }
+  }
+
   static void verifyHugeMultiple(int hugeMultiple) {
     if (hugeMultiple > 256 || hugeMultiple < 0) {
       // this restriction exists because of the dataSize field in the object header.
@@ -681,6 +832,7 @@ public class FreeListManager {
           OffHeapStoredObject result =
               new OffHeapStoredObject(fragment.getAddress() + oldOffset, chunkSize + extraSize);
           checkDataIntegrity(result);
+          checkBackgroundDefragmentation();
           return result;
         } else {
           OffHeapStoredObject result = basicAllocate(chunkSize, false);
@@ -974,8 +1126,16 @@ public class FreeListManager {
   }
 
   void freeSlabs() {
-    for (int i = 0; i < slabs.length; i++) {
-      slabs[i].free();
+    // wait for a background defragmentation that may still be reading the slabs
+    synchronized (this) {
+      this.slabsFreed = true;
+      for (int i = 0; i < slabs.length; i++) {
+        slabs[i].free();
+      }
+    }
+    // let the background defragmenter see slabsFreed and end
+    synchronized (this.backgroundDefragmenterLock) {
+      this.backgroundDefragmenterLock.notifyAll();
     }
   }
 
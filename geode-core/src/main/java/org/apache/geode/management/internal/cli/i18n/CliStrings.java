@@ -737,7 +737,7 @@ public class CliStrings {
   public static final String CREATE_INDEX__NAME__HELP = "Name of the index to create.";
   public static final String CREATE_INDEX__EXPRESSION = "expression";
   public static final String CREATE_INDEX__EXPRESSION__HELP =
-      "Field of the region values that are referenced by the index.";
+      "Field of the region values that are referenced by the index. A comma separated list of fields creates a composite index.";
   public static final String CREATE_INDEX__REGION = "region";
   public static final String CREATE_INDEX__REGION__HELP =
       "Name/Path of the region which corresponds to the \"from\" clause in a query.";
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.pdx.internal;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.geode.InternalGemFireException;
+import org.apache.geode.internal.DSCODE;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.offheap.StoredObject;
+
+/**
+ * Reads one field of serialized pdx objects straight from their bytes, without creating a
+ * {@link PdxInstanceImpl} and a {@link PdxReaderImpl} for each object. The position of the field
+ * is looked up once for each {@link PdxType} id and cached.
+ * <p>
+ * The values read are those {@link PdxInstanceImpl#getRawField(String)} would return: strings are
+ * returned as {@link PdxString}s and primitives are boxed. Fields of other types, strings stored
+ * off-heap, and objects that would be deserialized to a domain object instead of a PdxInstance are
+ * not read and {@link #NOT_READ} is returned, so that the caller deserializes the object instead.
+ *
+ * @since Geode 1.8.0
+ */
+public class PdxFieldAccessor {
+
+  /**
+   * Returned when the field has to be read from the deserialized object
+   */
+  public static final Object NOT_READ = new Object();
+
+  private static final Layout MISSING_FIELD = new Layout(null, 0, false);
+
+  private final String fieldName;
+
+  private final ConcurrentHashMap<Integer, Layout> layouts = new ConcurrentHashMap<>();
+
+  public PdxFieldAccessor(String fieldName) {
+    this.fieldName = fieldName;
+  }
+
+  public String getFieldName() {
+    return this.fieldName;
+  }
+
+  /**
+   * Reads the field from the serialized form of a pdx object.
+   */
+  public Object read(byte[] serializedValue, InternalCache cache) {
+    return readField(serializedValue, cache);
+  }
+
+  /**
+   * Reads the field from the off-heap serialized form of a pdx object.
+   */
+  public Object read(StoredObject storedObject, InternalCache cache) {
+    if (!storedObject.isSerialized() || storedObject.isCompressed()) {
+      return NOT_READ;
+    }
+    return readField(storedObject, cache);
+  }
+
+  private Object readField(Object bytes, InternalCache cache) {
+    if (byteAt(bytes, 0) != DSCODE.PDX.toByte()) {
+      return NOT_READ;
+    }
+    int length = readInt(bytes, 1);
+    int typeId = readInt(bytes, 5);
+    Layout layout = this.layouts.get(typeId);
+    if (layout == null) {
+      layout = createLayout(typeId, cache);
+      if (layout == null) {
+        return NOT_READ;
+      }
+      this.layouts.putIfAbsent(typeId, layout);
+    }
+    if (layout == MISSING_FIELD
+        || !(layout.noDomainClass || cache.getPdxReadSerializedByAnyGemFireServices())) {
+      return NOT_READ;
+    }
+    int position = PdxWriterImpl.HEADER_SIZE + getPosition(bytes, length, layout);
+    switch (layout.field.getFieldType()) {
+      case BOOLEAN:
+        return byteAt(bytes, position) != 0;
+      case BYTE:
+        return byteAt(bytes, position);
+      case CHAR:
+        return (char) readShort(bytes, position);
+      case SHORT:
+        return readShort(bytes, position);
+      case INT:
+        return readInt(bytes, position);
+      case LONG:
+        return readLong(bytes, position);
+      case FLOAT:
+        return Float.intBitsToFloat(readInt(bytes, position));
+      case DOUBLE:
+        return Double.longBitsToDouble(readLong(bytes, position));
+      case STRING:
+        if (!(bytes instanceof byte[])) {
+          return NOT_READ;
+        }
+        byte header = byteAt(bytes, position);
+        // Do not create PdxString if the field is NULL
+        if (header == DSCODE.NULL.toByte() || header == DSCODE.NULL_STRING.toByte()) {
+          return null;
+        }
+        return new PdxString((byte[]) bytes, position);
+      default:
+        return NOT_READ;
+    }
+  }
+
+  private Layout createLayout(int typeId, InternalCache cache) {
+    TypeRegistry registry = cache.getPdxRegistry();
+    PdxType type = registry == null ? null : registry.getType(typeId);
+    if (type == null) {
+      return null;
+    }
+    PdxField field = type.getPdxField(this.fieldName);
+    if (field == null) {
+      return MISSING_FIELD;
+    }
+    return new Layout(field, type.getVariableLengthFieldCount(), type.getNoDomainClass());
+  }
+
+  /**
+   * Returns the position of the field relative to the start of the fields, the same way
+   * {@link PdxReaderImpl} does.
+   */
+  private static int getPosition(Object bytes, int length, Layout layout) {
+    PdxField field = layout.field;
+    int idx0 = field.getRelativeOffset();
+    int idx1 = field.getVlfOffsetIndex();
+
+    if (field.isVariableLengthType()) {
+      return idx1 != -1 ? getOffset(bytes, length, idx1) : idx0;
+    }
+    if (idx0 >= 0) {
+      return idx0;
+    } else if (idx1 > 0) {
+      return getOffset(bytes, length, idx1) + idx0;
+    } else if (idx1 == -1) {
+      return length - layout.variableLengthFieldCount * getSizeOfOffset(length) + idx0;
+    } else {
+      throw new InternalGemFireException("idx0=" + idx0 + " idx1=" + idx1);
+    }
+  }
+
+  private static int getSizeOfOffset(int length) {
+    if (length <= PdxReaderImpl.MAX_UNSIGNED_BYTE) {
+      return DataSize.BYTE_SIZE;
+    } else if (length <= PdxReaderImpl.MAX_UNSIGNED_SHORT) {
+      return DataSize.SHORT_SIZE;
+    }
+    return DataSize.INTEGER_SIZE;
+  }
+
+  private static int getOffset(Object bytes, int length, int idx) {
+    int position = PdxWriterImpl.HEADER_SIZE + length - idx * getSizeOfOffset(length);
+    if (length <= PdxReaderImpl.MAX_UNSIGNED_BYTE) {
+      return byteAt(bytes, position) & PdxReaderImpl.MAX_UNSIGNED_BYTE;
+    } else if (length <= PdxReaderImpl.MAX_UNSIGNED_SHORT) {
+      return readShort(bytes, position) & PdxReaderImpl.MAX_UNSIGNED_SHORT;
+    } else {
+      return readInt(bytes, position);
+    }
+  }
+
+  private static byte byteAt(Object bytes, int position) {
+    if (bytes instanceof byte[]) {
+      return ((byte[]) bytes)[position];
+    }
+    return ((StoredObject) bytes).readDataByte(position);
+  }
+
+  private static short readShort(Object bytes, int position) {
+    return (short) ((byteAt(bytes, position) << 8) | (byteAt(bytes, position + 1) & 0xff));
+  }
+
+  private static int readInt(Object bytes, int position) {
+    return (byteAt(bytes, position) << 24) | ((byteAt(bytes, position + 1) & 0xff) << 16)
+        | ((byteAt(bytes, position + 2) & 0xff) << 8) | (byteAt(bytes, position + 3) & 0xff);
+  }
+
+  private static long readLong(Object bytes, int position) {
+    return ((long) readInt(bytes, position) << 32) | (readInt(bytes, position + 4) & 0xffffffffL);
+  }
+
+  /**
+   * Where the field is in the objects of a pdx type
+   */
+  private static class Layout {
+    private final PdxField field;
+
+    private final int variableLengthFieldCount;
+
+    private final boolean noDomainClass;
+
+    Layout(PdxField field, int variableLengthFieldCount, boolean noDomainClass) {
+      this.field = field;
+      this.variableLengthFieldCount = variableLengthFieldCount;
+      this.noDomainClass = noDomainClass;
+    }
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.client.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.InOrder;
+
+import org.apache.geode.cache.client.ServerOperationException;
+import org.apache.geode.internal.cache.EventID;
+import org.apache.geode.internal.cache.tier.sockets.VersionedObjectList;
+import org.apache.geode.test.junit.categories.ClientServerTest;
+
+@Category({ClientServerTest.class})
+public class AsyncOpBatcherTest {
+
+  private final AtomicInteger sequenceId = new AtomicInteger();
+  private ServerRegionDataAccess dataAccess;
+  private ScheduledThreadPoolExecutor executor;
+
+  @Before
+  public void setUp() {
+    dataAccess = mock(ServerRegionDataAccess.class);
+    when(dataAccess.getAll(anyList(), any())).thenAnswer(invocation -> {
+      List keys = invocation.getArgument(0);
+      VersionedObjectList result = new VersionedObjectList(keys.size(), true, false);
+      for (Object key : keys) {
+        result.addObject(key, "value-" + key, null);
+      }
+      return result;
+    });
+    executor = new ScheduledThreadPoolExecutor(2);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void sendsConcurrentGetsAsOneGetAllWhenBatchIsFull() throws Exception {
+    AsyncOpBatcher batcher = createBatcher(TimeUnit.MINUTES.toMicros(1), 3);
+
+    CompletableFuture<Object> a = batcher.get("a");
+    CompletableFuture<Object> b = batcher.get("b");
+    CompletableFuture<Object> a2 = batcher.get("a");
+
+    assertThat(a.get(10, TimeUnit.SECONDS)).isEqualTo("value-a");
+    assertThat(b.get(10, TimeUnit.SECONDS)).isEqualTo("value-b");
+    assertThat(a2.get(10, TimeUnit.SECONDS)).isEqualTo("value-a");
+    verify(dataAccess, times(1)).getAll(eq(Arrays.asList("a", "b")), any());
+  }
+
+  @Test
+  public void sendsGetsOnceWindowHasPassed() throws Exception {
+    AsyncOpBatcher batcher = createBatcher(1000, 100);
+
+    CompletableFuture<Object> a = batcher.get("a");
+
+    assertThat(a.get(10, TimeUnit.SECONDS)).isEqualTo("value-a");
+    verify(dataAccess, times(1)).getAll(eq(Collections.singletonList("a")), any());
+  }
+
+  @Test
+  public void failsGetWhenServerReturnsException() {
+    VersionedObjectList result = new VersionedObjectList(1, true, false);
+    result.addObject("a", new IllegalStateException("failed on server"), null);
+    when(dataAccess.getAll(anyList(), any())).thenReturn(result);
+    AsyncOpBatcher batcher = createBatcher(1000, 100);
+
+    CompletableFuture<Object> a = batcher.get("a");
+
+    assertThatThrownBy(() -> a.get(10, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(ServerOperationException.class);
+  }
+
+  @Test
+  public void sendsPutsOfSameKeyInOrder() throws Exception {
+    AsyncOpBatcher batcher = createBatcher(1000, 100);
+
+    CompletableFuture<Void> first = batcher.put("a", 1);
+    CompletableFuture<Void> second = batcher.put("a", 2);
+    CompletableFuture<Void> other = batcher.put("b", 3);
+    CompletableFuture.allOf(first, second, other).get(10, TimeUnit.SECONDS);
+
+    InOrder inOrder = inOrder(dataAccess);
+    inOrder.verify(dataAccess).putAll(eq(Collections.singletonMap("a", 1)), any(), anyBoolean(),
+        any());
+    inOrder.verify(dataAccess).putAll(eq(createMap("a", 2, "b", 3)), any(), anyBoolean(), any());
+  }
+
+  @Test
+  public void sendsPutOfKeyAfterItsPreviousBatchWasSentInOrder() throws Exception {
+    CountDownLatch firstPutAllStarted = new CountDownLatch(1);
+    CountDownLatch releaseFirstPutAll = new CountDownLatch(1);
+    List<Object> applied = Collections.synchronizedList(new ArrayList<>());
+    when(dataAccess.putAll(anyMap(), any(), anyBoolean(), any())).thenAnswer(invocation -> {
+      Map<Object, Object> values = invocation.getArgument(0);
+      if (values.containsValue(1)) {
+        firstPutAllStarted.countDown();
+        releaseFirstPutAll.await(10, TimeUnit.SECONDS);
+      }
+      applied.addAll(values.values());
+      return null;
+    });
+    AsyncOpBatcher batcher = createBatcher(TimeUnit.MINUTES.toMicros(1), 1);
+
+    CompletableFuture<Void> first = batcher.put("a", 1);
+    assertThat(firstPutAllStarted.await(10, TimeUnit.SECONDS)).isTrue();
+    CompletableFuture<Void> second = batcher.put("a", 2);
+    Thread.sleep(100);
+    assertThat(second).isNotDone();
+    releaseFirstPutAll.countDown();
+    CompletableFuture.allOf(first, second).get(10, TimeUnit.SECONDS);
+
+    assertThat(applied).containsExactly(1, 2);
+  }
+
+  @Test
+  public void failsPutsWhenPutAllThrows() {
+    RuntimeException failure = new ServerOperationException("failed");
+    when(dataAccess.putAll(anyMap(), any(), anyBoolean(), any())).thenThrow(failure);
+    AsyncOpBatcher batcher = createBatcher(1000, 100);
+
+    CompletableFuture<Void> a = batcher.put("a", 1);
+
+    assertThatThrownBy(() -> a.get(10, TimeUnit.SECONDS)).hasCause(failure);
+  }
+
+  private AsyncOpBatcher createBatcher(long windowMicros, int maxBatchSize) {
+    return new AsyncOpBatcher(dataAccess,
+        () -> new EventID(new byte[] {1}, 1, sequenceId.incrementAndGet()), executor,
+        windowMicros, maxBatchSize);
+  }
+
+  private static Map<Object, Object> createMap(Object k1, Object v1, Object k2, Object v2) {
+    Map<Object, Object> map = new HashMap<>();
+    map.put(k1, v1);
+    map.put(k2, v2);
+    return map;
+  }
+}
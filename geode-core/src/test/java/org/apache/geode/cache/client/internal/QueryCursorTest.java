@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.client.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.client.ServerOperationException;
+import org.apache.geode.cache.client.internal.QueryOp.QueryCursorOpImpl;
+import org.apache.geode.distributed.internal.membership.InternalDistributedMember;
+import org.apache.geode.internal.Version;
+import org.apache.geode.test.junit.categories.ClientServerTest;
+
+@Category({ClientServerTest.class})
+public class QueryCursorTest {
+
+  @Test
+  public void iteratesPagesInOrder() {
+    QueryCursor cursor = new QueryCursor(3);
+
+    cursor.addPage(Arrays.asList(1, 2));
+    cursor.addPage(Collections.emptyList());
+    cursor.addPage(Collections.singletonList(3));
+    CompletableFuture.runAsync(() -> cursor.finish(null));
+
+    assertThat(cursor).containsExactly(1, 2, 3);
+    assertThat(cursor.hasReceivedResults()).isTrue();
+  }
+
+  @Test
+  public void throwsFailureAfterPages() {
+    QueryCursor cursor = new QueryCursor(2);
+    RuntimeException failure = new ServerOperationException("failed");
+
+    cursor.addPage(Collections.singletonList(1));
+    cursor.finish(failure);
+
+    assertThat(cursor.next()).isEqualTo(1);
+    assertThatThrownBy(cursor::hasNext).isSameAs(failure);
+  }
+
+  @Test
+  public void closeReleasesBlockedReader() throws Exception {
+    QueryCursor cursor = new QueryCursor(1);
+    cursor.addPage(Collections.singletonList(1));
+
+    CompletableFuture<Boolean> added =
+        CompletableFuture.supplyAsync(() -> cursor.addPage(Collections.singletonList(2)));
+    cursor.close();
+
+    assertThat(added.get(10, TimeUnit.SECONDS)).isFalse();
+    assertThat(cursor.isClosed()).isTrue();
+    assertThat(cursor.hasNext()).isFalse();
+  }
+
+  @Test
+  public void cursorIsOnlyUsedWithServersThatSupportIt() {
+    InternalDistributedMember server = new InternalDistributedMember("localhost", 40404);
+    Connection connection = mock(Connection.class);
+    Endpoint endpoint = mock(Endpoint.class);
+    when(connection.getEndpoint()).thenReturn(endpoint);
+    when(endpoint.getMemberId()).thenReturn(server);
+
+    assertThat(QueryCursorOpImpl.supportsCursor(connection)).isTrue();
+
+    server.setVersionObjectForTest(Version.GFE_90);
+    assertThat(QueryCursorOpImpl.supportsCursor(connection)).isFalse();
+  }
+
+  @Test
+  public void closedCursorEndsOpWithoutSendingIt() {
+    QueryCursor cursor = new QueryCursor(1);
+    QueryCursorOpImpl op = new QueryCursorOpImpl("select * from /region", new Object[0], cursor);
+    Connection connection = mock(Connection.class);
+    cursor.close();
+
+    assertThatThrownBy(() -> op.attempt(connection))
+        .isInstanceOf(QueryCursorClosedException.class);
+    verifyNoMoreInteractions(connection);
+  }
+}
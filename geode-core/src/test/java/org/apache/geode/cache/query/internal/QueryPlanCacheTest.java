@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.internal.cache.CachePerfStats;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.test.junit.categories.OQLQueryTest;
+
+@Category({OQLQueryTest.class})
+public class QueryPlanCacheTest {
+
+  private CachePerfStats stats;
+  private QueryPlanCache planCache;
+  private InternalCache cache;
+
+  @Before
+  public void setUp() {
+    stats = mock(CachePerfStats.class);
+    planCache = new QueryPlanCache(3, stats);
+    cache = mock(InternalCache.class);
+    when(cache.getQueryPlanCache()).thenReturn(planCache);
+  }
+
+  @Test
+  public void queriesWithSameQueryStringShareCompiledPlan() {
+    String queryString = "select * from /region where id > $1";
+
+    DefaultQuery first = new DefaultQuery(queryString, cache, false);
+    DefaultQuery second = new DefaultQuery(queryString, cache, false);
+
+    assertThat(second.getSimpleSelect()).isSameAs(first.getSimpleSelect());
+    verify(stats, times(1)).incQueryPlanCacheMisses();
+    verify(stats, times(1)).incQueryPlanCacheHits();
+  }
+
+  @Test
+  public void countQueriesAreNotCached() {
+    String queryString = "select count(*) from /region";
+
+    DefaultQuery first = new DefaultQuery(queryString, cache, false);
+    DefaultQuery second = new DefaultQuery(queryString, cache, false);
+
+    assertThat(second.getSimpleSelect()).isNotSameAs(first.getSimpleSelect());
+    assertThat(planCache.size()).isZero();
+  }
+
+  @Test
+  public void remoteQueriesAreNotCached() {
+    new DefaultQuery("select * from /region", cache, true);
+
+    assertThat(planCache.size()).isZero();
+  }
+
+  @Test
+  public void invalidateDropsPlans() {
+    DefaultQuery first = new DefaultQuery("select * from /region", cache, false);
+
+    planCache.invalidate();
+    DefaultQuery second = new DefaultQuery("select * from /region", cache, false);
+
+    assertThat(second.getSimpleSelect()).isNotSameAs(first.getSimpleSelect());
+  }
+
+  @Test
+  public void planCompiledBeforeInvalidateIsNotCached() {
+    long generation = planCache.getGeneration();
+    QueryPlanCache.Plan plan = new QueryPlanCache.Plan(mock(CompiledValue.class), false);
+
+    planCache.invalidate();
+    planCache.put("select * from /region", plan, generation);
+
+    assertThat(planCache.get("select * from /region")).isNull();
+  }
+
+  @Test
+  public void evictionKeepsPlansUsedSinceLastEviction() {
+    for (int i = 0; i < 3; i++) {
+      planCache.put("query" + i, newPlan(), planCache.getGeneration());
+    }
+    planCache.get("query1");
+
+    planCache.put("query3", newPlan(), planCache.getGeneration());
+
+    assertThat(planCache.get("query0")).isNull();
+    assertThat(planCache.get("query1")).isNotNull();
+    assertThat(planCache.get("query2")).isNull();
+    assertThat(planCache.get("query3")).isNotNull();
+  }
+
+  @Test
+  public void zeroMaxSizeDisablesCache() {
+    planCache = new QueryPlanCache(0, stats);
+    when(cache.getQueryPlanCache()).thenReturn(planCache);
+
+    new DefaultQuery("select * from /region", cache, false);
+
+    assertThat(planCache.isEnabled()).isFalse();
+    assertThat(planCache.size()).isZero();
+  }
+
+  @Test
+  public void cacheIsDisabledByDefault() {
+    assertThat(new QueryPlanCache(stats).isEnabled()).isFalse();
+  }
+
+  private static QueryPlanCache.Plan newPlan() {
+    return new QueryPlanCache.Plan(mock(CompiledValue.class), false);
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.internal.cache.CachePerfStats;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.cache.PartitionedRegion;
+import org.apache.geode.test.junit.categories.OQLQueryTest;
+
+@Category({OQLQueryTest.class})
+public class QueryResultCacheTest {
+
+  private CachePerfStats stats;
+  private QueryResultCache resultCache;
+  private InternalCache cache;
+  private LocalRegion region;
+
+  @Before
+  public void setUp() {
+    stats = mock(CachePerfStats.class);
+    resultCache = new QueryResultCache(1024 * 1024, stats);
+    cache = mock(InternalCache.class);
+    region = mock(LocalRegion.class);
+    when(region.isInitialized()).thenReturn(true);
+    when(cache.getRegionByPath("/region")).thenReturn(region);
+  }
+
+  @Test
+  public void returnsResultsWhileRegionIsUnchanged() {
+    QueryResultCache.Key key = newKey("select * from /region where id > $1", 1);
+    SelectResults results = newResults(1, 2, 3);
+
+    resultCache.put(key, results, true, snapshot());
+    QueryResultCache.Entry entry =
+        resultCache.get(newKey("select * from /region where id > $1", 1));
+
+    assertThat(entry.getResults()).containsExactlyInAnyOrder(1, 2, 3);
+    assertThat(entry.isIndexUsed()).isTrue();
+    verify(stats).incQueryResultCacheHits();
+  }
+
+  @Test
+  public void executionsGetUnmodifiableViewsOfCachedResults() {
+    QueryResultCache.Key key = newKey("select * from /region");
+    SelectResults results = newResults(1, 2);
+
+    SelectResults view = resultCache.put(key, results, false, snapshot());
+    results.add(3);
+
+    assertThat(view).isNotSameAs(results);
+    assertThat(view.isModifiable()).isFalse();
+    assertThatThrownBy(() -> view.add(4)).isInstanceOf(UnsupportedOperationException.class);
+    assertThatThrownBy(() -> view.clear()).isInstanceOf(UnsupportedOperationException.class);
+    assertThatThrownBy(() -> {
+      Iterator iterator = view.iterator();
+      iterator.next();
+      iterator.remove();
+    }).isInstanceOf(UnsupportedOperationException.class);
+    SelectResults cached = resultCache.get(key).getResults();
+    assertThat(cached).isNotSameAs(view);
+    assertThat(cached).containsExactlyInAnyOrder(1, 2);
+  }
+
+  @Test
+  public void keyIncludesBindParameters() {
+    resultCache.put(newKey("select * from /region where id > $1", 1), newResults(1), false,
+        snapshot());
+
+    assertThat(resultCache.get(newKey("select * from /region where id > $1", 2))).isNull();
+    verify(stats).incQueryResultCacheMisses();
+  }
+
+  @Test
+  public void dropsResultsOnceRegionHasChanged() {
+    QueryResultCache.Key key = newKey("select * from /region");
+    resultCache.put(key, newResults(1), false, snapshot());
+
+    when(region.getQueryResultVersion()).thenReturn(1L);
+
+    assertThat(resultCache.get(key)).isNull();
+    assertThat(resultCache.size()).isZero();
+    assertThat(resultCache.getBytes()).isZero();
+    verify(stats).incQueryResultCacheStaleResults();
+  }
+
+  @Test
+  public void dropsResultsOnceRegionIsDestroyed() {
+    QueryResultCache.Key key = newKey("select * from /region");
+    resultCache.put(key, newResults(1), false, snapshot());
+
+    when(region.isDestroyed()).thenReturn(true);
+
+    assertThat(resultCache.get(key)).isNull();
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsedResultsWhenFull() {
+    resultCache.put(newKey("q1"), newResults(1), false, snapshot());
+    long size = resultCache.getBytes();
+    resultCache = new QueryResultCache(size * 2, stats);
+    resultCache.put(newKey("q1"), newResults(1), false, snapshot());
+    resultCache.put(newKey("q2"), newResults(2), false, snapshot());
+    resultCache.get(newKey("q1"));
+
+    resultCache.put(newKey("q3"), newResults(3), false, snapshot());
+
+    assertThat(resultCache.get(newKey("q1"))).isNotNull();
+    assertThat(resultCache.get(newKey("q2"))).isNull();
+    assertThat(resultCache.get(newKey("q3"))).isNotNull();
+    assertThat(resultCache.getBytes()).isEqualTo(size * 2);
+  }
+
+  @Test
+  public void partitionedRegionQueriesAreNotCached() {
+    PartitionedRegion partitionedRegion = mock(PartitionedRegion.class);
+    when(partitionedRegion.isInitialized()).thenReturn(true);
+    when(cache.getRegionByPath("/partitioned")).thenReturn(partitionedRegion);
+
+    assertThat(QueryResultCache.snapshot(cache, Collections.singleton("/partitioned"))).isNull();
+  }
+
+  @Test
+  public void mutableBindParametersAreNotCacheable() {
+    assertThat(QueryResultCache.isCacheable(new Object[] {1, "a", null})).isTrue();
+    assertThat(QueryResultCache.isCacheable(new Object[] {new Date()})).isFalse();
+    assertThat(QueryResultCache.isCacheable(new Object[] {Collections.emptyList()})).isFalse();
+  }
+
+  private QueryResultCache.Snapshot snapshot() {
+    return QueryResultCache.snapshot(cache, Collections.singleton("/region"));
+  }
+
+  private static QueryResultCache.Key newKey(String queryString, Object... params) {
+    return new QueryResultCache.Key(queryString, params, false);
+  }
+
+  private static SelectResults newResults(Object... elements) {
+    ResultsBag results = new ResultsBag();
+    for (Object element : elements) {
+      results.add(element);
+    }
+    return results;
+  }
+}
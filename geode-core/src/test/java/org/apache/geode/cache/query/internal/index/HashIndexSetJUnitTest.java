@@ -19,7 +19,11 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.only;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.HashMap;
@@ -43,6 +47,7 @@ public class HashIndexSetJUnitTest {
   Map<Integer, Portfolio> portfoliosMap;
   Set<Portfolio> portfolioSet;
   HashIndexSet his;
+  HashIndex.IMQEvaluator mockEvaluator;
 
   private void setupHashIndexSet(int numEntries) {
     his = createHashIndexSet();
@@ -64,7 +69,7 @@ public class HashIndexSetJUnitTest {
 
   private HashIndexSet createHashIndexSet() {
     HashIndexSet his = new HashIndexSet();
-    HashIndex.IMQEvaluator mockEvaluator = mock(HashIndex.IMQEvaluator.class);
+    mockEvaluator = mock(HashIndex.IMQEvaluator.class);
     when(mockEvaluator.evaluateKey(any(Object.class))).thenAnswer(new EvaluateKeyAnswer());
     his.setEvaluator(mockEvaluator);
     return his;
@@ -490,6 +495,57 @@ public class HashIndexSetJUnitTest {
     assertFalse(indexSet.equals(new Object()));
   }
 
+  @Test
+  public void testGetIntegralKeyOnlyEvaluatesMatchingObjects() throws Exception {
+    int numEntries = 100;
+    setupHashIndexSet(numEntries);
+    clearInvocations(mockEvaluator);
+
+    Iterator iterator = his.get(7);
+    assertTrue(iterator.hasNext());
+    assertEquals(portfoliosMap.get(7), iterator.next());
+    assertFalse(iterator.hasNext());
+    assertFalse(his.get(7L + numEntries).hasNext());
+    verify(mockEvaluator, only()).evaluateKey(portfoliosMap.get(7));
+  }
+
+  @Test
+  public void testGetIntegralKeyReevaluatesObjectWhoseKeyChanged() throws Exception {
+    int numEntries = 100;
+    setupHashIndexSet(numEntries);
+
+    portfoliosMap.get(7).indexKey = 8;
+
+    assertFalse(his.get(7).hasNext());
+  }
+
+  @Test
+  public void testRehashDoesNotEvaluateObjects() throws Exception {
+    int numEntries = 100;
+    setupHashIndexSet(numEntries);
+    clearInvocations(mockEvaluator);
+
+    his.rehash(1000);
+
+    verify(mockEvaluator, never()).evaluateKey(any(Object.class));
+    assertEquals(numEntries, his.size());
+    portfoliosMap.forEach((k, v) -> {
+      Iterator iterator = his.get(k);
+      assertTrue(iterator.hasNext());
+      assertEquals(v, iterator.next());
+    });
+  }
+
+  @Test
+  public void testGetAfterRemoveAtDoesNotMatchRemovedSlot() throws Exception {
+    int numEntries = 100;
+    setupHashIndexSet(numEntries);
+
+    his.removeAt(his.index(portfoliosMap.get(3)));
+
+    assertFalse(his.get(3).hasNext());
+  }
+
   private static class EvaluateKeyAnswer implements Answer {
 
     @Override
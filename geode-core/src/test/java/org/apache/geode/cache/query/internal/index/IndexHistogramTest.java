@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import static org.apache.geode.cache.query.internal.index.IndexHistogram.MAX_BOUNDARIES;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.test.junit.categories.OQLIndexTest;
+
+@Category({OQLIndexTest.class})
+public class IndexHistogramTest {
+
+  @Test
+  public void estimatesSkewedKeysByNumberOfValues() {
+    IndexHistogram.Builder builder = new IndexHistogram.Builder(1000);
+    builder.addValues(1, 900);
+    for (int key = 2; key <= 101; key++) {
+      builder.addValues(key, 1);
+    }
+
+    IndexHistogram histogram = builder.build();
+
+    assertThat(histogram.getTotalValues()).isEqualTo(1000);
+    assertThat(histogram.estimateValuesBelow(1)).isEqualTo(0);
+    assertThat(histogram.estimateValuesBelow(2)).isEqualTo(900);
+    assertThat(histogram.estimateValuesBelow(50)).isCloseTo(948, within(8L));
+    assertThat(histogram.estimateValuesBelow(200)).isEqualTo(1000);
+  }
+
+  @Test
+  public void boundariesAreSpacedByNumberOfValues() {
+    IndexHistogram.Builder builder = new IndexHistogram.Builder(1000);
+    for (int key = 0; key < 1000; key++) {
+      builder.addValue(key % 2 == 0 ? key : key - 1);
+    }
+
+    IndexHistogram histogram = builder.build();
+
+    // 500 distinct keys with 2 values each, and at least 16 values between boundaries
+    assertThat(histogram.getNumberOfBoundaries()).isBetween(31, MAX_BOUNDARIES);
+    assertThat(histogram.estimateValuesBelow(500)).isCloseTo(500L, within(16L));
+  }
+
+  @Test
+  public void frequentKeyIsABoundary() {
+    IndexHistogram.Builder builder = new IndexHistogram.Builder(2000);
+    for (int key = 0; key < 1000; key++) {
+      builder.addValue(key);
+    }
+    for (int i = 0; i < 1000; i++) {
+      builder.addValue(1000);
+    }
+    builder.addValue(1001);
+
+    IndexHistogram histogram = builder.build();
+
+    assertThat(histogram.estimateValuesBelow(1000)).isEqualTo(1000);
+    assertThat(histogram.estimateValuesBelow(1001)).isEqualTo(2000);
+  }
+
+  @Test
+  public void estimatesNonNumericKeys() {
+    IndexHistogram.Builder builder = new IndexHistogram.Builder(260);
+    for (char c = 'a'; c <= 'z'; c++) {
+      String key = String.valueOf(c);
+      for (int i = 0; i < 10; i++) {
+        builder.addValue(key);
+      }
+    }
+
+    IndexHistogram histogram = builder.build();
+
+    assertThat(histogram.getTotalValues()).isEqualTo(260);
+    assertThat(histogram.estimateValuesBelow("m")).isEqualTo(120);
+    assertThat(histogram.estimateValuesBelow("0")).isEqualTo(0);
+  }
+
+  @Test
+  public void keepsBoundedNumberOfKeys() {
+    IndexHistogram.Builder builder = new IndexHistogram.Builder(10_000);
+    for (int key = 0; key < 10_000; key++) {
+      builder.addValue(key);
+    }
+
+    IndexHistogram histogram = builder.build();
+
+    assertThat(histogram.getTotalValues()).isEqualTo(10_000);
+    assertThat(histogram.getNumberOfBoundaries()).isLessThanOrEqualTo(MAX_BOUNDARIES);
+    assertThat(histogram.estimateValuesBelow(5_000)).isCloseTo(5_000L, within(200L));
+    assertThat(histogram.estimateValuesBelow(9_999)).isCloseTo(9_999L, within(200L));
+  }
+
+  @Test
+  public void keepsBoundedNumberOfKeysWhenMoreValuesThanExpectedAreAdded() {
+    IndexHistogram.Builder builder = new IndexHistogram.Builder(0);
+    for (int key = 0; key < 10_000; key++) {
+      builder.addValue(key);
+    }
+
+    IndexHistogram histogram = builder.build();
+
+    assertThat(histogram.getNumberOfBoundaries()).isLessThanOrEqualTo(MAX_BOUNDARIES);
+    assertThat(histogram.estimateValuesBelow(5_000)).isCloseTo(5_000L, within(200L));
+  }
+
+  @Test
+  public void cannotEstimateKeyOfOtherType() {
+    IndexHistogram.Builder builder = new IndexHistogram.Builder(1);
+    builder.addValues(1, 1);
+
+    assertThat(builder.build().estimateValuesBelow("a")).isEqualTo(-1);
+  }
+}
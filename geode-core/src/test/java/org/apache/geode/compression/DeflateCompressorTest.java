@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.compression;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang.SerializationUtils;
+import org.junit.Test;
+
+public class DeflateCompressorTest {
+
+  @Test
+  public void decompressReturnsCompressedInput() {
+    DeflateCompressor compressor = new DeflateCompressor();
+    Random random = new Random(1);
+    byte[] incompressible = new byte[100_000];
+    random.nextBytes(incompressible);
+
+    for (byte[] input : Arrays.asList(new byte[0], "a".getBytes(StandardCharsets.UTF_8),
+        new byte[100_000], incompressible)) {
+      assertThat(compressor.decompress(compressor.compress(input))).isEqualTo(input);
+    }
+  }
+
+  @Test
+  public void trainedDictionaryImprovesRatioOfSmallValues() {
+    List<byte[]> samples = createSamples(2000);
+    byte[] dictionary = DeflateCompressor.trainDictionary(samples, 4096);
+    DeflateCompressor plain = new DeflateCompressor();
+    DeflateCompressor withDictionary = new DeflateCompressor(-1, dictionary);
+
+    long plainSize = 0;
+    long dictionarySize = 0;
+    for (byte[] sample : samples) {
+      byte[] compressed = withDictionary.compress(sample);
+      assertThat(withDictionary.decompress(compressed)).isEqualTo(sample);
+      plainSize += plain.compress(sample).length;
+      dictionarySize += compressed.length;
+    }
+
+    assertThat(dictionary.length).isLessThanOrEqualTo(4096).isGreaterThan(0);
+    assertThat(dictionarySize).isLessThan(plainSize * 3 / 4);
+  }
+
+  @Test
+  public void decompressWithoutDictionaryThrows() {
+    List<byte[]> samples = createSamples(100);
+    DeflateCompressor withDictionary =
+        new DeflateCompressor(-1, DeflateCompressor.trainDictionary(samples, 1024));
+
+    byte[] compressed = withDictionary.compress(samples.get(0));
+
+    assertThatThrownBy(() -> new DeflateCompressor().decompress(compressed))
+        .isInstanceOf(CompressionException.class);
+  }
+
+  @Test
+  public void decompressTruncatedValueThrows() {
+    DeflateCompressor compressor = new DeflateCompressor();
+    byte[] compressed = compressor.compress(createSamples(1).get(0));
+
+    assertThatThrownBy(
+        () -> compressor.decompress(Arrays.copyOf(compressed, compressed.length - 3)))
+            .isInstanceOf(CompressionException.class);
+  }
+
+  @Test
+  public void decompressRejectsLengthThatCanNotBeInflatedFromInput() {
+    DeflateCompressor compressor = new DeflateCompressor();
+    byte[] compressed = compressor.compress(new byte[10]);
+    ByteBuffer.wrap(compressed).putInt(Integer.MAX_VALUE);
+
+    assertThatThrownBy(() -> compressor.decompress(compressed))
+        .isInstanceOf(CompressionException.class);
+  }
+
+  @Test
+  public void highlyCompressibleValueIsNotRejected() {
+    DeflateCompressor compressor = new DeflateCompressor(9, null);
+    byte[] zeros = new byte[10_000_000];
+
+    assertThat(compressor.decompress(compressor.compress(zeros))).isEqualTo(zeros);
+  }
+
+  @Test
+  public void idleCodecsAreBoundedByPool() throws Exception {
+    DeflateCompressor compressor = new DeflateCompressor();
+    byte[] value = createSamples(1).get(0);
+    int threads = 4 * Runtime.getRuntime().availableProcessors();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<byte[]>> results = new ArrayList<>();
+      for (int i = 0; i < threads * 10; i++) {
+        results.add(executor.submit(() -> compressor.decompress(compressor.compress(value))));
+      }
+      for (Future<byte[]> result : results) {
+        assertThat(result.get()).isEqualTo(value);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(compressor.getPooledCodecCount())
+        .isLessThanOrEqualTo(2 * Runtime.getRuntime().availableProcessors());
+  }
+
+  @Test
+  public void initializeConfiguresLevelAndDictionary() {
+    byte[] dictionary = DeflateCompressor.trainDictionary(createSamples(100), 1024);
+    Properties properties = new Properties();
+    properties.setProperty("level", "9");
+    properties.setProperty("dictionary", Base64.getEncoder().encodeToString(dictionary));
+    DeflateCompressor compressor = new DeflateCompressor();
+
+    compressor.initialize(null, properties);
+
+    assertThat(compressor).isEqualTo(new DeflateCompressor(9, dictionary));
+    assertThat(compressor.getConfig()).isEqualTo(properties);
+  }
+
+  @Test
+  public void initializeRejectsInvalidLevel() {
+    Properties properties = new Properties();
+    properties.setProperty("level", "10");
+
+    assertThatThrownBy(() -> new DeflateCompressor().initialize(null, properties))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void serializedCopyKeepsDictionaryAndIsEqual() {
+    List<byte[]> samples = createSamples(100);
+    DeflateCompressor compressor =
+        new DeflateCompressor(9, DeflateCompressor.trainDictionary(samples, 1024));
+
+    DeflateCompressor copy =
+        (DeflateCompressor) SerializationUtils.deserialize(SerializationUtils.serialize(compressor));
+
+    assertThat(copy).isEqualTo(compressor);
+    assertThat(copy.decompress(compressor.compress(samples.get(0)))).isEqualTo(samples.get(0));
+  }
+
+  private static List<byte[]> createSamples(int count) {
+    Random random = new Random(2);
+    List<byte[]> samples = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      String value = "{\"type\":\"com.example.Trade\",\"symbol\":\"SYM" + random.nextInt(500)
+          + "\",\"quantity\":" + random.nextInt(10000) + ",\"price\":" + random.nextDouble()
+          + ",\"trader\":\"trader" + random.nextInt(50) + "\"}";
+      samples.add(value.getBytes(StandardCharsets.UTF_8));
+    }
+    return samples;
+  }
+}
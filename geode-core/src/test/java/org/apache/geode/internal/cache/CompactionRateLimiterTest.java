@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class CompactionRateLimiterTest {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  public void doesNotWaitWithinOneSecondOfBudget() throws Exception {
+    FakeClockRateLimiter limiter = new FakeClockRateLimiter(1000);
+
+    limiter.acquire(600);
+    limiter.acquire(400);
+
+    assertThat(limiter.slept).isEqualTo(0);
+  }
+
+  @Test
+  public void waitsForBytesBeyondTheBudget() throws Exception {
+    FakeClockRateLimiter limiter = new FakeClockRateLimiter(1000);
+
+    limiter.acquire(1000);
+    limiter.acquire(500);
+    limiter.acquire(500);
+
+    assertThat(limiter.slept).isEqualTo(SECOND / 2);
+  }
+
+  @Test
+  public void unusedBudgetDoesNotAccumulateBeyondOneSecond() throws Exception {
+    FakeClockRateLimiter limiter = new FakeClockRateLimiter(1000);
+    limiter.acquire(1000);
+
+    limiter.now += 10 * SECOND;
+    limiter.acquire(1000);
+    limiter.acquire(1000);
+    limiter.acquire(1000);
+
+    assertThat(limiter.slept).isEqualTo(SECOND);
+  }
+
+  @Test
+  public void longWaitIsSplitIntoShortSleeps() throws Exception {
+    FakeClockRateLimiter limiter = new FakeClockRateLimiter(1000);
+    limiter.acquire(1000);
+
+    limiter.acquire(2000);
+    limiter.acquire(0);
+
+    assertThat(limiter.slept).isEqualTo(2 * SECOND);
+    assertThat(limiter.sleeps).isEqualTo(2 * SECOND / CompactionRateLimiter.MAX_SLEEP_NANOS);
+  }
+
+  @Test
+  public void stopsWaitingOnceStopped() throws Exception {
+    FakeClockRateLimiter limiter = new FakeClockRateLimiter(1000);
+    limiter.acquire(1000);
+    limiter.acquire(10_000);
+
+    limiter.acquire(1000, () -> limiter.sleeps >= 3);
+
+    assertThat(limiter.sleeps).isEqualTo(3);
+    assertThat(limiter.slept).isEqualTo(3 * CompactionRateLimiter.MAX_SLEEP_NANOS);
+  }
+
+  @Test
+  public void doesNotWaitIfAlreadyStopped() throws Exception {
+    FakeClockRateLimiter limiter = new FakeClockRateLimiter(1000);
+    limiter.acquire(1000);
+    limiter.acquire(1000);
+
+    limiter.acquire(1000, () -> true);
+
+    assertThat(limiter.sleeps).isZero();
+  }
+
+  @Test
+  public void rejectsNonPositiveRate() {
+    assertThatThrownBy(() -> new CompactionRateLimiter(0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static class FakeClockRateLimiter extends CompactionRateLimiter {
+    long now = 100 * SECOND;
+    long slept;
+    int sleeps;
+
+    FakeClockRateLimiter(long bytesPerSecond) {
+      super(bytesPerSecond);
+    }
+
+    @Override
+    long nanoTime() {
+      return now;
+    }
+
+    @Override
+    void sleep(long nanos) {
+      slept += nanos;
+      sleeps++;
+      now += nanos;
+    }
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.test.junit.categories.WanTest;
+
+@Category({WanTest.class})
+public class LongKeyDequeTest {
+
+  private final LongKeyDeque deque = new LongKeyDeque();
+
+  @Test
+  public void keysAreRemovedInOrderTheyWereAdded() {
+    for (long key = 0; key < 100; key++) {
+      deque.addLast(key);
+    }
+
+    for (long key = 0; key < 100; key++) {
+      assertThat(deque.removeFirst()).isEqualTo(key);
+    }
+    assertThat(deque.isEmpty()).isTrue();
+    assertThat(deque.peekFirst()).isNull();
+  }
+
+  @Test
+  public void removeFirstOfEmptyDequeThrows() {
+    assertThatThrownBy(deque::removeFirst).isInstanceOf(NoSuchElementException.class);
+  }
+
+  @Test
+  public void addFirstPushesKeyBackToHead() {
+    deque.addLast(2);
+    deque.addLast(3);
+    deque.removeFirst();
+
+    deque.addFirst(2);
+    deque.addFirst(1);
+
+    assertThat(deque.toArray()).containsExactly(1, 2, 3);
+  }
+
+  @Test
+  public void keysRemovedFromMiddleAreSkipped() {
+    for (long key = 0; key < 5; key++) {
+      deque.addLast(key);
+    }
+
+    assertThat(deque.remove(2)).isTrue();
+    assertThat(deque.remove(1)).isTrue();
+    assertThat(deque.remove(7)).isFalse();
+
+    assertThat(deque.size()).isEqualTo(3);
+    assertThat(deque).containsExactly(0L, 3L, 4L);
+    assertThat(deque.removeFirst()).isEqualTo(0);
+    assertThat(deque.peekFirst()).isEqualTo(3);
+  }
+
+  @Test
+  public void removingLastKeyAfterMiddleRemovalsEmptiesDeque() {
+    deque.addLast(1);
+    deque.addLast(2);
+    deque.addLast(3);
+
+    deque.remove(2);
+    deque.remove(3);
+    deque.remove(1);
+
+    assertThat(deque.isEmpty()).isTrue();
+    assertThat(deque.peekFirst()).isNull();
+    deque.addLast(4);
+    assertThat(deque.toArray()).containsExactly(4);
+  }
+
+  @Test
+  public void dequeGrowsAndShrinksAcrossWrapAround() {
+    for (long key = 0; key < 10; key++) {
+      deque.addLast(key);
+    }
+    for (int i = 0; i < 8; i++) {
+      deque.removeFirst();
+    }
+    for (long key = 10; key < 1000; key++) {
+      deque.addLast(key);
+    }
+    for (long key = 8; key < 990; key++) {
+      assertThat(deque.removeFirst()).isEqualTo(key);
+    }
+
+    assertThat(deque.toArray()).containsExactly(990, 991, 992, 993, 994, 995, 996, 997, 998, 999);
+  }
+
+  @Test
+  public void iteratorIsSnapshot() {
+    deque.addLast(1);
+    deque.addLast(2);
+
+    Iterator<Long> iterator = deque.iterator();
+    deque.clear();
+
+    assertThat(iterator).containsExactly(1L, 2L);
+    assertThat(deque.isEmpty()).isTrue();
+  }
+}
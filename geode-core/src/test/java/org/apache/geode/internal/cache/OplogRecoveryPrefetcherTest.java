@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class OplogRecoveryPrefetcherTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private DiskStoreStats stats;
+
+  @Before
+  public void setUp() {
+    stats = mock(DiskStoreStats.class);
+  }
+
+  @Test
+  public void loadsFilesAheadOfTheOneBeingRecovered() throws IOException {
+    File first = createFile("first", 100);
+    File second = createFile("second", 200);
+    File third = createFile("third", 300);
+    OplogRecoveryPrefetcher prefetcher =
+        new OplogRecoveryPrefetcher(Arrays.asList(first, second, third), 1, stats);
+    try {
+      prefetcher.recovering(0);
+
+      verify(stats, timeout(10000)).endOplogPrefetch(anyLong(), eq(100L));
+      verify(stats, timeout(10000)).endOplogPrefetch(anyLong(), eq(200L));
+      verify(stats, never()).endOplogPrefetch(anyLong(), eq(300L));
+
+      prefetcher.recovering(1);
+
+      verify(stats, timeout(10000)).endOplogPrefetch(anyLong(), eq(300L));
+    } finally {
+      prefetcher.close();
+    }
+  }
+
+  @Test
+  public void skipsMissingFiles() throws IOException {
+    File missing = new File(temporaryFolder.getRoot(), "missing");
+    File existing = createFile("existing", 100);
+    OplogRecoveryPrefetcher prefetcher =
+        new OplogRecoveryPrefetcher(Arrays.asList(null, missing, existing), 2, stats);
+    try {
+      prefetcher.recovering(0);
+
+      verify(stats, timeout(10000)).endOplogPrefetch(anyLong(), eq(100L));
+      verify(stats, timeout(10000)).endOplogPrefetch(anyLong(), eq(0L));
+    } finally {
+      prefetcher.close();
+    }
+  }
+
+  @Test
+  public void closeWaitsForRunningPrefetches() throws IOException {
+    File first = createFile("first", 100);
+    File second = createFile("second", 200);
+    OplogRecoveryPrefetcher prefetcher =
+        new OplogRecoveryPrefetcher(Arrays.asList(first, second), 2, stats);
+    prefetcher.recovering(0);
+
+    prefetcher.close();
+
+    assertThat(prefetcher.isClosed()).isTrue();
+  }
+
+  @Test
+  public void unmapReleasesMapping() throws IOException {
+    File file = createFile("mapped", 4096);
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      MappedByteBuffer mapping = channel.map(MapMode.READ_ONLY, 0, 4096);
+      mapping.load();
+
+      assertThat(OplogRecoveryPrefetcher.unmap(mapping)).isTrue();
+    }
+    assertThat(file.delete()).isTrue();
+  }
+
+  private File createFile(String name, int size) throws IOException {
+    File file = temporaryFolder.newFile(name);
+    Files.write(file.toPath(), new byte[size]);
+    return file;
+  }
+}
@@ -16,6 +16,7 @@ package org.apache.geode.internal.cache;
 
 import static org.awaitility.Awaitility.await;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
@@ -43,6 +44,7 @@ import org.apache.geode.cache.query.internal.CompiledSelect;
 import org.apache.geode.cache.query.internal.CompiledValue;
 import org.apache.geode.cache.query.internal.DefaultQuery;
 import org.apache.geode.cache.query.internal.LinkedResultSet;
+import org.apache.geode.cache.query.internal.QueryResultStream;
 import org.apache.geode.cache.query.internal.types.ObjectTypeImpl;
 import org.apache.geode.distributed.internal.DistributionMessage;
 import org.apache.geode.distributed.internal.InternalDistributedSystem;
@@ -205,6 +207,143 @@ public class PartitionedRegionQueryEvaluatorTest {
   }
 
   @Test
+  public void testResultsOfMembersAreStreamedAsTheyFinish() throws Exception {
+    List resultsForMember1 = createResultObjects("1", "2", "3");
+    List resultsForMember2 = createResultObjects("4", "5", "6");
+
+    PartitionedQueryScenario scenario = new PartitionedQueryScenario(localNode, allNodes,
+        noFailingMembers, createFakeBucketMap(), new ProcessDataFaker() {
+          public void processData(PartitionedRegionQueryEvaluator prqe) {
+            prqe.processData(resultsForMember2, remoteNodeA, 0, true);
+            prqe.streamMemberResults(remoteNodeA);
+          }
+
+          public void executeQueryLocally(Collection resultsCollector) {
+            resultsCollector.add(resultsForMember1);
+          }
+        });
+
+    Set allBucketsToQuery = scenario.getAllBucketsToQuery();
+    Queue<PartitionedQueryScenario> scenarios = createScenariosQueue(scenario);
+    dataStore.setScenarios(scenarios);
+
+    QueryResultStream stream = new QueryResultStream();
+    Collection results = queryBucketsWithStream(stream, allBucketsToQuery, scenarios);
+
+    List expectedResults = new LinkedList();
+    expectedResults.addAll(resultsForMember1);
+    expectedResults.addAll(resultsForMember2);
+    List<SelectResults> streamedResults = takeAll(stream);
+    assertEquals(2, streamedResults.size());
+    assertEquals(expectedResults.size(), flatten(streamedResults).size());
+    assertTrue(flatten(streamedResults).containsAll(expectedResults));
+    assertTrue(results.isEmpty());
+  }
+
+  @Test
+  public void testResultsOfFailedMemberAreStreamedOnlyFromRetry() throws Exception {
+    List resultsForMember1 = createResultObjects("1", "2", "3");
+    List resultsForMember2 = createResultObjects("A", "B", "C");
+    List partialResultsForFailedMember = createResultObjects("X", "Y");
+    List resultsForMember1ForRetry = createResultObjects("&", "$", "!");
+
+    Set<InternalDistributedMember> failingMembers = new HashSet<>();
+    failingMembers.add(remoteNodeB);
+    PartitionedQueryScenario allNodesUpAtBeginning = new PartitionedQueryScenario(localNode,
+        allNodes, failingMembers, createFakeBucketMap(), new ProcessDataFaker() {
+          public void processData(PartitionedRegionQueryEvaluator prqe) {
+            prqe.processData(resultsForMember2, remoteNodeA, 0, true);
+            prqe.streamMemberResults(remoteNodeA);
+            // the failed member never sends its last chunk
+            prqe.processData(partialResultsForFailedMember, remoteNodeB, 0, false);
+            prqe.streamMemberResults(remoteNodeB);
+          }
+
+          public void executeQueryLocally(Collection resultsCollector) {
+            resultsCollector.add(resultsForMember1);
+          }
+        });
+
+    PartitionedQueryScenario afterFailureScenario =
+        new PartitionedQueryScenario(localNode, allNodes, noFailingMembers,
+            createFakeBucketMapFailedNodesToLocalMember(), new ProcessDataFaker() {
+              public void processData(PartitionedRegionQueryEvaluator prqe) {}
+
+              public void executeQueryLocally(Collection resultsCollector) {
+                resultsCollector.add(resultsForMember1ForRetry);
+              }
+            });
+    Set allBucketsToQuery = allNodesUpAtBeginning.getAllBucketsToQuery();
+    Queue<PartitionedQueryScenario> scenarios =
+        createScenariosQueue(allNodesUpAtBeginning, afterFailureScenario);
+    dataStore.setScenarios(scenarios);
+
+    QueryResultStream stream = new QueryResultStream();
+    queryBucketsWithStream(stream, allBucketsToQuery, scenarios);
+
+    List streamed = flatten(takeAll(stream));
+    assertTrue(streamed.containsAll(resultsForMember1));
+    assertTrue(streamed.containsAll(resultsForMember2));
+    assertTrue(streamed.containsAll(resultsForMember1ForRetry));
+    assertFalse(streamed.contains("X"));
+    assertFalse(streamed.contains("Y"));
+  }
+
+  @Test
+  public void testDiscardedStreamReceivesNoResults() throws Exception {
+    List resultsForMember1 = createResultObjects("1", "2", "3");
+    List resultsForMember2 = createResultObjects("4", "5", "6");
+
+    PartitionedQueryScenario scenario = new PartitionedQueryScenario(localNode, allNodes,
+        noFailingMembers, createFakeBucketMap(), new ProcessDataFaker() {
+          public void processData(PartitionedRegionQueryEvaluator prqe) {
+            prqe.processData(resultsForMember2, remoteNodeA, 0, true);
+            prqe.streamMemberResults(remoteNodeA);
+          }
+
+          public void executeQueryLocally(Collection resultsCollector) {
+            resultsCollector.add(resultsForMember1);
+          }
+        });
+
+    Set allBucketsToQuery = scenario.getAllBucketsToQuery();
+    Queue<PartitionedQueryScenario> scenarios = createScenariosQueue(scenario);
+    dataStore.setScenarios(scenarios);
+
+    // the client closed its cursor before the members finished
+    QueryResultStream stream = new QueryResultStream();
+    stream.discard();
+    queryBucketsWithStream(stream, allBucketsToQuery, scenarios);
+
+    assertTrue(takeAll(stream).isEmpty());
+  }
+
+  @Test
+  public void testResultsAreNotStreamedWhenQueryHasLimit() throws Exception {
+    when(query.getLimit(any())).thenReturn(10);
+    List resultsForMember1 = createResultObjects("1", "2", "3");
+
+    PartitionedQueryScenario scenario = new PartitionedQueryScenario(localNode, allNodes,
+        noFailingMembers, createFakeBucketMap(), new ProcessDataFaker() {
+          public void processData(PartitionedRegionQueryEvaluator prqe) {}
+
+          public void executeQueryLocally(Collection resultsCollector) {
+            resultsCollector.add(resultsForMember1);
+          }
+        });
+
+    Set allBucketsToQuery = scenario.getAllBucketsToQuery();
+    Queue<PartitionedQueryScenario> scenarios = createScenariosQueue(scenario);
+    dataStore.setScenarios(scenarios);
+
+    QueryResultStream stream = new QueryResultStream();
+    Collection results = queryBucketsWithStream(stream, allBucketsToQuery, scenarios);
+
+    assertTrue(takeAll(stream).isEmpty());
+    assertEquals(resultsForMember1.size(), results.size());
+  }
+
+    @Test
   public void testGetAllNodesShouldBeRandomized() {
     List bucketList = createBucketList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
     Set bucketSet = new HashSet(bucketList);
@@ -216,6 +355,36 @@ public class PartitionedRegionQueryEvaluatorTest {
         .until(() -> !(bucketList.equals(prqe.getAllNodes(regionAdvisor))));
   }
 
+  private Collection queryBucketsWithStream(QueryResultStream stream, Set allBucketsToQuery,
+      Queue<PartitionedQueryScenario> scenarios) throws Exception {
+    QueryResultStream.setCurrent(stream);
+    try {
+      PartitionedRegionQueryEvaluator prqe = new ExtendedPartitionedRegionQueryEvaluator(system,
+          pr, query, null, new LinkedResultSet(), allBucketsToQuery, scenarios);
+      return prqe.queryBuckets(null).asList();
+    } finally {
+      QueryResultStream.setCurrent(null);
+      stream.finish();
+    }
+  }
+
+  private List<SelectResults> takeAll(QueryResultStream stream) throws InterruptedException {
+    List<SelectResults> results = new ArrayList<>();
+    SelectResults memberResults;
+    while ((memberResults = stream.take()) != null) {
+      results.add(memberResults);
+    }
+    return results;
+  }
+
+  private List flatten(List<SelectResults> results) {
+    List flattened = new ArrayList();
+    for (SelectResults memberResults : results) {
+      flattened.addAll(memberResults);
+    }
+    return flattened;
+  }
+
   private Map<InternalDistributedMember, List<Integer>> createFakeBucketMap() {
     Map<InternalDistributedMember, List<Integer>> bucketToNodeMap = new HashMap<>();
     bucketToNodeMap.put(localNode, createBucketList(1, 2, 3));
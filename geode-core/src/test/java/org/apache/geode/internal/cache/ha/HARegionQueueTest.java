@@ -16,10 +16,16 @@ package org.apache.geode.internal.cache.ha;
 
 import static junit.framework.TestCase.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -28,9 +34,14 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
 import org.apache.geode.CancelCriterion;
+import org.apache.geode.cache.RegionAttributes;
+import org.apache.geode.internal.cache.EnumListenerEvent;
 import org.apache.geode.internal.cache.EventID;
 import org.apache.geode.internal.cache.HARegion;
 import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.cache.tier.sockets.ClientUpdateMessageImpl;
+import org.apache.geode.internal.cache.tier.sockets.Handshake;
 import org.apache.geode.internal.util.concurrent.StoppableReentrantReadWriteLock;
 import org.apache.geode.test.junit.categories.ClientSubscriptionTest;
 
@@ -39,21 +50,27 @@ public class HARegionQueueTest {
 
   private HARegionQueue haRegionQueue;
 
+  private InternalCache internalCache;
+  private HARegion haRegion;
+  private StoppableReentrantReadWriteLock giiLock;
+  private StoppableReentrantReadWriteLock rwLock;
+  private HARegionQueueStats stats;
+
   @Before
   public void setup() throws IOException, ClassNotFoundException, InterruptedException {
-    InternalCache internalCache = mock(InternalCache.class);
+    internalCache = mock(InternalCache.class);
 
-    StoppableReentrantReadWriteLock giiLock = mock(StoppableReentrantReadWriteLock.class);
+    giiLock = mock(StoppableReentrantReadWriteLock.class);
     when(giiLock.readLock())
         .thenReturn(mock(StoppableReentrantReadWriteLock.StoppableReadLock.class));
 
-    StoppableReentrantReadWriteLock rwLock = mock(StoppableReentrantReadWriteLock.class);
+    rwLock = mock(StoppableReentrantReadWriteLock.class);
     when(rwLock.writeLock())
         .thenReturn(mock(StoppableReentrantReadWriteLock.StoppableWriteLock.class));
     when(rwLock.readLock())
         .thenReturn(mock(StoppableReentrantReadWriteLock.StoppableReadLock.class));
 
-    HARegion haRegion = mock(HARegion.class);
+    haRegion = mock(HARegion.class);
     HashMap map = new HashMap();
     when(haRegion.put(any(), any())).then((invocationOnMock) -> {
       return map.put(invocationOnMock.getArgument(0), invocationOnMock.getArgument(1));
@@ -62,9 +79,41 @@ public class HARegionQueueTest {
       return map.get(invocationOnMock.getArgument(0));
     });
     when(haRegion.getGemFireCache()).thenReturn(internalCache);
-    haRegionQueue = new HARegionQueue("haRegion", haRegion, internalCache,
-        new HAContainerMap(new ConcurrentHashMap()), null, (byte) 1, true,
-        mock(HARegionQueueStats.class), giiLock, rwLock, mock(CancelCriterion.class), false);
+    stats = mock(HARegionQueueStats.class);
+    haRegionQueue = createQueue((byte) 1);
+  }
+
+  private HARegionQueue createQueue(byte clientConflation)
+      throws IOException, ClassNotFoundException, InterruptedException {
+    return new HARegionQueue("haRegion", haRegion, internalCache,
+        new HAContainerMap(new ConcurrentHashMap()), null, clientConflation, true, stats, giiLock,
+        rwLock, mock(CancelCriterion.class), false);
+  }
+
+  private ClientUpdateMessageImpl newUpdate(String value, byte[] delta, long sequenceId) {
+    LocalRegion region = mock(LocalRegion.class);
+    when(region.getFullPath()).thenReturn("/someRegion");
+    return new ClientUpdateMessageImpl(EnumListenerEvent.AFTER_UPDATE, region, "key",
+        value.getBytes(), delta, (byte) 0x01, null, null,
+        new EventID(new byte[] {1}, 1, sequenceId), null);
+  }
+
+  private ClientUpdateMessageImpl newEntryEvent(EnumListenerEvent operation, String value,
+      long sequenceId) {
+    LocalRegion region = mock(LocalRegion.class);
+    when(region.getFullPath()).thenReturn("/someRegion");
+    when(region.getEnableConflation()).thenReturn(true);
+    return new ClientUpdateMessageImpl(operation, region, "key",
+        value == null ? null : value.getBytes(), null, (byte) 0x01, null, null,
+        new EventID(new byte[] {1}, 1, sequenceId), null);
+  }
+
+  private void enableSubscriptionConflation() {
+    RegionAttributes attributes = mock(RegionAttributes.class);
+    when(attributes.getEnableSubscriptionConflation()).thenReturn(true);
+    LocalRegion region = mock(LocalRegion.class);
+    when(region.getAttributes()).thenReturn(attributes);
+    doReturn(region).when(internalCache).getRegion("/someRegion");
   }
 
   @Test
@@ -121,4 +170,94 @@ public class HARegionQueueTest {
     assertEquals(3, haRegionQueue.size());
   }
 
+  @Test
+  public void updatesAreConflatedWhenQueueIsOverConflationThreshold() throws Exception {
+    haRegionQueue = createQueue(Handshake.CONFLATION_DEFAULT);
+    haRegionQueue.conflationThreshold = 1;
+
+    for (long sequenceId = 1; sequenceId <= 5; sequenceId++) {
+      haRegionQueue.put(newUpdate("value" + sequenceId, null, sequenceId));
+    }
+
+    // the first two updates were queued while the queue was not over the threshold
+    assertEquals(3, haRegionQueue.size());
+    verify(stats, times(2)).incEventsConflated();
+    verify(stats, times(2)).incBytesConflated(anyLong());
+  }
+
+  @Test
+  public void updateIsNotConflatedAcrossDeltaWhenQueueIsOverConflationThreshold()
+      throws Exception {
+    haRegionQueue = createQueue(Handshake.CONFLATION_DEFAULT);
+    haRegionQueue.conflationThreshold = 1;
+
+    haRegionQueue.put(newUpdate("value1", null, 1));
+    haRegionQueue.put(newUpdate("value2", null, 2));
+    haRegionQueue.put(newUpdate("value3", null, 3));
+    haRegionQueue.put(newUpdate("value4", new byte[] {4}, 4));
+    haRegionQueue.put(newUpdate("value5", null, 5));
+
+    assertEquals(5, haRegionQueue.size());
+    verify(stats, never()).incEventsConflated();
+  }
+
+  @Test
+  public void conflationThresholdDoesNotApplyWhenClientDisablesConflation() throws Exception {
+    haRegionQueue = createQueue(Handshake.CONFLATION_OFF);
+    haRegionQueue.conflationThreshold = 1;
+
+    for (long sequenceId = 1; sequenceId <= 5; sequenceId++) {
+      haRegionQueue.put(newUpdate("value" + sequenceId, null, sequenceId));
+    }
+
+    assertEquals(5, haRegionQueue.size());
+  }
+
+  @Test
+  public void destroyReplacesQueuedUpdateWhenCoalescingByKey() throws Exception {
+    enableSubscriptionConflation();
+    haRegionQueue = createQueue(Handshake.CONFLATION_DEFAULT);
+    haRegionQueue.coalesceByKey = true;
+    ClientUpdateMessageImpl update = newEntryEvent(EnumListenerEvent.AFTER_UPDATE, "value1", 1);
+    ClientUpdateMessageImpl destroy = newEntryEvent(EnumListenerEvent.AFTER_DESTROY, null, 2);
+
+    haRegionQueue.put(update);
+    haRegionQueue.put(destroy);
+
+    assertEquals(Arrays.asList(destroy), haRegionQueue.peek(haRegionQueue.size()));
+  }
+
+  @Test
+  public void destroyFollowsQueuedUpdateWhenNotCoalescingByKey() throws Exception {
+    enableSubscriptionConflation();
+    haRegionQueue = createQueue(Handshake.CONFLATION_DEFAULT);
+    ClientUpdateMessageImpl update = newEntryEvent(EnumListenerEvent.AFTER_UPDATE, "value1", 1);
+    ClientUpdateMessageImpl destroy = newEntryEvent(EnumListenerEvent.AFTER_DESTROY, null, 2);
+
+    haRegionQueue.put(update);
+    haRegionQueue.put(destroy);
+
+    assertEquals(Arrays.asList(update, destroy), haRegionQueue.peek(haRegionQueue.size()));
+  }
+
+  @Test
+  public void updateIsQueuedAfterCreateFollowingConflatedDestroyWhenCoalescingByKey()
+      throws Exception {
+    enableSubscriptionConflation();
+    haRegionQueue = createQueue(Handshake.CONFLATION_DEFAULT);
+    haRegionQueue.coalesceByKey = true;
+    ClientUpdateMessageImpl update1 = newEntryEvent(EnumListenerEvent.AFTER_UPDATE, "value1", 1);
+    ClientUpdateMessageImpl destroy = newEntryEvent(EnumListenerEvent.AFTER_DESTROY, null, 2);
+    ClientUpdateMessageImpl create = newEntryEvent(EnumListenerEvent.AFTER_CREATE, "value3", 3);
+    ClientUpdateMessageImpl update2 = newEntryEvent(EnumListenerEvent.AFTER_UPDATE, "value4", 4);
+
+    haRegionQueue.put(update1);
+    haRegionQueue.put(destroy);
+    haRegionQueue.put(create);
+    haRegionQueue.put(update2);
+
+    // the update replaces the destroy, which it follows, and stays behind the create
+    assertEquals(Arrays.asList(create, update2), haRegionQueue.peek(haRegionQueue.size()));
+  }
+
 }
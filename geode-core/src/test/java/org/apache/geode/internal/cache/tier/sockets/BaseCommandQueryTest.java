@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.tier.sockets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.query.QueryException;
+import org.apache.geode.cache.query.QueryInvocationTargetException;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.internal.DefaultQuery;
+import org.apache.geode.cache.query.internal.QueryResultStream;
+import org.apache.geode.cache.query.internal.ResultsSet;
+import org.apache.geode.cache.query.internal.types.ObjectTypeImpl;
+import org.apache.geode.internal.security.SecurityService;
+import org.apache.geode.test.junit.categories.ClientServerTest;
+
+@Category({ClientServerTest.class})
+public class BaseCommandQueryTest {
+
+  private final BaseCommandQuery command = new BaseCommandQuery() {
+    @Override
+    public void cmdExecute(Message clientMessage, ServerConnection serverConnection,
+        SecurityService securityService, long start) {}
+  };
+
+  private ExecutorService queryCursorPool;
+  private ServerConnection serverConnection;
+  private ChunkedMessage queryResponseMessage;
+  private DefaultQuery query;
+  private List<Object> sentResults;
+
+  @Before
+  public void setUp() throws Exception {
+    queryCursorPool = Executors.newCachedThreadPool();
+    AcceptorImpl acceptor = mock(AcceptorImpl.class);
+    when(acceptor.getQueryCursorPool()).thenReturn(queryCursorPool);
+    queryResponseMessage = mock(ChunkedMessage.class);
+    serverConnection = mock(ServerConnection.class);
+    when(serverConnection.getAcceptor()).thenReturn(acceptor);
+    when(serverConnection.getQueryResponseMessage()).thenReturn(queryResponseMessage);
+    query = mock(DefaultQuery.class);
+
+    sentResults = Collections.synchronizedList(new ArrayList<>());
+    doAnswer(invocation -> {
+      Object part = invocation.getArgument(0);
+      if (part instanceof Object[]) {
+        sentResults.addAll(Arrays.asList((Object[]) part));
+      }
+      return null;
+    }).when(queryResponseMessage).addObjPart(any(), anyBoolean());
+  }
+
+  @After
+  public void tearDown() {
+    queryCursorPool.shutdownNow();
+  }
+
+  @Test
+  public void sendsStreamedResultsBeforeQueryCompletes() throws Exception {
+    CountDownLatch chunkSent = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      chunkSent.countDown();
+      return null;
+    }).when(queryResponseMessage).sendChunk(serverConnection);
+    SelectResults queryResults = createResults();
+    when(query.execute()).thenAnswer(invocation -> {
+      QueryResultStream.getCurrent().add(createResults("a", "b"));
+      assertThat(chunkSent.await(10, TimeUnit.SECONDS)).isTrue();
+      QueryResultStream.getCurrent().add(createResults("c"));
+      return queryResults;
+    });
+
+    Object result = executeWithCursor();
+
+    assertThat(result).isSameAs(queryResults);
+    assertThat(sentResults).containsExactly("a", "b", "c");
+    verify(queryResponseMessage).sendHeader();
+    verify(queryResponseMessage, times(2)).sendChunk(serverConnection);
+    verify(queryResponseMessage, never()).setLastChunk(true);
+    assertThat(QueryResultStream.getCurrent()).isNull();
+  }
+
+  @Test
+  public void stopsSendingWhenClientHasGoneAway() throws Exception {
+    IOException failure = new IOException("Connection reset");
+    CountDownLatch chunkFailed = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      chunkFailed.countDown();
+      throw failure;
+    }).when(queryResponseMessage).sendChunk(serverConnection);
+    when(query.execute()).thenAnswer(invocation -> {
+      QueryResultStream.getCurrent().add(createResults("a"));
+      assertThat(chunkFailed.await(10, TimeUnit.SECONDS)).isTrue();
+      // the members that finish after the client has gone away are not sent
+      QueryResultStream.getCurrent().add(createResults("b"));
+      return createResults();
+    });
+
+    assertThatThrownBy(this::executeWithCursor).isSameAs(failure);
+    verify(queryResponseMessage, times(1)).sendChunk(serverConnection);
+    assertThat(QueryResultStream.getCurrent()).isNull();
+  }
+
+  @Test
+  public void endsSenderWhenMemberFails() throws Exception {
+    QueryInvocationTargetException failure =
+        new QueryInvocationTargetException("member departed");
+    when(query.execute()).thenAnswer(invocation -> {
+      QueryResultStream.getCurrent().add(createResults("a"));
+      throw failure;
+    });
+
+    assertThatThrownBy(this::executeWithCursor).isSameAs(failure);
+    assertThat(sentResults).containsExactly("a");
+    assertThat(QueryResultStream.getCurrent()).isNull();
+    queryCursorPool.shutdown();
+    assertThat(queryCursorPool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  public void failsWhenAllQueryCursorThreadsAreBusy() throws Exception {
+    queryCursorPool.shutdown();
+
+    assertThatThrownBy(this::executeWithCursor).isInstanceOf(QueryException.class)
+        .hasCauseInstanceOf(RejectedExecutionException.class);
+    verify(query, never()).execute();
+  }
+
+  @Test
+  public void sendStreamedResultsSkipsEmptyResults() throws Exception {
+    QueryResultStream stream = new QueryResultStream();
+    stream.add(createResults());
+    stream.add(createResults("a"));
+    stream.finish();
+
+    command.sendStreamedResults(stream, query, "query", serverConnection, null);
+
+    assertThat(sentResults).containsExactly("a");
+    verify(queryResponseMessage, times(1)).sendChunk(serverConnection);
+  }
+
+  private Object executeWithCursor() throws Exception {
+    return command.executeWithCursor(mock(Message.class), query, null, "query", serverConnection,
+        null);
+  }
+
+  private static SelectResults createResults(Object... values) {
+    ResultsSet results = new ResultsSet(new ObjectTypeImpl(Object.class));
+    results.addAll(Arrays.asList(values));
+    return results;
+  }
+}
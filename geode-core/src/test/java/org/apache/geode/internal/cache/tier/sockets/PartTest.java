@@ -14,9 +14,11 @@
  */
 package org.apache.geode.internal.cache.tier.sockets;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
@@ -24,6 +26,7 @@ import java.nio.ByteBuffer;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import org.apache.geode.internal.offheap.StoredObject;
 import org.apache.geode.test.junit.categories.ClientServerTest;
 
 @Category({ClientServerTest.class})
@@ -39,4 +42,25 @@ public class PartTest {
 
     verify(mockPart, times(1)).writeTo(mockOutputStream, mockByteBuffer);
   }
+
+  @Test
+  public void offHeapByteBufferViewsStoredObject() {
+    StoredObject storedObject = mock(StoredObject.class);
+    ByteBuffer directBuffer = ByteBuffer.allocateDirect(100);
+    when(storedObject.hasRefCount()).thenReturn(true);
+    when(storedObject.getDataSize()).thenReturn(100);
+    when(storedObject.createDirectByteBuffer()).thenReturn(directBuffer);
+    Part part = new Part();
+    part.setPartState(storedObject, true);
+
+    assertThat(part.getOffHeapByteBuffer()).isSameAs(directBuffer);
+  }
+
+  @Test
+  public void offHeapByteBufferIsNullForHeapBytes() {
+    Part part = new Part();
+    part.setPartState(new byte[100], false);
+
+    assertThat(part.getOffHeapByteBuffer()).isNull();
+  }
 }
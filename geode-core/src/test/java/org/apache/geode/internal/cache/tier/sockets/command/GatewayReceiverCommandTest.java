@@ -0,0 +1,308 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.tier.sockets.command;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+
+import org.apache.geode.distributed.DistributedMember;
+import org.apache.geode.distributed.internal.DistributionManager;
+import org.apache.geode.distributed.internal.InternalDistributedSystem;
+import org.apache.geode.internal.Version;
+import org.apache.geode.internal.cache.EntryEventImpl;
+import org.apache.geode.internal.cache.EventID;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.cache.tier.CachedRegionHelper;
+import org.apache.geode.internal.cache.tier.sockets.AcceptorImpl;
+import org.apache.geode.internal.cache.tier.sockets.Message;
+import org.apache.geode.internal.cache.tier.sockets.Part;
+import org.apache.geode.internal.cache.tier.sockets.ServerConnection;
+import org.apache.geode.internal.cache.wan.BatchException70;
+import org.apache.geode.internal.cache.wan.GatewayReceiverStats;
+import org.apache.geode.internal.security.SecurityService;
+import org.apache.geode.internal.util.BlobHelper;
+import org.apache.geode.pdx.internal.PdxType;
+import org.apache.geode.pdx.internal.PeerTypeRegistration;
+import org.apache.geode.pdx.internal.TypeRegistry;
+import org.apache.geode.test.junit.categories.ClientServerTest;
+
+@Category({ClientServerTest.class})
+public class GatewayReceiverCommandTest {
+
+  private static final String REGION_NAME = "region1";
+  private static final int CREATE = 0;
+  private static final int UPDATE = 1;
+  private static final int APPLY_THREADS = 4;
+
+  @Mock
+  private SecurityService securityService;
+  @Mock
+  private ServerConnection serverConnection;
+  @Mock
+  private AcceptorImpl acceptor;
+  @Mock
+  private CachedRegionHelper crHelper;
+  @Mock
+  private InternalCache cache;
+  @Mock
+  private InternalDistributedSystem system;
+  @Mock
+  private DistributionManager distributionManager;
+  @Mock
+  private TypeRegistry typeRegistry;
+  @Mock
+  private LocalRegion region;
+  @Mock
+  private LocalRegion pdxRegion;
+  @Mock
+  private GatewayReceiverStats stats;
+  @Mock
+  private Message replyMessage;
+  @Mock
+  private Message errorResponseMessage;
+
+  private ThreadPoolExecutor gatewayApplyPool;
+
+  private final List<Part> parts = new ArrayList<>();
+
+  private int sequenceId;
+
+  @Before
+  public void setUp() throws Exception {
+    MockitoAnnotations.initMocks(this);
+
+    gatewayApplyPool = new ThreadPoolExecutor(APPLY_THREADS, APPLY_THREADS, 60, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>());
+
+    when(crHelper.getRegion(REGION_NAME)).thenReturn(region);
+    when(crHelper.getRegion(PeerTypeRegistration.REGION_FULL_PATH)).thenReturn(pdxRegion);
+    when(crHelper.getCache()).thenReturn(cache);
+    when(cache.getDistributedSystem()).thenReturn(system);
+    when(cache.getPdxRegistry()).thenReturn(typeRegistry);
+    when(system.getDistributionManager()).thenReturn(distributionManager);
+    when(system.getDistributedMember()).thenReturn(mock(DistributedMember.class));
+
+    when(serverConnection.getCachedRegionHelper()).thenReturn(crHelper);
+    when(serverConnection.getCacheServerStats()).thenReturn(stats);
+    when(serverConnection.getAcceptor()).thenReturn(acceptor);
+    when(serverConnection.getGatewayApplyPool()).thenReturn(gatewayApplyPool);
+    when(serverConnection.getClientVersion()).thenReturn(Version.CURRENT);
+    when(serverConnection.getName()).thenReturn("serverConnection");
+    when(serverConnection.getResponseMessage()).thenReturn(replyMessage);
+    when(serverConnection.getErrorResponseMessage()).thenReturn(errorResponseMessage);
+  }
+
+  @After
+  public void tearDown() {
+    gatewayApplyPool.shutdownNow();
+  }
+
+  @Test
+  public void eventsOfAKeyAreAppliedInBatchOrderWhenAppliedInParallel() throws Exception {
+    when(acceptor.isGatewayApplyInParallel()).thenReturn(true);
+    Map<Object, List<Object>> appliedValues = new ConcurrentHashMap<>();
+    when(region.basicBridgePut(any(), any(), isNull(), anyBoolean(), any(), any(), anyBoolean(),
+        any())).then(invocation -> {
+          appliedValues
+              .computeIfAbsent(invocation.getArgument(0), k -> new CopyOnWriteArrayList<>())
+              .add(invocation.getArgument(1));
+          return true;
+        });
+    List<String> keys = Arrays.asList("key1", "key2", "key3", "key4", "key5", "key6");
+    int updatesPerKey = 20;
+    for (int i = 0; i < updatesPerKey; i++) {
+      for (String key : keys) {
+        addEvent(UPDATE, REGION_NAME, key, value(i));
+      }
+    }
+
+    executeBatch(false);
+
+    assertThat(appliedValues).containsOnlyKeys(keys.toArray());
+    for (List<Object> values : appliedValues.values()) {
+      assertThat(values).hasSize(updatesPerKey);
+      for (int i = 0; i < updatesPerKey; i++) {
+        assertThat((byte[]) values.get(i)).isEqualTo(value(i));
+      }
+    }
+    verify(replyMessage).send(serverConnection);
+  }
+
+  @Test
+  public void conflictingEventsOfAKeyAreNotAppliedConcurrently() throws Exception {
+    when(acceptor.isGatewayApplyInParallel()).thenReturn(true);
+    Map<Object, AtomicInteger> applying = new ConcurrentHashMap<>();
+    AtomicBoolean appliedConcurrently = new AtomicBoolean();
+    when(region.basicBridgePut(any(), any(), isNull(), anyBoolean(), any(), any(), anyBoolean(),
+        any())).then(invocation -> {
+          AtomicInteger count =
+              applying.computeIfAbsent(invocation.getArgument(0), k -> new AtomicInteger());
+          if (count.incrementAndGet() > 1) {
+            appliedConcurrently.set(true);
+          }
+          Thread.sleep(1);
+          count.decrementAndGet();
+          return true;
+        });
+    for (int i = 0; i < 50; i++) {
+      addEvent(UPDATE, REGION_NAME, "key1", value(i));
+      addEvent(UPDATE, REGION_NAME, "key2", value(i));
+    }
+
+    executeBatch(false);
+
+    assertThat(appliedConcurrently).isFalse();
+    verify(replyMessage).send(serverConnection);
+  }
+
+  @Test
+  public void eventLosingAConcurrencyConflictIsNotRetriedOrReported() throws Exception {
+    when(acceptor.isGatewayApplyInParallel()).thenReturn(true);
+    AtomicInteger puts = new AtomicInteger();
+    when(region.basicBridgePut(any(), any(), isNull(), anyBoolean(), any(), any(), anyBoolean(),
+        any())).then(invocation -> {
+          puts.incrementAndGet();
+          losesConcurrencyConflict(invocation);
+          return false;
+        });
+    addEvent(UPDATE, REGION_NAME, "key1", value(1));
+
+    executeBatch(false);
+
+    assertThat(puts).hasValue(1);
+    verify(stats, never()).incEventsRetried();
+    verify(replyMessage).send(serverConnection);
+  }
+
+  @Test
+  public void batchExceptionIndexExcludesPdxEventsWhenAppliedSerially() throws Exception {
+    assertBatchExceptionIndexExcludesPdxEvents();
+  }
+
+  @Test
+  public void batchExceptionIndexExcludesPdxEventsWhenAppliedInParallel() throws Exception {
+    when(acceptor.isGatewayApplyInParallel()).thenReturn(true);
+
+    assertBatchExceptionIndexExcludesPdxEvents();
+  }
+
+  private void assertBatchExceptionIndexExcludesPdxEvents() throws Exception {
+    when(region.basicBridgeCreate(eq("key1"), any(), anyBoolean(), any(), any(), anyBoolean(),
+        any(), anyBoolean())).thenReturn(true);
+    when(region.basicBridgeCreate(eq("key2"), any(), anyBoolean(), any(), any(), anyBoolean(),
+        any(), anyBoolean())).thenThrow(new IllegalStateException("failed"));
+    byte[] pdxType = BlobHelper.serializeToBlob(new PdxType("PdxClass", true));
+    addEvent(CREATE, PeerTypeRegistration.REGION_FULL_PATH, 1, pdxType);
+    addEvent(CREATE, PeerTypeRegistration.REGION_FULL_PATH, 2, pdxType);
+    addEvent(CREATE, REGION_NAME, "key1", value(1));
+    addEvent(CREATE, REGION_NAME, "key2", value(2));
+
+    executeBatch(true);
+
+    verify(typeRegistry).addRemoteType(eq(1), any());
+    verify(typeRegistry).addRemoteType(eq(2), any());
+    ArgumentCaptor<Object> exceptions = ArgumentCaptor.forClass(Object.class);
+    verify(errorResponseMessage).addObjPart(exceptions.capture());
+    List<BatchException70> batchExceptions = (List<BatchException70>) exceptions.getValue();
+    assertThat(batchExceptions).hasSize(1);
+    assertThat(batchExceptions.get(0).getIndex()).isEqualTo(1);
+    // neither the PDX types nor the failed event count as applied events
+    verify(stats, times(1)).incEventsApplied();
+    verify(replyMessage, never()).send(serverConnection);
+  }
+
+  private static void losesConcurrencyConflict(InvocationOnMock invocation) {
+    ((EntryEventImpl) invocation.getArgument(7)).isConcurrencyConflict(true);
+  }
+
+  private static byte[] value(int i) {
+    return new byte[] {(byte) i};
+  }
+
+  private void addEvent(int actionType, String regionName, Object key, byte[] value)
+      throws Exception {
+    Part actionTypePart = mock(Part.class);
+    when(actionTypePart.getInt()).thenReturn(actionType);
+    Part possibleDuplicatePart = mock(Part.class);
+    when(possibleDuplicatePart.getSerializedForm()).thenReturn(new byte[] {0});
+    Part regionNamePart = mock(Part.class);
+    when(regionNamePart.getString()).thenReturn(regionName);
+    Part eventIdPart = mock(Part.class);
+    when(eventIdPart.getObject()).thenReturn(new EventID(new byte[] {1}, 1, ++sequenceId));
+    Part keyPart = mock(Part.class);
+    when(keyPart.getStringOrObject()).thenReturn(key);
+    Part valuePart = mock(Part.class);
+    when(valuePart.getSerializedForm()).thenReturn(value);
+    when(valuePart.isObject()).thenReturn(true);
+    Part callbackArgExistsPart = mock(Part.class);
+    when(callbackArgExistsPart.getSerializedForm()).thenReturn(new byte[] {0});
+    Part versionTimeStampPart = mock(Part.class);
+    when(versionTimeStampPart.getLong()).thenReturn(0L);
+    parts.addAll(Arrays.asList(actionTypePart, possibleDuplicatePart, regionNamePart, eventIdPart,
+        keyPart, valuePart, callbackArgExistsPart, versionTimeStampPart));
+  }
+
+  private void executeBatch(boolean removeOnException) throws Exception {
+    int numberOfEvents = parts.size() / 8;
+    Message message = mock(Message.class);
+    Part numberOfEventsPart = mock(Part.class);
+    when(numberOfEventsPart.getInt()).thenReturn(numberOfEvents);
+    Part batchIdPart = mock(Part.class);
+    when(batchIdPart.getInt()).thenReturn(0);
+    Part dsidPart = mock(Part.class);
+    when(dsidPart.getInt()).thenReturn(1);
+    Part flagsPart = mock(Part.class);
+    when(flagsPart.getSerializedForm()).thenReturn(new byte[] {(byte) (removeOnException ? 1 : 0)});
+    List<Part> messageParts = new ArrayList<>();
+    messageParts.addAll(Arrays.asList(numberOfEventsPart, batchIdPart, dsidPart, flagsPart));
+    messageParts.addAll(parts);
+    when(message.getPart(anyInt())).then(invocation -> messageParts.get(invocation.getArgument(0)));
+    when(serverConnection.getLatestBatchIdReplied()).thenReturn(-1);
+
+    ((GatewayReceiverCommand) GatewayReceiverCommand.getCommand()).cmdExecute(message,
+        serverConnection, securityService, 0);
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.wan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.test.junit.categories.WanTest;
+
+@Category({WanTest.class})
+public class AdaptiveBatchSizerTest {
+
+  private final AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(100);
+
+  @Test
+  public void startsAtMaximumBatchSize() {
+    assertThat(sizer.getBatchSize(1000, 100)).isEqualTo(100);
+  }
+
+  @Test
+  public void shrinksWhenAcknowledgementsSlowDown() {
+    sizer.getBatchSize(1000, 100);
+    sizer.batchAcknowledged(1_000_000);
+
+    for (int i = 0; i < 10; i++) {
+      sizer.batchAcknowledged(10_000_000);
+    }
+
+    assertThat(sizer.getBatchSize()).isLessThan(100);
+  }
+
+  @Test
+  public void neverShrinksBelowAnEighthOfMaximum() {
+    sizer.getBatchSize(1000, 100);
+    sizer.batchAcknowledged(1_000_000);
+
+    for (int i = 0; i < 50; i++) {
+      sizer.batchAcknowledged(100_000_000);
+    }
+
+    assertThat(sizer.getBatchSize()).isEqualTo(12);
+  }
+
+  @Test
+  public void growsBackWhileQueueIsDeeperThanBatch() {
+    sizer.getBatchSize(1000, 100);
+    sizer.batchAcknowledged(1_000_000);
+    for (int i = 0; i < 50; i++) {
+      sizer.batchAcknowledged(100_000_000);
+    }
+
+    // the slow acknowledgements eventually become the baseline
+    for (int i = 0; i < 2 * AdaptiveBatchSizer.BASELINE_ACKS; i++) {
+      sizer.getBatchSize(1000, 100);
+      sizer.batchAcknowledged(100_000_000);
+    }
+
+    assertThat(sizer.getBatchSize()).isEqualTo(100);
+  }
+
+  @Test
+  public void doesNotGrowWhenQueueIsShallow() {
+    sizer.getBatchSize(1000, 100);
+    sizer.batchAcknowledged(1_000_000);
+    for (int i = 0; i < 50; i++) {
+      sizer.batchAcknowledged(100_000_000);
+    }
+    int shrunk = sizer.getBatchSize();
+
+    for (int i = 0; i < 2 * AdaptiveBatchSizer.BASELINE_ACKS; i++) {
+      sizer.getBatchSize(5, 100);
+      sizer.batchAcknowledged(100_000_000);
+    }
+
+    assertThat(sizer.getBatchSize()).isEqualTo(shrunk);
+  }
+
+  @Test
+  public void reducedMaximumCapsBatchSize() {
+    assertThat(sizer.getBatchSize(1000, 40)).isEqualTo(40);
+
+    sizer.batchAcknowledged(1_000_000);
+
+    assertThat(sizer.getBatchSize(1000, 40)).isEqualTo(40);
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.wan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.internal.Version;
+import org.apache.geode.internal.cache.EventID;
+import org.apache.geode.internal.cache.tier.sockets.Message;
+import org.apache.geode.internal.util.BlobHelper;
+import org.apache.geode.test.junit.categories.WanTest;
+
+@Category({WanTest.class})
+public class GatewaySenderBatchCodecTest {
+
+  private static final byte[] MEMBER = new byte[] {1, 2, 3, 4, 5, 6, 7, 8};
+
+  @Test
+  public void decodedCreateHasPartsOfUncompressedBatch() throws Exception {
+    byte[] value = BlobHelper.serializeToBlob("value");
+    GatewaySenderEventImpl event =
+        createEvent(0, "/region", new EventID(MEMBER, 1, 2, 3), "key", value, 1234L);
+
+    Message message = decode(event);
+
+    assertThat(message.getNumberOfParts()).isEqualTo(8);
+    assertThat(message.getPart(0).getInt()).isEqualTo(0);
+    assertThat(message.getPart(1).getSerializedForm()).containsExactly((byte) 0x00);
+    assertThat(message.getPart(2).getString()).isEqualTo("/region");
+    EventID eventId = (EventID) message.getPart(3).getObject();
+    assertThat(eventId.getMembershipID()).isEqualTo(MEMBER);
+    assertThat(eventId.getThreadID()).isEqualTo(1);
+    assertThat(eventId.getSequenceID()).isEqualTo(2);
+    assertThat(eventId.getBucketID()).isEqualTo(3);
+    assertThat(message.getPart(4).getStringOrObject()).isEqualTo("key");
+    assertThat(message.getPart(5).isObject()).isTrue();
+    assertThat(message.getPart(5).getSerializedForm()).isEqualTo(value);
+    assertThat(message.getPart(6).getSerializedForm()).containsExactly((byte) 0x00);
+    assertThat(message.getPart(7).getLong()).isEqualTo(1234L);
+  }
+
+  @Test
+  public void decodedDestroyHasObjectKeyAndNoValue() throws Exception {
+    GatewaySenderEventImpl event =
+        createEvent(2, "/region", new EventID(MEMBER, 1, 2, 3), 17, null, 0L);
+
+    Message message = decode(event);
+
+    assertThat(message.getNumberOfParts()).isEqualTo(7);
+    assertThat(message.getPart(4).isObject()).isTrue();
+    assertThat(message.getPart(4).getStringOrObject()).isEqualTo(17);
+    assertThat(message.getPart(5).getSerializedForm()).containsExactly((byte) 0x00);
+  }
+
+  @Test
+  public void repeatedRegionsAndMembersAreDecodedForEachEvent() throws Exception {
+    List<GatewaySenderEventImpl> events = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      events.add(createEvent(1, "/region" + (i % 2), new EventID(MEMBER, 1, i, -1), "key" + i,
+          BlobHelper.serializeToBlob(i), i));
+    }
+
+    byte[] encoded = GatewaySenderBatchCodec.encode(events);
+    Message message = GatewaySenderBatchCodec.decode(encoded, events.size(), Version.CURRENT);
+
+    for (int i = 0; i < 100; i++) {
+      int partNumber = i * 8;
+      assertThat(message.getPart(partNumber + 2).getString()).isEqualTo("/region" + (i % 2));
+      EventID eventId = (EventID) message.getPart(partNumber + 3).getObject();
+      assertThat(eventId.getMembershipID()).isEqualTo(MEMBER);
+      assertThat(eventId.getSequenceID()).isEqualTo(i);
+      assertThat(message.getPart(partNumber + 4).getString()).isEqualTo("key" + i);
+      assertThat(message.getPart(partNumber + 5).getObject()).isEqualTo(i);
+    }
+  }
+
+  @Test
+  public void encodedBatchIsSmallerThanItsValues() throws Exception {
+    byte[] value = new byte[1000];
+    Arrays.fill(value, (byte) 'a');
+    List<GatewaySenderEventImpl> events = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      events.add(
+          createEvent(0, "/region", new EventID(MEMBER, 1, i, -1), "key" + i, value, 0L));
+    }
+
+    assertThat(GatewaySenderBatchCodec.encode(events).length).isLessThan(value.length);
+  }
+
+  private static Message decode(GatewaySenderEventImpl event) throws Exception {
+    List<GatewaySenderEventImpl> events = Arrays.asList(event);
+    return GatewaySenderBatchCodec.decode(GatewaySenderBatchCodec.encode(events), 1,
+        Version.CURRENT);
+  }
+
+  private static GatewaySenderEventImpl createEvent(int action, String regionPath, EventID eventId,
+      Object key, byte[] value, long versionTimeStamp) {
+    GatewaySenderEventImpl event = mock(GatewaySenderEventImpl.class);
+    when(event.getAction()).thenReturn(action);
+    when(event.getRegionPath()).thenReturn(regionPath);
+    when(event.getEventId()).thenReturn(eventId);
+    when(event.getKey()).thenReturn(key);
+    when(event.getSerializedValue()).thenReturn(value);
+    when(event.getValueIsObject()).thenReturn((byte) 0x01);
+    when(event.getVersionTimeStamp()).thenReturn(versionTimeStamp);
+    return event;
+  }
+}
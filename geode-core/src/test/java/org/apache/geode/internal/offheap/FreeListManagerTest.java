@@ -18,6 +18,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -27,6 +28,7 @@ import java.util.List;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.apache.logging.log4j.Logger;
+import org.awaitility.Awaitility;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -892,6 +894,169 @@ public class FreeListManagerTest {
     assertThat(!this.freeListManager.isSmallEnough(Long.MAX_VALUE));
   }
 
+  @Test
+  public void backgroundDefragmentationRunsWhenFreeMemoryIsMostlyInFreeLists() {
+    Slab slab = new SlabImpl(DEFAULT_SLAB_SIZE);
+    SynchronousBackgroundDefragmentationFreeListManager manager =
+        new SynchronousBackgroundDefragmentationFreeListManager(ma, new Slab[] {slab}, 50);
+    try {
+      allocateAndFreeFromFragments(manager);
+
+      assertThat(manager.backgroundDefragmentations).isEqualTo(1);
+      assertThat(manager.defragmentationCount.get()).isEqualTo(1);
+      verify(this.stats).startDefragmentation();
+    } finally {
+      manager.freeSlabs();
+    }
+  }
+
+  @Test
+  public void backgroundDefragmentationDoesNotRunWhenDisabled() {
+    Slab slab = new SlabImpl(DEFAULT_SLAB_SIZE);
+    SynchronousBackgroundDefragmentationFreeListManager manager =
+        new SynchronousBackgroundDefragmentationFreeListManager(ma, new Slab[] {slab}, 0);
+    try {
+      allocateAndFreeFromFragments(manager);
+
+      assertThat(manager.backgroundDefragmentations).isZero();
+      assertThat(manager.defragmentationCount.get()).isZero();
+    } finally {
+      manager.freeSlabs();
+    }
+  }
+
+  @Test
+  public void pendingBackgroundDefragmentationDoesNotRunAfterSlabsAreFreed() {
+    Slab slab = new SlabImpl(DEFAULT_SLAB_SIZE);
+    DeferredBackgroundDefragmentationFreeListManager manager =
+        new DeferredBackgroundDefragmentationFreeListManager(ma, new Slab[] {slab});
+    allocateAndFreeFromFragments(manager);
+    assertThat(manager.requested).isTrue();
+
+    manager.freeSlabs();
+    manager.runBackgroundDefragmentation();
+
+    assertThat(manager.defragmentationCount.get()).isZero();
+    verify(this.stats, never()).startDefragmentation();
+  }
+
+  @Test
+  public void freeSlabsWaitsForRunningBackgroundDefragmentation() throws Exception {
+    Slab slab = new SlabImpl(DEFAULT_SLAB_SIZE);
+    DeferredBackgroundDefragmentationFreeListManager manager =
+        new DeferredBackgroundDefragmentationFreeListManager(ma, new Slab[] {slab});
+    allocateAndFreeFromFragments(manager);
+    assertThat(manager.requested).isTrue();
+
+    Thread freeSlabsThread = new Thread(manager::freeSlabs, "freeSlabs");
+    manager.duringDefragmentation = () -> {
+      freeSlabsThread.start();
+      // defragmentation holds the monitor so the shutdown has to block until it is done
+      Thread.State state;
+      while ((state = freeSlabsThread.getState()) != Thread.State.BLOCKED
+          && state != Thread.State.TERMINATED) {
+        Thread.yield();
+      }
+      assertThat(state).isEqualTo(Thread.State.BLOCKED);
+    };
+    manager.runBackgroundDefragmentation();
+    freeSlabsThread.join(30000);
+
+    assertThat(freeSlabsThread.isAlive()).isFalse();
+    assertThat(manager.defragmentationCount.get()).isEqualTo(1);
+    verify(this.stats).startDefragmentation();
+  }
+
+  @Test
+  public void backgroundDefragmenterIsReusedUntilSlabsAreFreed() throws Exception {
+    Slab slab = new SlabImpl(DEFAULT_SLAB_SIZE);
+    FreeListManager manager = new FreeListManager(ma, new Slab[] {slab}, 50);
+    allocateAndFreeFromFragments(manager);
+    Awaitility.await().until(() -> manager.defragmentationCount.get() == 1);
+    Thread defragmenter = manager.getBackgroundDefragmenter();
+
+    manager.requestBackgroundDefragmentation();
+
+    assertThat(manager.getBackgroundDefragmenter()).isSameAs(defragmenter);
+    assertThat(defragmenter.isAlive()).isTrue();
+    assertThat(defragmenter.isDaemon()).isTrue();
+
+    manager.freeSlabs();
+    defragmenter.join(30000);
+
+    assertThat(defragmenter.isAlive()).isFalse();
+  }
+
+  @Test
+  public void verifyBackgroundDefragmentationPercentRejectsValuesOutOfRange() {
+    FreeListManager.verifyBackgroundDefragmentationPercent(0);
+    FreeListManager.verifyBackgroundDefragmentationPercent(100);
+
+    assertThat(catchThrowable(() -> FreeListManager.verifyBackgroundDefragmentationPercent(-1)))
+        .isInstanceOf(IllegalStateException.class);
+    assertThat(catchThrowable(() -> FreeListManager.verifyBackgroundDefragmentationPercent(101)))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  /**
+   * Fills the tiny free lists with one size and then carves a different size out of the fragments
+   * so that the second round of allocations sees most of the free memory in the free lists.
+   */
+  private void allocateAndFreeFromFragments(FreeListManager manager) {
+    List<OffHeapStoredObject> chunks = new ArrayList<>();
+    for (int i = 0; i < FreeListManager.BACKGROUND_DEFRAGMENTATION_CHECK_INTERVAL; i++) {
+      chunks.add(manager.allocate(3000));
+    }
+    for (OffHeapStoredObject chunk : chunks) {
+      OffHeapStoredObject.release(chunk.getAddress(), manager);
+    }
+    for (int i = 0; i < FreeListManager.BACKGROUND_DEFRAGMENTATION_CHECK_INTERVAL; i++) {
+      manager.allocate(1000);
+    }
+  }
+
+  private static class SynchronousBackgroundDefragmentationFreeListManager
+      extends FreeListManager {
+    private int backgroundDefragmentations;
+
+    SynchronousBackgroundDefragmentationFreeListManager(MemoryAllocatorImpl ma, Slab[] slabs,
+        int backgroundDefragmentationPercent) {
+      super(ma, slabs, backgroundDefragmentationPercent);
+    }
+
+    @Override
+    protected void requestBackgroundDefragmentation() {
+      this.backgroundDefragmentations++;
+      runBackgroundDefragmentation();
+    }
+  }
+
+  /**
+   * Records the background defragmentation request instead of waking the defragmenter so that a
+   * test can decide when it runs relative to {@link FreeListManager#freeSlabs()}.
+   */
+  private static class DeferredBackgroundDefragmentationFreeListManager extends FreeListManager {
+    private boolean requested;
+    private volatile Runnable duringDefragmentation;
+
+    DeferredBackgroundDefragmentationFreeListManager(MemoryAllocatorImpl ma, Slab[] slabs) {
+      super(ma, slabs, 50);
+    }
+
+    @Override
+    protected void requestBackgroundDefragmentation() {
+      this.requested = true;
+    }
+
+    @Override
+    protected void afterDefragmentationCountFetched() {
+      Runnable hook = this.duringDefragmentation;
+      if (hook != null) {
+        hook.run();
+      }
+    }
+  }
+
   /**
    * Just like Fragment except that the first time allocate is called it returns false indicating
    * that the allocate failed. In a real system this would only happen if a concurrent allocate
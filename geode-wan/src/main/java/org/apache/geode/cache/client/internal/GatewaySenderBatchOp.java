@@ -14,6 +14,7 @@
  */
 package org.apache.geode.cache.client.internal;
 
+import java.io.IOException;
 import java.net.SocketTimeoutException;
 import java.util.Iterator;
 import java.util.List;
@@ -21,6 +22,7 @@ import java.util.List;
 import org.apache.logging.log4j.Logger;
 
 import org.apache.geode.InternalGemFireError;
+import org.apache.geode.SerializationException;
 import org.apache.geode.cache.client.ServerOperationException;
 import org.apache.geode.internal.Version;
 import org.apache.geode.internal.cache.EventID;
@@ -28,7 +30,10 @@ import org.apache.geode.internal.cache.tier.MessageType;
 import org.apache.geode.internal.cache.tier.sockets.ChunkedMessage;
 import org.apache.geode.internal.cache.tier.sockets.Message;
 import org.apache.geode.internal.cache.tier.sockets.Part;
+import org.apache.geode.internal.cache.tier.sockets.ServerQueueStatus;
+import org.apache.geode.internal.cache.wan.AbstractGatewaySender;
 import org.apache.geode.internal.cache.wan.BatchException70;
+import org.apache.geode.internal.cache.wan.GatewaySenderBatchCodec;
 import org.apache.geode.internal.cache.wan.GatewaySenderEventImpl;
 import org.apache.geode.internal.cache.wan.GatewaySenderEventRemoteDispatcher.GatewayAck;
 import org.apache.geode.internal.i18n.LocalizedStrings;
@@ -53,16 +58,19 @@ public class GatewaySenderBatchOp {
   public static void executeOn(Connection con, ExecutablePool pool, List events, int batchId,
       boolean removeFromQueueOnException, boolean isRetry) {
     AbstractOp op = null;
+    ServerQueueStatus status = con.getQueueStatus();
+    boolean compressed = AbstractGatewaySender.COMPRESS_BATCHES && status != null
+        && status.isCompressedBatchesAccepted();
     // System.out.println("Version: "+con.getWanSiteVersion());
     // Is this check even needed anymore? It looks like we just create the same exact op impl with
     // the same parameters...
     if (Version.GFE_651.compareTo(con.getWanSiteVersion()) >= 0) {
       op = new GatewaySenderGFEBatchOpImpl(events, batchId, removeFromQueueOnException,
-          con.getDistributedSystemId(), isRetry);
+          con.getDistributedSystemId(), isRetry, compressed);
     } else {
       // Default should create a batch of server version (ACCEPTOR.VERSION)
       op = new GatewaySenderGFEBatchOpImpl(events, batchId, removeFromQueueOnException,
-          con.getDistributedSystemId(), isRetry);
+          con.getDistributedSystemId(), isRetry, compressed);
     }
     pool.executeOn(con, op, true/* timeoutFatal */);
   }
@@ -84,14 +92,36 @@ public class GatewaySenderBatchOp {
      */
     public GatewaySenderGFEBatchOpImpl(List events, int batchId, boolean removeFromQueueOnException,
         int dsId, boolean isRetry) {
-      super(MessageType.GATEWAY_RECEIVER_COMMAND, calcPartCount(events));
+      this(events, batchId, removeFromQueueOnException, dsId, isRetry, false);
+    }
+
+    /**
+     * @param compressed whether the events are encoded by {@link GatewaySenderBatchCodec} in a
+     *        single part, for a receiver that accepts compressed batches
+     * @throws org.apache.geode.SerializationException if serialization fails
+     */
+    public GatewaySenderGFEBatchOpImpl(List events, int batchId, boolean removeFromQueueOnException,
+        int dsId, boolean isRetry, boolean compressed) {
+      super(MessageType.GATEWAY_RECEIVER_COMMAND, compressed ? 5 : calcPartCount(events));
       if (isRetry) {
         getMessage().setIsRetry();
       }
       getMessage().addIntPart(events.size());
       getMessage().addIntPart(batchId);
       getMessage().addIntPart(dsId);
-      getMessage().addBytesPart(new byte[] {removeFromQueueOnException ? (byte) 1 : (byte) 0});
+      byte flags = removeFromQueueOnException ? (byte) 1 : (byte) 0;
+      if (compressed) {
+        flags |= GatewaySenderBatchCodec.COMPRESSED;
+      }
+      getMessage().addBytesPart(new byte[] {flags});
+      if (compressed) {
+        try {
+          getMessage().addBytesPart(GatewaySenderBatchCodec.encode(events));
+        } catch (IOException e) {
+          throw new SerializationException("failed encoding gateway sender batch", e);
+        }
+        return;
+      }
       // Add each event
       for (Iterator i = events.iterator(); i.hasNext();) {
         GatewaySenderEventImpl event = (GatewaySenderEventImpl) i.next();